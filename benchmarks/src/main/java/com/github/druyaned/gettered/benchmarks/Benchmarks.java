@@ -0,0 +1,35 @@
+package com.github.druyaned.gettered.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the {@link GCProfiler GC profiler}, so both throughput
+ * and allocation rate are reported; JMH command-line options are accepted too.
+ * <p><i>USAGE</i>:
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar [regexp] [-p fileCount=1000] [jmh-options]
+ * </pre>
+ *
+ * @author druyaned
+ */
+public class Benchmarks {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .timeUnit(TimeUnit.SECONDS)
+                .resultFormat(ResultFormatType.JSON)
+                .build();
+        new Runner(options).run();
+    }
+
+}
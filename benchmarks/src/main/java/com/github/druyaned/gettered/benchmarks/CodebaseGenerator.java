@@ -0,0 +1,235 @@
+package com.github.druyaned.gettered.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Writes a synthetic but realistic source tree: packages of {@value #PACKAGE_SIZE}
+ * classes, {@code @Gettered} classes with varying field counts, some of the getters
+ * already written by hand, {@code extends}/{@code implements} clauses and
+ * cross-class references which call getters of other classes (generated ones too).
+ * <p>
+ * The tree compiles after the getters are added: a field name always has the same
+ * type, so a generated getter may only override a getter with the same return type,
+ * and a getter of another class is called only if it's written or will be generated.
+ * The same {@code seed} always produces the same tree.
+ * <p><i>USAGE</i>:
+ * <pre>
+ * List&lt;Path&gt; sources = CodebaseGenerator.instance(10_000, 42L)
+ *         .generate(projectDir.resolve("src/main/java"));
+ * </pre>
+ *
+ * @author druyaned
+ * @see ScalingHarness
+ */
+public class CodebaseGenerator {
+
+    public static final int PACKAGE_SIZE = 50;
+    public static final int MAX_FIELDS = 24;
+    public static final double GETTERED_SHARE = 0.5;
+    public static final double WRITTEN_GETTER_SHARE = 0.3;
+    public static final double EXTENDS_SHARE = 0.3;
+    public static final double IMPLEMENTS_SHARE = 0.3;
+    public static final int MAX_REFS = 3;
+
+    private static final String API_PACKAGE = "gen.api";
+    private static final String[][] NAMES_AND_TYPES = {
+        {"id", "long"}, {"name", "String"}, {"count", "int"}, {"price", "double"},
+        {"active", "boolean"}, {"createdAt", "Instant"}, {"tags", "List<String>"},
+        {"owner", "String"}, {"version", "int"}, {"ratio", "float"}
+    };
+
+    /**
+     * Constructs an instance of the CodebaseGenerator.
+     *
+     * @param fileCount number of classes to generate
+     * @param seed seed of the random choices
+     * @return an instance of the CodebaseGenerator.
+     */
+    public static CodebaseGenerator instance(int fileCount, long seed) {
+        if (fileCount <= 0) {
+            throw new IllegalArgumentException("fileCount=" + fileCount + " must be positive");
+        }
+        return new CodebaseGenerator(fileCount, seed);
+    }
+
+//-Fields-------------------------------------------------------------------------------------------
+
+    private final int fileCount;
+    private final long seed;
+
+//-Constructors-------------------------------------------------------------------------------------
+
+    private CodebaseGenerator(int fileCount, long seed) {
+        this.fileCount = fileCount;
+        this.seed = seed;
+    }
+
+//-Methods------------------------------------------------------------------------------------------
+
+    /**
+     * Writes the classes and two interfaces of the {@value #API_PACKAGE} package
+     * under the source root.
+     *
+     * @param root source root to write into
+     * @return written sources
+     * @throws IOException if an I/O error occurs
+     */
+    public List<Path> generate(Path root) throws IOException {
+        List<Path> sources = new ArrayList<>(fileCount + 2);
+        Path apiDir = Files.createDirectories(root.resolve(API_PACKAGE.replace('.', '/')));
+        sources.add(Files.writeString(apiDir.resolve("Identified.java"), "package " + API_PACKAGE
+                + ";\n\npublic interface Identified {\n\n    long getId();\n\n}\n"));
+        sources.add(Files.writeString(apiDir.resolve("Named.java"), "package " + API_PACKAGE
+                + ";\n\npublic interface Named {\n\n    String getName();\n\n}\n"));
+        Random random = new Random(seed);
+        int[] fieldCounts = new int[fileCount];
+        BitSet hasIdGetter = new BitSet(fileCount); // written or generated getId()
+        for (int i = 0; i < fileCount; ++i) {
+            sources.add(writeClass(root, i, random, fieldCounts, hasIdGetter));
+        }
+        return sources;
+    }
+
+    public int getFileCount() {
+        return fileCount;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+//-Private-methods----------------------------------------------------------------------------------
+
+    private Path writeClass(Path root, int index, Random random, int[] fieldCounts,
+            BitSet hasIdGetter) throws IOException {
+        String packageName = packageOf(index);
+        boolean gettered = random.nextDouble() < GETTERED_SHARE;
+        // skewed to small classes like in real code: 1..MAX_FIELDS
+        int fieldCount = 1 + (int)(MAX_FIELDS * Math.pow(random.nextDouble(), 2));
+        fieldCounts[index] = fieldCount;
+        BitSet written = new BitSet(fieldCount);
+        for (int i = 0; i < fieldCount; ++i) {
+            if (!gettered || random.nextDouble() < WRITTEN_GETTER_SHARE) {
+                // not gettered classes have the getters of only a half of their fields
+                if (gettered || random.nextBoolean()) {
+                    written.set(i);
+                }
+            }
+        }
+        if (gettered || written.get(0)) {
+            hasIdGetter.set(index);
+        }
+        int superIndex = index > 0 && random.nextDouble() < EXTENDS_SHARE
+                ? random.nextInt(index)
+                : -1;
+        List<String> interfaces = new ArrayList<>(2);
+        if (hasIdGetter.get(index) && random.nextDouble() < IMPLEMENTS_SHARE) {
+            interfaces.add("Identified");
+        }
+        if (fieldCount > 1 && (gettered || written.get(1))
+                && random.nextDouble() < IMPLEMENTS_SHARE) {
+            interfaces.add("Named");
+        }
+        List<Integer> refs = new ArrayList<>(MAX_REFS);
+        for (int i = index > 0 ? random.nextInt(MAX_REFS + 1) : 0; i > 0; --i) {
+            int ref = random.nextInt(index);
+            if (!refs.contains(ref) && ref != superIndex) {
+                refs.add(ref);
+            }
+        }
+        // imports
+        Set<String> imports = new TreeSet<>();
+        if (gettered) {
+            imports.add("com.github.druyaned.gettered.Gettered");
+        }
+        if (fieldCount > 5) {
+            imports.add("java.time.Instant");
+        }
+        if (fieldCount > 6) {
+            imports.add("java.util.List");
+        }
+        interfaces.forEach(i -> imports.add(API_PACKAGE + "." + i));
+        if (superIndex >= 0 && !packageOf(superIndex).equals(packageName)) {
+            imports.add(packageOf(superIndex) + ".C" + superIndex);
+        }
+        for (int ref : refs) {
+            if (!packageOf(ref).equals(packageName)) {
+                imports.add(packageOf(ref) + ".C" + ref);
+            }
+        }
+        StringBuilder builder = new StringBuilder(256 + 160 * fieldCount);
+        builder.append("package ").append(packageName).append(";\n\n");
+        for (String imported : imports) {
+            builder.append("import ").append(imported).append(";\n");
+        }
+        builder.append(imports.isEmpty() ? "" : "\n");
+        // declaration
+        builder.append("/**\n * Generated class #").append(index).append(".\n */\n");
+        if (gettered) {
+            builder.append("@Gettered\n");
+        }
+        builder.append("public class C").append(index);
+        if (superIndex >= 0) {
+            builder.append(" extends C").append(superIndex);
+        }
+        if (!interfaces.isEmpty()) {
+            builder.append(" implements ").append(String.join(", ", interfaces));
+        }
+        builder.append(" {\n\n");
+        // fields
+        for (int i = 0; i < fieldCount; ++i) {
+            builder.append("    private ").append(i == 8 ? "final " : "")
+                    .append(typeOf(i)).append(' ').append(nameOf(i))
+                    .append(i == 8 ? " = 1" : "").append(";\n");
+        }
+        for (int ref : refs) {
+            builder.append("    private C").append(ref).append(" c").append(ref).append(";\n");
+        }
+        // written getters
+        for (int i = written.nextSetBit(0); i >= 0; i = written.nextSetBit(i + 1)) {
+            builder.append("\n    public ").append(typeOf(i)).append(' ').append(getterOf(i))
+                    .append("() {\n        return ").append(nameOf(i)).append(";\n    }\n");
+        }
+        // methods which use the other classes
+        builder.append("\n    public String describe() {\n        return \"C").append(index)
+                .append(":\" + ").append(nameOf(0)).append(";\n    }\n");
+        builder.append("\n    public long weight() {\n        long weight = ")
+                .append(nameOf(0)).append(";\n");
+        for (int ref : refs) {
+            builder.append("        if (c").append(ref).append(" != null) {\n")
+                    .append("            weight += c").append(ref)
+                    .append(hasIdGetter.get(ref) ? ".getId()" : ".weight()").append(";\n")
+                    .append("        }\n");
+        }
+        builder.append("        return weight;\n    }\n");
+        builder.append("\n}\n");
+        Path dir = Files.createDirectories(root.resolve(packageName.replace('.', '/')));
+        return Files.writeString(dir.resolve("C" + index + ".java"), builder);
+    }
+
+    private static String packageOf(int index) {
+        return "gen.p" + index / PACKAGE_SIZE;
+    }
+
+    private static String nameOf(int field) {
+        return field < NAMES_AND_TYPES.length ? NAMES_AND_TYPES[field][0] : "f" + field;
+    }
+
+    private static String typeOf(int field) {
+        return field < NAMES_AND_TYPES.length ? NAMES_AND_TYPES[field][1] : "int";
+    }
+
+    private static String getterOf(int field) {
+        String name = nameOf(field);
+        return "get" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+}
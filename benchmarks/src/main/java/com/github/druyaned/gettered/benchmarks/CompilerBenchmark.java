@@ -0,0 +1,24 @@
+package com.github.druyaned.gettered.benchmarks;
+
+import com.github.druyaned.gettered.Compiler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the whole flow of the {@link Compiler}.
+ *
+ * @author druyaned
+ */
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+public class CompilerBenchmark {
+
+    @Benchmark
+    public void main(Workload workload) {
+        Compiler.main(new String[] {"--project-dir", workload.projectDir.toString()});
+    }
+
+}
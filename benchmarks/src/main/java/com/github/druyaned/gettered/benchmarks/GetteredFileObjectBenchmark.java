@@ -0,0 +1,23 @@
+package com.github.druyaned.gettered.benchmarks;
+
+import com.github.druyaned.gettered.sources.GetteredFileObject;
+import com.github.druyaned.gettered.sources.UnitToRewrite;
+import java.io.IOException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of the content of the gettered file objects as javac reads it.
+ *
+ * @author druyaned
+ */
+public class GetteredFileObjectBenchmark {
+
+    @Benchmark
+    public void getCharContent(Parsed parsed, Blackhole blackhole) throws IOException {
+        for (UnitToRewrite unitToRewrite : parsed.unitsToRewrite) {
+            blackhole.consume(new GetteredFileObject(unitToRewrite).getCharContent(true));
+        }
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.github.druyaned.gettered.benchmarks;
+
+import com.github.druyaned.gettered.sources.Parser;
+import com.github.druyaned.gettered.sources.Searcher;
+import com.github.druyaned.gettered.sources.UnitToRewrite;
+import com.sun.source.tree.CompilationUnitTree;
+import java.util.List;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Parsed {@link Workload workload} and its units to rewrite.
+ *
+ * @author druyaned
+ */
+@State(Scope.Benchmark)
+public class Parsed {
+
+    public Iterable<? extends CompilationUnitTree> compUnits;
+    public List<UnitToRewrite> unitsToRewrite;
+
+    @Setup(Level.Trial)
+    public void setUp(Workload workload) {
+        compUnits = Parser.getCompilationUnits(workload.sources);
+        unitsToRewrite = Searcher.instance().unitsToRewriteIn(compUnits);
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.github.druyaned.gettered.benchmarks;
+
+import com.github.druyaned.gettered.sources.GetteredFileObject;
+import com.github.druyaned.gettered.sources.Parser;
+import com.sun.source.tree.CompilationUnitTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks of the parsing of the sources by {@link #threads} threads.
+ *
+ * @author druyaned
+ */
+@State(Scope.Benchmark)
+public class ParserBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Benchmark
+    public Iterable<? extends CompilationUnitTree> getCompilationUnits(Workload workload) {
+        return Parser.getCompilationUnits(workload.sources, threads,
+                GetteredFileObject.DEFAULT_CHARSET);
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.github.druyaned.gettered.benchmarks;
+
+import com.github.druyaned.gettered.sources.Parser;
+import com.github.druyaned.gettered.sources.Rewriter;
+import com.github.druyaned.gettered.sources.UnitToRewrite;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of the rewriting of all units to rewrite.
+ *
+ * @author druyaned
+ */
+public class RewriterBenchmark {
+
+    @Benchmark
+    public void printed(Parsed parsed, Blackhole blackhole) {
+        for (UnitToRewrite unitToRewrite : parsed.unitsToRewrite) {
+            blackhole.consume(new Rewriter(unitToRewrite).getGetteredContent());
+        }
+    }
+
+    @Benchmark
+    public void spliced(Parsed parsed, Blackhole blackhole) {
+        for (UnitToRewrite unitToRewrite : parsed.unitsToRewrite) {
+            blackhole.consume(Rewriter.spliced(unitToRewrite, Parser.sourcePositions())
+                    .getGetteredContent());
+        }
+    }
+
+}
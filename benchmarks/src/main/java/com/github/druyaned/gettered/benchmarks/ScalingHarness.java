@@ -0,0 +1,174 @@
+package com.github.druyaned.gettered.benchmarks;
+
+import com.github.druyaned.gettered.Compiler;
+import com.github.druyaned.gettered.Options;
+import com.github.druyaned.gettered.sources.GetteredFileObject;
+import com.github.druyaned.gettered.sources.Parser;
+import com.github.druyaned.gettered.sources.Prefilter;
+import com.github.druyaned.gettered.sources.Searcher;
+import com.github.druyaned.gettered.sources.Sources;
+import com.github.druyaned.gettered.sources.UnitToRewrite;
+import com.sun.source.tree.CompilationUnitTree;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import javax.tools.JavaFileObject;
+
+/**
+ * Runs the phases of the {@link Compiler} (discover, prefilter, parse, search, rewrite,
+ * compile) against {@link CodebaseGenerator generated} trees of growing sizes and prints
+ * wall time, peak heap and GC time of each phase, so it's seen how they scale.
+ * <p>
+ * Peak heap is the sum of the peaks of the heap memory pools which are reset
+ * before each phase, so it's an upper bound of the live and garbage data.
+ * Results of the previous phases stay reachable like in the {@link Compiler#main}.
+ * <p><i>USAGE</i>:
+ * <pre>
+ * java -Xmx8g -cp benchmarks/target/benchmarks.jar \
+ *     com.github.druyaned.gettered.benchmarks.ScalingHarness \
+ *     [--sizes 1000,10000,100000] [--seed n] [--keep] [compiler-options];
+ * </pre>
+ * The other options (for example {@code --splice} or {@code --parse-threads n})
+ * are passed to the {@link Options}.
+ *
+ * @author druyaned
+ * @see CodebaseGenerator
+ */
+public class ScalingHarness {
+
+    private static final String FORMAT = "%-8d %-9s %10d %10d %8d %8d%n";
+
+    public static void main(String[] args) throws IOException {
+        int[] sizes = {1_000, 10_000, 100_000};
+        long seed = 42L;
+        boolean keep = false;
+        List<String> compilerArgs = new ArrayList<>();
+        for (int i = 0; i < args.length; ++i) {
+            switch (args[i]) {
+                case "--sizes" -> sizes = Arrays.stream(args[++i].split(","))
+                        .mapToInt(Integer::parseInt)
+                        .toArray();
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                case "--keep" -> keep = true;
+                default -> compilerArgs.add(args[i]);
+            }
+        }
+        PrintStream out = System.out;
+        out.printf("%-8s %-9s %10s %10s %8s %8s%n",
+                "files", "phase", "wall-ms", "peak-MB", "gc-ms", "gc-count");
+        for (int size : sizes) {
+            Path projectDir = Files.createTempDirectory("gettered-scaling");
+            try {
+                CodebaseGenerator.instance(size, seed)
+                        .generate(projectDir.resolve(Path.of("src", "main", "java")));
+                System.gc();
+                new ScalingHarness(size, projectDir, compilerArgs, out).run();
+            } finally {
+                if (keep) {
+                    out.println("# kept " + projectDir);
+                } else {
+                    delete(projectDir);
+                }
+            }
+        }
+    }
+
+//-Fields-------------------------------------------------------------------------------------------
+
+    private final int size;
+    private final Options options;
+    private final PrintStream out;
+    private long totalNanos = 0;
+
+//-Constructors-------------------------------------------------------------------------------------
+
+    private ScalingHarness(int size, Path projectDir, List<String> compilerArgs,
+            PrintStream out) {
+        this.size = size;
+        List<String> args = new ArrayList<>(compilerArgs);
+        args.add("--project-dir");
+        args.add(projectDir.toString());
+        this.options = Options.parse(args.toArray(String[]::new));
+        this.out = out;
+    }
+
+//-Private-methods----------------------------------------------------------------------------------
+
+    private void run() {
+        List<Path> sources = phase("discover", () -> Sources.get(options));
+        List<Path> gettered = new ArrayList<>();
+        List<Path> plain = new ArrayList<>();
+        phase("prefilter", () -> {
+            Prefilter.split(sources, gettered, plain);
+            return null;
+        });
+        Iterable<? extends CompilationUnitTree> compUnits = phase("parse",
+                () -> Parser.getCompilationUnits(gettered, options.getParseThreads(),
+                        options.getEncoding()));
+        List<UnitToRewrite> unitsToRewrite = phase("search",
+                () -> Searcher.instance().unitsToRewriteIn(compUnits));
+        List<JavaFileObject> files = phase("rewrite", () -> {
+            List<JavaFileObject> fileObjects = Compiler.fileObjects(compUnits, unitsToRewrite,
+                    options.isSplice(), options.getEncoding());
+            for (JavaFileObject fileObject : fileObjects) {
+                if (fileObject instanceof GetteredFileObject getteredFileObject) {
+                    getteredFileObject.rewrite(); // here, not lazily in the compile phase
+                }
+            }
+            fileObjects.addAll(Compiler.sourceFileObjects(plain, options.getEncoding()));
+            return fileObjects;
+        });
+        boolean succeeded = phase("compile", () -> Compiler.compile(files, options));
+        out.printf("%-8d %-9s %10d %s%n", size, "total", totalNanos / 1_000_000,
+                succeeded ? "" : "(compilation failed)");
+    }
+
+    private <T> T phase(String name, Supplier<T> action) {
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        long gcMillis = gcMillis();
+        long gcCount = gcCount();
+        long start = System.nanoTime();
+        T result = action.get();
+        long nanos = System.nanoTime() - start;
+        long peakBytes = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        totalNanos += nanos;
+        out.printf(FORMAT, size, name, nanos / 1_000_000, peakBytes >> 20,
+                gcMillis() - gcMillis, gcCount() - gcCount);
+        return result;
+    }
+
+    private static long gcMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime)
+                .sum();
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount)
+                .sum();
+    }
+
+    private static void delete(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.github.druyaned.gettered.benchmarks;
+
+import com.github.druyaned.gettered.sources.Searcher;
+import com.github.druyaned.gettered.sources.UnitToRewrite;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Benchmarks of the search of the units to rewrite.
+ *
+ * @author druyaned
+ */
+public class SearcherBenchmark {
+
+    @Benchmark
+    public List<UnitToRewrite> unitsToRewriteIn(Parsed parsed) {
+        return Searcher.instance().unitsToRewriteIn(parsed.compUnits);
+    }
+
+}
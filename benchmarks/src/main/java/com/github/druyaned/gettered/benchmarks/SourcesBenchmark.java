@@ -0,0 +1,22 @@
+package com.github.druyaned.gettered.benchmarks;
+
+import com.github.druyaned.gettered.Options;
+import com.github.druyaned.gettered.sources.Sources;
+import java.nio.file.Path;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Benchmarks of the discovery of the sources.
+ *
+ * @author druyaned
+ */
+public class SourcesBenchmark {
+
+    @Benchmark
+    public List<Path> get(Workload workload) {
+        Options options = workload.options();
+        return Sources.get(options);
+    }
+
+}
@@ -0,0 +1,131 @@
+package com.github.druyaned.gettered.benchmarks;
+
+import com.github.druyaned.gettered.cds.Trainer;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Measures wall time of short runs of the gettered jar on a small
+ * {@link CodebaseGenerator generated} module in fresh JVMs: without class-data sharing,
+ * with the default archive of the JDK and with the archive of the tool and javac classes
+ * trained by the {@link Trainer} (as the launcher {@code target/gettered} runs it).
+ * The JVMs of the variants are started in turns, so a drift of the machine hits all
+ * of them alike.
+ * <p><i>RESULTS</i> (20 files, {@code --splice}, 15 runs, 1 core, Temurin 17.0.9):
+ * <pre>
+ * variant        min-ms  median-ms     max-ms
+ * no-cds           2131       2587       2825
+ * jdk-cds          2043       2505       2658
+ * app-cds          1693       1921       2191
+ * </pre>
+ * <p><i>USAGE</i>:
+ * <pre>
+ * mvn -q package;
+ * sh target/gettered --train-cds;
+ * java -cp benchmarks/target/benchmarks.jar \
+ *     com.github.druyaned.gettered.benchmarks.StartupBenchmark \
+ *     --jar target/gettered-1.0.jar --archive target/gettered.jsa \
+ *     [--files 20] [--runs 15] [compiler-options];
+ * </pre>
+ * The other options ({@code --splice} by default) are passed to the compiler.
+ *
+ * @author druyaned
+ * @see Trainer
+ */
+public class StartupBenchmark {
+
+    private static final String FORMAT = "%-12s %8d %10d %10d%n";
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path jar = Path.of("target", "gettered-1.0.jar");
+        Path archive = Path.of("target", "gettered.jsa");
+        int files = 20;
+        int runs = 15;
+        List<String> compilerArgs = new ArrayList<>();
+        for (int i = 0; i < args.length; ++i) {
+            switch (args[i]) {
+                case "--jar" -> jar = Path.of(args[++i]);
+                case "--archive" -> archive = Path.of(args[++i]);
+                case "--files" -> files = Integer.parseInt(args[++i]);
+                case "--runs" -> runs = Integer.parseInt(args[++i]);
+                default -> compilerArgs.add(args[i]);
+            }
+        }
+        if (compilerArgs.isEmpty()) {
+            compilerArgs.add("--splice");
+        }
+        if (!Files.exists(archive)) {
+            throw new IllegalArgumentException("no archive " + archive
+                    + ", train it by \"sh target/gettered --train-cds\"");
+        }
+        String[][] variants = {
+            {"no-cds", "-Xshare:off"},
+            {"jdk-cds", "-Xshare:auto"},
+            {"app-cds", "-XX:SharedArchiveFile=" + archive.toAbsolutePath(), "-Xshare:auto",
+                "-Xlog:cds=off", "-Xlog:cds+dynamic=off"}
+        };
+        Path projectDir = Files.createTempDirectory("gettered-startup");
+        try {
+            CodebaseGenerator.instance(files, 42L)
+                    .generate(projectDir.resolve(Path.of("src", "main", "java")));
+            long[][] millis = new long[variants.length][runs];
+            for (int run = -1; run < runs; ++run) { // the first run warms the disk up
+                for (int v = 0; v < variants.length; ++v) {
+                    long ms = launch(jar, variants[v], compilerArgs, projectDir);
+                    if (run >= 0) {
+                        millis[v][run] = ms;
+                    }
+                }
+            }
+            PrintStream out = System.out;
+            out.printf("%-12s %8s %10s %10s%n", "variant", "min-ms", "median-ms", "max-ms");
+            for (int v = 0; v < variants.length; ++v) {
+                long[] sorted = millis[v].clone();
+                Arrays.sort(sorted);
+                out.printf(FORMAT, variants[v][0], sorted[0], sorted[runs / 2],
+                        sorted[runs - 1]);
+            }
+        } finally {
+            delete(projectDir);
+        }
+    }
+
+//-Private-methods----------------------------------------------------------------------------------
+
+    private static long launch(Path jar, String[] variant, List<String> compilerArgs,
+            Path projectDir) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(Arrays.asList(variant).subList(1, variant.length));
+        command.add("-jar");
+        command.add(jar.toAbsolutePath().toString());
+        command.addAll(compilerArgs);
+        command.add("--project-dir");
+        command.add(projectDir.toString());
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException(variant[0] + " run failed: " + command);
+        }
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static void delete(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+}
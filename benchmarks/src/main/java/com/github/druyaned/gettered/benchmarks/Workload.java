@@ -0,0 +1,91 @@
+package com.github.druyaned.gettered.benchmarks;
+
+import com.github.druyaned.gettered.Options;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * A generated project in a temporary directory: {@link #fileCount} classes
+ * with {@link #fieldsPerClass} fields, {@link #getteredShare} of them
+ * are annotated with {@code @Gettered}.
+ *
+ * @author druyaned
+ */
+@State(Scope.Benchmark)
+public class Workload {
+
+    @Param({"100", "1000"})
+    public int fileCount;
+
+    @Param({"5", "20"})
+    public int fieldsPerClass;
+
+    @Param({"0.05", "0.5"})
+    public double getteredShare;
+
+    public Path projectDir;
+    public List<Path> sources;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        projectDir = Files.createTempDirectory("gettered-workload");
+        Path root = projectDir.resolve(Path.of("src", "main", "java"));
+        for (int i = 0; i < fileCount; ++i) {
+            boolean gettered = Math.floor((i + 1) * getteredShare) > Math.floor(i * getteredShare);
+            writeSource(root, i, gettered);
+        }
+        sources = com.github.druyaned.gettered.sources.Sources.get(options());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(projectDir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Returns options of the compilation of the generated project.
+     *
+     * @return options of the compilation of the generated project.
+     */
+    public Options options() {
+        return Options.parse(new String[] {"--project-dir", projectDir.toString()});
+    }
+
+    private void writeSource(Path root, int index, boolean gettered) throws IOException {
+        String packageName = "bench.p" + index % 10;
+        Path dir = root.resolve(packageName.replace('.', '/'));
+        Files.createDirectories(dir);
+        StringBuilder builder = new StringBuilder();
+        builder.append("package ").append(packageName).append(";\n\n");
+        if (gettered) {
+            builder.append("import com.github.druyaned.gettered.Gettered;\n\n@Gettered\n");
+        }
+        builder.append("public class C").append(index).append(" {\n");
+        for (int i = 0; i < fieldsPerClass; ++i) {
+            builder.append("    private ").append(i % 2 == 0 ? "int" : "String")
+                    .append(" f").append(i).append(";\n");
+        }
+        builder.append("\n    public C").append(index).append("() {\n");
+        for (int i = 0; i < fieldsPerClass; ++i) {
+            builder.append("        this.f").append(i).append(" = ")
+                    .append(i % 2 == 0 ? String.valueOf(i) : "\"" + i + "\"").append(";\n");
+        }
+        builder.append("    }\n}\n");
+        Files.writeString(dir.resolve("C" + index + ".java"), builder);
+    }
+
+}
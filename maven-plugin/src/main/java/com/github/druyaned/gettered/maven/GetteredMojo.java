@@ -0,0 +1,310 @@
+package com.github.druyaned.gettered.maven;
+
+import com.github.druyaned.gettered.Compiler;
+import com.github.druyaned.gettered.Options;
+import com.github.druyaned.gettered.incremental.IncrementalCompiler;
+import com.github.druyaned.gettered.metrics.BuildMetrics;
+import com.github.druyaned.gettered.sources.Hashes;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Component;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+import org.sonatype.plexus.build.incremental.BuildContext;
+
+/**
+ * Adds missed getters into the {@link com.github.druyaned.gettered.Gettered gettered} classes
+ * and compiles the project inside the Maven JVM, so no JVM is forked and,
+ * in a long-lived Maven (for example {@code mvnd}), javac and the
+ * {@link IncrementalCompiler incremental state} stay warm between builds.
+ * <p>
+ * The project's compile source roots, compile class path, output directory, source encoding
+ * and {@code maven.compiler.release/source/target} are used. The build is skipped
+ * if the {@link BuildContext build context} (an IDE integration) reports no changes
+ * in the source roots and neither the configuration nor the class path (its entries' sizes
+ * and modification times) has changed since the previous build; otherwise only changed
+ * sources and their dependents are compiled if {@code incremental} is on.
+ * <p>
+ * At most {@value #MAX_PROJECTS} warm compilers are kept, the least recently used one
+ * is closed when another project is built.
+ * <p><i>USAGE</i> (the default compilation is turned off, it doesn't know the getters):
+ * <pre>
+ * &lt;plugin&gt;
+ *   &lt;artifactId&gt;maven-compiler-plugin&lt;/artifactId&gt;
+ *   &lt;executions&gt;
+ *     &lt;execution&gt;
+ *       &lt;id&gt;default-compile&lt;/id&gt;
+ *       &lt;phase&gt;none&lt;/phase&gt;
+ *     &lt;/execution&gt;
+ *   &lt;/executions&gt;
+ * &lt;/plugin&gt;
+ * &lt;plugin&gt;
+ *   &lt;groupId&gt;com.github.druyaned&lt;/groupId&gt;
+ *   &lt;artifactId&gt;gettered-maven-plugin&lt;/artifactId&gt;
+ *   &lt;version&gt;1.0&lt;/version&gt;
+ *   &lt;executions&gt;
+ *     &lt;execution&gt;
+ *       &lt;goals&gt;&lt;goal&gt;compile&lt;/goal&gt;&lt;/goals&gt;
+ *     &lt;/execution&gt;
+ *   &lt;/executions&gt;
+ * &lt;/plugin&gt;
+ * </pre>
+ *
+ * @author druyaned
+ */
+@Mojo(name = "compile", defaultPhase = LifecyclePhase.COMPILE,
+        requiresDependencyResolution = ResolutionScope.COMPILE, threadSafe = true)
+public class GetteredMojo extends AbstractMojo {
+
+    private static final int MAX_PROJECTS = 16;
+    private static final String STAMP_FILE_NAME = "gettered-mojo-stamp";
+
+    /** Warm compilers of the projects built by this JVM. */
+    private static final Map<String, IncrementalCompiler> COMPILERS = new LinkedHashMap<>(
+            MAX_PROJECTS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, IncrementalCompiler> eldest) {
+            if (size() <= MAX_PROJECTS) {
+                return false;
+            }
+            IncrementalCompiler compiler = eldest.getValue();
+            synchronized (compiler) { // after its compilation if it's still running
+                try {
+                    compiler.close();
+                } catch (IOException exc) {
+                    throw new UncheckedIOException(exc);
+                }
+            }
+            return true;
+        }
+    };
+
+//-Parameters---------------------------------------------------------------------------------------
+
+    @Parameter(defaultValue = "${project}", readonly = true, required = true)
+    private MavenProject project;
+
+    @Parameter(defaultValue = "${project.compileSourceRoots}", readonly = true, required = true)
+    private List<String> compileSourceRoots;
+
+    @Parameter(defaultValue = "${project.compileClasspathElements}", readonly = true,
+            required = true)
+    private List<String> classpathElements;
+
+    @Parameter(defaultValue = "${project.build.outputDirectory}", required = true)
+    private File outputDirectory;
+
+    /** Charset of the sources. */
+    @Parameter(property = "encoding", defaultValue = "${project.build.sourceEncoding}")
+    private String encoding;
+
+    /** The {@code --release} of javac. */
+    @Parameter(property = "maven.compiler.release")
+    private String release;
+
+    /** The {@code -source} of javac; not used if the release is set. */
+    @Parameter(property = "maven.compiler.source")
+    private String source;
+
+    /** The {@code -target} of javac; not used if the release is set. */
+    @Parameter(property = "maven.compiler.target")
+    private String target;
+
+    /** Compile only changed sources and their dependents. */
+    @Parameter(property = "gettered.incremental", defaultValue = "true")
+    private boolean incremental;
+
+    /** Insert getters into the original content instead of printing the classes. */
+    @Parameter(property = "gettered.splice", defaultValue = "false")
+    private boolean splice;
+
+    /** Number of threads to parse the sources. */
+    @Parameter(property = "gettered.parseThreads", defaultValue = "1")
+    private int parseThreads;
+
+    /** Number of threads to compile independent partitions; not used if incremental. */
+    @Parameter(property = "gettered.compileThreads", defaultValue = "1")
+    private int compileThreads;
+
+    /**
+     * Cache rewritten sources in {@code target/gettered-cache}; not used if incremental
+     * and can't be combined with more than one compile thread.
+     */
+    @Parameter(property = "gettered.cache", defaultValue = "false")
+    private boolean cache;
+
+    /** Globs of the sources to be included relative to their source roots. */
+    @Parameter
+    private List<String> includes = new ArrayList<>();
+
+    /** Globs of the sources and directories to be excluded relative to their source roots. */
+    @Parameter
+    private List<String> excludes = new ArrayList<>();
+
+    /** File to write the JSON build report into. */
+    @Parameter(property = "gettered.report")
+    private File report;
+
+    @Parameter(property = "gettered.skip", defaultValue = "false")
+    private boolean skip;
+
+    @Component
+    private BuildContext buildContext;
+
+//-Methods------------------------------------------------------------------------------------------
+
+    @Override
+    public void execute() throws MojoFailureException {
+        if (skip) {
+            getLog().info("Skipping gettered compilation");
+            return;
+        }
+        List<File> roots = new ArrayList<>();
+        for (String root : compileSourceRoots) {
+            File rootDir = new File(root);
+            if (rootDir.isDirectory()) {
+                roots.add(rootDir);
+            }
+        }
+        if (roots.isEmpty()) {
+            getLog().info("No sources to compile");
+            return;
+        }
+        List<String> args = args(roots);
+        Path stampFile = outputDirectory.toPath().resolveSibling(STAMP_FILE_NAME);
+        String stamp = stampOf(args);
+        if (outputDirectory.isDirectory() && stamp.equals(read(stampFile))
+                && roots.stream().noneMatch(buildContext::hasDelta)) {
+            getLog().info("Nothing to compile - all classes are up to date");
+            return;
+        }
+        Options options;
+        try {
+            options = Options.parse(args.toArray(String[]::new));
+        } catch (IllegalArgumentException exc) {
+            throw new MojoFailureException("Invalid configuration: " + exc.getMessage(), exc);
+        }
+        write(stampFile, null); // a failed build leaves no stamp
+        long start = System.nanoTime();
+        boolean succeeded;
+        if (incremental) {
+            IncrementalCompiler compiler = compilerOf(String.join("\0", args), options);
+            synchronized (compiler) {
+                succeeded = compiler.compile();
+            }
+        } else {
+            succeeded = Compiler.run(options);
+        }
+        buildContext.refresh(outputDirectory);
+        if (report != null) {
+            BuildMetrics.instance().writeReport(report.toPath());
+        }
+        if (!succeeded) {
+            throw new MojoFailureException("Compilation failure, see the javac messages above");
+        }
+        write(stampFile, stamp);
+        getLog().info("Compiled " + project.getArtifactId() + " with getters in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+//-Private-methods----------------------------------------------------------------------------------
+
+    private List<String> args(List<File> roots) {
+        List<String> args = new ArrayList<>();
+        args.add("--project-dir");
+        args.add(project.getBasedir().getAbsolutePath());
+        for (File root : roots) {
+            args.add("--source-root");
+            args.add(root.getAbsolutePath());
+        }
+        for (String include : includes) {
+            args.add("--include");
+            args.add(include);
+        }
+        for (String exclude : excludes) {
+            args.add("--exclude");
+            args.add(exclude);
+        }
+        args.add("-d");
+        args.add(outputDirectory.getAbsolutePath());
+        List<String> classpath = new ArrayList<>(classpathElements);
+        // the compilers put the output directory on the class path themselves,
+        // its stamps would change by each build
+        classpath.remove(outputDirectory.getAbsolutePath());
+        args.add("--classpath");
+        args.add(String.join(File.pathSeparator, classpath));
+        if (encoding != null && !encoding.isBlank()) {
+            args.add("--encoding");
+            args.add(encoding);
+        }
+        if (release != null && !release.isBlank()) {
+            args.add("--release");
+            args.add(release);
+        } else {
+            if (source != null && !source.isBlank()) {
+                args.add("--source");
+                args.add(source);
+            }
+            if (target != null && !target.isBlank()) {
+                args.add("--target");
+                args.add(target);
+            }
+        }
+        args.add("--parse-threads");
+        args.add(String.valueOf(parseThreads));
+        args.add("--compile-threads");
+        args.add(String.valueOf(compileThreads));
+        if (splice) {
+            args.add("--splice");
+        }
+        if (cache && !incremental) { // the incremental compiler keeps its own state
+            args.add("--cache");
+        }
+        return args;
+    }
+
+    private static IncrementalCompiler compilerOf(String key, Options options) {
+        synchronized (COMPILERS) {
+            return COMPILERS.computeIfAbsent(key, k -> IncrementalCompiler.instance(options));
+        }
+    }
+
+    /** Returns a hash of the arguments and of the stamps of the class path entries. */
+    private static String stampOf(List<String> args) {
+        return Hashes.of(String.join("\0", args) + "\0"
+                + Hashes.ofClasspathStamps(args.get(args.indexOf("--classpath") + 1)));
+    }
+
+    private static String read(Path stampFile) {
+        try {
+            return Files.readString(stampFile);
+        } catch (IOException exc) {
+            return null; // compiled by another tool or never
+        }
+    }
+
+    private static void write(Path stampFile, String stamp) {
+        try {
+            if (stamp == null) {
+                Files.deleteIfExists(stampFile);
+            } else {
+                Files.writeString(stampFile, stamp);
+            }
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+    }
+
+}
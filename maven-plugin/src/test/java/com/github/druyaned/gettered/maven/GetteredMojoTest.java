@@ -0,0 +1,133 @@
+package com.github.druyaned.gettered.maven;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import com.github.druyaned.gettered.Gettered;
+import java.io.File;
+import java.lang.reflect.Field;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.apache.maven.project.MavenProject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonatype.plexus.build.incremental.DefaultBuildContext;
+
+/**
+ * Tests of the {@link GetteredMojo}.
+ *
+ * @author druyaned
+ */
+public class GetteredMojoTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldForwardReleaseAndEncodingToJavac() throws Exception {
+        Path root = folder.getRoot().toPath();
+        write(root, "p/Menu.java", """
+                package p;
+
+                import com.github.druyaned.gettered.Gettered;
+
+                @Gettered
+                public class Menu {
+                    private String menu = "crème brûlée";
+                }
+                """, StandardCharsets.ISO_8859_1);
+        GetteredMojo mojo = mojo(root, new DefaultBuildContext());
+        set(mojo, "encoding", "ISO-8859-1");
+        set(mojo, "release", "11");
+        mojo.execute();
+        Path classes = root.resolve(Path.of("target", "classes"));
+        byte[] bytes = Files.readAllBytes(classes.resolve(Path.of("p", "Menu.class")));
+        assertEquals(55, ((bytes[6] & 0xff) << 8) | (bytes[7] & 0xff)); // Java 11
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {classes.toUri().toURL()},
+                null)) {
+            Class<?> menu = loader.loadClass("p.Menu");
+            assertEquals("crème brûlée",
+                    menu.getMethod("getMenu").invoke(menu.getConstructor().newInstance()));
+        }
+    }
+
+    @Test
+    public void shouldCompileWhenClasspathChangesWithoutDeltaOfSources() throws Exception {
+        Path root = folder.getRoot().toPath();
+        write(root, "p/Point.java", """
+                package p;
+
+                import com.github.druyaned.gettered.Gettered;
+
+                @Gettered
+                public class Point {
+                    private int x;
+                }
+                """, StandardCharsets.UTF_8);
+        Path dependency = Files.createDirectories(root.resolve("dependency"));
+        GetteredMojo mojo = mojo(root, new DefaultBuildContext() {
+            @Override
+            public boolean hasDelta(File file) {
+                return false; // like an IDE without changes in the sources
+            }
+        });
+        set(mojo, "classpathElements", List.of(
+                root.resolve(Path.of("target", "classes")).toString(), // as Maven puts it
+                dependency.toString(), gettered()));
+        Path point = root.resolve(Path.of("target", "classes", "p", "Point.class"));
+        mojo.execute();
+        assertTrue(Files.exists(point));
+        Files.delete(point);
+        mojo.execute(); // nothing has changed, the output directory included
+        assertFalse(Files.exists(point));
+        Files.writeString(dependency.resolve("changed.txt"), "a new entry");
+        mojo.execute();
+        assertTrue(Files.exists(point));
+    }
+
+//-Private-methods----------------------------------------------------------------------------------
+
+    private static GetteredMojo mojo(Path root, DefaultBuildContext buildContext)
+            throws Exception {
+        MavenProject project = new MavenProject();
+        project.setFile(root.resolve("pom.xml").toFile());
+        GetteredMojo mojo = new GetteredMojo();
+        set(mojo, "project", project);
+        set(mojo, "compileSourceRoots",
+                List.of(root.resolve(Path.of("src", "main", "java")).toString()));
+        set(mojo, "classpathElements", List.of(gettered()));
+        set(mojo, "outputDirectory", root.resolve(Path.of("target", "classes")).toFile());
+        set(mojo, "incremental", true);
+        set(mojo, "parseThreads", 1);
+        set(mojo, "compileThreads", 1);
+        set(mojo, "buildContext", buildContext);
+        return mojo;
+    }
+
+    /** Sets the parameter like Maven injects it. */
+    private static void set(GetteredMojo mojo, String name, Object value) throws Exception {
+        Field field = GetteredMojo.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(mojo, value);
+    }
+
+    /** Returns the class path entry of the gettered annotation. */
+    private static String gettered() throws Exception {
+        return Path.of(Gettered.class.getProtectionDomain().getCodeSource().getLocation()
+                .toURI()).toString();
+    }
+
+    private static void write(Path root, String name, String content,
+            Charset charset) throws Exception {
+        Path source = root.resolve(Path.of("src", "main", "java")).resolve(name);
+        Files.createDirectories(source.getParent());
+        Files.writeString(source, content, charset);
+    }
+
+}
@@ -1,16 +1,48 @@
 package com.github.druyaned.gettered;
 
+import com.github.druyaned.gettered.bytecode.BytecodeCompiler;
+import com.github.druyaned.gettered.cache.BuildCache;
+import com.github.druyaned.gettered.cache.RewriteCache;
+import com.github.druyaned.gettered.cds.Trainer;
+import com.github.druyaned.gettered.check.Checker;
+import com.github.druyaned.gettered.chunked.ChunkedCompiler;
+import com.github.druyaned.gettered.daemon.Daemon;
+import com.github.druyaned.gettered.daemon.DaemonClient;
+import com.github.druyaned.gettered.incremental.IncrementalCompiler;
+import com.github.druyaned.gettered.index.GetteredIndex;
+import com.github.druyaned.gettered.metrics.BuildMetrics;
+import com.github.druyaned.gettered.metrics.JavacTimings;
+import com.github.druyaned.gettered.partition.PartitionedCompiler;
+import com.github.druyaned.gettered.pipeline.Pipeline;
+import com.github.druyaned.gettered.output.ClassSink;
+import com.github.druyaned.gettered.output.JarSink;
+import com.github.druyaned.gettered.output.MemoryFileManager;
+import com.github.druyaned.gettered.plugin.GetteredPlugin;
 import com.github.druyaned.gettered.sources.GetteredFileObject;
+import com.github.druyaned.gettered.sources.MappedFileObject;
 import com.github.druyaned.gettered.sources.Parser;
+import com.github.druyaned.gettered.sources.Prefilter;
+import com.github.druyaned.gettered.sources.RewriteDescriptor;
+import com.github.druyaned.gettered.sources.Rewriter;
 import com.github.druyaned.gettered.sources.Searcher;
 import com.github.druyaned.gettered.sources.Sources;
 import com.github.druyaned.gettered.sources.UnitToRewrite;
+import com.github.druyaned.gettered.watch.Watcher;
+import com.github.druyaned.gettered.workspace.WorkspaceCompiler;
 import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.util.JavacTask;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
 import javax.tools.JavaFileObject;
 import javax.tools.StandardJavaFileManager;
 import javax.tools.ToolProvider;
@@ -33,33 +65,457 @@ import javax.tools.ToolProvider;
  * mvn -q clean package install;
  * cp target/gettered-1.0.jar ../gettered-data/;
  * </pre>
+ * Run with {@code --incremental} to compile only changed sources
+ * and their dependents (see {@link IncrementalCompiler}), with {@code --watch}
+ * to recompile them on changes (see {@link Watcher}), with {@code --daemon}
+ * to serve compile requests in a warm process (see {@link Daemon}) or with {@code --plugin}
+ * to add getters right in the parsed trees (see {@link GetteredPlugin}) or with
+ * {@code --bytecode} to add them right into the compiled classes
+ * (see {@link BytecodeCompiler}).
+ * With {@code --compile-threads n} independent partitions of the sources
+ * are compiled at the same time (see {@link PartitionedCompiler}) and with
+ * {@code --chunk-size n} the sources are compiled in bounded memory
+ * (see {@link ChunkedCompiler}). With {@code --workspace file} the modules
+ * of a workspace are compiled in one process (see {@link WorkspaceCompiler}).
+ * Only the sources which may be gettered (see {@link Prefilter}) are parsed
+ * and, with {@code --cache}, only the ones missed in the {@link RewriteCache};
+ * with {@code --index} only new and changed sources are parsed and the others
+ * are looked up in the {@link GetteredIndex}. With {@code --remote-cache} compiled
+ * classes of the same sources are shared between machines (see {@link BuildCache}).
+ * With {@code --check} nothing is compiled: missed getters are only reported
+ * (see {@link Checker}). With {@code --train} the sample project bundled into the jar
+ * is compiled in each mode, so the loaded classes can be archived (see {@link Trainer}).
+ * Phases of the build are recorded into the {@link BuildMetrics} and, with
+ * {@code --report file}, written as a JSON report at exit.
  * 
  * @author druyaned
  */
 public class Compiler {
 
     public static void main(String[] args) {
-        List<Path> sources = Sources.get();
-        Iterable<? extends CompilationUnitTree> compUnits = Parser.getCompilationUnits(sources);
-        List<UnitToRewrite> unitsToRewrite = Searcher.instance().unitsToRewriteIn(compUnits);
+        Options options = Options.parse(args);
+        Path report = options.getReport();
+        if (report != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(
+                    () -> BuildMetrics.instance().writeReport(report)));
+        }
+        if (options.getConnect() != null) {
+            System.exit(options.isStats()
+                    ? DaemonClient.stats(options.getConnect(), System.out)
+                    : DaemonClient.compile(options.getConnect(), options.getProjectDir(), args,
+                            System.out));
+        }
+        boolean succeeded = run(options);
+        if ((options.isCheck() || options.isTrain()) && !succeeded) {
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Runs the compiler in this process with the options; a daemon or a watcher
+     * runs until the thread is interrupted.
+     * 
+     * @param options options of the compilation
+     * @return {@code true} if the compilation succeeded
+     */
+    public static boolean run(Options options) {
+        if (options.getDaemon() != null) {
+            Daemon.instance(options.getDaemon()).run();
+            return true;
+        }
+        if (options.isWatch()) {
+            Watcher.instance(options).run();
+            return true;
+        }
+        if (options.isTrain()) {
+            return Trainer.instance().train();
+        }
+        if (options.isCheck()) {
+            return Checker.instance(options).check();
+        }
+        if (options.getWorkspace() != null) {
+            return WorkspaceCompiler.instance(options).compile();
+        }
+        if (options.isIncremental()) {
+            return IncrementalCompiler.instance(options).compile();
+        }
+        if (options.isPipeline()) {
+            return Pipeline.instance(options).compile();
+        }
+        if (options.isBytecode()) {
+            return BytecodeCompiler.instance(options).compile();
+        }
+        if (options.getChunkSize() > 0) {
+            return ChunkedCompiler.instance(options).compile();
+        }
+        if (options.getCompileThreads() > 1) {
+            return PartitionedCompiler.instance(options).compile();
+        }
+        BuildMetrics metrics = BuildMetrics.instance();
+        List<Path> sources = metrics.phase("discover", () -> Sources.get(options));
+        if (options.isPlugin()) {
+            return compileWithPlugin(sources, options(options), options.getEncoding());
+        }
+        BuildCache buildCache = options.getRemoteCache() == null
+                ? null
+                : BuildCache.open(options);
+        if (buildCache != null && buildCache.lookup(sources)) {
+            return true;
+        }
+        if (options.getIndexFile() != null) {
+            GetteredIndex index = metrics.phase("index", () -> GetteredIndex
+                    .open(options.getIndexFile())
+                    .update(sources, options.getParseThreads(), options.getEncoding()));
+            List<JavaFileObject> files = metrics.phase("rewrite",
+                    () -> fileObjects(sources, index, options.getEncoding()));
+            return buildCache == null ? compile(files, options) : buildCache.compile(files);
+        }
+        List<Path> gettered = new ArrayList<>();
+        List<Path> plain = new ArrayList<>();
+        metrics.phase("prefilter", () -> {
+            Prefilter.split(sources, gettered, plain);
+            return null;
+        });
+        List<JavaFileObject> files = new ArrayList<>();
+        try (RewriteCache cache = options.getCacheDir() == null
+                ? null
+                : RewriteCache.open(options)) {
+            List<Path> toParse = cache == null
+                    ? gettered
+                    : metrics.phase("cache", () -> cache.lookup(gettered, files, plain));
+            Iterable<? extends CompilationUnitTree> compUnits = metrics.phase("parse",
+                    () -> Parser.getCompilationUnits(toParse, options.getParseThreads(),
+                            options.getEncoding()));
+            List<UnitToRewrite> unitsToRewrite = metrics.phase("search",
+                    () -> Searcher.instance().unitsToRewriteIn(compUnits));
+            List<JavaFileObject> rewritten = metrics.phase("rewrite",
+                    () -> fileObjects(compUnits, unitsToRewrite, options.isSplice(),
+                            options.getEncoding()));
+            files.addAll(rewritten);
+            files.addAll(sourceFileObjects(plain, options.getEncoding()));
+            boolean succeeded = buildCache == null
+                    ? compile(files, options)
+                    : buildCache.compile(files);
+            if (cache != null && succeeded) {
+                metrics.phase("cache.store", () -> {
+                    cache.store(rewritten);
+                    cache.trim();
+                    return null;
+                });
+            }
+            return succeeded;
+        }
+    }
+    
+    /**
+     * Returns file objects to compile: {@link GetteredFileObject gettered} ones
+     * for the units to rewrite and original source files for the others.
+     * 
+     * @param compUnits parsed compilation units
+     * @param unitsToRewrite units to rewrite found among the {@code compUnits}
+     * @param splice {@code true} to insert getters into the original content
+     *        (see {@link Rewriter#spliced}) instead of printing the classes
+     * @param charset charset of the sources
+     * @return file objects to compile
+     */
+    public static List<JavaFileObject> fileObjects(
+            Iterable<? extends CompilationUnitTree> compUnits,
+            List<UnitToRewrite> unitsToRewrite, boolean splice, Charset charset) {
+        Map<CompilationUnitTree, UnitToRewrite> unitToRewrite = new IdentityHashMap<>();
+        for (UnitToRewrite u : unitsToRewrite) {
+            unitToRewrite.putIfAbsent(u.getUnit(), u);
+        }
         List<JavaFileObject> files = new ArrayList<>();
         for (CompilationUnitTree compUnit : compUnits) {
-            boolean notSwapped = true;
-            for (UnitToRewrite unitToRewrite : unitsToRewrite) {
-                if (compUnit.equals(unitToRewrite.getUnit())) {
-                    files.add(new GetteredFileObject(unitToRewrite));
-                    notSwapped = false;
-                    break;
-                }
+            files.add(fileObject(compUnit, unitToRewrite.get(compUnit), splice, charset));
+        }
+        return files;
+    }
+    
+    /**
+     * Returns file objects of the sources which are compiled as they are,
+     * i.e. the ones rejected by the {@link Prefilter}.
+     * 
+     * @param sources sources to compile as they are
+     * @param charset charset of the sources
+     * @return file objects of the sources
+     */
+    public static List<JavaFileObject> sourceFileObjects(List<Path> sources, Charset charset) {
+        List<JavaFileObject> files = new ArrayList<>(sources.size());
+        if (sources.isEmpty()) {
+            return files;
+        }
+        // the standard file objects of plain files work without their file manager
+        try (StandardJavaFileManager fileManager = ToolProvider.getSystemJavaCompiler()
+                .getStandardFileManager(null, null, charset)) {
+            files.addAll(MappedFileObject.of(sources, fileManager, charset));
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+        return files;
+    }
+    
+    /**
+     * Returns file objects to compile looked up in the index without parsing:
+     * {@link GetteredFileObject gettered} ones for the sources with missed getters
+     * (inserted like by {@link Rewriter#spliced}) and original source files for the others.
+     * 
+     * @param sources sources to compile
+     * @param index up-to-date index of the sources
+     * @param charset charset of the sources
+     * @return file objects to compile
+     */
+    public static List<JavaFileObject> fileObjects(List<Path> sources, GetteredIndex index,
+            Charset charset) {
+        List<JavaFileObject> files = sourceFileObjects(sources, charset);
+        for (int i = 0; i < files.size(); ++i) {
+            RewriteDescriptor descriptor = index.descriptorOf(sources.get(i));
+            if (descriptor != null) {
+                BuildMetrics.instance().rewritten(descriptor.getClassName(),
+                        descriptor.getGetterCount(), null, 0);
+                files.set(i, new GetteredFileObject(files.get(i),
+                        () -> descriptor.content(charset), charset));
             }
-            if (notSwapped) {
-                files.add(compUnit.getSourceFile());
+        }
+        return files;
+    }
+    
+    /**
+     * Returns a file object to compile: a {@link GetteredFileObject gettered} one
+     * if there is a unit to rewrite or the original source file otherwise.
+     * 
+     * @param compUnit parsed compilation unit
+     * @param unitToRewrite unit to rewrite of the {@code compUnit} or {@code null}
+     * @param splice {@code true} to insert getters into the original content
+     *        (see {@link Rewriter#spliced}) instead of printing the classes
+     * @param charset charset of the sources
+     * @return a file object to compile
+     */
+    public static JavaFileObject fileObject(CompilationUnitTree compUnit,
+            UnitToRewrite unitToRewrite, boolean splice, Charset charset) {
+        if (unitToRewrite == null) {
+            return compUnit.getSourceFile();
+        }
+        return new GetteredFileObject(unitToRewrite, u -> rewriter(u, splice), charset);
+    }
+    
+    /**
+     * Rewrites the unit recording the rewrite into the {@link BuildMetrics}.
+     * 
+     * @param unitToRewrite unit to rewrite
+     * @param splice {@code true} to insert getters into the original content
+     * @return a rewriter of the unit
+     */
+    private static Rewriter rewriter(UnitToRewrite unitToRewrite, boolean splice) {
+        long start = System.nanoTime();
+        Rewriter rewriter = splice
+                ? Rewriter.spliced(unitToRewrite, Parser.sourcePositions())
+                : new Rewriter(unitToRewrite);
+        BuildMetrics.instance().rewritten(
+                unitToRewrite.getClassTree().getSimpleName().toString(),
+                unitToRewrite.getMissedGetterToVar().size(),
+                rewriter.getGetteredContent(), System.nanoTime() - start);
+        return rewriter;
+    }
+    
+    /**
+     * Returns javac options to write classes into the {@code outputDir}.
+     * 
+     * @param outputDir directory of compiled classes
+     * @return javac options to write classes into the {@code outputDir}
+     */
+    public static List<String> options(Path outputDir) {
+        return Arrays.asList("-d", outputDir.toString());
+    }
+    
+    /**
+     * Returns javac options to write classes into the {@link Options#getOutputDir()
+     * output directory} with the {@link Options#getClasspath() class path} if it's set.
+     * 
+     * @param options options of the compilation
+     * @return javac options of the options of the compilation
+     */
+    public static List<String> options(Options options) {
+        List<String> javacOptions = new ArrayList<>(options(options.getOutputDir()));
+        javacOptions.addAll(classpathOptions(options));
+        return javacOptions;
+    }
+    
+    /**
+     * Returns the {@code -classpath} javac option of the {@link Options#getClasspath()
+     * class path} if it's set and the {@link #sourceOptions source options}.
+     * 
+     * @param options options of the compilation
+     * @return the {@code -classpath} and source javac options.
+     */
+    public static List<String> classpathOptions(Options options) {
+        String classpath = options.getClasspath();
+        List<String> javacOptions = new ArrayList<>();
+        if (classpath != null) {
+            javacOptions.addAll(List.of("-classpath", classpath));
+        }
+        javacOptions.addAll(sourceOptions(options));
+        return javacOptions;
+    }
+    
+    /**
+     * Returns the {@code -encoding} javac option of the {@link Options#getEncoding()
+     * charset of the sources} and the {@code --release}, {@code -source} and
+     * {@code -target} ones if they are set.
+     * 
+     * @param options options of the compilation
+     * @return javac options of the language level and the charset of the sources.
+     */
+    public static List<String> sourceOptions(Options options) {
+        List<String> javacOptions = new ArrayList<>(
+                List.of("-encoding", options.getEncoding().name()));
+        if (options.getRelease() != null) {
+            javacOptions.addAll(List.of("--release", options.getRelease()));
+        }
+        if (options.getSource() != null) {
+            javacOptions.addAll(List.of("-source", options.getSource()));
+        }
+        if (options.getTarget() != null) {
+            javacOptions.addAll(List.of("-target", options.getTarget()));
+        }
+        return javacOptions;
+    }
+    
+    /**
+     * Compiles the files into the {@link Options#getOutputDir() output directory}
+     * or, if the {@link Options#getJar() jar-file} is set, straight into the jar-file
+     * without writing class files to the disk.
+     * 
+     * @param files files to compile
+     * @param options options of the compilation
+     * @return {@code true} if the compilation succeeded
+     */
+    public static boolean compile(List<JavaFileObject> files, Options options) {
+        if (options.getJar() == null) {
+            return compile(files, options(options));
+        }
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (MemoryFileManager fileManager = new MemoryFileManager(
+                compiler.getStandardFileManager(null, null, options.getEncoding()))) {
+            if (!compile(files, classpathOptions(options), fileManager)) {
+                return false;
+            }
+            try (JarSink jar = JarSink.open(options.getJar(), options.getMainClass())) {
+                fileManager.drainTo(jar);
+            }
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+        return true;
+    }
+    
+    /**
+     * Compiles the files in memory and passes the compiled classes to the sink
+     * if the compilation succeeded.
+     * 
+     * @param files files to compile
+     * @param options javac options
+     * @param sink sink of the compiled classes
+     * @return {@code true} if the compilation succeeded
+     * @throws IOException if the sink fails
+     */
+    public static boolean compile(List<JavaFileObject> files, List<String> options,
+            ClassSink sink) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (MemoryFileManager fileManager = new MemoryFileManager(
+                compiler.getStandardFileManager(null, null, GetteredFileObject.DEFAULT_CHARSET))) {
+            if (!compile(files, options, fileManager)) {
+                return false;
             }
+            fileManager.drainTo(sink);
+        }
+        return true;
+    }
+    
+    /**
+     * Compiles the files by the system java compiler.
+     * 
+     * @param files files to compile
+     * @param options javac options
+     * @return {@code true} if the compilation succeeded
+     */
+    public static boolean compile(List<JavaFileObject> files, List<String> options) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler
+                .getStandardFileManager(null, null, GetteredFileObject.DEFAULT_CHARSET)) {
+            return compile(files, options, fileManager);
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+    }
+    
+    /**
+     * Compiles the files by the system java compiler using the file manager,
+     * so a warm file manager can be reused between compilations.
+     * 
+     * @param files files to compile
+     * @param options javac options
+     * @param fileManager file manager of the compilation
+     * @return {@code true} if the compilation succeeded
+     */
+    public static boolean compile(List<JavaFileObject> files, List<String> options,
+            JavaFileManager fileManager) {
+        return compile(files, options, fileManager, null);
+    }
+    
+    /**
+     * Compiles the files by the system java compiler using the file manager
+     * and writes javac messages into the {@code out};
+     * javac phases of each file are recorded by the {@link JavacTimings}.
+     * The contents of the files are {@link MappedFileObject#release released} after it.
+     * 
+     * @param files files to compile
+     * @param options javac options
+     * @param fileManager file manager of the compilation
+     * @param out writer of javac messages; {@code System.err} if {@code null}
+     * @return {@code true} if the compilation succeeded
+     */
+    public static boolean compile(List<JavaFileObject> files, List<String> options,
+            JavaFileManager fileManager, Writer out) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        JavacTask task = (JavacTask)compiler.getTask(out, fileManager, null, options, null, files);
+        BuildMetrics metrics = BuildMetrics.instance();
+        task.addTaskListener(new JavacTimings(metrics));
+        try {
+            return metrics.phase("compile", task::call);
+        } finally {
+            MappedFileObject.release(files);
         }
+    }
+    
+    /**
+     * Compiles the sources by the system java compiler with the
+     * {@link GetteredPlugin Gettered plugin}, so each source is parsed only once.
+     * 
+     * @param sources sources to compile
+     * @param options javac options
+     * @param charset charset of the sources
+     * @return {@code true} if the compilation succeeded
+     */
+    public static boolean compileWithPlugin(List<Path> sources, List<String> options,
+            Charset charset) {
         JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
-        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
-        List<String> options = Arrays.asList("-d", "target/classes");
-        compiler.getTask(null, fileManager, null, options, null, files).call();
+        try (StandardJavaFileManager fileManager = compiler
+                .getStandardFileManager(null, null, charset)) {
+            List<JavaFileObject> files = MappedFileObject.of(sources, fileManager, charset);
+            JavacTask task = (JavacTask)compiler
+                    .getTask(null, fileManager, null, options, null, files);
+            GetteredPlugin.register(task);
+            BuildMetrics metrics = BuildMetrics.instance();
+            task.addTaskListener(new JavacTimings(metrics));
+            try {
+                return metrics.phase("compile", task::call);
+            } finally {
+                MappedFileObject.release(files);
+            }
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
     }
     
 }
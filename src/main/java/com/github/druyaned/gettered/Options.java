@@ -0,0 +1,620 @@
+package com.github.druyaned.gettered;
+
+import com.github.druyaned.gettered.sources.GetteredFileObject;
+import com.github.druyaned.gettered.sources.SourceFilter;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Command-line options of the {@link Compiler}.
+ * <p><i>USAGE</i>:
+ * <pre>
+ * java -jar gettered-1.0.jar [--incremental | --watch | --plugin | --pipeline | --bytecode]
+ *     [--parse-threads n] [--compile-threads n] [--chunk-size n [--heap-budget-mb n]]
+ *     [--splice] [--source-root dir]... [--include glob]... [--exclude glob]...
+ *     [-d outputDir | --jar jarFile [--main-class className]] [--project-dir dir]
+ *     [--report reportFile] [--cache | --cache-dir dir] [--cache-max-mb n] [--classpath path]
+ *     [--encoding charset] [--release n | --source n [--target n]] [--index | --index-file file]
+ *     [--remote-cache uriOrDir [--remote-cache-timeout-ms n]]
+ * java -jar gettered-1.0.jar --workspace workspaceFile [--compile-threads n] [--splice]
+ *     [--include glob]... [--exclude glob]... [--classpath path]
+ * java -jar gettered-1.0.jar --check [--check-report reportFile] [--fail-on-missing]
+ *     [--parse-threads n] [--source-root dir]... [--include glob]... [--exclude glob]...
+ *     [--project-dir dir]
+ * java -jar gettered-1.0.jar --train
+ * java -jar gettered-1.0.jar --daemon socketFile
+ * java -jar gettered-1.0.jar --connect socketFile [--stats | options]
+ * </pre>
+ * Relative paths are resolved against the project directory
+ * ({@code user.dir} by default). At most one mode can be selected: {@code --daemon},
+ * {@code --watch}, {@code --train}, {@code --check}, {@code --workspace},
+ * {@code --incremental}, {@code --pipeline}, {@code --bytecode}, {@code --chunk-size},
+ * {@code --compile-threads} (more than one, a workspace compiles its modules by them)
+ * or {@code --plugin} ({@code --watch} builds incrementally, so it goes with
+ * {@code --incremental}); {@code --jar} is built by the default mode
+ * or with {@code --compile-threads} only, {@code --cache}, {@code --index}
+ * and {@code --remote-cache} are used by the default mode only.
+ *
+ * @author druyaned
+ */
+public class Options {
+
+//-Static-------------------------------------------------------------------------------------------
+
+    private static final Path DEFAULT_CACHE_DIR = Paths.get("target", "gettered-cache");
+    private static final Path DEFAULT_INDEX_FILE = Paths.get("target", "gettered-index.bin");
+
+    /**
+     * Parses command-line arguments of the {@link Compiler}.
+     *
+     * @param args command-line arguments
+     * @return parsed options
+     * @throws IllegalArgumentException if an argument is unknown or has no value
+     *     or if the modes conflict
+     */
+    public static Options parse(String[] args) throws IllegalArgumentException {
+        Options options = new Options();
+        for (int i = 0; i < args.length; ++i) {
+            String arg = args[i];
+            switch (arg) {
+                case "--incremental" -> options.incremental = true;
+                case "--watch" -> options.watch = true;
+                case "--plugin" -> options.plugin = true;
+                case "--bytecode" -> options.bytecode = true;
+                case "--splice" -> options.splice = true;
+                case "--pipeline" -> options.pipeline = true;
+                case "--parse-threads" ->
+                        options.parseThreads = positive(valueOf(args, ++i, arg), arg);
+                case "--compile-threads" ->
+                        options.compileThreads = positive(valueOf(args, ++i, arg), arg);
+                case "--chunk-size" ->
+                        options.chunkSize = positive(valueOf(args, ++i, arg), arg);
+                case "--heap-budget-mb" ->
+                        options.heapBudgetMb = positive(valueOf(args, ++i, arg), arg);
+                case "--source-root" ->
+                        options.sourceRoots.add(Paths.get(valueOf(args, ++i, arg)));
+                case "--include" -> options.includes.add(valueOf(args, ++i, arg));
+                case "--exclude" -> options.excludes.add(valueOf(args, ++i, arg));
+                case "--jar" -> options.jar = Paths.get(valueOf(args, ++i, arg));
+                case "--main-class" -> options.mainClass = valueOf(args, ++i, arg);
+                case "--project-dir" -> options.projectDir = Paths.get(valueOf(args, ++i, arg));
+                case "--workspace" -> options.workspace = Paths.get(valueOf(args, ++i, arg));
+                case "--daemon" -> options.daemon = Paths.get(valueOf(args, ++i, arg));
+                case "--connect" -> options.connect = Paths.get(valueOf(args, ++i, arg));
+                case "--stats" -> options.stats = true;
+                case "--check" -> options.check = true;
+                case "--check-report" -> {
+                    options.check = true;
+                    options.checkReport = Paths.get(valueOf(args, ++i, arg));
+                }
+                case "--fail-on-missing" -> options.failOnMissing = true;
+                case "--train" -> options.train = true;
+                case "--report" -> options.report = Paths.get(valueOf(args, ++i, arg));
+                case "--cache" -> options.cacheDir = DEFAULT_CACHE_DIR;
+                case "--cache-dir" -> options.cacheDir = Paths.get(valueOf(args, ++i, arg));
+                case "--cache-max-mb" ->
+                        options.cacheMaxMb = positive(valueOf(args, ++i, arg), arg);
+                case "--index" -> options.indexFile = DEFAULT_INDEX_FILE;
+                case "--index-file" -> options.indexFile = Paths.get(valueOf(args, ++i, arg));
+                case "--remote-cache" -> options.remoteCache = valueOf(args, ++i, arg);
+                case "--remote-cache-timeout-ms" ->
+                        options.remoteCacheTimeoutMs = positive(valueOf(args, ++i, arg), arg);
+                case "--classpath" -> options.classpath = valueOf(args, ++i, arg);
+                case "--encoding" -> options.encoding = charset(valueOf(args, ++i, arg), arg);
+                case "--release" -> options.release = valueOf(args, ++i, arg);
+                case "--source" -> options.source = valueOf(args, ++i, arg);
+                case "--target" -> options.target = valueOf(args, ++i, arg);
+                case "-d" -> options.outputDir = Paths.get(valueOf(args, ++i, arg));
+                default -> throw new IllegalArgumentException("unknown option \"" + arg + "\"");
+            }
+        }
+        checkModes(options);
+        return options;
+    }
+
+    /** Rejects a combination of modes, which the {@link Compiler} would resolve silently. */
+    private static void checkModes(Options options) {
+        List<String> modes = new ArrayList<>();
+        if (options.daemon != null) {
+            modes.add("--daemon");
+        }
+        if (options.watch) {
+            modes.add("--watch");
+        } else if (options.incremental) {
+            modes.add("--incremental");
+        }
+        if (options.train) {
+            modes.add("--train");
+        }
+        if (options.check) {
+            modes.add(options.checkReport == null ? "--check" : "--check-report");
+        }
+        if (options.workspace != null) {
+            modes.add("--workspace");
+        }
+        if (options.pipeline) {
+            modes.add("--pipeline");
+        }
+        if (options.bytecode) {
+            modes.add("--bytecode");
+        }
+        if (options.chunkSize > 0) {
+            modes.add("--chunk-size");
+        }
+        if (options.plugin) {
+            modes.add("--plugin");
+        }
+        if (options.jar != null && !modes.isEmpty()) {
+            modes.add("--jar");
+        }
+        if (options.compileThreads > 1 && options.workspace == null) { // modules of a workspace
+            modes.add("--compile-threads"); // it builds a jar by a single task
+        }
+        if (options.cacheDir != null && !modes.isEmpty()) { // the default mode only
+            modes.add(options.cacheDir.equals(DEFAULT_CACHE_DIR) ? "--cache" : "--cache-dir");
+        }
+        if (options.indexFile != null && !modes.isEmpty()) {
+            modes.add(options.indexFile.equals(DEFAULT_INDEX_FILE) ? "--index" : "--index-file");
+        }
+        if (options.remoteCache != null && !modes.isEmpty()) {
+            modes.add("--remote-cache");
+        }
+        if (modes.size() > 1) {
+            throw new IllegalArgumentException("options \"" + modes.get(0) + "\" and \""
+                    + modes.get(1) + "\" can't be combined");
+        }
+    }
+
+    private static String valueOf(String[] args, int i, String option) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("option \"" + option + "\" requires a value");
+        }
+        return args[i];
+    }
+
+    private static int positive(String value, String option) {
+        try {
+            int number = Integer.parseInt(value);
+            if (number > 0) {
+                return number;
+            }
+        } catch (NumberFormatException exc) {
+            // the message is below
+        }
+        throw new IllegalArgumentException("option \"" + option + "\" requires a positive number");
+    }
+
+    private static Charset charset(String value, String option) {
+        try {
+            return Charset.forName(value);
+        } catch (IllegalArgumentException exc) {
+            throw new IllegalArgumentException("option \"" + option
+                    + "\" requires a supported charset", exc);
+        }
+    }
+
+//-Fields-------------------------------------------------------------------------------------------
+
+    private boolean incremental = false;
+    private boolean watch = false;
+    private boolean plugin = false;
+    private boolean bytecode = false;
+    private int parseThreads = 1;
+    private int compileThreads = 1;
+    private int chunkSize = 0;
+    private int heapBudgetMb = 0;
+    private boolean splice = false;
+    private boolean pipeline = false;
+    private final List<Path> sourceRoots = new ArrayList<>();
+    private final List<String> includes = new ArrayList<>();
+    private final List<String> excludes = new ArrayList<>();
+    private Path projectDir = Paths.get(System.getProperty("user.dir"));
+    private Path outputDir = Paths.get("target", "classes");
+    private Path jar = null;
+    private String mainClass = null;
+    private Path workspace = null;
+    private Path daemon = null;
+    private Path connect = null;
+    private boolean stats = false;
+    private Path report = null;
+    private String remoteCache = null;
+    private int remoteCacheTimeoutMs = 2000;
+    private boolean check = false;
+    private Path checkReport = null;
+    private boolean failOnMissing = false;
+    private boolean train = false;
+    private Path cacheDir = null;
+    private int cacheMaxMb = 256;
+    private String classpath = null;
+    private Charset encoding = GetteredFileObject.DEFAULT_CHARSET;
+    private String release = null;
+    private String source = null;
+    private String target = null;
+    private Path indexFile = null;
+
+//-Getters------------------------------------------------------------------------------------------
+
+    /**
+     * Returns {@code true} if only changed sources and their dependents should be compiled.
+     *
+     * @return {@code true} if only changed sources and their dependents should be compiled.
+     */
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    /**
+     * Returns {@code true} if the process should stay alive and recompile
+     * changed sources and their dependents on changes
+     * (see {@link com.github.druyaned.gettered.watch.Watcher Watcher}).
+     *
+     * @return {@code true} if the process should recompile the sources on changes.
+     */
+    public boolean isWatch() {
+        return watch;
+    }
+
+    /**
+     * Returns {@code true} if getters should be added by the
+     * {@link com.github.druyaned.gettered.plugin.GetteredPlugin javac plugin}
+     * right in the parsed trees instead of rewriting the sources.
+     *
+     * @return {@code true} if getters should be added by the javac plugin.
+     */
+    public boolean isPlugin() {
+        return plugin;
+    }
+
+    /**
+     * Returns {@code true} if the original sources should be compiled and getters
+     * added right into the compiled classes by the
+     * {@link com.github.druyaned.gettered.bytecode.BytecodeCompiler BytecodeCompiler}.
+     *
+     * @return {@code true} if getters should be added into the compiled classes.
+     */
+    public boolean isBytecode() {
+        return bytecode;
+    }
+
+    /**
+     * Returns the number of threads to {@link com.github.druyaned.gettered.sources.Parser parse}
+     * the sources ({@code 1} by default).
+     *
+     * @return the number of threads to parse the sources ({@code 1} by default).
+     */
+    public int getParseThreads() {
+        return parseThreads;
+    }
+
+    /**
+     * Returns the number of threads to compile independent partitions of the sources
+     * (see {@link com.github.druyaned.gettered.partition.PartitionedCompiler
+     * PartitionedCompiler}) or independent modules of the {@link #getWorkspace() workspace};
+     * {@code 1} by default, i.e. a single javac task.
+     *
+     * @return the number of threads to compile the sources ({@code 1} by default).
+     */
+    public int getCompileThreads() {
+        return compileThreads;
+    }
+
+    /**
+     * Returns the number of sources parsed or compiled at a time in bounded memory
+     * (see {@link com.github.druyaned.gettered.chunked.ChunkedCompiler ChunkedCompiler})
+     * or {@code 0} if the sources aren't split into chunks.
+     *
+     * @return the number of sources in a chunk or {@code 0}.
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Returns the heap budget of the chunked compilation in bytes
+     * or {@code 0} if the chunk size shouldn't be reduced.
+     *
+     * @return the heap budget of the chunked compilation in bytes or {@code 0}.
+     */
+    public long getHeapBudgetBytes() {
+        return (long)heapBudgetMb << 20;
+    }
+
+    /**
+     * Returns {@code true} if getters should be inserted into the original content
+     * of the sources instead of printing the classes from their trees
+     * (see {@link com.github.druyaned.gettered.sources.Rewriter#spliced Rewriter.spliced}).
+     *
+     * @return {@code true} if getters should be inserted into the original content.
+     */
+    public boolean isSplice() {
+        return splice;
+    }
+
+    /**
+     * Returns {@code true} if discovery, parse, search and rewrite should run at the same time
+     * (see {@link com.github.druyaned.gettered.pipeline.Pipeline Pipeline}).
+     *
+     * @return {@code true} if the stages of the compilation should run at the same time.
+     */
+    public boolean isPipeline() {
+        return pipeline;
+    }
+
+    /**
+     * Returns the project directory ({@code user.dir} by default).
+     *
+     * @return the project directory ({@code user.dir} by default).
+     */
+    public Path getProjectDir() {
+        return projectDir;
+    }
+
+    /**
+     * Returns the source roots ({@code "src/main/java"} by default).
+     *
+     * @return the source roots ({@code "src/main/java"} by default).
+     */
+    public List<Path> getSourceRoots() {
+        if (sourceRoots.isEmpty()) {
+            return List.of(projectDir.resolve(Paths.get("src", "main", "java")));
+        }
+        List<Path> roots = new ArrayList<>(sourceRoots.size());
+        for (Path sourceRoot : sourceRoots) {
+            roots.add(projectDir.resolve(sourceRoot));
+        }
+        return roots;
+    }
+
+    /**
+     * Returns globs of the sources to be included relative to their source roots
+     * ({@link SourceFilter#DEFAULT_INCLUDE all java-sources} if empty).
+     *
+     * @return globs of the sources to be included.
+     */
+    public List<String> getIncludes() {
+        return Collections.unmodifiableList(includes);
+    }
+
+    /**
+     * Returns globs of the sources and directories to be excluded
+     * relative to their source roots.
+     *
+     * @return globs of the sources and directories to be excluded.
+     */
+    public List<String> getExcludes() {
+        return Collections.unmodifiableList(excludes);
+    }
+
+    /**
+     * Returns the directory of compiled classes ({@code "target/classes"} by default).
+     *
+     * @return the directory of compiled classes ({@code "target/classes"} by default).
+     */
+    public Path getOutputDir() {
+        return projectDir.resolve(outputDir);
+    }
+
+    /**
+     * Returns the jar-file to write compiled classes into without writing them
+     * into the {@link #getOutputDir() output directory} or {@code null}.
+     *
+     * @return the jar-file to write compiled classes into or {@code null}.
+     */
+    public Path getJar() {
+        return jar == null ? null : projectDir.resolve(jar);
+    }
+
+    /**
+     * Returns the {@code Main-Class} of the {@link #getJar() jar-file} manifest or {@code null}.
+     *
+     * @return the {@code Main-Class} of the jar-file manifest or {@code null}.
+     */
+    public String getMainClass() {
+        return mainClass;
+    }
+
+    /**
+     * Returns the file of the modules of a
+     * {@link com.github.druyaned.gettered.workspace.Workspace workspace} to compile
+     * instead of the project or {@code null}.
+     *
+     * @return the workspace file or {@code null}.
+     */
+    public Path getWorkspace() {
+        return workspace == null ? null : projectDir.resolve(workspace);
+    }
+
+    /**
+     * Returns the socket file to serve compile requests on
+     * (see {@link com.github.druyaned.gettered.daemon.Daemon Daemon}) or {@code null}.
+     *
+     * @return the socket file to serve compile requests on or {@code null}.
+     */
+    public Path getDaemon() {
+        return daemon;
+    }
+
+    /**
+     * Returns the socket file of a running daemon to send the compile request to
+     * (see {@link com.github.druyaned.gettered.daemon.DaemonClient DaemonClient})
+     * or {@code null}.
+     *
+     * @return the socket file of a running daemon or {@code null}.
+     */
+    public Path getConnect() {
+        return connect;
+    }
+
+    /**
+     * Returns {@code true} if the {@link #getConnect() connected} daemon
+     * should print its request counts and latency stats instead of compiling.
+     *
+     * @return {@code true} if the connected daemon should print its stats.
+     */
+    public boolean isStats() {
+        return stats;
+    }
+
+    /**
+     * Returns the file to write the JSON
+     * {@link com.github.druyaned.gettered.metrics.BuildMetrics build report} into
+     * at exit or {@code null}.
+     *
+     * @return the file to write the JSON build report into at exit or {@code null}.
+     */
+    public Path getReport() {
+        return report == null ? null : projectDir.resolve(report);
+    }
+
+    /**
+     * Returns the location of the {@link com.github.druyaned.gettered.cache.BuildCache
+     * remote build cache}: an {@code http(s)://} URI or a directory (resolved against
+     * the project directory); {@code null} if compiled classes shouldn't be shared.
+     *
+     * @return the location of the remote build cache or {@code null}.
+     */
+    public String getRemoteCache() {
+        if (remoteCache == null || remoteCache.startsWith("http://")
+                || remoteCache.startsWith("https://")) {
+            return remoteCache;
+        }
+        return projectDir.resolve(remoteCache).toString();
+    }
+
+    /**
+     * Returns the timeout of a request to the remote build cache (2 seconds by default).
+     *
+     * @return the timeout of a request to the remote build cache.
+     */
+    public Duration getRemoteCacheTimeout() {
+        return Duration.ofMillis(remoteCacheTimeoutMs);
+    }
+
+    /**
+     * Returns {@code true} if missed getters should only be
+     * {@link com.github.druyaned.gettered.check.Checker reported} without compiling.
+     *
+     * @return {@code true} if missed getters should only be reported.
+     */
+    public boolean isCheck() {
+        return check;
+    }
+
+    /**
+     * Returns the file to write the JSON report of the
+     * {@link com.github.druyaned.gettered.check.Checker check} into or {@code null}
+     * to print it.
+     *
+     * @return the file to write the report of the check into or {@code null}.
+     */
+    public Path getCheckReport() {
+        return checkReport == null ? null : projectDir.resolve(checkReport);
+    }
+
+    /**
+     * Returns {@code true} if the check should fail (the process exits with {@code 1})
+     * when there is a missed getter.
+     *
+     * @return {@code true} if the check should fail when there is a missed getter.
+     */
+    public boolean isFailOnMissing() {
+        return failOnMissing;
+    }
+
+    /**
+     * Returns {@code true} if the compiler should only run the
+     * {@link com.github.druyaned.gettered.cds.Trainer training} against the bundled
+     * sample project, so the classes it loads can be archived.
+     *
+     * @return {@code true} if the compiler should only run the training.
+     */
+    public boolean isTrain() {
+        return train;
+    }
+
+    /**
+     * Returns the directory of the
+     * {@link com.github.druyaned.gettered.cache.RewriteCache rewrite cache}
+     * ({@code "target/gettered-cache"} with {@code --cache}) or {@code null}
+     * if rewritten sources shouldn't be cached.
+     *
+     * @return the directory of the rewrite cache or {@code null}.
+     */
+    public Path getCacheDir() {
+        return cacheDir == null ? null : projectDir.resolve(cacheDir);
+    }
+
+    /**
+     * Returns the size of the rewrite cache in bytes (256 MB by default).
+     *
+     * @return the size of the rewrite cache in bytes.
+     */
+    public long getCacheMaxBytes() {
+        return (long)cacheMaxMb << 20;
+    }
+
+    /**
+     * Returns the file of the {@link com.github.druyaned.gettered.index.GetteredIndex
+     * gettered index} ({@code "target/gettered-index.bin"} with {@code --index})
+     * or {@code null} if the sources should be searched by parsing them.
+     *
+     * @return the file of the gettered index or {@code null}.
+     */
+    public Path getIndexFile() {
+        return indexFile == null ? null : projectDir.resolve(indexFile);
+    }
+
+    /**
+     * Returns the class path of the compilation or {@code null} to compile with
+     * the class path of this process.
+     *
+     * @return the class path of the compilation or {@code null}.
+     */
+    public String getClasspath() {
+        return classpath;
+    }
+
+    /**
+     * Returns the charset of the sources ({@link GetteredFileObject#DEFAULT_CHARSET UTF-8}
+     * by default), like {@code project.build.sourceEncoding} of the {@code pom.xml}.
+     *
+     * @return the charset of the sources.
+     */
+    public Charset getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * Returns the {@code --release} of javac, like {@code maven.compiler.release},
+     * or {@code null} to compile for the running JDK.
+     *
+     * @return the {@code --release} of javac or {@code null}.
+     */
+    public String getRelease() {
+        return release;
+    }
+
+    /**
+     * Returns the {@code -source} of javac, like {@code maven.compiler.source}, or {@code null}.
+     *
+     * @return the {@code -source} of javac or {@code null}.
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Returns the {@code -target} of javac, like {@code maven.compiler.target}, or {@code null}.
+     *
+     * @return the {@code -target} of javac or {@code null}.
+     */
+    public String getTarget() {
+        return target;
+    }
+
+}
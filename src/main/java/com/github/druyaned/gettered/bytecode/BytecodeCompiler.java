@@ -0,0 +1,282 @@
+package com.github.druyaned.gettered.bytecode;
+
+import com.github.druyaned.gettered.Compiler;
+import com.github.druyaned.gettered.Options;
+import com.github.druyaned.gettered.incremental.FileState;
+import com.github.druyaned.gettered.incremental.UnitAnalyzer;
+import com.github.druyaned.gettered.metrics.BuildMetrics;
+import com.github.druyaned.gettered.partition.DependencyGraph;
+import com.github.druyaned.gettered.sources.Parser;
+import com.github.druyaned.gettered.sources.Searcher;
+import com.github.druyaned.gettered.sources.Sources;
+import com.github.druyaned.gettered.sources.UnitToRewrite;
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.IdentifierTree;
+import com.sun.source.tree.MemberReferenceTree;
+import com.sun.source.tree.MemberSelectTree;
+import com.sun.source.tree.MethodInvocationTree;
+import com.sun.source.util.TreeScanner;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import javax.tools.JavaFileObject;
+
+/**
+ * Compiles the original sources and adds the missed getters right into
+ * the compiled classes by the {@link GetterWeaver}, so most of the gettered sources
+ * are neither rewritten nor printed.
+ * <p>
+ * Getters are woven into a gettered class without supertypes only (a missed getter
+ * may implement an abstract method of a supertype, so such a class is rewritten).
+ * A source calling a woven getter or extending a woven class can't be compiled
+ * against the class without the getters, so the sources are split in two:
+ * <ol>
+ * <li>the sources which neither call a woven getter, extend a woven class nor depend
+ *     on such a source are compiled first and the getters are woven into
+ *     the compiled classes;</li>
+ * <li>the rest (usually a small part) is compiled with the output directory
+ *     on the class path.</li>
+ * </ol>
+ * Other gettered sources are {@link Compiler#fileObjects rewritten} as usual.
+ * Classes are written into the {@link Options#getOutputDir() output directory},
+ * not into a jar-file.
+ *
+ * @author druyaned
+ */
+public class BytecodeCompiler {
+
+    /**
+     * Constructs an instance of the BytecodeCompiler.
+     *
+     * @param options options of the compilation
+     * @return an instance of the BytecodeCompiler.
+     * @throws IllegalArgumentException if the classes should be written into a jar-file
+     */
+    public static BytecodeCompiler instance(Options options) throws IllegalArgumentException {
+        if (options.getJar() != null) {
+            throw new IllegalArgumentException(
+                    "getters are woven into the output directory, not into a jar-file");
+        }
+        return new BytecodeCompiler(options);
+    }
+
+//-Fields-------------------------------------------------------------------------------------------
+
+    private final Options options;
+
+//-Constructors-------------------------------------------------------------------------------------
+
+    private BytecodeCompiler(Options options) {
+        this.options = options;
+    }
+
+//-Methods------------------------------------------------------------------------------------------
+
+    /**
+     * Compiles the project sources and weaves the missed getters.
+     *
+     * @return {@code true} if the compilation succeeded
+     */
+    public boolean compile() {
+        BuildMetrics metrics = BuildMetrics.instance();
+        List<Path> sources = metrics.phase("discover", () -> Sources.get(options));
+        List<CompilationUnitTree> compUnits = new ArrayList<>(sources.size());
+        metrics.phase("parse", () -> Parser.getCompilationUnits(sources,
+                options.getParseThreads(), options.getEncoding())).forEach(compUnits::add);
+        List<UnitToRewrite> unitsToRewrite = metrics.phase("search",
+                () -> Searcher.instance().unitsToRewriteIn(compUnits));
+        Map<CompilationUnitTree, List<UnitToRewrite>> unitToRewrites = new IdentityHashMap<>();
+        for (UnitToRewrite unitToRewrite : unitsToRewrite) {
+            unitToRewrites.computeIfAbsent(unitToRewrite.getUnit(), u -> new ArrayList<>())
+                    .add(unitToRewrite);
+        }
+        boolean[] woven = new boolean[compUnits.size()];
+        boolean[] second = metrics.phase("partition",
+                () -> split(compUnits, unitToRewrites, woven));
+        List<CompilationUnitTree> firstUnits = new ArrayList<>();
+        List<CompilationUnitTree> secondUnits = new ArrayList<>();
+        List<UnitToRewrite> toRewrite = new ArrayList<>();
+        List<UnitToRewrite> toWeave = new ArrayList<>();
+        for (int i = 0; i < compUnits.size(); ++i) {
+            CompilationUnitTree compUnit = compUnits.get(i);
+            (second[i] ? secondUnits : firstUnits).add(compUnit);
+            (woven[i] && !second[i] ? toWeave : toRewrite)
+                    .addAll(unitToRewrites.getOrDefault(compUnit, List.of()));
+        }
+        List<String> javacOptions = new ArrayList<>(Compiler.options(options.getOutputDir()));
+        String classPath = options.getOutputDir() + File.pathSeparator
+                + Objects.requireNonNullElse(options.getClasspath(),
+                        System.getProperty("java.class.path"));
+        javacOptions.addAll(Arrays.asList("-classpath", classPath));
+        javacOptions.addAll(Compiler.sourceOptions(options));
+        for (List<CompilationUnitTree> units : List.of(firstUnits, secondUnits)) {
+            if (units.isEmpty()) {
+                continue;
+            }
+            List<JavaFileObject> files = metrics.phase("rewrite",
+                    () -> Compiler.fileObjects(units, toRewrite, options.isSplice(),
+                            options.getEncoding()));
+            if (!Compiler.compile(files, javacOptions)) {
+                return false;
+            }
+            if (units == firstUnits && !toWeave.isEmpty()) {
+                metrics.phase("weave", () -> {
+                    weave(toWeave);
+                    return null;
+                });
+            }
+        }
+        return true;
+    }
+
+//-Private-methods----------------------------------------------------------------------------------
+
+    /**
+     * Marks the units to weave ({@code woven[i]} is the flag of {@code compUnits.get(i)})
+     * and returns flags of the units compiled after the weaving: the ones calling
+     * a woven getter, extending a woven class or depending on such a unit.
+     */
+    private static boolean[] split(List<CompilationUnitTree> compUnits,
+            Map<CompilationUnitTree, List<UnitToRewrite>> unitToRewrites, boolean[] woven) {
+        boolean[] second = new boolean[compUnits.size()];
+        Set<String> wovenGetters = new HashSet<>();
+        for (int i = 0; i < compUnits.size(); ++i) {
+            List<UnitToRewrite> units = unitToRewrites.get(compUnits.get(i));
+            if (units != null && units.stream().map(UnitToRewrite::getClassTree)
+                    .allMatch(c -> c.getExtendsClause() == null
+                            && c.getImplementsClause().isEmpty())) {
+                woven[i] = true;
+                units.forEach(u -> wovenGetters.addAll(u.getMissedGetterToVar().keySet()));
+            }
+        }
+        if (wovenGetters.isEmpty()) {
+            return second;
+        }
+        List<FileState> states = new ArrayList<>(compUnits.size());
+        for (CompilationUnitTree compUnit : compUnits) {
+            states.add(UnitAnalyzer.analyze(compUnit.getSourceFile().toUri().toString(), "",
+                    compUnit, unitToRewrites.getOrDefault(compUnit, List.of())));
+        }
+        DependencyGraph graph = DependencyGraph.of(states);
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int i = 0; i < compUnits.size(); ++i) {
+            Usage usage = usageOf(compUnits.get(i), wovenGetters);
+            boolean extendsWoven = false;
+            if (usage == Usage.EXTENDS) {
+                for (int dependency : graph.dependenciesOf(i)) {
+                    extendsWoven |= woven[dependency];
+                }
+            }
+            if (usage == Usage.CALLS || extendsWoven) {
+                second[i] = true;
+                queue.add(i);
+            }
+        }
+        List<List<Integer>> dependents = new ArrayList<>(graph.size());
+        for (int node = 0; node < graph.size(); ++node) {
+            dependents.add(new ArrayList<>());
+        }
+        for (int node = 0; node < graph.size(); ++node) {
+            for (int dependency : graph.dependenciesOf(node)) {
+                dependents.get(dependency).add(node);
+            }
+        }
+        while (!queue.isEmpty()) {
+            for (int dependent : dependents.get(queue.poll())) {
+                if (!second[dependent]) {
+                    second[dependent] = true;
+                    queue.add(dependent);
+                }
+            }
+        }
+        return second;
+    }
+
+    /** How a unit may use the woven getters. */
+    private enum Usage { NONE, EXTENDS, CALLS }
+
+    /**
+     * Returns {@link Usage#CALLS} if the unit invokes or references a method named
+     * as one of the woven getters, {@link Usage#EXTENDS} if a class of the unit
+     * has supertypes (one of them may be woven) or {@link Usage#NONE} otherwise.
+     */
+    private static Usage usageOf(CompilationUnitTree compUnit, Set<String> wovenGetters) {
+        Usage[] usage = {Usage.NONE};
+        compUnit.accept(new TreeScanner<Void, Void>() {
+            @Override
+            public Void visitClass(ClassTree node, Void p) {
+                if (usage[0] == Usage.NONE && (node.getExtendsClause() != null
+                        || !node.getImplementsClause().isEmpty())) {
+                    usage[0] = Usage.EXTENDS;
+                }
+                return super.visitClass(node, p);
+            }
+
+            @Override
+            public Void visitMethodInvocation(MethodInvocationTree node, Void p) {
+                ExpressionTree select = node.getMethodSelect();
+                String name = select instanceof MemberSelectTree memberSelect
+                        ? memberSelect.getIdentifier().toString()
+                        : ((IdentifierTree)select).getName().toString();
+                if (wovenGetters.contains(name)) {
+                    usage[0] = Usage.CALLS;
+                }
+                return super.visitMethodInvocation(node, p);
+            }
+
+            @Override
+            public Void visitMemberReference(MemberReferenceTree node, Void p) {
+                if (wovenGetters.contains(node.getName().toString())) {
+                    usage[0] = Usage.CALLS;
+                }
+                return super.visitMemberReference(node, p);
+            }
+        }, null);
+        return usage[0];
+    }
+
+    /**
+     * Weaves the missed getters into the compiled classes of the units.
+     */
+    private void weave(List<UnitToRewrite> unitsToWeave) {
+        for (UnitToRewrite unitToWeave : unitsToWeave) {
+            long start = System.nanoTime();
+            String className = unitToWeave.getClassTree().getSimpleName().toString();
+            ExpressionTree packageName = unitToWeave.getUnit().getPackageName();
+            Path classFile = packageName == null
+                    ? options.getOutputDir()
+                    : options.getOutputDir().resolve(
+                            packageName.toString().replace('.', File.separatorChar));
+            classFile = classFile.resolve(className + ".class");
+            List<String> missedGetters = List.copyOf(unitToWeave.getMissedGetterToVar().keySet());
+            try {
+                ClassFile woven = ClassFile.read(Files.readAllBytes(classFile));
+                List<String> getters = GetterWeaver.weave(woven);
+                if (!getters.equals(missedGetters)) {
+                    throw new IllegalStateException("getters " + getters + " of " + classFile
+                            + " differ from the missed ones " + missedGetters);
+                }
+                Files.write(classFile, woven.toBytes());
+            } catch (IOException exc) {
+                throw new UncheckedIOException(exc);
+            }
+            BuildMetrics.instance().rewritten(className, missedGetters.size(), null,
+                    System.nanoTime() - start);
+        }
+    }
+
+}
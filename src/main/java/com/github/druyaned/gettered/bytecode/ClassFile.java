@@ -0,0 +1,427 @@
+package com.github.druyaned.gettered.bytecode;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A minimal class-file reader and writer
+ * (<a href="https://docs.oracle.com/javase/specs/jvms/se17/html/jvms-4.html">JVMS 4</a>).
+ * <p>
+ * The constant pool is kept as raw entries and attributes as raw bytes,
+ * so a class is written back exactly as it was read. Entries can only be appended
+ * to the pool and members to the class, so the indices referenced by the existing
+ * attributes stay valid.
+ *
+ * @author druyaned
+ * @see GetterWeaver
+ */
+public class ClassFile {
+
+    public static final int ACC_PUBLIC = 0x0001;
+    public static final int ACC_STATIC = 0x0008;
+    public static final int ACC_INTERFACE = 0x0200;
+    public static final int ACC_SYNTHETIC = 0x1000;
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int MAX_POOL_SIZE = 0xFFFF;
+
+    private static final int UTF8 = 1;
+    private static final int INTEGER = 3;
+    private static final int FLOAT = 4;
+    private static final int LONG = 5;
+    private static final int DOUBLE = 6;
+    private static final int CLASS = 7;
+    private static final int STRING = 8;
+    private static final int FIELD_REF = 9;
+    private static final int METHOD_REF = 10;
+    private static final int INTERFACE_METHOD_REF = 11;
+    private static final int NAME_AND_TYPE = 12;
+    private static final int METHOD_HANDLE = 15;
+    private static final int METHOD_TYPE = 16;
+    private static final int DYNAMIC = 17;
+    private static final int INVOKE_DYNAMIC = 18;
+    private static final int MODULE = 19;
+    private static final int PACKAGE = 20;
+
+    /**
+     * Reads a class file.
+     *
+     * @param bytes content of the class file
+     * @return the read class file.
+     * @throws IllegalArgumentException if the content isn't a valid class file
+     */
+    public static ClassFile read(byte[] bytes) throws IllegalArgumentException {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+            if (in.readInt() != MAGIC) {
+                throw new IllegalArgumentException("not a class file");
+            }
+            ClassFile classFile = new ClassFile(in.readUnsignedShort(), in.readUnsignedShort());
+            int poolSize = in.readUnsignedShort();
+            classFile.pool.add(null); // entries start at 1
+            while (classFile.pool.size() < poolSize) {
+                classFile.readEntry(in);
+            }
+            classFile.accessFlags = in.readUnsignedShort();
+            classFile.thisClass = in.readUnsignedShort();
+            classFile.superClass = in.readUnsignedShort();
+            int[] interfaces = new int[in.readUnsignedShort()];
+            for (int i = 0; i < interfaces.length; ++i) {
+                interfaces[i] = in.readUnsignedShort();
+            }
+            classFile.interfaces = interfaces;
+            readMembers(in, classFile.fields);
+            readMembers(in, classFile.methods);
+            readAttributes(in, classFile.attributes);
+            if (in.available() != 0) {
+                throw new IllegalArgumentException(in.available() + " extra bytes at the end");
+            }
+            return classFile;
+        } catch (IOException exc) {
+            throw new IllegalArgumentException("truncated class file", exc);
+        }
+    }
+
+//-Fields-------------------------------------------------------------------------------------------
+
+    private final int minorVersion;
+    private final int majorVersion;
+    /** Raw entries with their tags; the second slots of longs and doubles are {@code null}. */
+    private final List<byte[]> pool = new ArrayList<>();
+    private final Map<String, Integer> utf8ToIndex = new HashMap<>();
+    private final Map<String, Integer> keyToIndex = new HashMap<>();
+    private int accessFlags;
+    private int thisClass;
+    private int superClass;
+    private int[] interfaces;
+    private final List<Member> fields = new ArrayList<>();
+    private final List<Member> methods = new ArrayList<>();
+    private final List<Attribute> attributes = new ArrayList<>();
+
+//-Constructors-------------------------------------------------------------------------------------
+
+    private ClassFile(int minorVersion, int majorVersion) {
+        this.minorVersion = minorVersion;
+        this.majorVersion = majorVersion;
+    }
+
+//-Methods------------------------------------------------------------------------------------------
+
+    /**
+     * Writes the class file.
+     *
+     * @return content of the class file.
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeShort(minorVersion);
+            out.writeShort(majorVersion);
+            out.writeShort(pool.size());
+            for (byte[] entry : pool) {
+                if (entry != null) {
+                    out.write(entry);
+                }
+            }
+            out.writeShort(accessFlags);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(interfaces.length);
+            for (int anInterface : interfaces) {
+                out.writeShort(anInterface);
+            }
+            writeMembers(out, fields);
+            writeMembers(out, methods);
+            writeAttributes(out, attributes);
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Returns the string of the {@code CONSTANT_Utf8} entry.
+     *
+     * @param index index of the entry in the constant pool
+     * @return the string of the entry.
+     * @throws IllegalArgumentException if the entry isn't a {@code CONSTANT_Utf8} one
+     */
+    public String utf8At(int index) throws IllegalArgumentException {
+        byte[] entry = index > 0 && index < pool.size() ? pool.get(index) : null;
+        if (entry == null || entry[0] != UTF8) {
+            throw new IllegalArgumentException("#" + index + " isn't a CONSTANT_Utf8 entry");
+        }
+        try {
+            return new DataInputStream(new ByteArrayInputStream(entry, 1, entry.length - 1))
+                    .readUTF();
+        } catch (IOException exc) {
+            throw new IllegalArgumentException("#" + index + " is malformed", exc);
+        }
+    }
+
+    /**
+     * Returns the index of the {@code CONSTANT_Utf8} entry adding it if there is none.
+     *
+     * @param string string of the entry
+     * @return the index of the entry.
+     */
+    public int utf8(String string) {
+        Integer index = utf8ToIndex.get(string);
+        if (index != null) {
+            return index;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(string.length() + 3);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(UTF8);
+            out.writeUTF(string);
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+        int added = add(bytes.toByteArray(), 1);
+        utf8ToIndex.put(string, added);
+        return added;
+    }
+
+    /**
+     * Returns the index of the {@code CONSTANT_Fieldref} entry of a field of this class
+     * adding it (and its {@code CONSTANT_NameAndType}) if there is none.
+     *
+     * @param field field of this class
+     * @return the index of the entry.
+     */
+    public int fieldRef(Member field) {
+        int nameAndType = refEntry(NAME_AND_TYPE, field.getNameIndex(),
+                field.getDescriptorIndex());
+        return refEntry(FIELD_REF, thisClass, nameAndType);
+    }
+
+    /**
+     * Returns the binary name of this class, e.g. {@code "a/b/Outer$Inner"}.
+     *
+     * @return the binary name of this class.
+     */
+    public String getClassName() {
+        byte[] entry = pool.get(thisClass);
+        return utf8At(((entry[1] & 0xFF) << 8) | (entry[2] & 0xFF));
+    }
+
+//-Getters------------------------------------------------------------------------------------------
+
+    public int getMajorVersion() {
+        return majorVersion;
+    }
+
+    public int getAccessFlags() {
+        return accessFlags;
+    }
+
+    /**
+     * Returns the fields of the class; the list is modifiable.
+     *
+     * @return the fields of the class.
+     */
+    public List<Member> getFields() {
+        return fields;
+    }
+
+    /**
+     * Returns the methods of the class; the list is modifiable.
+     *
+     * @return the methods of the class.
+     */
+    public List<Member> getMethods() {
+        return methods;
+    }
+
+    /**
+     * Returns the attributes of the class; the list is modifiable.
+     *
+     * @return the attributes of the class.
+     */
+    public List<Attribute> getAttributes() {
+        return attributes;
+    }
+
+//-Private-methods----------------------------------------------------------------------------------
+
+    private void readEntry(DataInputStream in) throws IOException {
+        int tag = in.readUnsignedByte();
+        int index = pool.size();
+        int length = switch (tag) {
+            case UTF8 -> -1;
+            case CLASS, STRING, METHOD_TYPE, MODULE, PACKAGE -> 2;
+            case METHOD_HANDLE -> 3;
+            case INTEGER, FLOAT, FIELD_REF, METHOD_REF, INTERFACE_METHOD_REF, NAME_AND_TYPE,
+                    DYNAMIC, INVOKE_DYNAMIC -> 4;
+            case LONG, DOUBLE -> 8;
+            default -> throw new IllegalArgumentException("unknown constant tag " + tag
+                    + " at #" + index);
+        };
+        byte[] entry;
+        if (tag == UTF8) {
+            int utf8Length = in.readUnsignedShort();
+            entry = new byte[3 + utf8Length];
+            entry[1] = (byte)(utf8Length >> 8);
+            entry[2] = (byte)utf8Length;
+            in.readFully(entry, 3, utf8Length);
+        } else {
+            entry = new byte[1 + length];
+            in.readFully(entry, 1, length);
+        }
+        entry[0] = (byte)tag;
+        pool.add(entry);
+        if (tag == LONG || tag == DOUBLE) {
+            pool.add(null); // takes two slots
+        } else if (tag == UTF8) {
+            utf8ToIndex.putIfAbsent(utf8At(index), index);
+        } else if (tag == NAME_AND_TYPE || tag == FIELD_REF) {
+            keyToIndex.putIfAbsent(keyOf(tag, u2(entry, 1), u2(entry, 3)), index);
+        }
+    }
+
+    private int refEntry(int tag, int first, int second) {
+        String key = keyOf(tag, first, second);
+        Integer index = keyToIndex.get(key);
+        if (index != null) {
+            return index;
+        }
+        int added = add(new byte[] {(byte)tag, (byte)(first >> 8), (byte)first,
+            (byte)(second >> 8), (byte)second}, 1);
+        keyToIndex.put(key, added);
+        return added;
+    }
+
+    private int add(byte[] entry, int slots) {
+        if (pool.size() + slots > MAX_POOL_SIZE) {
+            throw new IllegalStateException("constant pool of " + getClassName() + " is full");
+        }
+        pool.add(entry);
+        return pool.size() - 1;
+    }
+
+    private static String keyOf(int tag, int first, int second) {
+        return tag + ":" + first + ":" + second;
+    }
+
+    private static int u2(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+    }
+
+    private static void readMembers(DataInputStream in, List<Member> members)
+            throws IOException {
+        for (int i = in.readUnsignedShort(); i > 0; --i) {
+            Member member = new Member(in.readUnsignedShort(), in.readUnsignedShort(),
+                    in.readUnsignedShort());
+            readAttributes(in, member.getAttributes());
+            members.add(member);
+        }
+    }
+
+    private static void readAttributes(DataInputStream in, List<Attribute> attributes)
+            throws IOException {
+        for (int i = in.readUnsignedShort(); i > 0; --i) {
+            int nameIndex = in.readUnsignedShort();
+            byte[] info = new byte[in.readInt()];
+            in.readFully(info);
+            attributes.add(new Attribute(nameIndex, info));
+        }
+    }
+
+    private static void writeMembers(DataOutputStream out, List<Member> members)
+            throws IOException {
+        out.writeShort(members.size());
+        for (Member member : members) {
+            out.writeShort(member.getAccessFlags());
+            out.writeShort(member.getNameIndex());
+            out.writeShort(member.getDescriptorIndex());
+            writeAttributes(out, member.getAttributes());
+        }
+    }
+
+    private static void writeAttributes(DataOutputStream out, List<Attribute> attributes)
+            throws IOException {
+        out.writeShort(attributes.size());
+        for (Attribute attribute : attributes) {
+            out.writeShort(attribute.getNameIndex());
+            out.writeInt(attribute.getInfo().length);
+            out.write(attribute.getInfo());
+        }
+    }
+
+//-Member-------------------------------------------------------------------------------------------
+
+    /**
+     * A field or a method: its access flags, indices of its name and descriptor
+     * in the constant pool and its attributes.
+     */
+    public static class Member {
+
+        private final int accessFlags;
+        private final int nameIndex;
+        private final int descriptorIndex;
+        private final List<Attribute> attributes = new ArrayList<>();
+
+        public Member(int accessFlags, int nameIndex, int descriptorIndex) {
+            this.accessFlags = accessFlags;
+            this.nameIndex = nameIndex;
+            this.descriptorIndex = descriptorIndex;
+        }
+
+        public int getAccessFlags() {
+            return accessFlags;
+        }
+
+        public int getNameIndex() {
+            return nameIndex;
+        }
+
+        public int getDescriptorIndex() {
+            return descriptorIndex;
+        }
+
+        /**
+         * Returns the attributes of the member; the list is modifiable.
+         *
+         * @return the attributes of the member.
+         */
+        public List<Attribute> getAttributes() {
+            return attributes;
+        }
+
+    }
+
+//-Attribute----------------------------------------------------------------------------------------
+
+    /**
+     * An attribute: the index of its name in the constant pool and its raw content.
+     */
+    public static class Attribute {
+
+        private final int nameIndex;
+        private final byte[] info;
+
+        public Attribute(int nameIndex, byte[] info) {
+            this.nameIndex = nameIndex;
+            this.info = info;
+        }
+
+        public int getNameIndex() {
+            return nameIndex;
+        }
+
+        public byte[] getInfo() {
+            return info;
+        }
+
+    }
+
+}
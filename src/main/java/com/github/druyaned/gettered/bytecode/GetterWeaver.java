@@ -0,0 +1,184 @@
+package com.github.druyaned.gettered.bytecode;
+
+import com.github.druyaned.gettered.Gettered;
+import com.github.druyaned.gettered.bytecode.ClassFile.Attribute;
+import com.github.druyaned.gettered.bytecode.ClassFile.Member;
+import com.github.druyaned.gettered.sources.Searcher;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Adds missed getters right into compiled classes annotated by {@link Gettered}
+ * annotation. The getters are the same as the ones inserted into the sources
+ * by the {@link com.github.druyaned.gettered.sources.Rewriter Rewriter}: a public
+ * method named by {@link Searcher#getterNameOf} is added for each declared field
+ * (not generated by javac) if the class has no method of that name; its body is
+ * {@code aload_0, getfield, xreturn} ({@code getstatic, xreturn} for a static field)
+ * and a generic field keeps its generic type in the {@code Signature} of the getter.
+ * <p>
+ * The bodies have no branches, so the added methods need no {@code StackMapTable}
+ * and are verified as they are.
+ *
+ * @author druyaned
+ */
+public class GetterWeaver {
+
+    private static final String GETTERED_SIMPLE_DESCRIPTOR = "LGettered;";
+    private static final String GETTERED_DESCRIPTOR_SUFFIX = "/Gettered;";
+
+    private static final int ALOAD_0 = 0x2A;
+    private static final int GETFIELD = 0xB4;
+    private static final int GETSTATIC = 0xB2;
+    private static final int IRETURN = 0xAC;
+    private static final int LRETURN = 0xAD;
+    private static final int FRETURN = 0xAE;
+    private static final int DRETURN = 0xAF;
+    private static final int ARETURN = 0xB0;
+
+    /**
+     * Adds missed getters into the class if it's annotated by {@link Gettered} annotation.
+     *
+     * @param bytes content of the class file
+     * @return content of the class file with the getters or the same {@code bytes}
+     *         if the class isn't annotated or has no missed getters.
+     * @throws IllegalArgumentException if the content isn't a valid class file
+     */
+    public static byte[] weave(byte[] bytes) throws IllegalArgumentException {
+        ClassFile classFile = ClassFile.read(bytes);
+        if (!isGettered(classFile) || weave(classFile).isEmpty()) {
+            return bytes;
+        }
+        return classFile.toBytes();
+    }
+
+    /**
+     * Adds missed getters into the class whether it's annotated or not.
+     *
+     * @param classFile class to add getters into
+     * @return names of the added getters in the order of the fields.
+     */
+    public static List<String> weave(ClassFile classFile) {
+        Set<String> methodNames = new HashSet<>();
+        for (Member method : classFile.getMethods()) {
+            methodNames.add(classFile.utf8At(method.getNameIndex()));
+        }
+        List<String> added = new ArrayList<>();
+        for (Member field : List.copyOf(classFile.getFields())) {
+            if ((field.getAccessFlags() & ClassFile.ACC_SYNTHETIC) != 0) {
+                continue; // this$0, $VALUES, $assertionsDisabled and so on
+            }
+            String getterName = Searcher.getterNameOf(classFile.utf8At(field.getNameIndex()));
+            if (methodNames.add(getterName)) {
+                classFile.getMethods().add(getterOf(classFile, field, getterName));
+                added.add(getterName);
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Returns {@code true} if the class is annotated by {@link Gettered} annotation,
+     * i.e. its simple name or any qualified one like the sources are.
+     *
+     * @param classFile class to be checked
+     * @return {@code true} if the class is annotated by {@link Gettered} annotation.
+     */
+    public static boolean isGettered(ClassFile classFile) {
+        for (Attribute attribute : classFile.getAttributes()) {
+            String name = classFile.utf8At(attribute.getNameIndex());
+            if (name.equals("RuntimeInvisibleAnnotations")
+                    || name.equals("RuntimeVisibleAnnotations")) {
+                ByteBuffer info = ByteBuffer.wrap(attribute.getInfo());
+                for (int i = u2(info); i > 0; --i) {
+                    String type = classFile.utf8At(u2(info));
+                    if (type.equals(GETTERED_SIMPLE_DESCRIPTOR)
+                            || type.endsWith(GETTERED_DESCRIPTOR_SUFFIX)) {
+                        return true;
+                    }
+                    skipElementValuePairs(info);
+                }
+            }
+        }
+        return false;
+    }
+
+//-Private-methods----------------------------------------------------------------------------------
+
+    private static Member getterOf(ClassFile classFile, Member field, String getterName) {
+        String descriptor = classFile.utf8At(field.getDescriptorIndex());
+        boolean isStatic = (field.getAccessFlags() & ClassFile.ACC_STATIC) != 0;
+        int fieldRef = classFile.fieldRef(field);
+        int slots = descriptor.equals("J") || descriptor.equals("D") ? 2 : 1;
+        ByteBuffer code = ByteBuffer.allocate(isStatic ? 4 : 5);
+        if (!isStatic) {
+            code.put((byte)ALOAD_0);
+        }
+        code.put((byte)(isStatic ? GETSTATIC : GETFIELD)).putShort((short)fieldRef)
+                .put((byte)returnOf(descriptor));
+        ByteBuffer codeAttribute = ByteBuffer.allocate(12 + code.capacity());
+        codeAttribute.putShort((short)slots) // max_stack
+                .putShort((short)1) // max_locals: this
+                .putInt(code.capacity()).put(code.array())
+                .putShort((short)0) // exception_table_length
+                .putShort((short)0); // attributes_count
+        Member getter = new Member(ClassFile.ACC_PUBLIC, classFile.utf8(getterName),
+                classFile.utf8("()" + descriptor));
+        getter.getAttributes().add(new Attribute(classFile.utf8("Code"),
+                codeAttribute.array()));
+        for (Attribute attribute : field.getAttributes()) {
+            if (classFile.utf8At(attribute.getNameIndex()).equals("Signature")) {
+                String signature = classFile.utf8At(u2(ByteBuffer.wrap(attribute.getInfo())));
+                int index = classFile.utf8("()" + signature);
+                getter.getAttributes().add(new Attribute(attribute.getNameIndex(),
+                        new byte[] {(byte)(index >> 8), (byte)index}));
+            }
+        }
+        return getter;
+    }
+
+    private static int returnOf(String descriptor) {
+        return switch (descriptor.charAt(0)) {
+            case 'I', 'Z', 'B', 'C', 'S' -> IRETURN;
+            case 'J' -> LRETURN;
+            case 'F' -> FRETURN;
+            case 'D' -> DRETURN;
+            case 'L', '[' -> ARETURN;
+            default -> throw new IllegalArgumentException("wrong field descriptor \""
+                    + descriptor + "\"");
+        };
+    }
+
+    private static void skipElementValuePairs(ByteBuffer info) {
+        for (int i = u2(info); i > 0; --i) {
+            u2(info); // element_name_index
+            skipElementValue(info);
+        }
+    }
+
+    private static void skipElementValue(ByteBuffer info) {
+        char tag = (char)(info.get() & 0xFF);
+        switch (tag) {
+            case 'B', 'C', 'D', 'F', 'I', 'J', 'S', 'Z', 's', 'c' -> u2(info);
+            case 'e' -> info.getInt(); // type_name_index and const_name_index
+            case '@' -> {
+                u2(info); // type_index
+                skipElementValuePairs(info);
+            }
+            case '[' -> {
+                for (int i = u2(info); i > 0; --i) {
+                    skipElementValue(info);
+                }
+            }
+            default -> throw new IllegalArgumentException("unknown element value tag '"
+                    + tag + "'");
+        }
+    }
+
+    private static int u2(ByteBuffer buffer) {
+        return buffer.getShort() & 0xFFFF;
+    }
+
+}
@@ -0,0 +1,281 @@
+package com.github.druyaned.gettered.cache;
+
+import com.github.druyaned.gettered.Compiler;
+import com.github.druyaned.gettered.Options;
+import com.github.druyaned.gettered.metrics.BuildMetrics;
+import com.github.druyaned.gettered.output.ClassSink;
+import com.github.druyaned.gettered.output.DirectorySink;
+import com.github.druyaned.gettered.output.JarSink;
+import com.github.druyaned.gettered.sources.Hashes;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+import javax.tools.JavaFileObject;
+
+/**
+ * Shares compiled classes of the whole project between the machines building
+ * the same commits through a {@link RemoteCache remote cache}.
+ * <p>
+ * The key is the SHA-256 of the tool version, the JDK version, the rewrite mode,
+ * the {@link Compiler#sourceOptions source options} of javac, the
+ * {@link Hashes#ofClasspath content hash} of the class path and the paths (relative
+ * to the project directory) and content hashes of the sources; the value is a zip of
+ * the compiled classes. An archive with an entry which isn't a class inside the output
+ * is treated as a miss and nothing of it is written.
+ * <p>
+ * On a hit the classes are written into the output directory (or the jar-file)
+ * and nothing is parsed or compiled. On a miss the classes are compiled in memory,
+ * written and uploaded. If the remote cache is unreachable or fails, a warning
+ * is printed and the project is built locally as if there were no cache.
+ * <p><i>USAGE</i>:
+ * <pre>
+ * BuildCache cache = BuildCache.open(options);
+ * if (!cache.lookup(sources)) {
+ *     // parse, search and rewrite the sources into the files
+ *     cache.compile(files);
+ * }
+ * </pre>
+ *
+ * @author druyaned
+ */
+public class BuildCache {
+
+    private static final String CLASS_SUFFIX = ".class";
+
+    /**
+     * Opens the {@link Options#getRemoteCache() remote cache} of the options.
+     *
+     * @param options options of the compilation with the remote cache
+     * @return a build cache of the remote cache.
+     */
+    public static BuildCache open(Options options) {
+        return new BuildCache(RemoteCache.of(options.getRemoteCache(),
+                options.getRemoteCacheTimeout()), options);
+    }
+
+    /**
+     * Returns a build cache of the remote cache.
+     *
+     * @param remote the remote cache
+     * @param options options of the compilation
+     * @return a build cache of the remote cache.
+     */
+    public static BuildCache of(RemoteCache remote, Options options) {
+        return new BuildCache(remote, options);
+    }
+
+//-Fields-------------------------------------------------------------------------------------------
+
+    private final RemoteCache remote;
+    private final Options options;
+    private final PrintStream err = System.err;
+    private String key = null;
+    private boolean reachable = true;
+
+//-Constructors-------------------------------------------------------------------------------------
+
+    private BuildCache(RemoteCache remote, Options options) {
+        this.remote = remote;
+        this.options = options;
+    }
+
+//-Methods------------------------------------------------------------------------------------------
+
+    /**
+     * Looks the classes of the sources up in the remote cache and, on a hit,
+     * writes them into the output.
+     *
+     * @param sources all of the sources of the project
+     * @return {@code true} on a hit, i.e. the sources needn't be compiled.
+     */
+    public boolean lookup(List<Path> sources) {
+        BuildMetrics metrics = BuildMetrics.instance();
+        key = metrics.phase("remote.key", () -> keyOf(sources));
+        byte[] archive = metrics.phase("remote.get", () -> {
+            try {
+                return remote.get(key);
+            } catch (IOException exc) {
+                unreachable(exc);
+                return null;
+            }
+        });
+        if (archive == null) {
+            return false;
+        }
+        try {
+            TreeMap<String, byte[]> classes = classesOf(archive);
+            metrics.phase("remote.restore", () -> {
+                write(sink -> {
+                    for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+                        sink.accept(entry.getKey(), entry.getValue());
+                    }
+                });
+                return null;
+            });
+            return true;
+        } catch (IOException | UncheckedIOException | IllegalArgumentException exc) {
+            err.println("[gettered] broken entry " + key + " of the remote cache,"
+                    + " building locally: " + exc);
+            return false;
+        }
+    }
+
+    /**
+     * Compiles the files in memory, writes the classes into the output and uploads
+     * them into the remote cache under the key of the {@link #lookup looked up} sources.
+     *
+     * @param files files to compile
+     * @return {@code true} if the compilation succeeded
+     * @throws IllegalStateException if the sources aren't looked up
+     */
+    public boolean compile(List<JavaFileObject> files) throws IllegalStateException {
+        if (key == null) {
+            throw new IllegalStateException("the sources aren't looked up");
+        }
+        TreeMap<String, byte[]> classes = new TreeMap<>();
+        try {
+            if (!Compiler.compile(files, Compiler.classpathOptions(options), classes::put)) {
+                return false;
+            }
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+        write(sink -> {
+            for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+                sink.accept(entry.getKey(), entry.getValue());
+            }
+        });
+        if (reachable) {
+            BuildMetrics.instance().phase("remote.put", () -> {
+                try {
+                    remote.put(key, archiveOf(classes));
+                } catch (IOException exc) {
+                    unreachable(exc);
+                }
+                return null;
+            });
+        }
+        return true;
+    }
+
+    public RemoteCache getRemote() {
+        return remote;
+    }
+
+    /**
+     * Returns the key of the {@link #lookup looked up} sources or {@code null}.
+     *
+     * @return the key of the looked up sources or {@code null}.
+     */
+    public String getKey() {
+        return key;
+    }
+
+//-Private-methods----------------------------------------------------------------------------------
+
+    /**
+     * Reads the classes of the archive; an entry which isn't a relative {@code .class}
+     * path inside the output (absolute, with {@code ..} or an empty name) breaks it.
+     */
+    private static TreeMap<String, byte[]> classesOf(byte[] archive) throws IOException {
+        TreeMap<String, byte[]> classes = new TreeMap<>();
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(archive))) {
+            for (ZipEntry entry = in.getNextEntry(); entry != null; entry = in.getNextEntry()) {
+                String name = entry.getName();
+                if (!isClassEntry(name)) {
+                    throw new IOException("unexpected entry \"" + name + "\"");
+                }
+                classes.put(name.substring(0, name.length() - CLASS_SUFFIX.length())
+                        .replace('/', '.'), in.readAllBytes());
+            }
+        }
+        return classes;
+    }
+
+    private static boolean isClassEntry(String name) {
+        if (!name.endsWith(CLASS_SUFFIX) || name.length() == CLASS_SUFFIX.length()
+                || name.startsWith("/") || name.indexOf('\\') != -1
+                || name.indexOf(':') != -1) {
+            return false;
+        }
+        String binaryName = name.substring(0, name.length() - CLASS_SUFFIX.length());
+        for (String segment : binaryName.split("/", -1)) {
+            if (segment.isEmpty() || segment.equals("..") || segment.indexOf('.') != -1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String keyOf(List<Path> sources) {
+        Path projectDir = options.getProjectDir().toAbsolutePath().normalize();
+        TreeMap<String, String> pathToHash = new TreeMap<>();
+        for (Path source : sources) {
+            Path path = source.toAbsolutePath().normalize();
+            pathToHash.put((path.startsWith(projectDir) ? projectDir.relativize(path) : path)
+                    .toString().replace('\\', '/'), Hashes.of(source));
+        }
+        StringBuilder builder = new StringBuilder(96 * (pathToHash.size() + 1));
+        builder.append("gettered ").append(RewriteCache.VERSION).append('\n')
+                .append("java ").append(Runtime.version()).append(' ')
+                .append(System.getProperty("java.vendor")).append('\n')
+                .append("mode ").append(options.isSplice() ? "splice" : "print").append('\n')
+                .append("javac ").append(String.join(" ", Compiler.sourceOptions(options)))
+                .append('\n')
+                .append("classpath ").append(Hashes.ofClasspath(options.getClasspath()))
+                .append('\n');
+        pathToHash.forEach((path, hash) -> builder.append(path).append(' ').append(hash)
+                .append('\n'));
+        return Hashes.of(builder.toString());
+    }
+
+    /** Writes classes by a writer into the jar-file or the output directory. */
+    private void write(ClassWriter writer) {
+        try {
+            if (options.getJar() == null) {
+                writer.write(new DirectorySink(options.getOutputDir()));
+            } else {
+                try (JarSink jar = JarSink.open(options.getJar(), options.getMainClass())) {
+                    writer.write(jar);
+                }
+            }
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+    }
+
+    private static byte[] archiveOf(TreeMap<String, byte[]> classes) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(bytes)) {
+            for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+                ZipEntry zipEntry = new ZipEntry(entry.getKey().replace('.', '/') + CLASS_SUFFIX);
+                zipEntry.setTime(0); // the same classes give the same archive
+                out.putNextEntry(zipEntry);
+                out.write(entry.getValue());
+                out.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private void unreachable(IOException exc) {
+        reachable = false;
+        err.println("[gettered] remote cache is unreachable, building locally: " + exc);
+    }
+
+    /** Passes classes to a sink. */
+    @FunctionalInterface
+    private interface ClassWriter {
+        void write(ClassSink sink) throws IOException;
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.github.druyaned.gettered.cache;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * A {@link RemoteCache remote cache} of a directory, e.g. a network mount shared
+ * by the machines or a local stand-in of an {@link HttpRemoteCache HTTP server}
+ * in tests. A value is a file named by its key and written atomically.
+ *
+ * @author druyaned
+ */
+public class FileRemoteCache implements RemoteCache {
+
+    private static final String TMP_SUFFIX = ".tmp";
+
+//-Fields-------------------------------------------------------------------------------------------
+
+    private final Path dir;
+
+//-Constructors-------------------------------------------------------------------------------------
+
+    /**
+     * Constructs a cache of the directory.
+     *
+     * @param dir directory of the values, it's created on the first write
+     */
+    public FileRemoteCache(Path dir) {
+        this.dir = dir;
+    }
+
+//-Methods------------------------------------------------------------------------------------------
+
+    @Override
+    public byte[] get(String key) throws IOException {
+        try {
+            return Files.readAllBytes(dir.resolve(key));
+        } catch (NoSuchFileException exc) {
+            return null;
+        }
+    }
+
+    @Override
+    public void put(String key, byte[] value) throws IOException {
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, key, TMP_SUFFIX);
+        try {
+            Files.write(tmp, value);
+            try {
+                Files.move(tmp, dir.resolve(key), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException exc) {
+                Files.move(tmp, dir.resolve(key), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    public Path getDir() {
+        return dir;
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.github.druyaned.gettered.cache;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * A {@link RemoteCache remote cache} of an HTTP server: a value is read by
+ * {@code GET <uri>/<key>} ({@code 200} with the value or {@code 404}) and written by
+ * {@code PUT <uri>/<key>} ({@code 2xx}), so any plain HTTP store
+ * (nginx with WebDAV, a bucket behind a proxy) can serve it. Connecting and each
+ * request are limited by the timeout.
+ *
+ * @author druyaned
+ */
+public class HttpRemoteCache implements RemoteCache {
+
+    private static final int OK = 200;
+    private static final int NOT_FOUND = 404;
+
+//-Fields-------------------------------------------------------------------------------------------
+
+    private final URI uri;
+    private final Duration timeout;
+    private final HttpClient client;
+
+//-Constructors-------------------------------------------------------------------------------------
+
+    /**
+     * Constructs a cache of the server.
+     *
+     * @param uri base URI of the values
+     * @param timeout timeout of connecting and of a request
+     */
+    public HttpRemoteCache(URI uri, Duration timeout) {
+        String base = uri.toString();
+        this.uri = URI.create(base.endsWith("/") ? base : base + "/");
+        this.timeout = timeout;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+//-Methods------------------------------------------------------------------------------------------
+
+    @Override
+    public byte[] get(String key) throws IOException {
+        HttpResponse<byte[]> response = send(request(key).GET().build());
+        if (response.statusCode() == NOT_FOUND) {
+            return null;
+        }
+        if (response.statusCode() != OK) {
+            throw new IOException("GET " + uri.resolve(key) + " -> " + response.statusCode());
+        }
+        return response.body();
+    }
+
+    @Override
+    public void put(String key, byte[] value) throws IOException {
+        HttpResponse<byte[]> response = send(request(key)
+                .PUT(HttpRequest.BodyPublishers.ofByteArray(value))
+                .build());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("PUT " + uri.resolve(key) + " -> " + response.statusCode());
+        }
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+
+//-Private-methods----------------------------------------------------------------------------------
+
+    private HttpRequest.Builder request(String key) {
+        return HttpRequest.newBuilder(uri.resolve(key)).timeout(timeout);
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest request) throws IOException {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (InterruptedException exc) {
+            Thread.currentThread().interrupt();
+            throw new IOException("the request is interrupted", exc);
+        }
+    }
+
+}
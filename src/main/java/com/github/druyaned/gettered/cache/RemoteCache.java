@@ -0,0 +1,51 @@
+package com.github.druyaned.gettered.cache;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * A store of build outputs shared by the machines building the same project;
+ * values are opaque bytes addressed by hex keys (see {@link BuildCache}).
+ *
+ * @author druyaned
+ * @see HttpRemoteCache
+ * @see FileRemoteCache
+ */
+public interface RemoteCache {
+
+    /**
+     * Returns a remote cache of the location: an {@link HttpRemoteCache} for an
+     * {@code http(s)://} URI or a {@link FileRemoteCache} of the directory otherwise.
+     *
+     * @param location URI of the server or a directory
+     * @param timeout timeout of a request to the server
+     * @return the remote cache of the location.
+     */
+    static RemoteCache of(String location, Duration timeout) {
+        if (location.startsWith("http://") || location.startsWith("https://")) {
+            return new HttpRemoteCache(URI.create(location), timeout);
+        }
+        return new FileRemoteCache(Path.of(location));
+    }
+
+    /**
+     * Returns the value of the key.
+     *
+     * @param key the key
+     * @return the value of the key or {@code null} if there is none.
+     * @throws IOException if the cache is unreachable or fails
+     */
+    byte[] get(String key) throws IOException;
+
+    /**
+     * Stores the value of the key replacing the previous one.
+     *
+     * @param key the key
+     * @param value the value
+     * @throws IOException if the cache is unreachable or fails
+     */
+    void put(String key, byte[] value) throws IOException;
+
+}
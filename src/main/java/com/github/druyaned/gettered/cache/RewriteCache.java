@@ -0,0 +1,295 @@
+package com.github.druyaned.gettered.cache;
+
+import com.github.druyaned.gettered.Options;
+import com.github.druyaned.gettered.metrics.BuildMetrics;
+import com.github.druyaned.gettered.sources.GetteredFileObject;
+import com.github.druyaned.gettered.sources.Hashes;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * A persistent cache of rewritten sources, so an unchanged gettered source
+ * is neither parsed nor rewritten again.
+ * <p>
+ * An entry is keyed by the SHA-256 of the original source bytes, the tool version,
+ * the rewrite mode and the charset of the sources; its content is the rewritten source
+ * or nothing if the source has no missed getters and is compiled as it is.
+ * Entries are written atomically (into a temporary file which is moved), their
+ * modification times are the access times, and the least recently used ones
+ * are evicted when the cache outgrows its size. A temporary file is deleted
+ * only when it's older than {@link #TMP_MAX_AGE}, since another build sharing
+ * the cache directory may be writing it.
+ * <p><i>USAGE</i>:
+ * <pre>
+ * try (RewriteCache cache = RewriteCache.open(options)) {
+ *     List&lt;Path&gt; misses = cache.lookup(sources, files, plain);
+ *     // parse, search and rewrite the misses into the files, compile the files
+ *     cache.store(files);
+ *     cache.trim();
+ * }
+ * </pre>
+ *
+ * @author druyaned
+ */
+public class RewriteCache implements Closeable {
+
+    /** Version of the tool, so a new version doesn't serve entries of an old one. */
+    public static final String VERSION = Objects.requireNonNullElse(
+            RewriteCache.class.getPackage().getImplementationVersion(), "dev");
+
+    private static final String SUFFIX = ".java";
+    private static final String TMP_SUFFIX = ".tmp";
+
+    /** Age of a temporary file after which it's taken as abandoned by a crashed build. */
+    public static final Duration TMP_MAX_AGE = Duration.ofHours(1);
+
+    /**
+     * Opens the cache of the {@link Options#getCacheDir() cache directory} of the options.
+     *
+     * @param options options with the cache directory and its size
+     * @return the cache of the cache directory.
+     */
+    public static RewriteCache open(Options options) {
+        return open(options.getCacheDir(), options.getCacheMaxBytes(), options.isSplice(),
+                options.getEncoding());
+    }
+
+    /**
+     * Opens the cache of the directory.
+     *
+     * @param dir directory of the cache, it's created if doesn't exist
+     * @param maxBytes size of the cache to {@link #trim() trim} it to
+     * @param splice {@code true} if getters are inserted into the original content
+     * @param charset charset of the sources and the entries
+     * @return the cache of the directory.
+     */
+    public static RewriteCache open(Path dir, long maxBytes, boolean splice, Charset charset) {
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+        return new RewriteCache(dir, maxBytes, splice, charset);
+    }
+
+//-Fields-------------------------------------------------------------------------------------------
+
+    private final Path dir;
+    private final long maxBytes;
+    private final String mode;
+    private final Charset charset;
+    private final StandardJavaFileManager fileManager;
+    private final Map<URI, String> missToKey = new HashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+//-Constructors-------------------------------------------------------------------------------------
+
+    private RewriteCache(Path dir, long maxBytes, boolean splice, Charset charset) {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        this.mode = (splice ? "splice" : "print") + " " + charset.name();
+        this.charset = charset;
+        this.fileManager = ToolProvider.getSystemJavaCompiler()
+                .getStandardFileManager(null, null, charset);
+    }
+
+//-Methods------------------------------------------------------------------------------------------
+
+    /**
+     * Looks the sources up in the cache: a hit is added to the {@code files}
+     * as a {@link GetteredFileObject} served from the cache or to the {@code plain}
+     * sources if it has no missed getters; the misses are returned
+     * and remembered to be {@link #store stored}.
+     *
+     * @param sources sources which may be gettered
+     * @param files receives file objects of the rewritten hits
+     * @param plain receives the hits which are compiled as they are
+     * @return the misses which should be parsed, searched and rewritten.
+     */
+    public List<Path> lookup(List<Path> sources, List<JavaFileObject> files, List<Path> plain) {
+        List<Path> missed = new ArrayList<>();
+        List<Path> rewritten = new ArrayList<>();
+        List<Path> entries = new ArrayList<>();
+        for (Path source : sources) {
+            String key = keyOf(source);
+            Path entry = entryOf(key);
+            long size = touch(entry);
+            if (size < 0) {
+                misses.increment();
+                missed.add(source);
+                missToKey.put(source.toUri().normalize(), key);
+            } else {
+                hits.increment();
+                if (size == 0) {
+                    plain.add(source);
+                } else {
+                    rewritten.add(source);
+                    entries.add(entry);
+                }
+            }
+        }
+        Iterator<Path> entryIterator = entries.iterator();
+        for (JavaFileObject origin : fileManager.getJavaFileObjectsFromPaths(rewritten)) {
+            Path entry = entryIterator.next();
+            files.add(new GetteredFileObject(origin, () -> read(entry), charset));
+        }
+        BuildMetrics.instance().cached(sources.size() - missed.size(), missed.size());
+        return missed;
+    }
+
+    /**
+     * Stores the {@link #lookup looked up} misses: the content of their
+     * {@link GetteredFileObject gettered file objects} or an empty entry for the ones
+     * compiled as they are.
+     *
+     * @param files file objects to compile which include the misses
+     */
+    public void store(List<JavaFileObject> files) {
+        for (JavaFileObject file : files) {
+            String key = missToKey.remove(file.toUri().normalize());
+            if (key != null) {
+                write(key, file instanceof GetteredFileObject getteredFile ? getteredFile : null);
+            }
+        }
+        missToKey.clear();
+    }
+
+    /**
+     * Evicts the least recently used entries until the cache fits its size;
+     * temporary files older than {@link #TMP_MAX_AGE} are deleted too.
+     */
+    public void trim() {
+        List<Entry> entries = new ArrayList<>();
+        long total = 0;
+        long abandonedMillis = System.currentTimeMillis() - TMP_MAX_AGE.toMillis();
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.filter(Files::isRegularFile).toList()) {
+                BasicFileAttributes attributes = Files
+                        .readAttributes(path, BasicFileAttributes.class);
+                if (path.toString().endsWith(TMP_SUFFIX)) {
+                    if (attributes.lastModifiedTime().toMillis() < abandonedMillis) {
+                        Files.deleteIfExists(path);
+                    }
+                    continue;
+                }
+                entries.add(new Entry(path, attributes.size(), attributes.lastModifiedTime()));
+                total += attributes.size();
+            }
+            entries.sort(Comparator.comparing(Entry::accessed));
+            for (Iterator<Entry> iterator = entries.iterator();
+                    total > maxBytes && iterator.hasNext();) {
+                Entry entry = iterator.next();
+                Files.deleteIfExists(entry.path());
+                total -= entry.size();
+            }
+        } catch (NoSuchFileException exc) {
+            // deleted by another process in the meantime
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+    }
+
+    /**
+     * Closes the file manager of the hits; their file objects should be compiled before.
+     */
+    @Override
+    public void close() {
+        try {
+            fileManager.close();
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public Path getDir() {
+        return dir;
+    }
+
+//-Private-methods----------------------------------------------------------------------------------
+
+    private String keyOf(Path source) {
+        return Hashes.of(VERSION + "\0" + mode + "\0" + Hashes.of(source));
+    }
+
+    private Path entryOf(String key) {
+        return dir.resolve(key.substring(0, 2)).resolve(key + SUFFIX);
+    }
+
+    /**
+     * Marks the entry as just used and returns its size or {@code -1} if it doesn't exist.
+     */
+    private static long touch(Path entry) {
+        try {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            return Files.size(entry);
+        } catch (NoSuchFileException exc) {
+            return -1;
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+    }
+
+    private static byte[] read(Path entry) {
+        try {
+            return Files.readAllBytes(entry);
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+    }
+
+    private void write(String key, GetteredFileObject file) {
+        Path entry = entryOf(key);
+        try {
+            Files.createDirectories(entry.getParent());
+            Path tmp = Files.createTempFile(entry.getParent(), key, TMP_SUFFIX);
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                if (file != null) {
+                    file.transferTo(out);
+                }
+            }
+            try {
+                Files.move(tmp, entry, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException exc) {
+                Files.move(tmp, entry, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+    }
+
+    private record Entry(Path path, long size, FileTime accessed) {}
+
+}
@@ -0,0 +1,165 @@
+package com.github.druyaned.gettered.cds;
+
+import com.github.druyaned.gettered.Compiler;
+import com.github.druyaned.gettered.Options;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Runs the {@link Compiler} in its modes against a small sample project bundled into
+ * the jar, so a JVM started with {@code -XX:ArchiveClassesAtExit} archives the classes
+ * of the tool and javac which a real run loads. A JVM started with the archive
+ * ({@code -XX:SharedArchiveFile}) maps them instead of loading and verifying them again,
+ * which is the most of a short run on a small module.
+ * <p>
+ * The sample is extracted into a temporary directory which is deleted after the training.
+ * <p><i>USAGE</i> (the launcher next to the jar does it with {@code --train-cds}):
+ * <pre>
+ * java -XX:ArchiveClassesAtExit=target/gettered.jsa -jar target/gettered-1.0.jar --train
+ * java -XX:SharedArchiveFile=target/gettered.jsa -jar target/gettered-1.0.jar [options]
+ * </pre>
+ *
+ * @author druyaned
+ */
+public class Trainer {
+
+    private static final String SAMPLE_LIST = "sample.list";
+    private static final String SAMPLE_DIR = "sample/";
+    /** Values of these options are resolved against the directory of the sample. */
+    private static final Set<String> PATH_OPTIONS = Set.of("--jar", "--remote-cache",
+            "--check-report");
+
+    static final String[][] MODES = {
+        {},
+        {"--splice"},
+        {"--splice", "--jar", "target/sample.jar", "--main-class", "sample.Main"},
+        {"--plugin"},
+        {"--bytecode"},
+        {"--pipeline"},
+        {"--compile-threads", "2"},
+        {"--chunk-size", "3"},
+        {"--incremental"},
+        {"--incremental"}, // nothing is changed
+        {"--cache"},
+        {"--index"},
+        {"--remote-cache", "target/remote-cache"},
+        {"--remote-cache", "target/remote-cache"}, // restored
+        {"--check-report", "target/check.json"}
+    };
+
+    /**
+     * Constructs an instance of the Trainer.
+     *
+     * @return an instance of the Trainer.
+     */
+    public static Trainer instance() {
+        return new Trainer();
+    }
+
+//-Fields-------------------------------------------------------------------------------------------
+
+    private final PrintStream out = System.out;
+
+//-Constructors-------------------------------------------------------------------------------------
+
+    private Trainer() {}
+
+//-Methods------------------------------------------------------------------------------------------
+
+    /**
+     * Compiles the sample project in each mode of the {@link Compiler}.
+     *
+     * @return {@code true} if all of the modes succeeded.
+     */
+    public boolean train() {
+        Path projectDir = null;
+        try {
+            projectDir = Files.createTempDirectory("gettered-training");
+            int sources = extractSample(projectDir);
+            boolean succeeded = true;
+            for (String[] mode : MODES) {
+                if (!compile(projectDir, mode)) {
+                    out.println("[gettered] training failed in mode " + List.of(mode));
+                    succeeded = false;
+                }
+            }
+            out.println("[gettered] trained on " + sources + " sources in "
+                    + MODES.length + " modes");
+            return succeeded;
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        } finally {
+            if (projectDir != null) {
+                delete(projectDir);
+            }
+        }
+    }
+
+//-Private-methods----------------------------------------------------------------------------------
+
+    /** Compiles the sample in the mode; paths of the mode are put under the project dir. */
+    static boolean compile(Path projectDir, String[] mode) {
+        List<String> args = new ArrayList<>(mode.length + 2);
+        for (int i = 0; i < mode.length; ++i) {
+            args.add(mode[i]);
+            if (PATH_OPTIONS.contains(mode[i]) && i + 1 < mode.length) {
+                args.add(projectDir.resolve(mode[++i]).toString());
+            }
+        }
+        args.add("--project-dir");
+        args.add(projectDir.toString());
+        return Compiler.run(Options.parse(args.toArray(String[]::new)));
+    }
+
+    /** Copies the sources of the sample listed in the {@value #SAMPLE_LIST}. */
+    static int extractSample(Path projectDir) throws IOException {
+        Path sourceDir = projectDir.resolve(Path.of("src", "main", "java"));
+        List<String> names = new ArrayList<>();
+        try (InputStream in = Trainer.class.getResourceAsStream(SAMPLE_LIST)) {
+            if (in == null) {
+                throw new IOException("no " + SAMPLE_LIST + " of the sample project");
+            }
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(in, StandardCharsets.UTF_8));
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (!line.isBlank()) {
+                    names.add(line.strip());
+                }
+            }
+        }
+        for (String name : names) {
+            Path source = sourceDir.resolve(name);
+            Files.createDirectories(source.getParent());
+            try (InputStream in = Trainer.class.getResourceAsStream(SAMPLE_DIR + name)) {
+                if (in == null) {
+                    throw new IOException("no " + name + " of the sample project");
+                }
+                Files.copy(in, source);
+            }
+        }
+        return names.size();
+    }
+
+    private static void delete(Path dir) {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException exc) {
+            // a temporary directory, it's left to the system
+        }
+    }
+
+}
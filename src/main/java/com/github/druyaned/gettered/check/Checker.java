@@ -0,0 +1,168 @@
+package com.github.druyaned.gettered.check;
+
+import com.github.druyaned.gettered.Options;
+import com.github.druyaned.gettered.metrics.BuildMetrics;
+import com.github.druyaned.gettered.sources.Parser;
+import com.github.druyaned.gettered.sources.Prefilter;
+import com.github.druyaned.gettered.sources.Searcher;
+import com.github.druyaned.gettered.sources.Sources;
+import com.github.druyaned.gettered.sources.UnitToRewrite;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.util.SourcePositions;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reports the missed getters of the {@link com.github.druyaned.gettered.Gettered gettered}
+ * classes without compiling anything: only the sources accepted by the {@link Prefilter}
+ * are parsed (by all of the cores unless more {@link Options#getParseThreads()
+ * parse threads} are set) and {@link Searcher searched}.
+ * <p><i>REPORT</i> (the class is qualified, the line is of the field):
+ * <pre>
+ * {
+ *   "filesScanned": 2,
+ *   "filesParsed": 1,
+ *   "classes": 1,
+ *   "missedGetters": 1,
+ *   "units": [
+ *     {"file": "src/main/java/p/Point.java", "class": "p.Point", "getters": [
+ *       {"getter": "getX", "field": "x", "type": "int", "line": 5}
+ *     ]}
+ *   ]
+ * }
+ * </pre>
+ * With {@code --fail-on-missing} the check fails if there is a missed getter,
+ * so the process exits with {@code 1}.
+ *
+ * @author druyaned
+ */
+public class Checker {
+
+    /**
+     * Constructs an instance of the Checker.
+     *
+     * @param options options of the check
+     * @return an instance of the Checker.
+     */
+    public static Checker instance(Options options) {
+        return new Checker(options);
+    }
+
+//-Fields-------------------------------------------------------------------------------------------
+
+    private final Options options;
+    private final PrintStream out = System.out;
+
+//-Constructors-------------------------------------------------------------------------------------
+
+    private Checker(Options options) {
+        this.options = options;
+    }
+
+//-Methods------------------------------------------------------------------------------------------
+
+    /**
+     * Checks the project sources and writes the report into the
+     * {@link Options#getCheckReport() report file} or prints it.
+     *
+     * @return {@code false} if there are missed getters and the check
+     *         {@link Options#isFailOnMissing() fails on them}, {@code true} otherwise
+     */
+    public boolean check() {
+        BuildMetrics metrics = BuildMetrics.instance();
+        List<Path> sources = metrics.phase("discover", () -> Sources.get(options));
+        List<Path> gettered = new ArrayList<>();
+        metrics.phase("prefilter", () -> {
+            Prefilter.split(sources, gettered, new ArrayList<>());
+            return null;
+        });
+        int threads = Math.max(options.getParseThreads(),
+                Runtime.getRuntime().availableProcessors());
+        Iterable<? extends CompilationUnitTree> compUnits = metrics.phase("parse",
+                () -> Parser.getCompilationUnits(gettered, threads, options.getEncoding()));
+        List<UnitToRewrite> unitsToRewrite = metrics.phase("search",
+                () -> Searcher.instance().unitsToRewriteIn(compUnits));
+        String report = metrics.phase("report",
+                () -> report(sources.size(), gettered.size(), unitsToRewrite));
+        Path file = options.getCheckReport();
+        if (file == null) {
+            out.print(report);
+            out.flush();
+        } else {
+            try {
+                Path parent = file.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                Files.writeString(file, report);
+            } catch (IOException exc) {
+                throw new UncheckedIOException(exc);
+            }
+        }
+        return unitsToRewrite.isEmpty() || !options.isFailOnMissing();
+    }
+
+//-Private-methods----------------------------------------------------------------------------------
+
+    private String report(int scanned, int parsed, List<UnitToRewrite> unitsToRewrite) {
+        SourcePositions positions = Parser.sourcePositions();
+        int missed = 0;
+        StringBuilder units = new StringBuilder(256 * unitsToRewrite.size());
+        String separator = "\n";
+        for (UnitToRewrite unitToRewrite : unitsToRewrite) {
+            CompilationUnitTree compUnit = unitToRewrite.getUnit();
+            ExpressionTree packageName = compUnit.getPackageName();
+            String className = unitToRewrite.getClassTree().getSimpleName().toString();
+            units.append(separator).append("    {\"file\": ")
+                    .append(BuildMetrics.quoted(fileOf(compUnit)))
+                    .append(", \"class\": ").append(BuildMetrics.quoted(packageName == null
+                            ? className
+                            : packageName + "." + className))
+                    .append(", \"getters\": [");
+            String getterSeparator = "\n";
+            for (Map.Entry<String, VariableTree> entry
+                    : unitToRewrite.getMissedGetterToVar().entrySet()) {
+                VariableTree varTree = entry.getValue();
+                long line = compUnit.getLineMap().getLineNumber(
+                        positions.getStartPosition(compUnit, varTree));
+                units.append(getterSeparator)
+                        .append("      {\"getter\": ").append(BuildMetrics.quoted(entry.getKey()))
+                        .append(", \"field\": ")
+                        .append(BuildMetrics.quoted(varTree.getName().toString()))
+                        .append(", \"type\": ")
+                        .append(BuildMetrics.quoted(varTree.getType().toString()))
+                        .append(", \"line\": ").append(line).append('}');
+                getterSeparator = ",\n";
+                ++missed;
+            }
+            units.append("\n    ]}");
+            separator = ",\n";
+        }
+        StringBuilder json = new StringBuilder(units.length() + 256);
+        json.append("{\n");
+        json.append("  \"filesScanned\": ").append(scanned).append(",\n");
+        json.append("  \"filesParsed\": ").append(parsed).append(",\n");
+        json.append("  \"classes\": ").append(unitsToRewrite.size()).append(",\n");
+        json.append("  \"missedGetters\": ").append(missed).append(",\n");
+        json.append("  \"units\": [").append(units).append("\n  ]\n}\n");
+        return json.toString();
+    }
+
+    /**
+     * Returns the path of the source relative to the project directory if it's inside.
+     */
+    private String fileOf(CompilationUnitTree compUnit) {
+        Path path = Path.of(compUnit.getSourceFile().toUri()).normalize();
+        Path projectDir = options.getProjectDir().toAbsolutePath().normalize();
+        return (path.startsWith(projectDir) ? projectDir.relativize(path) : path).toString();
+    }
+
+}
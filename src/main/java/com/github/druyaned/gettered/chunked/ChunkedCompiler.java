@@ -0,0 +1,231 @@
+package com.github.druyaned.gettered.chunked;
+
+import com.github.druyaned.gettered.Compiler;
+import com.github.druyaned.gettered.Options;
+import com.github.druyaned.gettered.incremental.FileState;
+import com.github.druyaned.gettered.incremental.UnitAnalyzer;
+import com.github.druyaned.gettered.metrics.BuildMetrics;
+import com.github.druyaned.gettered.partition.DependencyGraph;
+import com.github.druyaned.gettered.sources.GetteredFileObject;
+import com.github.druyaned.gettered.sources.Parser;
+import com.github.druyaned.gettered.sources.RewriteDescriptor;
+import com.github.druyaned.gettered.sources.Searcher;
+import com.github.druyaned.gettered.sources.Sources;
+import com.github.druyaned.gettered.sources.UnitToRewrite;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.util.SourcePositions;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * Compiles very large source trees in bounded memory.
+ * <ol>
+ * <li>scan: the sources are parsed in chunks; a unit to rewrite is reduced
+ *     to a {@link RewriteDescriptor compact descriptor} and each file to its
+ *     {@link FileState declared and referenced names}, then the trees
+ *     of the chunk are released;</li>
+ * <li>compile: the {@link DependencyGraph#components() strongly connected components}
+ *     of the files are compiled in chunks one after another, dependencies first,
+ *     each by its own javac task with the output directory on the class path
+ *     (the classes of the sources left there by a previous build are deleted first);
+ *     the getters are inserted when javac reads a gettered source.</li>
+ * </ol>
+ * So only the trees of one chunk are alive at a time and the peak heap
+ * depends on the chunk size, not on the number of sources. With a heap budget
+ * the chunk size is halved (down to {@value #MIN_CHUNK_SIZE}) while the heap
+ * left after the last garbage collection exceeds the budget. A cycle of classes
+ * larger than a chunk is still compiled as a whole.
+ *
+ * @author druyaned
+ */
+public class ChunkedCompiler {
+
+    private static final int MIN_CHUNK_SIZE = 16;
+
+    /**
+     * Constructs an instance of the ChunkedCompiler.
+     *
+     * @param options options of the compilation
+     * @return an instance of the ChunkedCompiler.
+     * @throws IllegalArgumentException if the classes should be written into a jar-file
+     */
+    public static ChunkedCompiler instance(Options options) throws IllegalArgumentException {
+        if (options.getJar() != null) {
+            throw new IllegalArgumentException(
+                    "chunks are compiled into the output directory, not into a jar-file");
+        }
+        return new ChunkedCompiler(options);
+    }
+
+//-Fields-------------------------------------------------------------------------------------------
+
+    private final Options options;
+    private final long heapBudget;
+    private int chunkSize;
+
+//-Constructors-------------------------------------------------------------------------------------
+
+    private ChunkedCompiler(Options options) {
+        this.options = options;
+        this.heapBudget = options.getHeapBudgetBytes();
+        this.chunkSize = options.getChunkSize();
+    }
+
+//-Methods------------------------------------------------------------------------------------------
+
+    /**
+     * Scans and compiles the project sources chunk by chunk.
+     *
+     * @return {@code true} if the compilation succeeded
+     */
+    public boolean compile() {
+        BuildMetrics metrics = BuildMetrics.instance();
+        List<Path> sources = metrics.phase("discover", () -> Sources.get(options));
+        List<FileState> states = new ArrayList<>(sources.size());
+        RewriteDescriptor[] descriptors = new RewriteDescriptor[sources.size()];
+        metrics.phase("scan", () -> {
+            scan(sources, states, descriptors);
+            return null;
+        });
+        List<int[]> chunks = metrics.phase("partition", () -> chunks(states));
+        // a chunk must see the classes of the previous chunks, never stale ones
+        states.forEach(state -> state.deleteClassFiles(options.getOutputDir()));
+        List<String> javacOptions = new ArrayList<>(Compiler.options(options.getOutputDir()));
+        String classPath = options.getOutputDir() + File.pathSeparator
+                + Objects.requireNonNullElse(options.getClasspath(),
+                        System.getProperty("java.class.path"));
+        javacOptions.addAll(Arrays.asList("-classpath", classPath));
+        javacOptions.addAll(Compiler.sourceOptions(options));
+        for (int[] chunk : chunks) {
+            if (!compile(chunk, sources, descriptors, javacOptions, options.getEncoding())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+//-Private-methods----------------------------------------------------------------------------------
+
+    /**
+     * Parses the sources chunk by chunk keeping only the states of the files
+     * and descriptors of the units to rewrite.
+     */
+    private void scan(List<Path> sources, List<FileState> states,
+            RewriteDescriptor[] descriptors) {
+        Searcher searcher = Searcher.instance();
+        SourcePositions positions = Parser.sourcePositions();
+        BuildMetrics metrics = BuildMetrics.instance();
+        for (int from = 0; from < sources.size();) {
+            List<Path> chunk = sources.subList(from, Math.min(from + chunkSize, sources.size()));
+            int index = from;
+            for (CompilationUnitTree compUnit
+                    : Parser.getCompilationUnits(chunk, options.getParseThreads(),
+                            options.getEncoding())) {
+                List<UnitToRewrite> unitsToRewrite = new ArrayList<>(1);
+                searcher.search(compUnit, unitsToRewrite::add);
+                if (!unitsToRewrite.isEmpty()) {
+                    long start = System.nanoTime();
+                    RewriteDescriptor descriptor = RewriteDescriptor
+                            .of(unitsToRewrite.get(0), positions);
+                    metrics.rewritten(descriptor.getClassName(), descriptor.getGetterCount(),
+                            null, System.nanoTime() - start);
+                    descriptors[index] = descriptor;
+                }
+                states.add(UnitAnalyzer.analyze(sources.get(index).toString(), "", compUnit,
+                        unitsToRewrite));
+                ++index;
+            }
+            from += chunk.size(); // the next chunk may be smaller
+            chunkSize = nextChunkSize();
+        }
+    }
+
+    /**
+     * Groups the strongly connected components into chunks in their compilation order,
+     * so each chunk depends only on itself and the previous chunks.
+     */
+    private List<int[]> chunks(List<FileState> states) {
+        List<int[]> chunks = new ArrayList<>();
+        int[] chunk = new int[0];
+        for (int[] component : DependencyGraph.of(states).components()) {
+            if (chunk.length > 0 && chunk.length + component.length > chunkSize) {
+                chunks.add(chunk);
+                chunk = new int[0];
+            }
+            int length = chunk.length;
+            chunk = Arrays.copyOf(chunk, length + component.length);
+            System.arraycopy(component, 0, chunk, length, component.length);
+        }
+        if (chunk.length > 0) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    /**
+     * Compiles the chunk by its own task and file manager, so nothing
+     * of the compilation stays alive after it.
+     */
+    private static boolean compile(int[] chunk, List<Path> sources,
+            RewriteDescriptor[] descriptors, List<String> javacOptions, Charset charset) {
+        List<Path> paths = new ArrayList<>(chunk.length);
+        for (int node : chunk) {
+            paths.add(sources.get(node));
+        }
+        try (StandardJavaFileManager fileManager = ToolProvider.getSystemJavaCompiler()
+                .getStandardFileManager(null, null, charset)) {
+            List<JavaFileObject> files = new ArrayList<>(chunk.length);
+            Iterator<? extends JavaFileObject> origins = fileManager
+                    .getJavaFileObjectsFromPaths(paths).iterator();
+            for (int node : chunk) {
+                JavaFileObject origin = origins.next();
+                RewriteDescriptor descriptor = descriptors[node];
+                files.add(descriptor == null
+                        ? origin
+                        : new GetteredFileObject(origin, () -> descriptor.content(charset),
+                                charset));
+            }
+            return Compiler.compile(files, javacOptions, fileManager);
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+    }
+
+    /**
+     * Halves the chunk size if the heap left after the last garbage collection
+     * exceeds the budget.
+     */
+    private int nextChunkSize() {
+        if (heapBudget == 0 || chunkSize <= MIN_CHUNK_SIZE) {
+            return chunkSize;
+        }
+        long liveBytes = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                MemoryUsage usage = pool.getCollectionUsage();
+                liveBytes += (usage == null ? pool.getUsage() : usage).getUsed();
+            }
+        }
+        return liveBytes > heapBudget ? Math.max(MIN_CHUNK_SIZE, chunkSize / 2) : chunkSize;
+    }
+
+}
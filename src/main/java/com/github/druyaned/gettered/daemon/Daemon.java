@@ -0,0 +1,241 @@
+package com.github.druyaned.gettered.daemon;
+
+import com.github.druyaned.gettered.Options;
+import com.github.druyaned.gettered.incremental.IncrementalCompiler;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A long-lived compile daemon listening on a Unix domain socket.
+ * <p>
+ * Each project is served by its own cached {@link IncrementalCompiler}, so
+ * repeated requests reuse a warm javac, its file manager (with the JDK platform
+ * classes already looked up) and the state of the previous build.
+ * Requests of different projects run concurrently; requests of the same project
+ * are serialized, since they write into the same output directory.
+ * Only the options the incremental compiler serves are accepted (the sources, the output,
+ * the class path and the javac options); a request with a mode of another compiler,
+ * e.g. {@code --plugin} or {@code --jar}, is answered with an error instead of
+ * being compiled in a way it didn't ask for.
+ * <p><i>PROTOCOL</i> (UTF-8 lines):
+ * <pre>
+ * request:  "compile", {@link Options command-line options} one per line, an empty line
+ *           "stats", an empty line
+ * response: javac messages and "key=value" lines,
+ *           the last line is "status=ok|failed|error millis=n [message=text]"
+ * </pre>
+ *
+ * @author druyaned
+ * @see DaemonClient
+ */
+public class Daemon {
+
+    private static final int MAX_PROJECTS = 16;
+
+    /**
+     * Constructs an instance of the Daemon.
+     *
+     * @param socketFile file of the Unix domain socket
+     * @return an instance of the Daemon.
+     */
+    public static Daemon instance(Path socketFile) {
+        return new Daemon(socketFile);
+    }
+
+//-Fields-------------------------------------------------------------------------------------------
+
+    private final Path socketFile;
+    private final DaemonStats stats = new DaemonStats();
+    private final Map<Path, Object> projectLocks = new ConcurrentHashMap<>();
+    private final Map<String, IncrementalCompiler> compilers = new LinkedHashMap<>(
+            MAX_PROJECTS, 0.75f, true);
+    /** Closes evicted compilers after their running compilations, off the request threads. */
+    private final ExecutorService closer = Executors.newSingleThreadExecutor();
+
+//-Constructors-------------------------------------------------------------------------------------
+
+    private Daemon(Path socketFile) {
+        this.socketFile = socketFile;
+    }
+
+//-Methods------------------------------------------------------------------------------------------
+
+    /**
+     * Serves requests until the thread is interrupted.
+     */
+    public void run() {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try (ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            Files.deleteIfExists(socketFile);
+            server.bind(UnixDomainSocketAddress.of(socketFile));
+            System.out.println("[gettered] daemon is listening on " + socketFile);
+            while (!Thread.currentThread().isInterrupted()) {
+                SocketChannel channel = server.accept();
+                executor.execute(() -> serve(channel));
+            }
+        } catch (ClosedByInterruptException exc) {
+            // interrupted while waiting for a request
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        } finally {
+            executor.shutdownNow();
+            closer.shutdown();
+            try {
+                Files.deleteIfExists(socketFile);
+            } catch (IOException exc) {
+                // nothing to do with a stale socket file on exit
+            }
+        }
+    }
+
+    public DaemonStats getStats() {
+        return stats;
+    }
+
+//-Private-methods----------------------------------------------------------------------------------
+
+    private void serve(SocketChannel channel) {
+        try (channel;
+                BufferedReader in = new BufferedReader(new InputStreamReader(
+                        Channels.newInputStream(channel), StandardCharsets.UTF_8));
+                PrintWriter out = new PrintWriter(new OutputStreamWriter(
+                        Channels.newOutputStream(channel), StandardCharsets.UTF_8))) {
+            String command = in.readLine();
+            List<String> lines = new ArrayList<>();
+            for (String line = in.readLine(); line != null && !line.isEmpty();
+                    line = in.readLine()) {
+                lines.add(line);
+            }
+            if ("compile".equals(command)) {
+                compile(lines, out);
+            } else if ("stats".equals(command)) {
+                stats.lines().forEach(out::println);
+                out.println("status=ok millis=0");
+            } else {
+                out.println("status=error millis=0 message=unknown command " + command);
+            }
+        } catch (IOException exc) {
+            System.err.println("[gettered] request failed: " + exc);
+        }
+    }
+
+    private void compile(List<String> args, PrintWriter out) {
+        long start = System.nanoTime();
+        boolean succeeded = false;
+        String status;
+        String message = null;
+        try {
+            Options options = Options.parse(args.toArray(String[]::new));
+            String unsupported = unsupportedOption(options);
+            if (unsupported != null) {
+                throw new IllegalArgumentException(
+                        "the daemon compiles incrementally, " + unsupported + " isn't supported");
+            }
+            Path projectDir = options.getProjectDir().toAbsolutePath().normalize();
+            String key = projectDir + "\0" + String.join("\0", args);
+            synchronized (projectLocks.computeIfAbsent(projectDir, dir -> new Object())) {
+                IncrementalCompiler compiler = compilerOf(key, options);
+                synchronized (compiler) { // isn't closed while compiling
+                    compiler.setOut(out);
+                    try {
+                        succeeded = compiler.compile();
+                    } finally {
+                        compiler.setOut(null);
+                    }
+                }
+            }
+            status = succeeded ? "ok" : "failed";
+        } catch (RuntimeException exc) {
+            status = "error";
+            message = exc.getMessage() == null ? exc.toString() : exc.getMessage();
+        }
+        long nanos = System.nanoTime() - start;
+        stats.record(nanos, succeeded);
+        out.println("status=" + status + " millis=" + nanos / 1_000_000
+                + (message == null ? "" : " message=" + message));
+    }
+
+    private IncrementalCompiler compilerOf(String key, Options options) {
+        IncrementalCompiler compiler;
+        IncrementalCompiler evicted = null;
+        synchronized (compilers) {
+            compiler = compilers.computeIfAbsent(key, k -> IncrementalCompiler.instance(options));
+            if (compilers.size() > MAX_PROJECTS) { // the least recently used one
+                Iterator<IncrementalCompiler> eldest = compilers.values().iterator();
+                evicted = eldest.next();
+                eldest.remove();
+            }
+        }
+        if (evicted != null) {
+            IncrementalCompiler toClose = evicted;
+            closer.execute(() -> close(toClose));
+        }
+        return compiler;
+    }
+
+    private static void close(IncrementalCompiler compiler) {
+        synchronized (compiler) { // after its compilation if it's still running
+            try {
+                compiler.close();
+            } catch (IOException exc) {
+                System.err.println("[gettered] failed to close an evicted compiler: " + exc);
+            }
+        }
+    }
+
+    /** Returns an option of the request selecting another compiler or {@code null}. */
+    private static String unsupportedOption(Options options) {
+        if (options.getDaemon() != null) {
+            return "--daemon";
+        } else if (options.isWatch()) {
+            return "--watch";
+        } else if (options.isTrain()) {
+            return "--train";
+        } else if (options.isCheck()) {
+            return "--check";
+        } else if (options.getWorkspace() != null) {
+            return "--workspace";
+        } else if (options.isPipeline()) {
+            return "--pipeline";
+        } else if (options.isBytecode()) {
+            return "--bytecode";
+        } else if (options.getChunkSize() > 0) {
+            return "--chunk-size";
+        } else if (options.getCompileThreads() > 1) {
+            return "--compile-threads";
+        } else if (options.isPlugin()) {
+            return "--plugin";
+        } else if (options.getJar() != null) {
+            return "--jar";
+        } else if (options.getCacheDir() != null) {
+            return "--cache";
+        } else if (options.getIndexFile() != null) {
+            return "--index";
+        } else if (options.getRemoteCache() != null) {
+            return "--remote-cache";
+        }
+        return null;
+    }
+
+}
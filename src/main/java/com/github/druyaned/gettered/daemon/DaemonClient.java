@@ -0,0 +1,94 @@
+package com.github.druyaned.gettered.daemon;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A thin client of the {@link Daemon}: sends a request and prints the response.
+ *
+ * @author druyaned
+ */
+public class DaemonClient {
+
+    public static final int OK = 0;
+    public static final int FAILED = 1;
+    public static final int ERROR = 2;
+
+    /**
+     * Sends a compile request of the project with the options to the daemon.
+     *
+     * @param socketFile file of the daemon socket
+     * @param projectDir project directory
+     * @param args command-line options of the client; {@code --connect} is skipped
+     * @param out stream to print the response into
+     * @return {@link #OK}, {@link #FAILED} or {@link #ERROR} status of the request.
+     */
+    public static int compile(Path socketFile, Path projectDir, String[] args,
+            PrintStream out) {
+        List<String> lines = new ArrayList<>();
+        lines.add("--project-dir");
+        lines.add(projectDir.toAbsolutePath().toString());
+        for (int i = 0; i < args.length; ++i) {
+            if (args[i].equals("--connect")) {
+                ++i; // with its value
+            } else {
+                lines.add(args[i]);
+            }
+        }
+        return send(socketFile, "compile", lines, out);
+    }
+
+    /**
+     * Requests the stats of the daemon.
+     *
+     * @param socketFile file of the daemon socket
+     * @param out stream to print the stats into
+     * @return {@link #OK}, {@link #FAILED} or {@link #ERROR} status of the request.
+     */
+    public static int stats(Path socketFile, PrintStream out) {
+        return send(socketFile, "stats", List.of(), out);
+    }
+
+//-Private-methods----------------------------------------------------------------------------------
+
+    private static int send(Path socketFile, String command, List<String> lines,
+            PrintStream out) {
+        try (SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            channel.connect(UnixDomainSocketAddress.of(socketFile));
+            PrintWriter writer = new PrintWriter(new OutputStreamWriter(
+                    Channels.newOutputStream(channel), StandardCharsets.UTF_8));
+            writer.println(command);
+            lines.forEach(writer::println);
+            writer.println();
+            writer.flush();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    Channels.newInputStream(channel), StandardCharsets.UTF_8));
+            int status = ERROR;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                out.println(line);
+                if (line.startsWith("status=ok ")) {
+                    status = OK;
+                } else if (line.startsWith("status=failed ")) {
+                    status = FAILED;
+                }
+            }
+            return status;
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.github.druyaned.gettered.daemon;
+
+import com.github.druyaned.gettered.metrics.Histogram;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request counts and latency stats of the {@link Daemon}; safe for concurrent use.
+ * Latencies are recorded into a {@link Histogram}, so the tail (p95, p99) is reported
+ * next to the average; a percentile is the upper bound of its bucket.
+ *
+ * @author druyaned
+ */
+public class DaemonStats {
+
+//-Fields-------------------------------------------------------------------------------------------
+
+    private final Histogram latencies = new Histogram();
+    private final LongAdder failed = new LongAdder();
+
+//-Methods------------------------------------------------------------------------------------------
+
+    /**
+     * Records a served compile request.
+     *
+     * @param nanos latency of the request in nanoseconds
+     * @param succeeded {@code true} if the compilation succeeded
+     */
+    public void record(long nanos, boolean succeeded) {
+        if (!succeeded) {
+            failed.increment();
+        }
+        latencies.record(nanos);
+    }
+
+    /**
+     * Returns the stats as {@code key=value} lines.
+     *
+     * @return the stats as {@code key=value} lines.
+     */
+    public List<String> lines() {
+        return List.of(
+                "requests=" + latencies.getCount(),
+                "failed=" + failed.sum(),
+                "averageMillis=" + millis(latencies.getMeanMillis()),
+                "p50Millis=" + millis(latencies.getPercentileMillis(50)),
+                "p95Millis=" + millis(latencies.getPercentileMillis(95)),
+                "p99Millis=" + millis(latencies.getPercentileMillis(99)),
+                "maxMillis=" + millis(latencies.getMaxMillis()));
+    }
+
+//-Private-methods----------------------------------------------------------------------------------
+
+    private static String millis(double millis) {
+        return String.format(Locale.ROOT, "%.3f", millis);
+    }
+
+}
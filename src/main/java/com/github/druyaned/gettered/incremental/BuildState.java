@@ -0,0 +1,132 @@
+package com.github.druyaned.gettered.incremental;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A persistent state of the previous build: {@link FileState states}
+ * of all compiled source files by their absolute paths and a fingerprint
+ * of the class path they were compiled against.
+ *
+ * @author druyaned
+ * @see IncrementalCompiler
+ */
+public class BuildState {
+
+//-Static-------------------------------------------------------------------------------------------
+
+    private static final int MAGIC = 0x67657474; // "gett"
+    private static final int VERSION = 2;
+
+    /**
+     * Returns an empty state which makes the next build a full one.
+     *
+     * @return an empty state which makes the next build a full one.
+     */
+    public static BuildState empty() {
+        return new BuildState();
+    }
+
+    /**
+     * Loads the state from the file; returns an {@link #empty() empty} state
+     * if the file doesn't exist or was written by another version.
+     *
+     * @param stateFile file of the state
+     * @return loaded state
+     */
+    public static BuildState load(Path stateFile) {
+        BuildState state = new BuildState();
+        if (!Files.isRegularFile(stateFile)) {
+            return state;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(stateFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return state;
+            }
+            state.classpathHash = in.readUTF();
+            int size = in.readInt();
+            for (int i = 0; i < size; ++i) {
+                state.put(FileState.readFrom(in));
+            }
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+        return state;
+    }
+
+//-Fields-------------------------------------------------------------------------------------------
+
+    private final Map<String, FileState> pathToState = new TreeMap<>();
+    private String classpathHash = "";
+
+//-Methods------------------------------------------------------------------------------------------
+
+    /**
+     * Saves the state into the file atomically.
+     *
+     * @param stateFile file of the state
+     */
+    public void save(Path stateFile) {
+        try {
+            Files.createDirectories(stateFile.toAbsolutePath().getParent());
+            Path tmpFile = stateFile.resolveSibling(stateFile.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(classpathHash);
+                out.writeInt(pathToState.size());
+                for (FileState fileState : pathToState.values()) {
+                    fileState.writeTo(out);
+                }
+            }
+            Files.move(tmpFile, stateFile, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+    }
+
+    public FileState get(String path) {
+        return pathToState.get(path);
+    }
+
+    public void put(FileState fileState) {
+        pathToState.put(fileState.getPath(), fileState);
+    }
+
+    public FileState remove(String path) {
+        return pathToState.remove(path);
+    }
+
+    public Collection<FileState> getFileStates() {
+        return Collections.unmodifiableCollection(pathToState.values());
+    }
+
+    /**
+     * Returns the {@link com.github.druyaned.gettered.sources.Hashes#ofClasspathStamps
+     * fingerprint} of the class path of the build or {@code ""} if it's unknown.
+     *
+     * @return the fingerprint of the class path of the build or {@code ""}.
+     */
+    public String getClasspathHash() {
+        return classpathHash;
+    }
+
+    public void setClasspathHash(String classpathHash) {
+        this.classpathHash = classpathHash;
+    }
+
+}
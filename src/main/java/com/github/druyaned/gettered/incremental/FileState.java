@@ -0,0 +1,211 @@
+package com.github.druyaned.gettered.incremental;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * A persisted state of a single source file: its content hash, declared classes,
+ * {@link com.github.druyaned.gettered.Gettered gettered} classes, referenced names
+ * and a hash of its public API (including the generated getters).
+ *
+ * @author druyaned
+ * @see BuildState
+ * @see UnitAnalyzer
+ */
+public class FileState {
+
+//-Fields-------------------------------------------------------------------------------------------
+
+    private final String path;
+    private final String hash;
+    private final String packageName;
+    private final List<String> classes;
+    private final List<String> getteredClasses;
+    private final Set<String> simpleRefs;
+    private final Set<String> qualifiedRefs;
+    private final Set<String> starImports;
+    private final String apiHash;
+
+//-Constructors-------------------------------------------------------------------------------------
+
+    /**
+     * Constructs a state of a single source file.
+     *
+     * @param path absolute path of the source file
+     * @param hash content hash of the source file
+     * @param packageName package of the source file ({@code ""} for the unnamed one)
+     * @param classes qualified names of the declared top-level classes
+     * @param getteredClasses qualified names of the classes to be rewritten
+     * @param simpleRefs simple names referenced in the source file
+     * @param qualifiedRefs qualified names referenced in the source file
+     * @param starImports packages and classes imported on demand
+     * @param apiHash hash of the public API of the declared classes
+     */
+    public FileState(String path, String hash, String packageName,
+            Collection<String> classes, Collection<String> getteredClasses,
+            Collection<String> simpleRefs, Collection<String> qualifiedRefs,
+            Collection<String> starImports, String apiHash) {
+        this.path = path;
+        this.hash = hash;
+        this.packageName = packageName;
+        this.classes = List.copyOf(classes);
+        this.getteredClasses = List.copyOf(getteredClasses);
+        this.simpleRefs = new TreeSet<>(simpleRefs);
+        this.qualifiedRefs = new TreeSet<>(qualifiedRefs);
+        this.starImports = new TreeSet<>(starImports);
+        this.apiHash = apiHash;
+    }
+
+//-Methods------------------------------------------------------------------------------------------
+
+    /**
+     * Returns {@code true} if the source file may reference the class.
+     *
+     * @param qualifiedClass qualified name of the class
+     * @return {@code true} if the source file may reference the class.
+     */
+    public boolean dependsOn(String qualifiedClass) {
+        if (classes.contains(qualifiedClass)) {
+            return false;
+        }
+        for (String ref : qualifiedRefs) {
+            if (ref.equals(qualifiedClass) || ref.startsWith(qualifiedClass + ".")) {
+                return true;
+            }
+        }
+        int lastDot = qualifiedClass.lastIndexOf('.');
+        String classPackage = lastDot == -1 ? "" : qualifiedClass.substring(0, lastDot);
+        String simpleName = qualifiedClass.substring(lastDot + 1);
+        return simpleRefs.contains(simpleName)
+                && (classPackage.equals(packageName) || starImports.contains(classPackage));
+    }
+
+    /**
+     * Returns {@code true} if the source file may reference any of the classes.
+     *
+     * @param qualifiedClasses qualified names of the classes
+     * @return {@code true} if the source file may reference any of the classes.
+     */
+    public boolean dependsOnAny(Collection<String> qualifiedClasses) {
+        for (String qualifiedClass : qualifiedClasses) {
+            if (dependsOn(qualifiedClass)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Deletes the class files of the declared top-level classes and of their nested
+     * classes from the output directory.
+     *
+     * @param outputDir output directory of the classes
+     */
+    public void deleteClassFiles(Path outputDir) {
+        for (String qualifiedClass : classes) {
+            int lastDot = qualifiedClass.lastIndexOf('.');
+            String simpleName = qualifiedClass.substring(lastDot + 1);
+            Path classDir = lastDot == -1
+                    ? outputDir
+                    : outputDir.resolve(qualifiedClass.substring(0, lastDot).replace('.', '/'));
+            if (!Files.isDirectory(classDir)) {
+                continue;
+            }
+            try (DirectoryStream<Path> classFiles = Files.newDirectoryStream(
+                    classDir, simpleName + "{.class,$*.class}")) {
+                for (Path classFile : classFiles) {
+                    Files.deleteIfExists(classFile);
+                }
+            } catch (IOException exc) {
+                throw new UncheckedIOException(exc);
+            }
+        }
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeUTF(path);
+        out.writeUTF(hash);
+        out.writeUTF(packageName);
+        writeStrings(out, classes);
+        writeStrings(out, getteredClasses);
+        writeStrings(out, simpleRefs);
+        writeStrings(out, qualifiedRefs);
+        writeStrings(out, starImports);
+        out.writeUTF(apiHash);
+    }
+
+    static FileState readFrom(DataInputStream in) throws IOException {
+        return new FileState(in.readUTF(), in.readUTF(), in.readUTF(),
+                readStrings(in), readStrings(in), readStrings(in), readStrings(in),
+                readStrings(in), in.readUTF());
+    }
+
+//-Getters------------------------------------------------------------------------------------------
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public List<String> getClasses() {
+        return classes;
+    }
+
+    public List<String> getGetteredClasses() {
+        return getteredClasses;
+    }
+
+    public Set<String> getSimpleRefs() {
+        return Collections.unmodifiableSet(simpleRefs);
+    }
+
+    public Set<String> getQualifiedRefs() {
+        return Collections.unmodifiableSet(qualifiedRefs);
+    }
+
+    public Set<String> getStarImports() {
+        return Collections.unmodifiableSet(starImports);
+    }
+
+    public String getApiHash() {
+        return apiHash;
+    }
+
+//-Private-methods----------------------------------------------------------------------------------
+
+    private static void writeStrings(DataOutputStream out, Collection<String> strings)
+            throws IOException {
+        out.writeInt(strings.size());
+        for (String string : strings) {
+            out.writeUTF(string);
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        List<String> strings = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+            strings.add(in.readUTF());
+        }
+        return strings;
+    }
+
+}
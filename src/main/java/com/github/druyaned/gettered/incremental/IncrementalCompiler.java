@@ -0,0 +1,354 @@
+package com.github.druyaned.gettered.incremental;
+
+import com.github.druyaned.gettered.Compiler;
+import com.github.druyaned.gettered.Options;
+import com.github.druyaned.gettered.sources.Hashes;
+import com.github.druyaned.gettered.sources.Parser;
+import com.github.druyaned.gettered.sources.Searcher;
+import com.github.druyaned.gettered.sources.SourceFilter;
+import com.github.druyaned.gettered.sources.Sources;
+import com.github.druyaned.gettered.sources.UnitToRewrite;
+import com.sun.source.tree.CompilationUnitTree;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * Compiles only changed {@link Sources#get() project sources} and their dependents.
+ * <p>
+ * The {@link BuildState state} of the previous build is kept in the
+ * {@code gettered-state} file next to the output directory. A source is changed
+ * if its content hash differs from the persisted one. Dependents of a changed source
+ * are recompiled only if its public API (including the generated getters) has changed
+ * or some of its classes were removed; the API of a class changes with the API
+ * of its supertypes. Unchanged classes are taken from the output
+ * directory which is put on the class path. If the class path (its entries' sizes and
+ * modification times) has changed since the previous build, all sources are compiled.
+ * <p>
+ * An instance keeps the state and a warm file manager between compilations,
+ * so it can be reused to {@link #compile(Collection) compile touched sources}
+ * of a long-lived process which {@link #close() closes} it when it's evicted.
+ *
+ * @author druyaned
+ */
+public class IncrementalCompiler implements Closeable {
+
+    private static final String STATE_FILE_NAME = "gettered-state";
+
+    /**
+     * Constructs an instance of the IncrementalCompiler.
+     *
+     * @param options options of the compilation
+     * @return an instance of the IncrementalCompiler.
+     */
+    public static IncrementalCompiler instance(Options options) {
+        return new IncrementalCompiler(options);
+    }
+
+//-Fields-------------------------------------------------------------------------------------------
+
+    private final Options options;
+    private final Path outputDir;
+    private final Path stateFile;
+    private final int parseThreads;
+    private final boolean splice;
+    private final SourceFilter filter;
+    private StandardJavaFileManager fileManager = null;
+    private BuildState state;
+    private Writer out;
+    private boolean succeeded;
+
+//-Constructors-------------------------------------------------------------------------------------
+
+    private IncrementalCompiler(Options options) {
+        this.options = options;
+        this.outputDir = options.getOutputDir().toAbsolutePath();
+        this.stateFile = outputDir.resolveSibling(STATE_FILE_NAME);
+        this.parseThreads = options.getParseThreads();
+        this.splice = options.isSplice();
+        this.filter = Sources.filterOf(options);
+    }
+
+//-Methods------------------------------------------------------------------------------------------
+
+    /**
+     * Compiles changed sources and their dependents; saves the new state
+     * if the compilation succeeded.
+     *
+     * @return {@code true} if the compilation succeeded or nothing has changed.
+     */
+    public boolean compile() {
+        loadState();
+        Map<String, Path> pathToSource = new LinkedHashMap<>();
+        Map<String, String> pathToHash = new HashMap<>();
+        for (Path source : Sources.get(options)) {
+            String path = keyOf(source);
+            pathToSource.put(path, source);
+            pathToHash.put(path, Hashes.of(source));
+        }
+        return compile(pathToSource, pathToHash);
+    }
+
+    /**
+     * Compiles the touched (created, modified or deleted) sources and their dependents.
+     * The other sources are supposed to be unchanged since the previous compilation
+     * of this instance, so they aren't discovered and hashed again; if the previous
+     * compilation failed or the class path has changed, all sources are
+     * {@link #compile() checked} instead.
+     *
+     * @param touched created, modified or deleted sources
+     * @return {@code true} if the compilation succeeded or nothing has changed.
+     */
+    public boolean compile(Collection<Path> touched) {
+        if (state == null || !succeeded
+                || !state.getClasspathHash().equals(classpathHash())) {
+            return compile();
+        }
+        Map<String, Path> pathToSource = new LinkedHashMap<>();
+        Map<String, String> pathToHash = new HashMap<>();
+        for (FileState fileState : state.getFileStates()) {
+            pathToSource.put(fileState.getPath(), Paths.get(fileState.getPath()));
+            pathToHash.put(fileState.getPath(), fileState.getHash());
+        }
+        for (Path source : touched) {
+            String path = keyOf(source);
+            if (Files.isRegularFile(source) && accepts(source)) {
+                pathToSource.put(path, source);
+                pathToHash.put(path, Hashes.of(source));
+            } else { // a deleted file or directory
+                Path absolute = Paths.get(path);
+                pathToSource.values().removeIf(other -> other.startsWith(absolute));
+            }
+        }
+        pathToHash.keySet().retainAll(pathToSource.keySet());
+        return compile(pathToSource, pathToHash);
+    }
+
+    /**
+     * Sets the writer of javac messages of the next compilations.
+     *
+     * @param out writer of javac messages; {@code System.err} if {@code null}
+     */
+    public void setOut(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Closes the warm file manager; the state is kept and a new file manager
+     * is opened if this instance compiles again.
+     *
+     * @throws IOException if the file manager fails to close
+     */
+    @Override
+    public void close() throws IOException {
+        if (fileManager != null) {
+            try {
+                fileManager.close();
+            } finally {
+                fileManager = null;
+            }
+        }
+    }
+
+//-Private-methods----------------------------------------------------------------------------------
+
+    private StandardJavaFileManager fileManager() {
+        if (fileManager == null) {
+            fileManager = ToolProvider.getSystemJavaCompiler()
+                    .getStandardFileManager(null, null, options.getEncoding());
+        }
+        return fileManager;
+    }
+
+    private boolean compile(Map<String, Path> pathToSource, Map<String, String> pathToHash) {
+        Set<String> toParse = new HashSet<>();
+        for (Map.Entry<String, String> entry : pathToHash.entrySet()) {
+            FileState fileState = state.get(entry.getKey());
+            if (fileState == null || !fileState.getHash().equals(entry.getValue())) {
+                toParse.add(entry.getKey());
+            }
+        }
+        Set<String> changedClasses = new HashSet<>();
+        List<FileState> deleted = new ArrayList<>();
+        for (FileState fileState : state.getFileStates()) {
+            if (!pathToSource.containsKey(fileState.getPath())) {
+                deleted.add(fileState);
+                changedClasses.addAll(fileState.getClasses());
+            }
+        }
+        addDependents(state, pathToSource.keySet(), changedClasses, toParse);
+        Set<String> changedApis = new HashSet<>(changedClasses);
+        Map<String, CompilationUnitTree> parsed = new LinkedHashMap<>();
+        List<UnitToRewrite> unitsToRewrite = new ArrayList<>();
+        Map<String, FileState> newStates = new HashMap<>();
+        while (parsed.size() < toParse.size()) { // parse dependents until the API is stable
+            List<Path> batch = new ArrayList<>();
+            for (String path : toParse) {
+                if (!parsed.containsKey(path)) {
+                    batch.add(pathToSource.get(path));
+                }
+            }
+            Iterable<? extends CompilationUnitTree> compUnits = parseThreads == 1
+                    ? Parser.getCompilationUnits(batch, fileManager(), options.getEncoding())
+                    : Parser.getCompilationUnits(batch, parseThreads, options.getEncoding());
+            List<UnitToRewrite> batchToRewrite = Searcher.instance().unitsToRewriteIn(compUnits);
+            unitsToRewrite.addAll(batchToRewrite);
+            changedClasses.clear();
+            for (CompilationUnitTree compUnit : compUnits) {
+                String path = keyOf(Paths.get(compUnit.getSourceFile().toUri()));
+                parsed.put(path, compUnit);
+                List<UnitToRewrite> rewrites = new ArrayList<>();
+                for (UnitToRewrite unitToRewrite : batchToRewrite) {
+                    if (unitToRewrite.getUnit() == compUnit) {
+                        rewrites.add(unitToRewrite);
+                    }
+                }
+                FileState newState = UnitAnalyzer
+                        .analyze(path, pathToHash.get(path), compUnit, rewrites);
+                newStates.put(path, newState);
+                FileState oldState = state.get(path);
+                if (oldState == null) {
+                    changedClasses.addAll(newState.getClasses());
+                } else if (!oldState.getApiHash().equals(newState.getApiHash())
+                        || !newState.getClasses().containsAll(oldState.getClasses())) {
+                    changedClasses.addAll(oldState.getClasses());
+                    changedClasses.addAll(newState.getClasses());
+                }
+            }
+            changedApis.addAll(changedClasses);
+            addSubclasses(parsed, newStates, changedApis, changedClasses);
+            addDependents(state, pathToSource.keySet(), changedClasses, toParse);
+        }
+        if (parsed.isEmpty() && deleted.isEmpty()) {
+            succeeded = true;
+            return true; // up to date
+        }
+        for (FileState fileState : deleted) {
+            fileState.deleteClassFiles(outputDir);
+        }
+        for (String path : parsed.keySet()) {
+            FileState oldState = state.get(path);
+            if (oldState != null) {
+                oldState.deleteClassFiles(outputDir);
+            }
+        }
+        try { // the warm file manager remembers missing class path entries
+            Files.createDirectories(outputDir);
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+        succeeded = parsed.isEmpty() || Compiler.compile(
+                Compiler.fileObjects(parsed.values(), unitsToRewrite, splice,
+                        options.getEncoding()), options(),
+                fileManager(), out);
+        deleted.forEach(fileState -> state.remove(fileState.getPath()));
+        if (succeeded) {
+            newStates.values().forEach(state::put);
+        } else { // their class files are deleted, so they must be compiled next time
+            parsed.keySet().forEach(state::remove);
+        }
+        state.save(stateFile);
+        return succeeded;
+    }
+
+    /**
+     * Adds paths of the unchanged sources which depend on the changed classes.
+     */
+    private static void addDependents(BuildState state, Set<String> paths,
+            Set<String> changedClasses, Set<String> toParse) {
+        if (changedClasses.isEmpty()) {
+            return;
+        }
+        for (String path : paths) {
+            if (toParse.contains(path)) {
+                continue;
+            }
+            FileState fileState = state.get(path);
+            if (fileState != null && fileState.dependsOnAny(changedClasses)) {
+                toParse.add(path);
+            }
+        }
+    }
+
+    /**
+     * Adds classes of the parsed sources which extend or implement the classes
+     * with changed API: their inherited API has changed too, though their hash is the same.
+     */
+    private static void addSubclasses(Map<String, CompilationUnitTree> parsed,
+            Map<String, FileState> newStates, Set<String> changedApis,
+            Set<String> changedClasses) {
+        boolean added = true;
+        while (added) { // through the whole hierarchy
+            added = false;
+            for (Map.Entry<String, CompilationUnitTree> entry : parsed.entrySet()) {
+                List<String> classes = newStates.get(entry.getKey()).getClasses();
+                if (!changedApis.containsAll(classes)
+                        && UnitAnalyzer.extendsAny(entry.getValue(), changedApis)) {
+                    changedApis.addAll(classes);
+                    changedClasses.addAll(classes);
+                    added = true;
+                }
+            }
+        }
+    }
+
+    private void loadState() {
+        String classpathHash = classpathHash();
+        if (state == null || !Files.isDirectory(outputDir)
+                || !state.getClasspathHash().equals(classpathHash)) {
+            state = Files.isDirectory(outputDir)
+                    ? BuildState.load(stateFile)
+                    : BuildState.empty();
+            if (!state.getClasspathHash().equals(classpathHash)) {
+                state = BuildState.empty(); // everything may be compiled against old classes
+                state.setClasspathHash(classpathHash);
+            }
+        }
+    }
+
+    private String classpathHash() {
+        return Hashes.ofClasspathStamps(options.getClasspath());
+    }
+
+    private boolean accepts(Path source) {
+        Path absolute = source.toAbsolutePath().normalize();
+        for (Path root : options.getSourceRoots()) {
+            Path absoluteRoot = root.toAbsolutePath().normalize();
+            if (absolute.startsWith(absoluteRoot)) {
+                return filter.accepts(absoluteRoot.relativize(absolute));
+            }
+        }
+        return false;
+    }
+
+    private List<String> options() {
+        List<String> options = new ArrayList<>(Compiler.options(outputDir));
+        String classPath = outputDir + File.pathSeparator + Objects.requireNonNullElse(
+                this.options.getClasspath(), System.getProperty("java.class.path"));
+        options.addAll(Arrays.asList("-classpath", classPath));
+        options.addAll(Compiler.sourceOptions(this.options));
+        return options;
+    }
+
+    private static String keyOf(Path source) {
+        return source.toAbsolutePath().normalize().toString();
+    }
+
+}
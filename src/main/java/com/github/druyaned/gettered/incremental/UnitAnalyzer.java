@@ -0,0 +1,196 @@
+package com.github.druyaned.gettered.incremental;
+
+import com.github.druyaned.gettered.sources.Hashes;
+import com.github.druyaned.gettered.sources.UnitToRewrite;
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.IdentifierTree;
+import com.sun.source.tree.ImportTree;
+import com.sun.source.tree.MemberSelectTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.ModifiersTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.util.TreeScanner;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.lang.model.element.Modifier;
+
+/**
+ * Analyzes a {@link CompilationUnitTree compilation unit} to get its {@link FileState state}:
+ * declared classes, referenced names and a hash of the public API.
+ *
+ * @author druyaned
+ */
+public class UnitAnalyzer {
+
+    /**
+     * Returns a {@link FileState state} of the compilation unit.
+     *
+     * @param path absolute path of the source file of the unit
+     * @param hash content hash of the source file of the unit
+     * @param compUnit compilation unit to be analyzed
+     * @param unitsToRewrite units to rewrite of the {@code compUnit}
+     * @return a {@link FileState state} of the compilation unit.
+     */
+    public static FileState analyze(String path, String hash, CompilationUnitTree compUnit,
+            List<UnitToRewrite> unitsToRewrite) {
+        Tree packageTree = compUnit.getPackageName();
+        String packageName = packageTree == null ? "" : packageTree.toString();
+        String prefix = packageName.isEmpty() ? "" : packageName + ".";
+        List<String> classes = new ArrayList<>();
+        List<String> getteredClasses = new ArrayList<>();
+        Set<String> qualifiedRefs = new HashSet<>();
+        Set<String> starImports = new HashSet<>();
+        for (ImportTree importTree : compUnit.getImports()) {
+            String imported = importTree.getQualifiedIdentifier().toString();
+            if (imported.endsWith(".*")) {
+                String target = imported.substring(0, imported.length() - 2);
+                starImports.add(target);
+                qualifiedRefs.add(target); // a class of "import static q.Util.*;"
+            } else {
+                qualifiedRefs.add(imported);
+            }
+        }
+        StringBuilder api = new StringBuilder();
+        for (Tree typeDecl : compUnit.getTypeDecls()) {
+            if (typeDecl instanceof ClassTree classTree) {
+                classes.add(prefix + classTree.getSimpleName());
+                appendApi(api, classTree);
+            }
+        }
+        for (UnitToRewrite unitToRewrite : unitsToRewrite) {
+            getteredClasses.add(prefix + unitToRewrite.getClassTree().getSimpleName());
+            api.append(unitToRewrite.getClassTree().getSimpleName()).append('{');
+            for (Map.Entry<String, VariableTree> entry
+                    : unitToRewrite.getMissedGetterToVar().entrySet()) {
+                api.append("public ").append(entry.getValue().getType())
+                        .append(' ').append(entry.getKey()).append("();");
+            }
+            api.append('}');
+        }
+        Set<String> simpleRefs = new HashSet<>();
+        new TreeScanner<Void, Void>() {
+            @Override
+            public Void visitIdentifier(IdentifierTree node, Void p) {
+                simpleRefs.add(node.getName().toString());
+                return null;
+            }
+
+            @Override
+            public Void visitMemberSelect(MemberSelectTree node, Void p) {
+                qualifiedRefs.add(node.toString());
+                return super.visitMemberSelect(node, p);
+            }
+
+            @Override
+            public Void visitImport(ImportTree node, Void p) {
+                return null; // imports are handled above
+            }
+        }.scan(compUnit, null);
+        return new FileState(path, hash, packageName, classes, getteredClasses,
+                simpleRefs, qualifiedRefs, starImports, Hashes.of(api.toString()));
+    }
+
+    /**
+     * Checks if a class of the compilation unit or a not-private member class of it
+     * extends or implements one of the classes. The supertypes aren't resolved,
+     * so a simple name of the classes in a supertype name is enough.
+     *
+     * @param compUnit compilation unit to be checked
+     * @param classes qualified names of the classes
+     * @return {@code true} if a class of the unit may extend or implement one of the classes.
+     */
+    public static boolean extendsAny(CompilationUnitTree compUnit, Set<String> classes) {
+        Set<String> simpleNames = new HashSet<>();
+        for (String qualifiedName : classes) {
+            simpleNames.add(qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1));
+        }
+        for (Tree typeDecl : compUnit.getTypeDecls()) {
+            if (typeDecl instanceof ClassTree classTree && extendsAny(classTree, simpleNames)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+//-Private-methods----------------------------------------------------------------------------------
+
+    private static boolean extendsAny(ClassTree classTree, Set<String> simpleNames) {
+        List<Tree> supertypes = new ArrayList<>(classTree.getImplementsClause());
+        if (classTree.getExtendsClause() != null) {
+            supertypes.add(classTree.getExtendsClause());
+        }
+        for (Tree supertype : supertypes) {
+            String name = supertype.toString();
+            int typeArgs = name.indexOf('<');
+            for (String part : (typeArgs < 0 ? name : name.substring(0, typeArgs)).split("\\.")) {
+                if (simpleNames.contains(part)) {
+                    return true;
+                }
+            }
+        }
+        for (Tree member : classTree.getMembers()) {
+            if (member instanceof ClassTree nestedTree && !isPrivate(nestedTree.getModifiers())
+                    && extendsAny(nestedTree, simpleNames)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Appends a signature of the not-private members of the class: everything
+     * that other classes can see and javac may inline into them.
+     */
+    private static void appendApi(StringBuilder api, ClassTree classTree) {
+        appendFlags(api, classTree.getModifiers());
+        api.append(classTree.getKind()).append(' ').append(classTree.getSimpleName())
+                .append(classTree.getTypeParameters())
+                .append(" extends ").append(classTree.getExtendsClause())
+                .append(" implements ").append(classTree.getImplementsClause()).append('{');
+        for (Tree member : classTree.getMembers()) {
+            if (member instanceof VariableTree varTree) {
+                if (isPrivate(varTree.getModifiers())) {
+                    continue;
+                }
+                appendFlags(api, varTree.getModifiers());
+                api.append(varTree.getType()).append(' ').append(varTree.getName());
+                if (varTree.getModifiers().getFlags().contains(Modifier.FINAL)) {
+                    api.append('=').append(varTree.getInitializer()); // may be inlined
+                }
+                api.append(';');
+            } else if (member instanceof MethodTree methodTree) {
+                if (isPrivate(methodTree.getModifiers())) {
+                    continue;
+                }
+                appendFlags(api, methodTree.getModifiers());
+                api.append(methodTree.getTypeParameters()).append(methodTree.getReturnType())
+                        .append(' ').append(methodTree.getName()).append('(');
+                for (VariableTree param : methodTree.getParameters()) {
+                    api.append(param.getType()).append(',');
+                }
+                api.append(") throws ").append(methodTree.getThrows()).append(';');
+            } else if (member instanceof ClassTree nestedTree) {
+                if (!isPrivate(nestedTree.getModifiers())) {
+                    appendApi(api, nestedTree);
+                }
+            }
+        }
+        api.append('}');
+    }
+
+    private static void appendFlags(StringBuilder api, ModifiersTree mods) {
+        for (Modifier flag : mods.getFlags()) {
+            api.append(flag).append(' ');
+        }
+    }
+
+    private static boolean isPrivate(ModifiersTree mods) {
+        return mods.getFlags().contains(Modifier.PRIVATE);
+    }
+
+}
@@ -0,0 +1,477 @@
+package com.github.druyaned.gettered.index;
+
+import com.github.druyaned.gettered.sources.Hashes;
+import com.github.druyaned.gettered.sources.Parser;
+import com.github.druyaned.gettered.sources.RewriteDescriptor;
+import com.github.druyaned.gettered.sources.Searcher;
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.util.SourcePositions;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A persistent binary index of the {@link com.github.druyaned.gettered.Gettered gettered}
+ * classes: for each source file its content hash and its gettered classes with their
+ * fields, field types, method names and the offset of the closing brace.
+ * <p>
+ * The index file is memory-mapped on {@link #open open} and read in place, so asking
+ * which units need rewriting and which getters are missed is a binary search over
+ * the file without parsing. It's {@link #update updated} incrementally: only sources
+ * which are new or whose hashes are changed are parsed, the entries of the others
+ * are copied as they are. The hash of a source covers its charset too, since the offsets
+ * are the ones of the decoded content.
+ * <p><i>FORMAT</i> (big-endian, strings are an unsigned short length and UTF-8 bytes):
+ * <pre>
+ * header:  int magic "GIDX", int format, int count
+ * table:   int offset of an entry * count (entries are sorted by their paths)
+ * entry:   string path, string hash, short classCount, class * classCount
+ * class:   string name, int brace, short fieldCount, (string name, string type) * fieldCount,
+ *          short methodCount, string name * methodCount
+ * </pre>
+ *
+ * @author druyaned
+ */
+public class GetteredIndex {
+
+    private static final int MAGIC = 0x47494458; // "GIDX"
+    private static final int FORMAT = 1;
+    private static final int HEADER_BYTES = 12;
+
+    /**
+     * Maps the index file; a missing file or a file of another format
+     * is an empty index which is rebuilt on the {@link #update update}.
+     *
+     * @param file index file
+     * @return the mapped index.
+     */
+    public static GetteredIndex open(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return new GetteredIndex(file, null, 0);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                return new GetteredIndex(file, null, 0);
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT) {
+                return new GetteredIndex(file, null, 0);
+            }
+            return new GetteredIndex(file, buffer, 0);
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+    }
+
+//-Fields-------------------------------------------------------------------------------------------
+
+    private final Path file;
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int parsed;
+
+//-Constructors-------------------------------------------------------------------------------------
+
+    private GetteredIndex(Path file, ByteBuffer buffer, int parsed) {
+        this.file = file;
+        this.buffer = buffer;
+        this.count = buffer == null ? 0 : buffer.getInt(8);
+        this.parsed = parsed;
+    }
+
+//-Methods------------------------------------------------------------------------------------------
+
+    /**
+     * Returns the number of the indexed source files.
+     *
+     * @return the number of the indexed source files.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Returns the indexed state of the source file.
+     *
+     * @param source source file
+     * @return the indexed state of the source file or {@code null} if it isn't indexed.
+     */
+    public IndexedFile find(Path source) {
+        int entry = entryOf(keyOf(source));
+        return entry == -1 ? null : readFile(offsetOf(entry));
+    }
+
+    /**
+     * Returns a descriptor of the first gettered class of the source file
+     * with missed getters (the one the {@link com.github.druyaned.gettered.Compiler Compiler}
+     * rewrites).
+     *
+     * @param source source file
+     * @return a descriptor of the class to rewrite or {@code null} if the source
+     *         isn't indexed or has nothing to rewrite.
+     */
+    public RewriteDescriptor descriptorOf(Path source) {
+        IndexedFile indexedFile = find(source);
+        if (indexedFile == null) {
+            return null;
+        }
+        for (IndexedClass indexedClass : indexedFile.getClasses()) {
+            List<String> fieldNames = new ArrayList<>();
+            List<String> fieldTypes = new ArrayList<>();
+            for (int i = 0; i < indexedClass.getFieldNames().size(); ++i) {
+                String fieldName = indexedClass.getFieldNames().get(i);
+                if (!indexedClass.getMethodNames().contains(Searcher.getterNameOf(fieldName))) {
+                    fieldNames.add(fieldName);
+                    fieldTypes.add(indexedClass.getFieldTypes().get(i));
+                }
+            }
+            if (!fieldNames.isEmpty()) {
+                return RewriteDescriptor.of(source, indexedClass.getName(),
+                        indexedClass.getBrace(), fieldNames, fieldTypes);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Brings the index up to date with the sources and writes it into the file:
+     * new and changed sources are parsed, removed ones are dropped.
+     *
+     * @param sources all of the sources to be indexed
+     * @param parseThreads number of threads to parse the changed sources
+     * @param charset charset of the sources
+     * @return the updated index mapped from the rewritten file.
+     */
+    public GetteredIndex update(List<Path> sources, int parseThreads, Charset charset) {
+        Map<byte[], byte[]> keyToEntry = new TreeMap<>(Arrays::compareUnsigned);
+        Map<String, String> keyToHash = new HashMap<>();
+        List<Path> changed = new ArrayList<>();
+        for (Path source : sources) {
+            byte[] key = keyOf(source);
+            String hash = Hashes.of(charset.name() + "\0" + Hashes.of(source));
+            int entry = entryOf(key);
+            if (entry != -1 && hash.equals(hashAt(offsetOf(entry)))) {
+                byte[] bytes = new byte[lengthOf(entry)];
+                buffer.get(offsetOf(entry), bytes);
+                keyToEntry.put(key, bytes);
+            } else {
+                changed.add(source);
+                keyToHash.put(new String(key, StandardCharsets.UTF_8), hash);
+            }
+        }
+        SourcePositions positions = Parser.sourcePositions();
+        for (CompilationUnitTree compUnit : Parser.getCompilationUnits(changed, parseThreads,
+                charset)) {
+            byte[] key = keyOf(Path.of(compUnit.getSourceFile().toUri()));
+            String path = new String(key, StandardCharsets.UTF_8);
+            keyToEntry.put(key, encode(path, keyToHash.get(path), compUnit, positions));
+        }
+        try {
+            write(keyToEntry);
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+        GetteredIndex updated = open(file);
+        return new GetteredIndex(file, updated.buffer, changed.size());
+    }
+
+//-Getters------------------------------------------------------------------------------------------
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Returns the number of the sources parsed by the {@link #update update}
+     * which has returned this index.
+     *
+     * @return the number of the parsed sources.
+     */
+    public int getParsed() {
+        return parsed;
+    }
+
+//-Private-methods----------------------------------------------------------------------------------
+
+    private static byte[] keyOf(Path source) {
+        return source.toAbsolutePath().normalize().toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private int offsetOf(int entry) {
+        return buffer.getInt(HEADER_BYTES + 4 * entry);
+    }
+
+    private int lengthOf(int entry) {
+        int end = entry + 1 < count ? offsetOf(entry + 1) : buffer.limit();
+        return end - offsetOf(entry);
+    }
+
+    /**
+     * Returns the index of the entry of the key or {@code -1}.
+     */
+    private int entryOf(byte[] key) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = compareKey(offsetOf(middle), key);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    private int compareKey(int offset, byte[] key) {
+        int length = Short.toUnsignedInt(buffer.getShort(offset));
+        for (int i = 0; i < Math.min(length, key.length); ++i) {
+            int comparison = Byte.compareUnsigned(buffer.get(offset + 2 + i), key[i]);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return Integer.compare(length, key.length);
+    }
+
+    private String hashAt(int offset) {
+        Cursor cursor = new Cursor(offset);
+        cursor.string(); // path
+        return cursor.string();
+    }
+
+    private IndexedFile readFile(int offset) {
+        Cursor cursor = new Cursor(offset);
+        String path = cursor.string();
+        String hash = cursor.string();
+        List<IndexedClass> classes = new ArrayList<>();
+        for (int i = cursor.unsignedShort(); i > 0; --i) {
+            String name = cursor.string();
+            int brace = cursor.integer();
+            int fieldCount = cursor.unsignedShort();
+            List<String> fieldNames = new ArrayList<>(fieldCount);
+            List<String> fieldTypes = new ArrayList<>(fieldCount);
+            for (int j = 0; j < fieldCount; ++j) {
+                fieldNames.add(cursor.string());
+                fieldTypes.add(cursor.string());
+            }
+            int methodCount = cursor.unsignedShort();
+            List<String> methodNames = new ArrayList<>(methodCount);
+            for (int j = 0; j < methodCount; ++j) {
+                methodNames.add(cursor.string());
+            }
+            classes.add(new IndexedClass(name, brace, fieldNames, fieldTypes, methodNames));
+        }
+        return new IndexedFile(path, hash, classes);
+    }
+
+    private static byte[] encode(String path, String hash, CompilationUnitTree compUnit,
+            SourcePositions positions) {
+        List<ClassTree> getteredClasses = new ArrayList<>();
+        for (Tree typeDecl : compUnit.getTypeDecls()) {
+            if (typeDecl instanceof ClassTree classTree && Searcher.isGettered(classTree)) {
+                getteredClasses.add(classTree);
+            }
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeString(out, path);
+            writeString(out, hash);
+            out.writeShort(getteredClasses.size());
+            for (ClassTree classTree : getteredClasses) {
+                List<VariableTree> fields = new ArrayList<>();
+                List<String> methodNames = new ArrayList<>();
+                for (Tree member : classTree.getMembers()) {
+                    if (member instanceof VariableTree varTree) {
+                        fields.add(varTree);
+                    } else if (member instanceof MethodTree methodTree) {
+                        methodNames.add(methodTree.getName().toString());
+                    }
+                }
+                writeString(out, classTree.getSimpleName().toString());
+                out.writeInt((int)positions.getEndPosition(compUnit, classTree) - 1);
+                out.writeShort(fields.size());
+                for (VariableTree field : fields) {
+                    writeString(out, field.getName().toString());
+                    writeString(out, field.getType().toString());
+                }
+                out.writeShort(methodNames.size());
+                for (String methodName : methodNames) {
+                    writeString(out, methodName);
+                }
+            }
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("string of " + bytes.length
+                    + " bytes is too long for the index");
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Writes the entries into a temporary file and moves it in place,
+     * so a reader never sees a half-written index.
+     */
+    private void write(Map<byte[], byte[]> keyToEntry) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT);
+            out.writeInt(keyToEntry.size());
+            int offset = HEADER_BYTES + 4 * keyToEntry.size();
+            for (byte[] entry : keyToEntry.values()) {
+                out.writeInt(offset);
+                offset += entry.length;
+            }
+            for (byte[] entry : keyToEntry.values()) {
+                out.write(entry);
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+//-Cursor-------------------------------------------------------------------------------------------
+
+    /**
+     * Reads the mapped buffer by absolute gets, so readers don't share a position.
+     */
+    private class Cursor {
+
+        private int position;
+
+        Cursor(int position) {
+            this.position = position;
+        }
+
+        int unsignedShort() {
+            int value = Short.toUnsignedInt(buffer.getShort(position));
+            position += 2;
+            return value;
+        }
+
+        int integer() {
+            int value = buffer.getInt(position);
+            position += 4;
+            return value;
+        }
+
+        String string() {
+            byte[] bytes = new byte[unsignedShort()];
+            buffer.get(position, bytes);
+            position += bytes.length;
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+    }
+
+//-Indexed-file-------------------------------------------------------------------------------------
+
+    /**
+     * An indexed source file: its path, content hash and gettered classes.
+     */
+    public static class IndexedFile {
+
+        private final String path;
+        private final String hash;
+        private final List<IndexedClass> classes;
+
+        IndexedFile(String path, String hash, List<IndexedClass> classes) {
+            this.path = path;
+            this.hash = hash;
+            this.classes = classes;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+        public List<IndexedClass> getClasses() {
+            return classes;
+        }
+
+    }
+
+//-Indexed-class------------------------------------------------------------------------------------
+
+    /**
+     * An indexed gettered class: its fields with their types, names of its methods
+     * and the offset of its closing brace in the source content.
+     */
+    public static class IndexedClass {
+
+        private final String name;
+        private final int brace;
+        private final List<String> fieldNames;
+        private final List<String> fieldTypes;
+        private final List<String> methodNames;
+
+        IndexedClass(String name, int brace, List<String> fieldNames, List<String> fieldTypes,
+                List<String> methodNames) {
+            this.name = name;
+            this.brace = brace;
+            this.fieldNames = fieldNames;
+            this.fieldTypes = fieldTypes;
+            this.methodNames = methodNames;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getBrace() {
+            return brace;
+        }
+
+        public List<String> getFieldNames() {
+            return fieldNames;
+        }
+
+        public List<String> getFieldTypes() {
+            return fieldTypes;
+        }
+
+        public List<String> getMethodNames() {
+            return methodNames;
+        }
+
+    }
+
+}
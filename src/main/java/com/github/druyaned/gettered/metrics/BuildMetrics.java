@@ -0,0 +1,361 @@
+package com.github.druyaned.gettered.metrics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Counters and latency {@link Histogram histograms} of the builds of the process:
+ * pipeline phases, rewrites of gettered classes and
+ * {@link JavacTimings javac phases of each file}. Phases and rewrites are
+ * also committed as JFR events ({@link PhaseEvent}, {@link RewriteEvent}).
+ * <p>
+ * The single instance is registered in the platform MBean server as
+ * {@value #OBJECT_NAME}, so a long-lived process (see
+ * {@link com.github.druyaned.gettered.daemon.Daemon Daemon}) can be watched by JMX clients;
+ * the metrics are accumulated over all builds of the process.
+ * <p><i>USAGE</i>:
+ * <pre>
+ * List&lt;Path&gt; sources = BuildMetrics.instance().phase("discover", () -&gt; Sources.get(options));
+ * </pre>
+ *
+ * @author druyaned
+ */
+public class BuildMetrics implements BuildMetricsMXBean {
+
+    public static final String OBJECT_NAME = "com.github.druyaned.gettered:type=BuildMetrics";
+    public static final int SLOWEST_FILES = 20;
+
+    private static final BuildMetrics INSTANCE = register(new BuildMetrics());
+
+    /**
+     * Returns the metrics of the process.
+     *
+     * @return the metrics of the process.
+     */
+    public static BuildMetrics instance() {
+        return INSTANCE;
+    }
+
+    private static BuildMetrics register(BuildMetrics metrics) {
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(metrics, new ObjectName(OBJECT_NAME));
+        } catch (JMException | SecurityException exc) {
+            // metrics are still collected and reported without JMX
+        }
+        return metrics;
+    }
+
+//-Fields-------------------------------------------------------------------------------------------
+
+    private final LongAdder filesScanned = new LongAdder();
+    private final LongAdder getteredClasses = new LongAdder();
+    private final LongAdder gettersGenerated = new LongAdder();
+    private final LongAdder bytesRewritten = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final PriorityQueue<FileTiming> slowestFiles = new PriorityQueue<>(
+            Comparator.comparingLong(FileTiming::nanos));
+
+//-Constructors-------------------------------------------------------------------------------------
+
+    private BuildMetrics() {}
+
+//-Methods------------------------------------------------------------------------------------------
+
+    /**
+     * Runs the action as a phase of the build: its latency is recorded
+     * into the histogram of the phase and a {@link PhaseEvent} is committed.
+     *
+     * @param <T> type of the result of the action
+     * @param phase name of the phase
+     * @param action the action
+     * @return the result of the action.
+     */
+    public <T> T phase(String phase, Supplier<T> action) {
+        PhaseEvent event = new PhaseEvent();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            record(phase, System.nanoTime() - start);
+            event.end();
+            if (event.shouldCommit()) {
+                event.phase = phase;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Records the latency into the histogram of the phase.
+     *
+     * @param phase name of the phase
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(String phase, long nanos) {
+        histograms.computeIfAbsent(phase, p -> new Histogram()).record(nanos);
+    }
+
+    /**
+     * Records found sources.
+     *
+     * @param files number of the found sources
+     */
+    public void scanned(int files) {
+        filesScanned.add(files);
+    }
+
+    /**
+     * Records a rewrite of a gettered class and commits a {@link RewriteEvent}.
+     *
+     * @param className name of the class
+     * @param getters number of the added getters
+     * @param content rewritten content or {@code null} if the class is changed in place
+     * @param nanos latency of the rewrite in nanoseconds
+     */
+    public void rewritten(String className, int getters, CharSequence content, long nanos) {
+        long bytes = content == null ? 0 : utf8Length(content);
+        getteredClasses.increment();
+        gettersGenerated.add(getters);
+        bytesRewritten.add(bytes);
+        record("rewrite.unit", nanos);
+        RewriteEvent event = new RewriteEvent();
+        if (event.shouldCommit()) {
+            event.className = className;
+            event.getters = getters;
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+
+    /**
+     * Records lookups of the {@link com.github.druyaned.gettered.cache.RewriteCache
+     * rewrite cache}.
+     *
+     * @param hits number of the sources found in the cache
+     * @param misses number of the sources which aren't found
+     */
+    public void cached(int hits, int misses) {
+        cacheHits.add(hits);
+        cacheMisses.add(misses);
+    }
+
+    /**
+     * Records javac phases of a file, so the {@value #SLOWEST_FILES} slowest ones
+     * are kept for the {@link #getReport() report}.
+     *
+     * @param file the file
+     * @param phaseNanos latencies of the javac phases of the file in nanoseconds
+     */
+    public void javacFile(String file, Map<String, Long> phaseNanos) {
+        long nanos = 0;
+        for (long phaseNano : phaseNanos.values()) {
+            nanos += phaseNano;
+        }
+        synchronized (slowestFiles) {
+            if (slowestFiles.size() < SLOWEST_FILES) {
+                slowestFiles.add(new FileTiming(file, nanos, new TreeMap<>(phaseNanos)));
+            } else if (slowestFiles.peek().nanos() < nanos) {
+                slowestFiles.poll();
+                slowestFiles.add(new FileTiming(file, nanos, new TreeMap<>(phaseNanos)));
+            }
+        }
+    }
+
+    /**
+     * Writes the {@link #getReport() report} into the file.
+     *
+     * @param file the file
+     */
+    public void writeReport(Path file) {
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Files.writeString(file, getReport());
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+    }
+
+    @Override
+    public long getFilesScanned() {
+        return filesScanned.sum();
+    }
+
+    @Override
+    public long getGetteredClasses() {
+        return getteredClasses.sum();
+    }
+
+    @Override
+    public long getGettersGenerated() {
+        return gettersGenerated.sum();
+    }
+
+    @Override
+    public long getBytesRewritten() {
+        return bytesRewritten.sum();
+    }
+
+    @Override
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    @Override
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    @Override
+    public Map<String, Long> getPhaseCounts() {
+        return phaseValues(Histogram::getCount);
+    }
+
+    @Override
+    public Map<String, Double> getPhaseMeanMillis() {
+        return phaseValues(Histogram::getMeanMillis);
+    }
+
+    @Override
+    public Map<String, Double> getPhaseP99Millis() {
+        return phaseValues(histogram -> histogram.getPercentileMillis(99));
+    }
+
+    @Override
+    public Map<String, Double> getPhaseMaxMillis() {
+        return phaseValues(Histogram::getMaxMillis);
+    }
+
+    @Override
+    public String getReport() {
+        StringBuilder json = new StringBuilder(1024);
+        json.append("{\n");
+        json.append("  \"filesScanned\": ").append(getFilesScanned()).append(",\n");
+        json.append("  \"getteredClasses\": ").append(getGetteredClasses()).append(",\n");
+        json.append("  \"gettersGenerated\": ").append(getGettersGenerated()).append(",\n");
+        json.append("  \"bytesRewritten\": ").append(getBytesRewritten()).append(",\n");
+        json.append("  \"cacheHits\": ").append(getCacheHits()).append(",\n");
+        json.append("  \"cacheMisses\": ").append(getCacheMisses()).append(",\n");
+        json.append("  \"phases\": {");
+        String separator = "\n";
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(histograms).entrySet()) {
+            Histogram histogram = entry.getValue();
+            json.append(separator).append("    ").append(quoted(entry.getKey())).append(": {")
+                    .append("\"count\": ").append(histogram.getCount())
+                    .append(", \"totalMillis\": ").append(millis(histogram.getTotalMillis()))
+                    .append(", \"meanMillis\": ").append(millis(histogram.getMeanMillis()))
+                    .append(", \"p50Millis\": ").append(millis(histogram.getPercentileMillis(50)))
+                    .append(", \"p99Millis\": ").append(millis(histogram.getPercentileMillis(99)))
+                    .append(", \"maxMillis\": ").append(millis(histogram.getMaxMillis()))
+                    .append('}');
+            separator = ",\n";
+        }
+        json.append("\n  },\n");
+        json.append("  \"slowestFiles\": [");
+        separator = "\n";
+        for (FileTiming timing : slowestFiles()) {
+            json.append(separator).append("    {\"file\": ").append(quoted(timing.file()))
+                    .append(", \"millis\": ").append(millis(timing.nanos() / 1e6));
+            for (Map.Entry<String, Long> entry : timing.phaseNanos().entrySet()) {
+                json.append(", ").append(quoted(entry.getKey() + "Millis")).append(": ")
+                        .append(millis(entry.getValue() / 1e6));
+            }
+            json.append('}');
+            separator = ",\n";
+        }
+        json.append("\n  ]\n}\n");
+        return json.toString();
+    }
+
+    /**
+     * Returns the value as a JSON string: quoted with the special characters escaped.
+     *
+     * @param value the value
+     * @return the value as a JSON string.
+     */
+    public static String quoted(String value) {
+        StringBuilder builder = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> builder.append("\\\"");
+                case '\\' -> builder.append("\\\\");
+                case '\n' -> builder.append("\\n");
+                case '\r' -> builder.append("\\r");
+                case '\t' -> builder.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        builder.append(String.format("\\u%04x", (int)c));
+                    } else {
+                        builder.append(c);
+                    }
+                }
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+//-Private-methods----------------------------------------------------------------------------------
+
+    private <T> Map<String, T> phaseValues(Function<Histogram, T> value) {
+        Map<String, T> values = new TreeMap<>();
+        histograms.forEach((phase, histogram) -> values.put(phase, value.apply(histogram)));
+        return values;
+    }
+
+    private List<FileTiming> slowestFiles() {
+        List<FileTiming> timings;
+        synchronized (slowestFiles) {
+            timings = new ArrayList<>(slowestFiles);
+        }
+        timings.sort(Comparator.comparingLong(FileTiming::nanos).reversed());
+        return timings;
+    }
+
+    private static String millis(double millis) {
+        return String.format(Locale.ROOT, "%.3f", millis);
+    }
+
+    private static long utf8Length(CharSequence content) {
+        long length = 0;
+        for (int i = 0; i < content.length(); ++i) {
+            char c = content.charAt(i);
+            if (c < 0x80) {
+                ++length;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                ++i; // the low surrogate
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private record FileTiming(String file, long nanos, Map<String, Long> phaseNanos) {}
+
+}
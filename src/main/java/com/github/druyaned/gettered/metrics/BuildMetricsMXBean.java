@@ -0,0 +1,40 @@
+package com.github.druyaned.gettered.metrics;
+
+import java.util.Map;
+
+/**
+ * Management interface of the {@link BuildMetrics}
+ * registered as {@value BuildMetrics#OBJECT_NAME}.
+ *
+ * @author druyaned
+ */
+public interface BuildMetricsMXBean {
+
+    long getFilesScanned();
+
+    long getGetteredClasses();
+
+    long getGettersGenerated();
+
+    long getBytesRewritten();
+
+    long getCacheHits();
+
+    long getCacheMisses();
+
+    Map<String, Long> getPhaseCounts();
+
+    Map<String, Double> getPhaseMeanMillis();
+
+    Map<String, Double> getPhaseP99Millis();
+
+    Map<String, Double> getPhaseMaxMillis();
+
+    /**
+     * Returns the metrics as a JSON document.
+     *
+     * @return the metrics as a JSON document.
+     */
+    String getReport();
+
+}
@@ -0,0 +1,102 @@
+package com.github.druyaned.gettered.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A latency histogram with power-of-two buckets of microseconds:
+ * the bucket {@code k > 0} counts latencies in {@code [2^k, 2^(k+1))} microseconds,
+ * the bucket {@code 0} counts the ones below {@code 2} microseconds;
+ * safe for concurrent use.
+ *
+ * @author druyaned
+ */
+public class Histogram {
+
+    public static final int BUCKETS = 40;
+
+//-Fields-------------------------------------------------------------------------------------------
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+//-Constructors-------------------------------------------------------------------------------------
+
+    public Histogram() {
+        for (int i = 0; i < BUCKETS; ++i) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+//-Methods------------------------------------------------------------------------------------------
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(long nanos) {
+        long micros = Math.max(nanos / 1000, 1);
+        int bucket = Math.min(63 - Long.numberOfLeadingZeros(micros), BUCKETS - 1);
+        buckets[bucket].increment();
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getTotalMillis() {
+        return totalNanos.sum() / 1e6;
+    }
+
+    public double getMeanMillis() {
+        long n = count.sum();
+        return n == 0 ? 0 : totalNanos.sum() / 1e6 / n;
+    }
+
+    public double getMaxMillis() {
+        return maxNanos.get() / 1e6;
+    }
+
+    /**
+     * Returns the upper bound of the bucket of the percentile in milliseconds.
+     *
+     * @param percentile the percentile in {@code (0, 100]}
+     * @return the upper bound of the bucket of the percentile in milliseconds.
+     */
+    public double getPercentileMillis(double percentile) {
+        long[] counts = getBuckets();
+        long n = 0;
+        for (long bucketCount : counts) {
+            n += bucketCount;
+        }
+        long rank = (long)Math.ceil(n * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; ++i) {
+            seen += counts[i];
+            if (seen >= rank && seen > 0) {
+                return Math.min((1L << (i + 1)) / 1e3, getMaxMillis());
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns counts of the buckets.
+     *
+     * @return counts of the buckets.
+     */
+    public long[] getBuckets() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; ++i) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.github.druyaned.gettered.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A JFR event of a javac phase (parse, enter, analyze, generate, ...) of a file.
+ *
+ * @author druyaned
+ * @see JavacTimings
+ */
+@Name("com.github.druyaned.gettered.Javac")
+@Label("Gettered Javac Phase")
+@Description("A javac phase of a file")
+@Category("Gettered")
+@StackTrace(false)
+public class JavacEvent extends jdk.jfr.Event {
+
+    @Label("Phase")
+    public String phase;
+
+    @Label("File")
+    public String file;
+
+}
@@ -0,0 +1,111 @@
+package com.github.druyaned.gettered.metrics;
+
+import com.sun.source.util.TaskEvent;
+import com.sun.source.util.TaskListener;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import javax.tools.JavaFileObject;
+
+/**
+ * A {@link TaskListener task listener} which times javac phases
+ * (parse, enter, analyze, generate, ...) of each file into the {@link BuildMetrics}
+ * and commits a {@link JavacEvent} for each one.
+ * <p>
+ * Javac enters all the files at once (every {@code started} event comes before
+ * the {@code finished} ones), so phases which overlap between files are timed
+ * as a whole and aren't attributed to the files.
+ * A listener belongs to a single task, which notifies it from a single thread.
+ *
+ * @author druyaned
+ */
+public class JavacTimings implements TaskListener {
+
+//-Fields-------------------------------------------------------------------------------------------
+
+    private final BuildMetrics metrics;
+    private final Map<String, Started> keyToStarted = new HashMap<>();
+    private final Map<TaskEvent.Kind, Batch> kindToBatch = new EnumMap<>(TaskEvent.Kind.class);
+    private final Map<String, Map<String, Long>> fileToPhaseNanos = new HashMap<>();
+
+//-Constructors-------------------------------------------------------------------------------------
+
+    /**
+     * Constructs a listener which records javac phases into the metrics.
+     *
+     * @param metrics metrics to record the phases into
+     */
+    public JavacTimings(BuildMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+//-Methods------------------------------------------------------------------------------------------
+
+    @Override
+    public void started(TaskEvent event) {
+        if (event.getKind() == TaskEvent.Kind.COMPILATION || event.getSourceFile() == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        Batch batch = kindToBatch.computeIfAbsent(event.getKind(), kind -> new Batch());
+        if (batch.inFlight++ == 0) {
+            batch.startNanos = now;
+            batch.overlapped = false;
+        } else {
+            batch.overlapped = true;
+        }
+        JavacEvent jfrEvent = new JavacEvent();
+        jfrEvent.begin();
+        keyToStarted.put(keyOf(event), new Started(now, jfrEvent));
+    }
+
+    @Override
+    public void finished(TaskEvent event) {
+        if (event.getKind() == TaskEvent.Kind.COMPILATION) {
+            fileToPhaseNanos.forEach(metrics::javacFile);
+            fileToPhaseNanos.clear();
+            return;
+        }
+        Started started = event.getSourceFile() == null ? null : keyToStarted.remove(keyOf(event));
+        if (started == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        String phase = event.getKind().name().toLowerCase(Locale.ROOT);
+        String file = event.getSourceFile().getName();
+        Batch batch = kindToBatch.get(event.getKind());
+        if (!batch.overlapped) {
+            long nanos = now - started.nanos();
+            metrics.record("javac." + phase, nanos);
+            fileToPhaseNanos.computeIfAbsent(file, f -> new HashMap<>())
+                    .merge(phase, nanos, Long::sum);
+        }
+        if (--batch.inFlight == 0 && batch.overlapped) {
+            metrics.record("javac." + phase, now - batch.startNanos);
+        }
+        JavacEvent jfrEvent = started.event();
+        jfrEvent.end();
+        if (jfrEvent.shouldCommit()) {
+            jfrEvent.phase = phase;
+            jfrEvent.file = file;
+            jfrEvent.commit();
+        }
+    }
+
+//-Private-methods----------------------------------------------------------------------------------
+
+    private static String keyOf(TaskEvent event) {
+        JavaFileObject file = event.getSourceFile();
+        return event.getKind() + "\0" + file.toUri() + "\0" + event.getTypeElement();
+    }
+
+    private record Started(long nanos, JavacEvent event) {}
+
+    private static class Batch {
+        private int inFlight = 0;
+        private long startNanos;
+        private boolean overlapped;
+    }
+
+}
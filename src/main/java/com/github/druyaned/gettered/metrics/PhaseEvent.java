@@ -0,0 +1,25 @@
+package com.github.druyaned.gettered.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A JFR event of a phase of the build: discover, parse, search, rewrite or compile.
+ *
+ * @author druyaned
+ * @see BuildMetrics#phase
+ */
+@Name("com.github.druyaned.gettered.Phase")
+@Label("Gettered Phase")
+@Description("A phase of the build")
+@Category("Gettered")
+@StackTrace(false)
+public class PhaseEvent extends jdk.jfr.Event {
+
+    @Label("Phase")
+    public String phase;
+
+}
@@ -0,0 +1,34 @@
+package com.github.druyaned.gettered.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A JFR event of the rewrite of a {@link com.github.druyaned.gettered.sources.UnitToRewrite
+ * unit to rewrite}.
+ *
+ * @author druyaned
+ * @see BuildMetrics#rewritten
+ */
+@Name("com.github.druyaned.gettered.Rewrite")
+@Label("Gettered Rewrite")
+@Description("Missed getters are added into a gettered class")
+@Category("Gettered")
+@StackTrace(false)
+public class RewriteEvent extends jdk.jfr.Event {
+
+    @Label("Class")
+    public String className;
+
+    @Label("Getters")
+    public int getters;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+
+}
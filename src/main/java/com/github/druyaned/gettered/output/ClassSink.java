@@ -0,0 +1,23 @@
+package com.github.druyaned.gettered.output;
+
+import java.io.IOException;
+
+/**
+ * A consumer of compiled classes collected in memory by the {@link MemoryFileManager}.
+ *
+ * @author druyaned
+ * @see JarSink
+ */
+@FunctionalInterface
+public interface ClassSink {
+
+    /**
+     * Accepts bytes of a compiled class.
+     *
+     * @param className binary name of the class, e.g. {@code "a.b.Outer$Inner"}
+     * @param bytes content of the class file
+     * @throws IOException if an I/O error occurs
+     */
+    void accept(String className, byte[] bytes) throws IOException;
+
+}
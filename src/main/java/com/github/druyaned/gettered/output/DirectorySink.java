@@ -0,0 +1,48 @@
+package com.github.druyaned.gettered.output;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A {@link ClassSink sink} which writes compiled classes into a directory
+ * the way javac does with {@code -d}; a class whose file would be outside
+ * of the directory is rejected.
+ *
+ * @author druyaned
+ */
+public class DirectorySink implements ClassSink {
+
+//-Fields-------------------------------------------------------------------------------------------
+
+    private final Path dir;
+
+//-Constructors-------------------------------------------------------------------------------------
+
+    /**
+     * Constructs a sink of the directory.
+     *
+     * @param dir directory of the classes, it's created if doesn't exist
+     */
+    public DirectorySink(Path dir) {
+        this.dir = dir;
+    }
+
+//-Methods------------------------------------------------------------------------------------------
+
+    @Override
+    public void accept(String className, byte[] bytes) throws IOException {
+        Path root = dir.toAbsolutePath().normalize();
+        Path classFile = root.resolve(className.replace('.', '/') + ".class").normalize();
+        if (!classFile.startsWith(root) || classFile.equals(root)) {
+            throw new IOException("class " + className + " is outside of " + dir);
+        }
+        Files.createDirectories(classFile.getParent());
+        Files.write(classFile, bytes);
+    }
+
+    public Path getDir() {
+        return dir;
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.github.druyaned.gettered.output;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+/**
+ * A {@link ClassSink sink} which streams compiled classes straight into a jar-file.
+ * The manifest gets the {@code Main-Class} attribute like the one of
+ * {@code maven-jar-plugin} in the {@code pom.xml}.
+ *
+ * @author druyaned
+ */
+public class JarSink implements ClassSink, Closeable {
+
+    /**
+     * Opens a jar-file to write compiled classes into.
+     *
+     * @param jarFile the jar-file, it's replaced if exists
+     * @param mainClass main class of the manifest or {@code null}
+     * @return a sink which writes compiled classes into the jar-file.
+     * @throws IOException if an I/O error occurs
+     */
+    public static JarSink open(Path jarFile, String mainClass) throws IOException {
+        Manifest manifest = new Manifest();
+        Attributes attributes = manifest.getMainAttributes();
+        attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        if (mainClass != null) {
+            attributes.put(Attributes.Name.MAIN_CLASS, mainClass);
+        }
+        Path parent = jarFile.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        return new JarSink(new JarOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(jarFile)), manifest));
+    }
+
+//-Fields-------------------------------------------------------------------------------------------
+
+    private final JarOutputStream out;
+
+//-Constructors-------------------------------------------------------------------------------------
+
+    private JarSink(JarOutputStream out) {
+        this.out = out;
+    }
+
+//-Methods------------------------------------------------------------------------------------------
+
+    @Override
+    public void accept(String className, byte[] bytes) throws IOException {
+        out.putNextEntry(new JarEntry(className.replace('.', '/') + ".class"));
+        out.write(bytes);
+        out.closeEntry();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+}
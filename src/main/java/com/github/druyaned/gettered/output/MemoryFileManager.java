@@ -0,0 +1,97 @@
+package com.github.druyaned.gettered.output;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * A file manager which keeps compiled classes in memory instead of writing them
+ * into the class output directory; the other requests are forwarded.
+ * <p><i>USAGE</i>:
+ * <pre>
+ * MemoryFileManager fileManager = new MemoryFileManager(standardFileManager);
+ * if (compiler.getTask(null, fileManager, null, null, null, files).call()) {
+ *     fileManager.drainTo(sink);
+ * }
+ * </pre>
+ *
+ * @author druyaned
+ * @see ClassSink
+ */
+public class MemoryFileManager extends ForwardingJavaFileManager<JavaFileManager> {
+
+//-Fields-------------------------------------------------------------------------------------------
+
+    private final Map<String, byte[]> classNameToBytes = new TreeMap<>();
+
+//-Constructors-------------------------------------------------------------------------------------
+
+    /**
+     * Constructs a file manager which keeps compiled classes in memory.
+     *
+     * @param fileManager file manager to forward the other requests to
+     */
+    public MemoryFileManager(JavaFileManager fileManager) {
+        super(fileManager);
+    }
+
+//-Methods------------------------------------------------------------------------------------------
+
+    @Override
+    public JavaFileObject getJavaFileForOutput(Location location, String className,
+            JavaFileObject.Kind kind, FileObject sibling) throws IOException {
+        if (location != StandardLocation.CLASS_OUTPUT || kind != JavaFileObject.Kind.CLASS) {
+            return super.getJavaFileForOutput(location, className, kind, sibling);
+        }
+        URI uri = URI.create("memory:///" + className.replace('.', '/') + kind.extension);
+        return new SimpleJavaFileObject(uri, kind) {
+            @Override
+            public OutputStream openOutputStream() {
+                return new ByteArrayOutputStream() {
+                    @Override
+                    public void close() {
+                        synchronized (classNameToBytes) {
+                            classNameToBytes.put(className, toByteArray());
+                        }
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Returns compiled classes by their binary names in the lexicographical order.
+     *
+     * @return compiled classes by their binary names in the lexicographical order.
+     */
+    public Map<String, byte[]> getClasses() {
+        return Collections.unmodifiableMap(classNameToBytes);
+    }
+
+    /**
+     * Passes the compiled classes to the sink in the lexicographical order of their names
+     * and releases them.
+     *
+     * @param sink sink of the compiled classes
+     * @throws IOException if the sink fails
+     */
+    public void drainTo(ClassSink sink) throws IOException {
+        synchronized (classNameToBytes) {
+            for (Map.Entry<String, byte[]> entry : classNameToBytes.entrySet()) {
+                sink.accept(entry.getKey(), entry.getValue());
+            }
+            classNameToBytes.clear();
+        }
+    }
+
+}
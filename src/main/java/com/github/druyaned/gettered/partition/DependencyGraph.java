@@ -0,0 +1,176 @@
+package com.github.druyaned.gettered.partition;
+
+import com.github.druyaned.gettered.incremental.FileState;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A type dependency graph of source files: a file depends on another one
+ * if it may reference a class declared there by an import (a class imported
+ * on demand, like {@code import static q.Util.*}, included), a qualified name
+ * or a simple name of its package or of a package imported on demand
+ * (the same rule as {@link FileState#dependsOn}).
+ * <p>
+ * The graph is conservative: a false dependency only costs parallelism, a missed one
+ * fails the compilation of the dependent file (the {@link PartitionedCompiler} deletes
+ * the previous classes of the sources, so they can't be compiled against stale ones).
+ *
+ * @author druyaned
+ * @see PartitionedCompiler
+ */
+public class DependencyGraph {
+
+    /**
+     * Builds the dependency graph of the files; the node {@code i}
+     * is the file {@code files.get(i)}.
+     *
+     * @param files states of the source files
+     * @return the dependency graph of the files.
+     */
+    public static DependencyGraph of(List<FileState> files) {
+        Map<String, Integer> classToNode = new HashMap<>();
+        for (int node = 0; node < files.size(); ++node) {
+            for (String qualifiedClass : files.get(node).getClasses()) {
+                classToNode.putIfAbsent(qualifiedClass, node);
+            }
+        }
+        int[][] dependencies = new int[files.size()][];
+        for (int node = 0; node < files.size(); ++node) {
+            FileState file = files.get(node);
+            Set<Integer> nodes = new LinkedHashSet<>();
+            for (String ref : file.getQualifiedRefs()) {
+                // "a.b.C.Inner.field" references "a.b.C" as well
+                for (String name = ref; name != null; name = outerOf(name)) {
+                    addNode(nodes, classToNode.get(name));
+                }
+            }
+            for (String starImport : file.getStarImports()) {
+                // "import static q.Util.*;" references the class "q.Util"
+                addNode(nodes, classToNode.get(starImport));
+            }
+            String prefix = file.getPackageName().isEmpty() ? "" : file.getPackageName() + ".";
+            for (String simpleName : file.getSimpleRefs()) {
+                addNode(nodes, classToNode.get(prefix + simpleName));
+                for (String starImport : file.getStarImports()) {
+                    addNode(nodes, classToNode.get(starImport + "." + simpleName));
+                }
+            }
+            nodes.remove(node);
+            dependencies[node] = nodes.stream().mapToInt(Integer::intValue).sorted().toArray();
+        }
+        return new DependencyGraph(dependencies);
+    }
+
+//-Fields-------------------------------------------------------------------------------------------
+
+    private final int[][] dependencies;
+
+//-Constructors-------------------------------------------------------------------------------------
+
+    DependencyGraph(int[][] dependencies) {
+        this.dependencies = dependencies;
+    }
+
+//-Methods------------------------------------------------------------------------------------------
+
+    /**
+     * Returns the number of the nodes.
+     *
+     * @return the number of the nodes.
+     */
+    public int size() {
+        return dependencies.length;
+    }
+
+    /**
+     * Returns nodes the node depends on in ascending order.
+     *
+     * @param node the node
+     * @return nodes the node depends on in ascending order.
+     */
+    public int[] dependenciesOf(int node) {
+        return dependencies[node].clone();
+    }
+
+    /**
+     * Splits the graph into strongly connected components by the Tarjan's
+     * algorithm; a component comes after all of the components it depends on,
+     * so the list is a compilation order. The walk is iterative,
+     * so long dependency chains don't overflow the stack.
+     *
+     * @return strongly connected components in a compilation order.
+     */
+    public List<int[]> components() {
+        int n = dependencies.length;
+        int[] index = new int[n];
+        int[] low = new int[n];
+        int[] nextEdge = new int[n];
+        boolean[] onStack = new boolean[n];
+        int[] stack = new int[n];
+        int[] path = new int[n];
+        Arrays.fill(index, -1);
+        List<int[]> components = new ArrayList<>();
+        int counter = 0;
+        int top = 0;
+        for (int root = 0; root < n; ++root) {
+            if (index[root] != -1) {
+                continue;
+            }
+            int depth = 0;
+            path[depth] = root;
+            index[root] = low[root] = counter++;
+            stack[top++] = root;
+            onStack[root] = true;
+            while (depth >= 0) {
+                int node = path[depth];
+                int[] edges = dependencies[node];
+                if (nextEdge[node] < edges.length) {
+                    int next = edges[nextEdge[node]++];
+                    if (index[next] == -1) {
+                        index[next] = low[next] = counter++;
+                        stack[top++] = next;
+                        onStack[next] = true;
+                        path[++depth] = next;
+                    } else if (onStack[next]) {
+                        low[node] = Math.min(low[node], index[next]);
+                    }
+                    continue;
+                }
+                if (low[node] == index[node]) {
+                    int start = top;
+                    do {
+                        onStack[stack[--start]] = false;
+                    } while (stack[start] != node);
+                    int[] component = Arrays.copyOfRange(stack, start, top);
+                    Arrays.sort(component);
+                    components.add(component);
+                    top = start;
+                }
+                if (--depth >= 0) {
+                    int parent = path[depth];
+                    low[parent] = Math.min(low[parent], low[node]);
+                }
+            }
+        }
+        return components;
+    }
+
+//-Private-methods----------------------------------------------------------------------------------
+
+    private static void addNode(Set<Integer> nodes, Integer node) {
+        if (node != null) {
+            nodes.add(node);
+        }
+    }
+
+    private static String outerOf(String name) {
+        int lastDot = name.lastIndexOf('.');
+        return lastDot == -1 ? null : name.substring(0, lastDot);
+    }
+
+}
@@ -0,0 +1,276 @@
+package com.github.druyaned.gettered.partition;
+
+import com.github.druyaned.gettered.Compiler;
+import com.github.druyaned.gettered.Options;
+import com.github.druyaned.gettered.incremental.FileState;
+import com.github.druyaned.gettered.incremental.UnitAnalyzer;
+import com.github.druyaned.gettered.metrics.BuildMetrics;
+import com.github.druyaned.gettered.sources.GetteredFileObject;
+import com.github.druyaned.gettered.sources.Parser;
+import com.github.druyaned.gettered.sources.Searcher;
+import com.github.druyaned.gettered.sources.Sources;
+import com.github.druyaned.gettered.sources.UnitToRewrite;
+import com.sun.source.tree.CompilationUnitTree;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * Compiles the project by several {@link com.sun.source.util.JavacTask javac tasks}
+ * at the same time, so attribution and bytecode generation use several cores.
+ * <p>
+ * All of the sources are parsed and their {@link DependencyGraph type dependencies}
+ * are split into {@link DependencyGraph#components() strongly connected components}
+ * (classes of a cycle are always compiled by the same task). A component's level
+ * is the length of the longest dependency chain below it, so components of a level
+ * are independent. Levels are compiled one after another in stages (small levels
+ * are merged into one stage): files of a stage connected by dependencies go into
+ * the same partition, partitions of a stage are balanced between the threads and
+ * compiled concurrently. The output directory is on the class path, so each stage
+ * sees the classes (getters included) of the previous ones; the classes of the sources
+ * left there by a previous build are deleted first, so a stage never sees stale ones.
+ * <p>
+ * javac generates a class the same way whether its dependencies come from sources
+ * or class files, so the classes are byte-for-byte identical to a single-task build.
+ * A build into a {@link Options#getJar() jar-file} is compiled by a single task.
+ *
+ * @author druyaned
+ */
+public class PartitionedCompiler {
+
+    private static final int MIN_PARTITION_FILES = 32;
+
+    /**
+     * Constructs an instance of the PartitionedCompiler.
+     *
+     * @param options options of the compilation
+     * @return an instance of the PartitionedCompiler.
+     */
+    public static PartitionedCompiler instance(Options options) {
+        return new PartitionedCompiler(options);
+    }
+
+//-Fields-------------------------------------------------------------------------------------------
+
+    private final Options options;
+    private final int threads;
+
+//-Constructors-------------------------------------------------------------------------------------
+
+    private PartitionedCompiler(Options options) {
+        this.options = options;
+        this.threads = options.getCompileThreads();
+    }
+
+//-Methods------------------------------------------------------------------------------------------
+
+    /**
+     * Compiles the project sources partition by partition.
+     *
+     * @return {@code true} if the compilation succeeded
+     */
+    public boolean compile() {
+        BuildMetrics metrics = BuildMetrics.instance();
+        List<Path> sources = metrics.phase("discover", () -> Sources.get(options));
+        List<CompilationUnitTree> compUnits = new ArrayList<>(sources.size());
+        metrics.phase("parse", () -> Parser.getCompilationUnits(sources,
+                options.getParseThreads(), options.getEncoding())).forEach(compUnits::add);
+        List<UnitToRewrite> unitsToRewrite = metrics.phase("search",
+                () -> Searcher.instance().unitsToRewriteIn(compUnits));
+        List<JavaFileObject> files = metrics.phase("rewrite",
+                () -> Compiler.fileObjects(compUnits, unitsToRewrite, options.isSplice(),
+                        options.getEncoding()));
+        if (options.getJar() != null || threads == 1) {
+            return Compiler.compile(files, options);
+        }
+        List<List<List<JavaFileObject>>> stages = metrics.phase("partition",
+                () -> stages(compUnits, unitsToRewrite, files));
+        return compile(stages);
+    }
+
+//-Private-methods----------------------------------------------------------------------------------
+
+    /**
+     * Returns stages of partitions of the files; {@code files.get(i)}
+     * is the file object of {@code compUnits.get(i)}.
+     */
+    private List<List<List<JavaFileObject>>> stages(List<CompilationUnitTree> compUnits,
+            List<UnitToRewrite> unitsToRewrite, List<JavaFileObject> files) {
+        Map<CompilationUnitTree, List<UnitToRewrite>> unitToRewrites = new IdentityHashMap<>();
+        for (UnitToRewrite unitToRewrite : unitsToRewrite) {
+            unitToRewrites.computeIfAbsent(unitToRewrite.getUnit(), u -> new ArrayList<>())
+                    .add(unitToRewrite);
+        }
+        List<FileState> states = new ArrayList<>(compUnits.size());
+        for (CompilationUnitTree compUnit : compUnits) {
+            states.add(UnitAnalyzer.analyze(compUnit.getSourceFile().toUri().toString(), "",
+                    compUnit, unitToRewrites.getOrDefault(compUnit, List.of())));
+        }
+        states.forEach(state -> state.deleteClassFiles(options.getOutputDir()));
+        DependencyGraph graph = DependencyGraph.of(states);
+        List<int[]> components = graph.components();
+        int[] componentOf = new int[graph.size()];
+        for (int c = 0; c < components.size(); ++c) {
+            for (int node : components.get(c)) {
+                componentOf[node] = c;
+            }
+        }
+        // components come after their dependencies, so their levels are known
+        int[] levelOf = new int[components.size()];
+        List<List<Integer>> levels = new ArrayList<>();
+        for (int c = 0; c < components.size(); ++c) {
+            for (int node : components.get(c)) {
+                for (int dependency : graph.dependenciesOf(node)) {
+                    if (componentOf[dependency] != c) {
+                        levelOf[c] = Math.max(levelOf[c], levelOf[componentOf[dependency]] + 1);
+                    }
+                }
+            }
+            if (levelOf[c] == levels.size()) {
+                levels.add(new ArrayList<>());
+            }
+            for (int node : components.get(c)) {
+                levels.get(levelOf[c]).add(node);
+            }
+        }
+        int[] stageOf = new int[graph.size()];
+        List<List<List<JavaFileObject>>> stages = new ArrayList<>();
+        List<Integer> nodes = new ArrayList<>();
+        for (int level = 0; level < levels.size(); ++level) {
+            nodes.addAll(levels.get(level));
+            if (nodes.size() >= threads * MIN_PARTITION_FILES || level == levels.size() - 1) {
+                for (int node : nodes) {
+                    stageOf[node] = stages.size();
+                }
+                stages.add(partitions(graph, stageOf, nodes, files));
+                nodes = new ArrayList<>();
+            }
+        }
+        return stages;
+    }
+
+    /**
+     * Groups the nodes of a stage connected by dependencies and balances
+     * the groups between the partitions.
+     */
+    private List<List<JavaFileObject>> partitions(DependencyGraph graph, int[] stageOf,
+            List<Integer> nodes, List<JavaFileObject> files) {
+        int stage = stageOf[nodes.get(0)];
+        int[] parents = new int[graph.size()];
+        for (int node : nodes) {
+            parents[node] = node;
+        }
+        for (int node : nodes) {
+            for (int dependency : graph.dependenciesOf(node)) {
+                // dependencies are either in the previous stages or in this one
+                if (stageOf[dependency] == stage) {
+                    parents[root(parents, node)] = root(parents, dependency);
+                }
+            }
+        }
+        Map<Integer, List<Integer>> groups = new TreeMap<>();
+        for (int node : nodes) {
+            groups.computeIfAbsent(root(parents, node), r -> new ArrayList<>()).add(node);
+        }
+        List<List<Integer>> bySize = new ArrayList<>(groups.values());
+        bySize.sort(Comparator.comparingInt(List<Integer>::size).reversed());
+        List<List<Integer>> bins = new ArrayList<>(threads);
+        for (int i = 0; i < threads; ++i) {
+            bins.add(new ArrayList<>());
+        }
+        for (List<Integer> group : bySize) {
+            bins.stream().min(Comparator.comparingInt(List::size)).orElseThrow().addAll(group);
+        }
+        List<List<JavaFileObject>> partitions = new ArrayList<>(threads);
+        for (List<Integer> bin : bins) {
+            if (!bin.isEmpty()) {
+                List<JavaFileObject> partition = new ArrayList<>(bin.size());
+                bin.stream().sorted().forEach(node -> partition.add(files.get(node)));
+                partitions.add(partition);
+            }
+        }
+        return partitions;
+    }
+
+    private static int root(int[] parents, int node) {
+        while (parents[node] != node) {
+            parents[node] = parents[parents[node]];
+            node = parents[node];
+        }
+        return node;
+    }
+
+    private boolean compile(List<List<List<JavaFileObject>>> stages) {
+        List<String> javacOptions = new ArrayList<>(Compiler.options(options.getOutputDir()));
+        String classPath = options.getOutputDir() + File.pathSeparator
+                + Objects.requireNonNullElse(options.getClasspath(),
+                        System.getProperty("java.class.path"));
+        javacOptions.addAll(Arrays.asList("-classpath", classPath));
+        javacOptions.addAll(Compiler.sourceOptions(options));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (List<List<JavaFileObject>> stage : stages) {
+                List<Future<Boolean>> results = new ArrayList<>(stage.size());
+                for (List<JavaFileObject> partition : stage) {
+                    results.add(executor.submit(() -> compile(partition, javacOptions)));
+                }
+                boolean succeeded = true;
+                for (Future<Boolean> result : results) {
+                    succeeded &= result.get();
+                }
+                if (!succeeded) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException exc) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("the compilation is interrupted", exc);
+        } catch (ExecutionException exc) {
+            if (exc.getCause() instanceof RuntimeException runtimeExc) {
+                throw runtimeExc;
+            }
+            throw new IllegalStateException(exc.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Compiles the partition by its own task and file manager; javac messages
+     * are printed at once, so messages of concurrent tasks aren't mixed.
+     */
+    private static boolean compile(List<JavaFileObject> partition, List<String> javacOptions) {
+        StringWriter out = new StringWriter();
+        boolean succeeded;
+        try (StandardJavaFileManager fileManager = ToolProvider.getSystemJavaCompiler()
+                .getStandardFileManager(null, null, GetteredFileObject.DEFAULT_CHARSET)) {
+            succeeded = Compiler.compile(partition, javacOptions, fileManager, out);
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+        if (!out.getBuffer().isEmpty()) {
+            System.err.print(out);
+            System.err.flush();
+        }
+        return succeeded;
+    }
+
+}
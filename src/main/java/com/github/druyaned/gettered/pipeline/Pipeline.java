@@ -0,0 +1,270 @@
+package com.github.druyaned.gettered.pipeline;
+
+import com.github.druyaned.gettered.Compiler;
+import com.github.druyaned.gettered.Options;
+import com.github.druyaned.gettered.metrics.BuildMetrics;
+import com.github.druyaned.gettered.sources.GetteredFileObject;
+import com.github.druyaned.gettered.sources.MappedFileObject;
+import com.github.druyaned.gettered.sources.Parser;
+import com.github.druyaned.gettered.sources.Prefilter;
+import com.github.druyaned.gettered.sources.Searcher;
+import com.github.druyaned.gettered.sources.Sources;
+import com.github.druyaned.gettered.sources.UnitToRewrite;
+import com.sun.source.tree.CompilationUnitTree;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * A streaming pipeline which runs the stages of the {@link Compiler} at the same time:
+ * <ol>
+ * <li>discovery: {@link Sources#forEach walks} the project sources;</li>
+ * <li>parse: {@link Parser parses} batches of the sources which
+ *     {@link Prefilter may be gettered}, the others go straight to the assembly;</li>
+ * <li>search and rewrite: {@link Searcher#search searches} the parsed units
+ *     and rewrites the units to rewrite;</li>
+ * <li>assembly: collects file objects to compile.</li>
+ * </ol>
+ * The stages are connected by bounded queues of batches, so a fast stage
+ * waits for a slow one instead of holding all of its results in memory.
+ *
+ * @author druyaned
+ */
+public class Pipeline {
+
+    private static final int BATCH_SIZE = 64;
+    private static final int QUEUE_CAPACITY = 16;
+    private static final long POLL_MILLIS = 100;
+
+    /**
+     * Constructs an instance of the Pipeline.
+     *
+     * @param options options of the compilation
+     * @return an instance of the Pipeline.
+     */
+    public static Pipeline instance(Options options) {
+        return new Pipeline(options);
+    }
+
+//-Fields-------------------------------------------------------------------------------------------
+
+    private final Options options;
+    private final int workers;
+    private final boolean splice;
+    private final Charset charset;
+
+//-Constructors-------------------------------------------------------------------------------------
+
+    private Pipeline(Options options) {
+        this.options = options;
+        this.workers = options.getParseThreads();
+        this.splice = options.isSplice();
+        this.charset = options.getEncoding();
+    }
+
+//-Methods------------------------------------------------------------------------------------------
+
+    /**
+     * Runs the pipeline and compiles the assembled file objects.
+     *
+     * @return {@code true} if the compilation succeeded
+     */
+    public boolean compile() {
+        return Compiler.compile(BuildMetrics.instance().phase("pipeline", this::fileObjects),
+                options);
+    }
+
+    /**
+     * Runs the pipeline and returns file objects to compile sorted by their URIs.
+     *
+     * @return file objects to compile sorted by their URIs.
+     */
+    public List<JavaFileObject> fileObjects() {
+        BlockingQueue<List<Path>> sources = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        BlockingQueue<List<CompilationUnitTree>> units = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        BlockingQueue<List<JavaFileObject>> files = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        AtomicInteger parsers = new AtomicInteger(workers);
+        AtomicInteger rewriters = new AtomicInteger(workers);
+        ExecutorService executor = Executors.newFixedThreadPool(1 + 2 * workers);
+        List<Future<?>> stages = new ArrayList<>();
+        try {
+            stages.add(executor.submit(discovery(sources)));
+            for (int i = 0; i < workers; ++i) {
+                stages.add(executor.submit(parse(sources, units, files, parsers)));
+                stages.add(executor.submit(searchAndRewrite(units, files, rewriters)));
+            }
+            List<JavaFileObject> fileObjects = new ArrayList<>();
+            while (true) {
+                List<JavaFileObject> batch = files.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (batch == null) {
+                    checkFailures(stages);
+                } else if (batch.isEmpty()) {
+                    break;
+                } else {
+                    fileObjects.addAll(batch);
+                }
+            }
+            fileObjects.sort(Comparator.comparing(file -> file.toUri().toString()));
+            BuildMetrics.instance().scanned(fileObjects.size());
+            return fileObjects;
+        } catch (InterruptedException exc) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("the pipeline is interrupted", exc);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+//-Private-methods----------------------------------------------------------------------------------
+
+    /**
+     * Puts batches of the sources into the queue; an empty batch ends the stream.
+     */
+    private Callable<Void> discovery(BlockingQueue<List<Path>> sources) {
+        return () -> {
+            Batcher batcher = new Batcher(sources);
+            Sources.forEach(options, batcher);
+            batcher.flush();
+            sources.put(List.of());
+            return null;
+        };
+    }
+
+    /**
+     * Parses the sources which {@link Prefilter may be gettered}; the others
+     * go straight to the assembly. Each parser reuses its warm file manager
+     * for all of its batches and closes it at the end of the stream.
+     */
+    private Callable<Void> parse(BlockingQueue<List<Path>> sources,
+            BlockingQueue<List<CompilationUnitTree>> units,
+            BlockingQueue<List<JavaFileObject>> files, AtomicInteger parsers) {
+        return () -> {
+            try (StandardJavaFileManager fileManager = ToolProvider.getSystemJavaCompiler()
+                    .getStandardFileManager(null, null, charset)) {
+                for (List<Path> batch = sources.take(); !batch.isEmpty();
+                        batch = sources.take()) {
+                    List<Path> gettered = new ArrayList<>();
+                    List<Path> plain = new ArrayList<>();
+                    Prefilter.split(batch, gettered, plain);
+                    if (!plain.isEmpty()) {
+                        files.put(MappedFileObject.of(plain, fileManager, charset));
+                    }
+                    if (!gettered.isEmpty()) {
+                        List<CompilationUnitTree> compUnits = new ArrayList<>(gettered.size());
+                        Parser.getCompilationUnits(gettered, fileManager, charset)
+                                .forEach(compUnits::add);
+                        units.put(compUnits);
+                    }
+                }
+            }
+            sources.put(List.of()); // other parsers should see the end too
+            if (parsers.decrementAndGet() == 0) {
+                units.put(List.of());
+            }
+            return null;
+        };
+    }
+
+    private Callable<Void> searchAndRewrite(BlockingQueue<List<CompilationUnitTree>> units,
+            BlockingQueue<List<JavaFileObject>> files, AtomicInteger rewriters) {
+        return () -> {
+            Searcher searcher = Searcher.instance();
+            for (List<CompilationUnitTree> batch = units.take(); !batch.isEmpty();
+                    batch = units.take()) {
+                List<JavaFileObject> fileObjects = new ArrayList<>(batch.size());
+                for (CompilationUnitTree compUnit : batch) {
+                    List<UnitToRewrite> unitsToRewrite = new ArrayList<>(1);
+                    searcher.search(compUnit, unitsToRewrite::add);
+                    UnitToRewrite unitToRewrite = unitsToRewrite.isEmpty()
+                            ? null
+                            : unitsToRewrite.get(0);
+                    JavaFileObject fileObject = Compiler
+                            .fileObject(compUnit, unitToRewrite, splice, charset);
+                    if (fileObject instanceof GetteredFileObject getteredFileObject) {
+                        getteredFileObject.rewrite(); // here, not in the javac thread
+                    }
+                    fileObjects.add(fileObject);
+                }
+                files.put(fileObjects);
+            }
+            units.put(List.of()); // other rewriters should see the end too
+            if (rewriters.decrementAndGet() == 0) {
+                files.put(List.of());
+            }
+            return null;
+        };
+    }
+
+    /**
+     * Rethrows a failure of the stages if there is one.
+     */
+    static void checkFailures(List<Future<?>> stages) throws InterruptedException {
+        for (Future<?> stage : stages) {
+            if (!stage.isDone()) {
+                continue;
+            }
+            try {
+                stage.get();
+            } catch (ExecutionException exc) {
+                if (exc.getCause() instanceof RuntimeException runtimeExc) {
+                    throw runtimeExc;
+                }
+                throw new IllegalStateException(exc.getCause());
+            }
+        }
+    }
+
+//-Batcher------------------------------------------------------------------------------------------
+
+    /**
+     * Collects the discovered sources into batches and puts them into the queue.
+     */
+    private static class Batcher implements Consumer<Path> {
+
+        private final BlockingQueue<List<Path>> queue;
+        private List<Path> batch = new ArrayList<>(BATCH_SIZE);
+
+        Batcher(BlockingQueue<List<Path>> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public void accept(Path source) {
+            batch.add(source);
+            if (batch.size() == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                queue.put(batch);
+            } catch (InterruptedException exc) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("the pipeline is interrupted");
+            }
+            batch = new ArrayList<>(BATCH_SIZE);
+        }
+
+    }
+
+}
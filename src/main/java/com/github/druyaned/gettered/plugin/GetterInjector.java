@@ -0,0 +1,95 @@
+package com.github.druyaned.gettered.plugin;
+
+import com.github.druyaned.gettered.Gettered;
+import com.github.druyaned.gettered.metrics.BuildMetrics;
+import com.github.druyaned.gettered.sources.Searcher;
+import com.github.druyaned.gettered.sources.UnitToRewrite;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.TaskEvent;
+import com.sun.source.util.TaskListener;
+import com.sun.tools.javac.api.BasicJavacTask;
+import com.sun.tools.javac.code.Flags;
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.tree.JCTree.JCClassDecl;
+import com.sun.tools.javac.tree.JCTree.JCExpression;
+import com.sun.tools.javac.tree.JCTree.JCMethodDecl;
+import com.sun.tools.javac.tree.JCTree.JCVariableDecl;
+import com.sun.tools.javac.tree.TreeCopier;
+import com.sun.tools.javac.tree.TreeMaker;
+import com.sun.tools.javac.util.Context;
+import com.sun.tools.javac.util.List;
+import com.sun.tools.javac.util.Names;
+import java.util.Map;
+
+/**
+ * A {@link TaskListener task listener} which adds missed getters
+ * into the {@link Gettered gettered} classes when a compilation unit is parsed,
+ * i.e. before the classes are entered into the symbol table.
+ *
+ * @author druyaned
+ * @see GetteredPlugin
+ */
+public class GetterInjector implements TaskListener {
+
+//-Fields-------------------------------------------------------------------------------------------
+
+    private final TreeMaker treeMaker;
+    private final Names names;
+
+//-Constructors-------------------------------------------------------------------------------------
+
+    /**
+     * Constructs a listener which adds missed getters into the trees parsed by the task.
+     *
+     * @param task the task which parses the trees
+     */
+    public GetterInjector(JavacTask task) {
+        Context context = ((BasicJavacTask)task).getContext();
+        this.treeMaker = TreeMaker.instance(context);
+        this.names = Names.instance(context);
+    }
+
+//-Methods------------------------------------------------------------------------------------------
+
+    @Override
+    public void finished(TaskEvent event) {
+        if (event.getKind() != TaskEvent.Kind.PARSE) {
+            return;
+        }
+        java.util.List<UnitToRewrite> unitsToRewrite = Searcher.instance()
+                .unitsToRewriteIn(java.util.List.of(event.getCompilationUnit()));
+        for (UnitToRewrite unitToRewrite : unitsToRewrite) {
+            inject(unitToRewrite);
+        }
+    }
+
+//-Private-methods----------------------------------------------------------------------------------
+
+    private void inject(UnitToRewrite unitToRewrite) {
+        long start = System.nanoTime();
+        JCClassDecl classDecl = (JCClassDecl)unitToRewrite.getClassTree();
+        TreeCopier<Void> copier = new TreeCopier<>(treeMaker);
+        List<JCTree> getters = List.nil();
+        for (Map.Entry<String, VariableTree> entry
+                : unitToRewrite.getMissedGetterToVar().entrySet()) {
+            JCVariableDecl varDecl = (JCVariableDecl)entry.getValue();
+            treeMaker.at(varDecl.pos);
+            JCExpression returnType = copier.copy(varDecl.vartype);
+            JCMethodDecl getter = treeMaker.MethodDef(
+                    treeMaker.Modifiers(Flags.PUBLIC),
+                    names.fromString(entry.getKey()),
+                    returnType,
+                    List.nil(), // type parameters
+                    List.nil(), // parameters
+                    List.nil(), // thrown
+                    treeMaker.Block(0, List.of(treeMaker.Return(treeMaker.Ident(varDecl.name)))),
+                    null); // default value
+            getters = getters.append(getter);
+        }
+        classDecl.defs = classDecl.defs.appendList(getters);
+        BuildMetrics.instance().rewritten(classDecl.getSimpleName().toString(),
+                getters.size(), null, System.nanoTime() - start);
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.github.druyaned.gettered.plugin;
+
+import com.github.druyaned.gettered.Gettered;
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.Plugin;
+
+/**
+ * A javac plugin which adds missed getters into classes with {@link Gettered} annotation
+ * right in the parsed trees, so each source is parsed once by the user's javac run.
+ * <p>
+ * The plugin is registered as a service and can be used with the option
+ * {@code -Xplugin:Gettered}; it accesses javac internals, so they must be exported.
+ * <p><i>USAGE</i>:
+ * <pre>
+ * javac -J--add-exports=jdk.compiler/com.sun.tools.javac.api=ALL-UNNAMED \
+ *       -J--add-exports=jdk.compiler/com.sun.tools.javac.code=ALL-UNNAMED \
+ *       -J--add-exports=jdk.compiler/com.sun.tools.javac.tree=ALL-UNNAMED \
+ *       -J--add-exports=jdk.compiler/com.sun.tools.javac.util=ALL-UNNAMED \
+ *       -cp gettered-1.0.jar -Xplugin:Gettered -d target/classes $(find src/main/java -name '*.java')
+ * </pre>
+ *
+ * @author druyaned
+ * @see GetterInjector
+ */
+public class GetteredPlugin implements Plugin {
+
+    public static final String NAME = "Gettered";
+
+    /**
+     * Makes the task add missed getters into parsed classes with {@link Gettered} annotation.
+     *
+     * @param task the task to be modified
+     */
+    public static void register(JavacTask task) {
+        task.addTaskListener(new GetterInjector(task));
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void init(JavacTask task, String... args) {
+        register(task);
+    }
+
+}
@@ -0,0 +1,113 @@
+package com.github.druyaned.gettered.sources;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Discovers sources in several source roots walking the roots and their directories
+ * in parallel: each directory is listed by its own {@link RecursiveTask fork-join task},
+ * so slow (e.g. network-backed) disks are read by many threads at the same time.
+ * The sources are returned in a deterministic order: by the roots
+ * and then lexicographically by their paths.
+ * <p>
+ * As {@link Files#walkFileTree(Path, java.nio.file.FileVisitor) walking a file tree} does,
+ * symbolic links to files are taken as sources, while links to directories aren't followed,
+ * so a link cycle can't make the walk endless.
+ *
+ * @author druyaned
+ * @see SourceFilter
+ */
+public class Discovery {
+
+    /** More threads than cores, since the tasks mostly wait for the disk. */
+    private static final int PARALLELISM = Math.max(4,
+            2 * Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Returns sources of the roots accepted by the filter;
+     * roots which aren't directories are skipped.
+     *
+     * @param roots source roots
+     * @param filter filter of the sources
+     * @return sources of the roots accepted by the filter.
+     */
+    public static List<Path> sources(List<Path> roots, SourceFilter filter) {
+        List<Path> sources = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(PARALLELISM);
+        try {
+            List<ForkJoinTask<List<Path>>> rootTasks = new ArrayList<>();
+            for (Path root : roots) {
+                if (Files.isDirectory(root)) { // all roots are walked at the same time
+                    rootTasks.add(pool.submit(new DirectoryTask(root, root, filter)));
+                }
+            }
+            for (ForkJoinTask<List<Path>> rootTask : rootTasks) { // joined in the root order
+                List<Path> rootSources = rootTask.join();
+                rootSources.sort(null);
+                sources.addAll(rootSources);
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return sources;
+    }
+
+//-DirectoryTask------------------------------------------------------------------------------------
+
+    private static class DirectoryTask extends RecursiveTask<List<Path>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Path root;
+        private final Path dir;
+        private final SourceFilter filter;
+
+        DirectoryTask(Path root, Path dir, SourceFilter filter) {
+            this.root = root;
+            this.dir = dir;
+            this.filter = filter;
+        }
+
+        @Override
+        protected List<Path> compute() {
+            List<Path> sources = new ArrayList<>();
+            List<DirectoryTask> subtasks = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+                for (Path entry : entries) {
+                    BasicFileAttributes attrs = Files.readAttributes(entry,
+                            BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    Path relative = root.relativize(entry);
+                    if (attrs.isDirectory()) {
+                        if (!filter.excludes(relative)) {
+                            DirectoryTask subtask = new DirectoryTask(root, entry, filter);
+                            subtask.fork();
+                            subtasks.add(subtask);
+                        }
+                    } else if ((attrs.isRegularFile()
+                            || attrs.isSymbolicLink() && Files.isRegularFile(entry))
+                            && filter.accepts(relative)) {
+                        sources.add(entry);
+                    }
+                }
+            } catch (IOException exc) {
+                throw new UncheckedIOException(exc);
+            }
+            for (DirectoryTask subtask : subtasks) {
+                sources.addAll(subtask.join());
+            }
+            return sources;
+        }
+
+    }
+
+}
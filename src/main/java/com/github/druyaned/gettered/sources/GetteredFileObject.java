@@ -4,17 +4,31 @@ import com.github.druyaned.gettered.Gettered;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.Reader;
-import java.io.StringReader;
 import java.io.Writer;
 import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.NestingKind;
 import javax.tools.JavaFileObject;
 
 /**
  * A wrapper for the JavaFileObject that overrides I/O and content methods with getters.
+ * <p>
+ * The unit is rewritten lazily, when javac asks for the content the first time;
+ * the content is kept once, encoded by the charset of the sources, so
+ * {@link #openInputStream()} and {@link #openReader(boolean)} serve it without copying.
+ * Only the encoded bytes are kept: {@link #getCharContent(boolean)} decodes them
+ * on each call, so the decoded strings of all of the rewritten sources aren't held
+ * in the heap during the build.
+ * The content may also be served from a
+ * {@link com.github.druyaned.gettered.cache.RewriteCache rewrite cache}
+ * without parsing the source at all.
  * 
  * @author druyaned
  * @see Gettered
@@ -24,9 +38,18 @@ public class GetteredFileObject implements JavaFileObject {
     
 //-Fields-------------------------------------------------------------------------------------------
     
+    /**
+     * Default charset of the sources, like {@code project.build.sourceEncoding}
+     * of the {@code pom.xml}; {@code --encoding} sets another one
+     * (see {@link com.github.druyaned.gettered.Options#getEncoding()}).
+     */
+    public static final Charset DEFAULT_CHARSET = StandardCharsets.UTF_8;
+    
     private final JavaFileObject origin;
     private final UnitToRewrite unitToRewrite;
-    private final String getteredContent;
+    private final Charset charset;
+    private Supplier<byte[]> contentSupplier;
+    private volatile byte[] content = null;
     
 //-Constructors-------------------------------------------------------------------------------------
     
@@ -37,35 +60,104 @@ public class GetteredFileObject implements JavaFileObject {
      * @param unitToRewrite a unit with missed getters that should be rewritten.
      */
     public GetteredFileObject(UnitToRewrite unitToRewrite) {
-        this.origin = unitToRewrite.getUnit().getSourceFile();
+        this(unitToRewrite, Rewriter::new, DEFAULT_CHARSET);
+    }
+    
+    /**
+     * Constructs a wrapper for the {@link JavaFileObject}
+     * that overrides I/O and content methods with the content of the rewriter.
+     * 
+     * @param rewriter a rewriter of the unit with missed getters.
+     */
+    public GetteredFileObject(Rewriter rewriter) {
+        this(rewriter.getUnitToRewrite(), unitToRewrite -> rewriter, DEFAULT_CHARSET);
+    }
+    
+    /**
+     * Constructs a wrapper for the {@link JavaFileObject}
+     * that overrides I/O and content methods with the content of the rewriter
+     * which is made when the content is asked for the first time.
+     * 
+     * @param unitToRewrite a unit with missed getters that should be rewritten
+     * @param rewriting makes the rewriter of the unit, it's called once
+     * @param charset charset to encode the content by
+     */
+    public GetteredFileObject(UnitToRewrite unitToRewrite,
+            Function<? super UnitToRewrite, Rewriter> rewriting, Charset charset) {
         this.unitToRewrite = unitToRewrite;
-        Rewriter rewriter = new Rewriter(unitToRewrite);
-        this.getteredContent = rewriter.getGetteredContent();
+        this.origin = unitToRewrite.getUnit().getSourceFile();
+        this.contentSupplier = () -> rewriting.apply(unitToRewrite).getGetteredContent()
+                .getBytes(charset);
+        this.charset = charset;
+    }
+    
+    /**
+     * Constructs a wrapper for the {@link JavaFileObject} with already rewritten content,
+     * for example, from a cache; the source isn't parsed, so there is no unit to rewrite.
+     * 
+     * @param origin file object of the original source
+     * @param contentSupplier supplies the rewritten content encoded by the charset,
+     *        it's called once, when the content is asked for the first time
+     * @param charset charset of the content
+     */
+    public GetteredFileObject(JavaFileObject origin, Supplier<byte[]> contentSupplier,
+            Charset charset) {
+        this.unitToRewrite = null;
+        this.origin = origin;
+        this.contentSupplier = contentSupplier;
+        this.charset = charset;
     }
     
 //-Methods------------------------------------------------------------------------------------------
     
+    /**
+     * Returns the unit to rewrite or {@code null} if the content is already rewritten.
+     * 
+     * @return the unit to rewrite or {@code null} if the content is already rewritten.
+     */
     public UnitToRewrite getUnitToRewrite() {
         return unitToRewrite;
     }
     
+    /**
+     * Rewrites the unit now, for example in a worker thread,
+     * instead of when javac asks for the content.
+     */
+    public void rewrite() {
+        content();
+    }
+    
     public String getGetteredContent() {
-        return getteredContent;
+        return new String(content(), charset);
+    }
+    
+    public Charset getCharset() {
+        return charset;
+    }
+    
+    /**
+     * Writes the content encoded by the {@link #getCharset() charset} without copying it.
+     * 
+     * @param out stream to write the content into
+     * @throws IOException if an I/O error occurs
+     */
+    public void transferTo(OutputStream out) throws IOException {
+        out.write(content());
     }
 
     @Override
     public InputStream openInputStream() throws IOException {
-        return new ByteArrayInputStream(getteredContent.getBytes());
+        return new ByteArrayInputStream(content());
     }
 
     @Override
     public Reader openReader(boolean ignoreEncodingErrors) throws IOException {
-        return new StringReader(getteredContent);
+        return new InputStreamReader(openInputStream(), charset);
     }
 
     @Override
     public CharSequence getCharContent(boolean ignoreEncodingErrors) throws IOException {
-        return getteredContent;
+        return getGetteredContent();
     }
 
 //-Default-methods----------------------------------------------------------------------------------
@@ -120,4 +212,21 @@ public class GetteredFileObject implements JavaFileObject {
         return origin.delete();
     }
     
+//-Private-methods----------------------------------------------------------------------------------
+    
+    private byte[] content() {
+        byte[] bytes = content;
+        if (bytes == null) {
+            synchronized (this) {
+                bytes = content;
+                if (bytes == null) {
+                    bytes = contentSupplier.get();
+                    content = bytes;
+                    contentSupplier = null; // the rewriter isn't needed anymore
+                }
+            }
+        }
+        return bytes;
+    }
+    
 }
@@ -0,0 +1,139 @@
+package com.github.druyaned.gettered.sources;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Provides content hashes of {@link Sources#get() project sources} and fingerprints
+ * of class paths.
+ *
+ * @author druyaned
+ */
+public class Hashes {
+
+    private static final String ALGORITHM = "SHA-256";
+
+    /**
+     * Returns a hex string of the SHA-256 digest of the bytes.
+     *
+     * @param bytes bytes to be hashed
+     * @return a hex string of the SHA-256 digest of the bytes.
+     */
+    public static String of(byte[] bytes) {
+        return HexFormat.of().formatHex(digest().digest(bytes));
+    }
+
+    /**
+     * Returns a hex string of the SHA-256 digest of the string in UTF-8.
+     *
+     * @param string string to be hashed
+     * @return a hex string of the SHA-256 digest of the string in UTF-8.
+     */
+    public static String of(String string) {
+        return of(string.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns a hex string of the SHA-256 digest of the file content.
+     *
+     * @param file file to be hashed
+     * @return a hex string of the SHA-256 digest of the file content.
+     */
+    public static String of(Path file) {
+        try {
+            return of(Files.readAllBytes(file));
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+    }
+
+    /**
+     * Returns a hex string of the SHA-256 digest of the content of the class path:
+     * the bytes of the file entries (jars) and the relative paths and bytes of the files
+     * in the directory entries in the order of the entries. The paths of the entries
+     * aren't hashed, so the same dependencies give the same hash on any machine.
+     *
+     * @param classpath the class path or {@code null} for the class path of this process
+     * @return a hex string of the SHA-256 digest of the content of the class path.
+     */
+    public static String ofClasspath(String classpath) {
+        return ofClasspath(classpath, true);
+    }
+
+    /**
+     * Returns a hex string of the SHA-256 digest of the paths, sizes and modification times
+     * of the class path entries and of the files in the directory entries. It's cheaper
+     * than the {@link #ofClasspath(String) content hash} but changes on a touch too.
+     *
+     * @param classpath the class path or {@code null} for the class path of this process
+     * @return a hex string of the SHA-256 digest of the stamps of the class path.
+     */
+    public static String ofClasspathStamps(String classpath) {
+        return ofClasspath(classpath, false);
+    }
+
+    private static String ofClasspath(String classpath, boolean content) {
+        MessageDigest digest = digest();
+        String entries = classpath == null ? System.getProperty("java.class.path") : classpath;
+        try {
+            for (String entry : entries.split(File.pathSeparator)) {
+                if (entry.isEmpty()) {
+                    continue;
+                }
+                Path root = Path.of(entry);
+                update(digest, content ? "entry" : "entry " + root.toAbsolutePath());
+                List<Path> files;
+                if (Files.isDirectory(root)) {
+                    try (Stream<Path> paths = Files.walk(root)) {
+                        files = paths.filter(Files::isRegularFile).sorted().toList();
+                    }
+                } else if (Files.isRegularFile(root)) {
+                    files = List.of(root);
+                } else {
+                    continue; // javac skips missing entries too
+                }
+                for (Path file : files) {
+                    update(digest, root.relativize(file).toString().replace('\\', '/'));
+                    if (content) {
+                        try (InputStream in = Files.newInputStream(file)) {
+                            byte[] buffer = new byte[1 << 16];
+                            for (int n = in.read(buffer); n != -1; n = in.read(buffer)) {
+                                digest.update(buffer, 0, n);
+                            }
+                        }
+                    } else {
+                        update(digest, Files.size(file) + " "
+                                + Files.getLastModifiedTime(file).toMillis());
+                    }
+                }
+            }
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, String string) {
+        digest.update(string.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '\n');
+    }
+
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException exc) {
+            throw new IllegalStateException(ALGORITHM + " is not supported", exc);
+        }
+    }
+
+}
@@ -0,0 +1,287 @@
+package com.github.druyaned.gettered.sources;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+
+/**
+ * A source file object which memory-maps the file and decodes it once, so the content
+ * is shared by all of the javac tasks given the object: a unit parsed by the
+ * {@link Parser} and compiled as it is (or {@link Rewriter#spliced spliced}) isn't read
+ * a second time.
+ * <p>
+ * The objects made by {@link #of} are decoded ahead by a few daemon threads in the order
+ * of the sources, so javac finds the next files already read while it parses the current
+ * ones instead of stalling on the disk. At most {@value #READ_AHEAD} files are read ahead
+ * of javac: the next one is queued when javac reads one, so the decoded contents of
+ * a large tree don't pile up in the heap. The content is kept for the following tasks
+ * until it's {@link #release() released} after the compilation. If a file can't be
+ * decoded strictly, the object falls back to the standard file object, so javac reports
+ * the error as usual. Names, URIs and kinds are the ones of the standard file object.
+ *
+ * @author druyaned
+ */
+public class MappedFileObject implements JavaFileObject {
+
+    private static final int PREFETCH_THREADS = 4;
+    private static final int READ_AHEAD = 16;
+    private static final ExecutorService PREFETCHER = Executors.newFixedThreadPool(
+            PREFETCH_THREADS, task -> {
+                Thread thread = new Thread(task, "gettered-prefetch");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    /**
+     * Returns mapped file objects of the sources and starts decoding them ahead.
+     *
+     * @param sources sources ({@code .java}) to be read
+     * @param fileManager file manager of the standard file objects of the sources
+     * @param charset charset of the sources
+     * @return mapped file objects of the sources in their order.
+     */
+    public static List<JavaFileObject> of(List<Path> sources,
+            StandardJavaFileManager fileManager, Charset charset) {
+        List<MappedFileObject> files = new ArrayList<>(sources.size());
+        ReadAhead readAhead = new ReadAhead(files);
+        Iterator<Path> paths = sources.iterator();
+        for (JavaFileObject origin : fileManager.getJavaFileObjectsFromPaths(sources)) {
+            files.add(new MappedFileObject(origin, paths.next(), charset, readAhead));
+        }
+        readAhead.advance(READ_AHEAD);
+        return new ArrayList<>(files);
+    }
+
+    /**
+     * {@link #release() Releases} the contents of the mapped file objects among the files
+     * and of the ones the {@link GetteredFileObject gettered file objects} are rewritten from.
+     *
+     * @param files file objects of a finished compilation
+     */
+    public static void release(Iterable<? extends JavaFileObject> files) {
+        for (JavaFileObject file : files) {
+            if (file instanceof GetteredFileObject gettered
+                    && gettered.getUnitToRewrite() != null) {
+                file = gettered.getUnitToRewrite().getUnit().getSourceFile();
+            }
+            if (file instanceof MappedFileObject mapped) {
+                mapped.release();
+            }
+        }
+    }
+
+//-Fields-------------------------------------------------------------------------------------------
+
+    private final JavaFileObject origin;
+    private final Path path;
+    private final Charset charset;
+    private final ReadAhead readAhead;
+    private boolean read = false;
+    private boolean consumed = false;
+    private String content = null;
+
+//-Constructors-------------------------------------------------------------------------------------
+
+    /**
+     * Constructs a mapped file object of the source which is read when javac
+     * asks for the content the first time or when it's {@link #prefetch() prefetched}.
+     *
+     * @param origin standard file object of the source
+     * @param path path of the source
+     * @param charset charset of the source
+     */
+    public MappedFileObject(JavaFileObject origin, Path path, Charset charset) {
+        this(origin, path, charset, null);
+    }
+
+    private MappedFileObject(JavaFileObject origin, Path path, Charset charset,
+            ReadAhead readAhead) {
+        this.origin = origin;
+        this.path = path;
+        this.charset = charset;
+        this.readAhead = readAhead;
+    }
+
+//-Methods------------------------------------------------------------------------------------------
+
+    /**
+     * Reads and decodes the source now unless it's already done; a failure is left
+     * to the standard file object.
+     */
+    public void prefetch() {
+        content();
+    }
+
+    /**
+     * Drops the decoded content, for example after the compilation, so it isn't kept
+     * as long as the object; it's read again if it's asked for.
+     */
+    public synchronized void release() {
+        read = false;
+        content = null;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public CharSequence getCharContent(boolean ignoreEncodingErrors) throws IOException {
+        String decoded = consume();
+        return decoded == null ? origin.getCharContent(ignoreEncodingErrors) : decoded;
+    }
+
+    @Override
+    public InputStream openInputStream() throws IOException {
+        String decoded = consume();
+        return decoded == null
+                ? origin.openInputStream()
+                : new ByteArrayInputStream(decoded.getBytes(charset));
+    }
+
+    @Override
+    public Reader openReader(boolean ignoreEncodingErrors) throws IOException {
+        String decoded = consume();
+        return decoded == null
+                ? origin.openReader(ignoreEncodingErrors)
+                : new StringReader(decoded);
+    }
+
+//-Default-methods----------------------------------------------------------------------------------
+
+    @Override
+    public Writer openWriter() throws IOException {
+        return origin.openWriter();
+    }
+
+    @Override
+    public OutputStream openOutputStream() throws IOException {
+        return origin.openOutputStream();
+    }
+
+    @Override
+    public Kind getKind() {
+        return origin.getKind();
+    }
+
+    @Override
+    public boolean isNameCompatible(String simpleName, Kind kind) {
+        return origin.isNameCompatible(simpleName, kind);
+    }
+
+    @Override
+    public NestingKind getNestingKind() {
+        return origin.getNestingKind();
+    }
+
+    @Override
+    public Modifier getAccessLevel() {
+        return origin.getAccessLevel();
+    }
+
+    @Override
+    public URI toUri() {
+        return origin.toUri();
+    }
+
+    @Override
+    public String getName() {
+        return origin.getName();
+    }
+
+    @Override
+    public long getLastModified() {
+        return origin.getLastModified();
+    }
+
+    @Override
+    public boolean delete() {
+        return origin.delete();
+    }
+
+    @Override
+    public String toString() {
+        return origin.toString();
+    }
+
+//-Private-methods----------------------------------------------------------------------------------
+
+    /** Returns the {@link #content() content} read by javac and moves the read-ahead on. */
+    private String consume() {
+        String decoded = content();
+        if (readAhead != null) {
+            synchronized (this) {
+                if (consumed) {
+                    return decoded;
+                }
+                consumed = true;
+            }
+            readAhead.advance(1);
+        }
+        return decoded;
+    }
+
+    /**
+     * Returns the decoded content or {@code null} if the source can't be mapped
+     * or decoded strictly; a prefetching thread and javac wait for each other.
+     */
+    private synchronized String content() {
+        if (!read) {
+            read = true;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                long size = channel.size();
+                if (size <= Integer.MAX_VALUE) {
+                    content = charset.newDecoder()
+                            .onMalformedInput(CodingErrorAction.REPORT)
+                            .onUnmappableCharacter(CodingErrorAction.REPORT)
+                            .decode(channel.map(FileChannel.MapMode.READ_ONLY, 0, size))
+                            .toString();
+                }
+            } catch (CharacterCodingException exc) {
+                // the standard file object reports it as javac does
+            } catch (IOException exc) {
+                // the standard file object fails the same way when javac reads it
+            }
+        }
+        return content;
+    }
+
+    /** Queues the files to be prefetched in their order. */
+    private static class ReadAhead {
+
+        private final List<MappedFileObject> files;
+        private int next = 0;
+
+        private ReadAhead(List<MappedFileObject> files) {
+            this.files = files;
+        }
+
+        private synchronized void advance(int count) {
+            for (int end = Math.min(next + count, files.size()); next < end; ++next) {
+                PREFETCHER.execute(files.get(next)::prefetch);
+            }
+        }
+
+    }
+
+}
@@ -7,8 +7,22 @@ import javax.tools.JavaFileObject;
 import javax.tools.StandardJavaFileManager;
 import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.util.JavacTask;
+import com.sun.source.util.SourcePositions;
+import com.sun.source.util.Trees;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import javax.tools.ToolProvider;
 
 /**
@@ -19,19 +33,80 @@ import javax.tools.ToolProvider;
  */
 public class Parser {
     
+    private static volatile SourcePositions sourcePositions;
+    
+    /**
+     * Returns positions of trees in the sources of the parsed
+     * {@link CompilationUnitTree compilation units}.
+     * <p>
+     * javac keeps end positions in the units parsed by a {@link JavacTask},
+     * so the same positions fit units returned by any of the
+     * {@code getCompilationUnits} methods.
+     * 
+     * @return positions of trees in the sources of the parsed compilation units.
+     */
+    public static SourcePositions sourcePositions() {
+        if (sourcePositions == null) {
+            JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+            JavacTask task = (JavacTask)compiler
+                    .getTask(null, null, null, null, null, List.of());
+            sourcePositions = Trees.instance(task).getSourcePositions();
+        }
+        return sourcePositions;
+    }
+    
     /**
      * Returns parsed {@link CompilationUnitTree compilation units}
-     * from {@link Sources#get() project sources}.
+     * from {@link Sources#get() project sources}
+     * read by the {@link GetteredFileObject#DEFAULT_CHARSET default charset}.
      * 
      * @param sources project sources ({@code .java}) to be parsed.
      * @return parsed {@link CompilationUnitTree compilation units}
      *         from {@link Sources#get() project sources}.
      */
     public static Iterable<? extends CompilationUnitTree> getCompilationUnits(List<Path> sources) {
+        return getCompilationUnits(sources, GetteredFileObject.DEFAULT_CHARSET);
+    }
+    
+    /**
+     * Returns parsed {@link CompilationUnitTree compilation units}
+     * from {@link Sources#get() project sources}.
+     * 
+     * @param sources project sources ({@code .java}) to be parsed.
+     * @param charset charset of the sources
+     * @return parsed {@link CompilationUnitTree compilation units}
+     *         from {@link Sources#get() project sources}.
+     */
+    public static Iterable<? extends CompilationUnitTree> getCompilationUnits(List<Path> sources,
+            Charset charset) {
         JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
-        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
-        Iterable<? extends JavaFileObject> fileObjects = fileManager
-                .getJavaFileObjectsFromPaths(sources);
+        // the parsed units and their standard file objects work without the file manager
+        try (StandardJavaFileManager fileManager = compiler
+                .getStandardFileManager(null, null, charset)) {
+            return getCompilationUnits(sources, fileManager, charset);
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+    }
+    
+    /**
+     * Returns parsed {@link CompilationUnitTree compilation units}
+     * from {@link Sources#get() project sources} using the file manager,
+     * so a warm file manager can be reused between parses.
+     * 
+     * @param sources project sources ({@code .java}) to be parsed.
+     * @param fileManager file manager of the sources
+     * @param charset charset of the sources
+     * @return parsed {@link CompilationUnitTree compilation units}
+     *         from {@link Sources#get() project sources}.
+     */
+    public static Iterable<? extends CompilationUnitTree> getCompilationUnits(List<Path> sources,
+            StandardJavaFileManager fileManager, Charset charset) {
+        if (sources.isEmpty()) {
+            return List.of(); // javac reports "no source files" otherwise
+        }
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<JavaFileObject> fileObjects = MappedFileObject.of(sources, fileManager, charset);
         JavacTask task = (JavacTask)compiler
                 .getTask(null, fileManager, null, null, null, fileObjects);
         try {
@@ -41,4 +116,112 @@ public class Parser {
         }
     }
     
+    /**
+     * Returns parsed {@link CompilationUnitTree compilation units}
+     * from {@link Sources#get() project sources} in the order of the sources
+     * read by the {@link GetteredFileObject#DEFAULT_CHARSET default charset}.
+     * 
+     * @param sources project sources ({@code .java}) to be parsed.
+     * @param threads number of threads (and shards) to parse the sources
+     * @return parsed {@link CompilationUnitTree compilation units}
+     *         from {@link Sources#get() project sources}.
+     * @throws IllegalArgumentException if the number of threads isn't positive
+     */
+    public static Iterable<? extends CompilationUnitTree> getCompilationUnits(List<Path> sources,
+            int threads) throws IllegalArgumentException {
+        return getCompilationUnits(sources, threads, GetteredFileObject.DEFAULT_CHARSET);
+    }
+    
+    /**
+     * Returns parsed {@link CompilationUnitTree compilation units}
+     * from {@link Sources#get() project sources} in the order of the sources.
+     * The sources are split into shards of about the same total size
+     * and each shard is parsed by its own {@link JavacTask} in a pool of threads.
+     * 
+     * @param sources project sources ({@code .java}) to be parsed.
+     * @param threads number of threads (and shards) to parse the sources
+     * @param charset charset of the sources
+     * @return parsed {@link CompilationUnitTree compilation units}
+     *         from {@link Sources#get() project sources}.
+     * @throws IllegalArgumentException if the number of threads isn't positive
+     */
+    public static Iterable<? extends CompilationUnitTree> getCompilationUnits(List<Path> sources,
+            int threads, Charset charset) throws IllegalArgumentException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads=" + threads + " must be positive");
+        }
+        if (threads == 1 || sources.size() < 2) {
+            return getCompilationUnits(sources, charset);
+        }
+        List<List<Path>> shards = shards(sources, Math.min(threads, sources.size()));
+        ExecutorService executor = Executors.newFixedThreadPool(shards.size());
+        try {
+            List<Future<Iterable<? extends CompilationUnitTree>>> futures = new ArrayList<>();
+            for (List<Path> shard : shards) {
+                futures.add(executor.submit(() -> getCompilationUnits(shard, charset)));
+            }
+            Map<URI, Integer> uriToIndex = new HashMap<>();
+            for (int i = 0; i < sources.size(); ++i) {
+                uriToIndex.put(sources.get(i).toUri().normalize(), i);
+            }
+            CompilationUnitTree[] compUnits = new CompilationUnitTree[sources.size()];
+            for (Future<Iterable<? extends CompilationUnitTree>> future : futures) {
+                for (CompilationUnitTree compUnit : future.get()) {
+                    URI uri = compUnit.getSourceFile().toUri().normalize();
+                    compUnits[uriToIndex.get(uri)] = compUnit;
+                }
+            }
+            return Arrays.asList(compUnits);
+        } catch (InterruptedException exc) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("parsing is interrupted", exc);
+        } catch (ExecutionException exc) {
+            if (exc.getCause() instanceof RuntimeException runtimeExc) {
+                throw runtimeExc;
+            }
+            throw new IllegalStateException(exc.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+//-Private-methods----------------------------------------------------------------------------------
+    
+    /**
+     * Splits the sources into shards of about the same total size:
+     * the largest sources go first, each into the currently smallest shard.
+     */
+    private static List<List<Path>> shards(List<Path> sources, int count) {
+        List<List<Path>> shards = new ArrayList<>(count);
+        long[] shardSizes = new long[count];
+        for (int i = 0; i < count; ++i) {
+            shards.add(new ArrayList<>());
+        }
+        Map<Path, Long> sourceToSize = new HashMap<>();
+        for (Path source : sources) {
+            sourceToSize.put(source, sizeOf(source));
+        }
+        List<Path> bySize = new ArrayList<>(sources);
+        bySize.sort(Comparator.comparing(sourceToSize::get, Comparator.reverseOrder()));
+        for (Path source : bySize) {
+            int smallest = 0;
+            for (int i = 1; i < count; ++i) {
+                if (shardSizes[i] < shardSizes[smallest]) {
+                    smallest = i;
+                }
+            }
+            shards.get(smallest).add(source);
+            shardSizes[smallest] += sourceToSize.get(source);
+        }
+        return shards;
+    }
+    
+    private static long sizeOf(Path source) {
+        try {
+            return Files.size(source);
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+    }
+    
 }
@@ -0,0 +1,161 @@
+package com.github.druyaned.gettered.sources;
+
+import com.github.druyaned.gettered.Gettered;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * A byte-level pre-filter which tells whether a source may contain a class annotated
+ * with {@link Gettered}, so the other sources aren't parsed at all.
+ * <p>
+ * A source is memory-mapped and scanned for the {@code Gettered} identifier
+ * outside of comments, string, text block and char literals. The filter
+ * never misses a gettered source (the {@link Searcher} matches the simple name
+ * of the annotation), though it may pass a source which only mentions the name
+ * in code; the bytes of the token are the same in any ASCII-compatible charset.
+ * Unicode escapes in the token aren't recognized.
+ *
+ * @author druyaned
+ */
+public class Prefilter {
+
+    private static final byte[] TOKEN = "Gettered".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Returns {@code true} if the source may contain a class annotated with {@link Gettered}.
+     *
+     * @param source the source
+     * @return {@code true} if the source may contain a gettered class.
+     */
+    public static boolean mayBeGettered(Path source) {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < TOKEN.length) {
+                return false;
+            }
+            if (size > Integer.MAX_VALUE) {
+                return true; // let javac deal with it
+            }
+            return containsToken(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+    }
+
+    /**
+     * Splits the sources into the ones which {@link #mayBeGettered may be gettered}
+     * and the others keeping their order.
+     *
+     * @param sources sources to split
+     * @param gettered receives the sources which may be gettered
+     * @param plain receives the other sources
+     */
+    public static void split(List<Path> sources, List<Path> gettered, List<Path> plain) {
+        for (Path source : sources) {
+            (mayBeGettered(source) ? gettered : plain).add(source);
+        }
+    }
+
+    /**
+     * Returns {@code true} if the bytes contain the {@code Gettered} identifier
+     * outside of comments and literals.
+     *
+     * @param bytes bytes of a source
+     * @return {@code true} if the bytes contain the {@code Gettered} identifier.
+     */
+    static boolean containsToken(ByteBuffer bytes) {
+        int end = bytes.limit();
+        int i = 0;
+        while (i < end) {
+            byte b = bytes.get(i);
+            byte next = i + 1 < end ? bytes.get(i + 1) : 0;
+            if (b == '/' && next == '/') { // line comment
+                i = indexOf(bytes, (byte)'\n', i + 2);
+            } else if (b == '/' && next == '*') { // block comment
+                i = indexOfCommentEnd(bytes, i + 2);
+            } else if (b == '"' && next == '"' && i + 2 < end && bytes.get(i + 2) == '"') {
+                i = indexOfTextBlockEnd(bytes, i + 3);
+            } else if (b == '"' || b == '\'') { // string or char literal
+                i = indexOfLiteralEnd(bytes, b, i + 1);
+            } else if (b == TOKEN[0] && isToken(bytes, i)) {
+                return true;
+            } else {
+                ++i;
+            }
+        }
+        return false;
+    }
+
+//-Private-methods----------------------------------------------------------------------------------
+
+    private static boolean isToken(ByteBuffer bytes, int start) {
+        int end = start + TOKEN.length;
+        if (end > bytes.limit()
+                || start > 0 && isIdentifierPart(bytes.get(start - 1))
+                || end < bytes.limit() && isIdentifierPart(bytes.get(end))) {
+            return false;
+        }
+        for (int i = 1; i < TOKEN.length; ++i) {
+            if (bytes.get(start + i) != TOKEN[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isIdentifierPart(byte b) {
+        return b >= 'a' && b <= 'z' || b >= 'A' && b <= 'Z' || b >= '0' && b <= '9'
+                || b == '_' || b == '$' || b < 0; // non-ASCII
+    }
+
+    /** Returns the index after the byte or the end. */
+    private static int indexOf(ByteBuffer bytes, byte target, int from) {
+        for (int i = from; i < bytes.limit(); ++i) {
+            if (bytes.get(i) == target) {
+                return i + 1;
+            }
+        }
+        return bytes.limit();
+    }
+
+    private static int indexOfCommentEnd(ByteBuffer bytes, int from) {
+        for (int i = from; i + 1 < bytes.limit(); ++i) {
+            if (bytes.get(i) == '*' && bytes.get(i + 1) == '/') {
+                return i + 2;
+            }
+        }
+        return bytes.limit();
+    }
+
+    private static int indexOfTextBlockEnd(ByteBuffer bytes, int from) {
+        for (int i = from; i + 2 < bytes.limit(); ++i) {
+            byte b = bytes.get(i);
+            if (b == '\\') {
+                ++i; // escaped
+            } else if (b == '"' && bytes.get(i + 1) == '"' && bytes.get(i + 2) == '"') {
+                return i + 3;
+            }
+        }
+        return bytes.limit();
+    }
+
+    /** A literal also ends at a line end, so a broken literal doesn't hide the rest. */
+    private static int indexOfLiteralEnd(ByteBuffer bytes, byte quote, int from) {
+        for (int i = from; i < bytes.limit(); ++i) {
+            byte b = bytes.get(i);
+            if (b == '\\') {
+                ++i; // escaped
+            } else if (b == quote || b == '\n') {
+                return i + 1;
+            }
+        }
+        return bytes.limit();
+    }
+
+}
@@ -0,0 +1,136 @@
+package com.github.druyaned.gettered.sources;
+
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.util.SourcePositions;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import javax.tools.Diagnostic;
+
+/**
+ * A compact descriptor of a {@link UnitToRewrite unit to rewrite}: the source path,
+ * the class name, the offset of the closing brace of the class and the field
+ * name/type pairs of the missed getters. It holds no trees, so the parsed units
+ * can be released right after the search and the getters are
+ * {@link #content(Charset) inserted} later the same way as by the
+ * {@link Rewriter#spliced spliced} rewriter.
+ *
+ * @author druyaned
+ */
+public class RewriteDescriptor {
+
+    /**
+     * Describes the unit to rewrite.
+     *
+     * @param unitToRewrite unit to rewrite
+     * @param positions positions of trees in the source of the unit
+     * @return a descriptor of the unit to rewrite.
+     * @throws IllegalStateException if the end of the class isn't known
+     */
+    public static RewriteDescriptor of(UnitToRewrite unitToRewrite, SourcePositions positions)
+            throws IllegalStateException {
+        CompilationUnitTree compUnit = unitToRewrite.getUnit();
+        String className = unitToRewrite.getClassTree().getSimpleName().toString();
+        long classEnd = positions.getEndPosition(compUnit, unitToRewrite.getClassTree());
+        if (classEnd == Diagnostic.NOPOS) {
+            throw new IllegalStateException("end of the class \"" + className + "\" isn't known");
+        }
+        Map<String, VariableTree> missedGetterToVar = unitToRewrite.getMissedGetterToVar();
+        String[] fieldNames = new String[missedGetterToVar.size()];
+        String[] fieldTypes = new String[missedGetterToVar.size()];
+        int i = 0;
+        for (VariableTree varTree : missedGetterToVar.values()) {
+            fieldNames[i] = varTree.getName().toString();
+            fieldTypes[i++] = varTree.getType().toString();
+        }
+        return new RewriteDescriptor(Path.of(compUnit.getSourceFile().toUri()), className,
+                (int)classEnd - 1, fieldNames, fieldTypes);
+    }
+
+    /**
+     * Describes a class of the source without its trees, for example
+     * from a {@link com.github.druyaned.gettered.index.GetteredIndex persisted index}.
+     *
+     * @param path path of the source file
+     * @param className simple name of the class
+     * @param brace offset of the closing brace of the class in the source content
+     * @param fieldNames names of the fields with missed getters
+     * @param fieldTypes types of the fields with missed getters
+     * @return a descriptor of the class.
+     */
+    public static RewriteDescriptor of(Path path, String className, int brace,
+            List<String> fieldNames, List<String> fieldTypes) {
+        return new RewriteDescriptor(path, className, brace,
+                fieldNames.toArray(String[]::new), fieldTypes.toArray(String[]::new));
+    }
+
+//-Fields-------------------------------------------------------------------------------------------
+
+    private final Path path;
+    private final String className;
+    private final int brace;
+    private final String[] fieldNames;
+    private final String[] fieldTypes;
+
+//-Constructors-------------------------------------------------------------------------------------
+
+    private RewriteDescriptor(Path path, String className, int brace, String[] fieldNames,
+            String[] fieldTypes) {
+        this.path = path;
+        this.className = className;
+        this.brace = brace;
+        this.fieldNames = fieldNames;
+        this.fieldTypes = fieldTypes;
+    }
+
+//-Methods------------------------------------------------------------------------------------------
+
+    /**
+     * Reads the source and inserts the getters before the closing brace of the class.
+     *
+     * @param charset charset of the source
+     * @return the gettered content encoded by the charset.
+     * @throws IllegalStateException if the source is changed and
+     *         the closing brace isn't at its place anymore
+     */
+    public byte[] content(Charset charset) throws IllegalStateException {
+        String content;
+        try {
+            content = Files.readString(path, charset);
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+        if (brace >= content.length() || content.charAt(brace) != '}') {
+            throw new IllegalStateException("closing brace of the class \""
+                    + className + "\" isn't found");
+        }
+        StringBuilder builder = new StringBuilder(content.length() + 96 * fieldNames.length);
+        builder.append(content, 0, brace);
+        for (int i = 0; i < fieldNames.length; ++i) {
+            Rewriter.appendGetter(builder, fieldTypes[i], Searcher.getterNameOf(fieldNames[i]),
+                    fieldNames[i]);
+        }
+        builder.append('\n').append(content, brace, content.length());
+        return builder.toString().getBytes(charset);
+    }
+
+//-Getters------------------------------------------------------------------------------------------
+
+    public Path getPath() {
+        return path;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public int getGetterCount() {
+        return fieldNames.length;
+    }
+
+}
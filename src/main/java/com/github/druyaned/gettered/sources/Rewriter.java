@@ -11,17 +11,59 @@ import com.sun.source.tree.ModifiersTree;
 import com.sun.source.tree.StatementTree;
 import com.sun.source.tree.Tree;
 import com.sun.source.tree.VariableTree;
+import com.sun.source.util.SourcePositions;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Map;
 import javax.lang.model.element.Modifier;
+import javax.tools.Diagnostic;
 
 /**
- * TODO: write a description
+ * Rewrites a {@link UnitToRewrite unit} adding its missed getters.
+ * <p>
+ * The {@link #Rewriter(UnitToRewrite) constructor} prints the whole class from its tree;
+ * the {@link #spliced(UnitToRewrite, SourcePositions) spliced} rewriter copies
+ * the original content verbatim and inserts the getters before the closing brace
+ * of the class, so comments, formatting and nested types are kept.
  * 
  * @author druyaned
  */
 public class Rewriter {
     
+    /**
+     * Constructs a rewriter which inserts the missed getters into the original
+     * content of the unit before the closing brace of the class.
+     * 
+     * @param unitToRewrite a unit with missed getters that should be rewritten
+     * @param positions positions of trees in the source of the unit
+     * @return a rewriter which inserts the missed getters into the original content.
+     * @throws IllegalStateException if the closing brace of the class isn't found
+     */
+    public static Rewriter spliced(UnitToRewrite unitToRewrite, SourcePositions positions)
+            throws IllegalStateException {
+        CompilationUnitTree compUnit = unitToRewrite.getUnit();
+        CharSequence content;
+        try {
+            content = compUnit.getSourceFile().getCharContent(true);
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+        long classEnd = positions.getEndPosition(compUnit, unitToRewrite.getClassTree());
+        int brace = (int)classEnd - 1;
+        if (classEnd == Diagnostic.NOPOS || brace >= content.length()
+                || content.charAt(brace) != '}') {
+            throw new IllegalStateException("closing brace of the class \""
+                    + unitToRewrite.getClassTree().getSimpleName() + "\" isn't found");
+        }
+        StringBuilder getters = new StringBuilder();
+        appendGetters(getters, unitToRewrite.getMissedGetterToVar());
+        getters.append('\n');
+        StringBuilder builder = new StringBuilder(content.length() + getters.length());
+        builder.append(content, 0, brace).append(getters).append(content, brace, content.length());
+        return new Rewriter(unitToRewrite, builder.toString());
+    }
+    
 //-Fields-------------------------------------------------------------------------------------------
     
     private final UnitToRewrite unitToRewrite;
@@ -119,23 +161,24 @@ public class Rewriter {
                 BlockTree body = methodTree.getBody();
                 for (StatementTree stat : body.getStatements()) {
                     builder.append("\n        ").append(stat);
+                    if (stat instanceof VariableTree) { // printed without the semicolon
+                        builder.append(';');
+                    }
                 }
                 builder.append("\n    }");
             }
         });
         // missed getters
-        for (Map.Entry<String, VariableTree> entry : missedGetterToVar.entrySet()) {
-            String getteredName = entry.getKey();
-            VariableTree varTree = entry.getValue();
-            builder.append("\n\n    public ").append(varTree.getType())
-                    .append(" ").append(getteredName)
-                    .append("() {\n        return ").append(varTree.getName())
-                    .append(";\n    }");
-        }
+        appendGetters(builder, missedGetterToVar);
         // EOF
         builder.append("\n}");
         getteredContent = builder.toString();
     }
+    
+    private Rewriter(UnitToRewrite unitToRewrite, String getteredContent) {
+        this.unitToRewrite = unitToRewrite;
+        this.getteredContent = getteredContent;
+    }
 
 //-Methods------------------------------------------------------------------------------------------
     
@@ -146,5 +189,28 @@ public class Rewriter {
     public String getGetteredContent() {
         return getteredContent;
     }
+    
+//-Private-methods----------------------------------------------------------------------------------
+    
+    private static void appendGetters(StringBuilder builder,
+            Map<String, VariableTree> missedGetterToVar) {
+        for (Map.Entry<String, VariableTree> entry : missedGetterToVar.entrySet()) {
+            VariableTree varTree = entry.getValue();
+            appendGetter(builder, varTree.getType().toString(), entry.getKey(),
+                    varTree.getName().toString());
+        }
+    }
+
+    /**
+     * Appends a getter of the field; shared with the {@link RewriteDescriptor},
+     * so getters generated with and without trees are the same.
+     */
+    static void appendGetter(StringBuilder builder, String type, String getterName,
+            String fieldName) {
+        builder.append("\n\n    public ").append(type)
+                .append(" ").append(getterName)
+                .append("() {\n        return ").append(fieldName)
+                .append(";\n    }");
+    }
 
 }
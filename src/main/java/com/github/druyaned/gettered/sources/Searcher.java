@@ -10,10 +10,12 @@ import com.sun.source.tree.VariableTree;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Firstly searches for annotated by {@link Gettered} annotation files;
@@ -54,42 +56,45 @@ public class Searcher {
             throw new IllegalStateException("the method find can be used only once");
         }
         processed = true;
-        compUnits.forEach(u -> {
-            CompilationUnitTree compUnit = (CompilationUnitTree)u;
-            compUnit.getTypeDecls().forEach(typeDecl -> handleClassTree(compUnit, typeDecl));
-        }); // unitsToRewrite are added in handleClassTree(compUnit, typeDecl)
+        compUnits.forEach(u -> search(u, unitsToRewrite::add));
         return Collections.unmodifiableList(unitsToRewrite);
     }
     
+    /**
+     * Searches the compilation unit for classes annotated by {@link Gettered} annotation
+     * with missed getters and publishes a {@link UnitToRewrite unit to rewrite} for each one.
+     * Unlike {@link #unitsToRewriteIn unitsToRewriteIn} this method can be called
+     * any number of times, so units can be searched as soon as they are parsed.
+     * 
+     * @param compUnit compilation unit to search for
+     * @param consumer consumer of the {@link UnitToRewrite units to rewrite}
+     */
+    public void search(CompilationUnitTree compUnit, Consumer<? super UnitToRewrite> consumer) {
+        compUnit.getTypeDecls().forEach(typeDecl -> handleClassTree(compUnit, typeDecl, consumer));
+    }
+    
 //-Private-methods----------------------------------------------------------------------------------
     
     /**
      * Handles {@code typeDecl} if it's an instance of {@link ClassTree};
      * if the class is annotated with {@link Gettered Gettered} annotation
-     * and has missed getters then adds it into {@code unitsToRewrite}.
+     * and has missed getters then passes it to the {@code consumer}.
      * 
      * @param compUnit compilation unit to be handled
      * @param typeDecl type declaration to be handled
+     * @param consumer consumer of the {@link UnitToRewrite units to rewrite}
      */
-    private void handleClassTree(CompilationUnitTree compUnit, Tree typeDecl) {
+    private void handleClassTree(CompilationUnitTree compUnit, Tree typeDecl,
+            Consumer<? super UnitToRewrite> consumer) {
         if (!(typeDecl instanceof ClassTree)) {
             return; // only class trees are needed
         }
         ClassTree classTree = (ClassTree)typeDecl;
-        List<? extends AnnotationTree> annos = classTree.getModifiers().getAnnotations();
-        boolean notGettered = true;
-        for (Object annoObj : annos) {
-            AnnotationTree anno = (AnnotationTree)annoObj;
-            String annoName = anno.getAnnotationType().toString();
-            if (annoName.equals(GETTERED_ANNO_NAME)) {
-                notGettered = false;
-                break;
-            }
-        }
-        if (notGettered) {
+        if (!isGettered(classTree)) {
             return; // not annotated classes aren't interesting here
         }
-        Set<VariableTree> varTrees = new HashSet<>();
+        // declaration order, so getters are generated in the same order on each build
+        Set<VariableTree> varTrees = new LinkedHashSet<>();
         Map<String, MethodTree> methodNameToTree = new HashMap<>();
         classTree.getMembers().forEach(classTreeMember -> { // search for vars and methods
             if (classTreeMember instanceof VariableTree varTree) {
@@ -98,21 +103,41 @@ public class Searcher {
                 methodNameToTree.put(methodTree.getName().toString(), methodTree);
             }
         });
-        Map<String, VariableTree> missedGetterToVar = new HashMap<>();
+        Map<String, VariableTree> missedGetterToVar = new LinkedHashMap<>();
         varTrees.forEach(v -> { // search for missed getters
-            String getterName = getterNameFor(v);
+            String getterName = getterNameOf(v.getName().toString());
             if (!methodNameToTree.containsKey(getterName)) {
                 missedGetterToVar.put(getterName, v);
             }
         });
         if (!missedGetterToVar.isEmpty()) { // main action
-            unitsToRewrite.add(new UnitToRewrite(compUnit, classTree, missedGetterToVar));
+            consumer.accept(new UnitToRewrite(compUnit, classTree, missedGetterToVar));
         }
     }
 
-    private String getterNameFor(VariableTree varTree) {
-        String varTreeName = varTree.getName().toString();
-        return "get" + Character.toUpperCase(varTreeName.charAt(0)) + varTreeName.substring(1);
+    /**
+     * Returns {@code true} if the class is annotated by {@link Gettered} annotation.
+     * 
+     * @param classTree class to be checked
+     * @return {@code true} if the class is annotated by {@link Gettered} annotation.
+     */
+    public static boolean isGettered(ClassTree classTree) {
+        for (AnnotationTree anno : classTree.getModifiers().getAnnotations()) {
+            if (anno.getAnnotationType().toString().equals(GETTERED_ANNO_NAME)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the name of the getter of the field.
+     * 
+     * @param fieldName name of the field
+     * @return the name of the getter of the field.
+     */
+    public static String getterNameOf(String fieldName) {
+        return "get" + Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
     }
 
 }
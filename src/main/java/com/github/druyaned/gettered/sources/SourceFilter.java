@@ -0,0 +1,103 @@
+package com.github.druyaned.gettered.sources;
+
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Include and exclude globs of the sources, compiled once into {@link PathMatcher path matchers}.
+ * The globs are matched against paths relative to a source root, e.g.
+ * {@code "**.java"} or {@code "**&#47;generated/**"}. A directory is pruned if it matches
+ * an exclude glob or if a glob excludes everything under it, like {@code "**&#47;generated/**"}
+ * does for {@code "a/generated"}.
+ *
+ * @author druyaned
+ */
+public class SourceFilter {
+
+    public static final String DEFAULT_INCLUDE = "**.java";
+
+    /** Includes {@link #DEFAULT_INCLUDE all java-sources} and excludes nothing. */
+    public static final SourceFilter DEFAULT = of(List.of(DEFAULT_INCLUDE), List.of());
+
+    /**
+     * Constructs a filter of the sources by the globs.
+     *
+     * @param includes globs of the sources to be included; all java-sources if empty
+     * @param excludes globs of the sources and directories to be excluded
+     * @return a filter of the sources by the globs.
+     * @throws IllegalArgumentException if a glob is invalid
+     */
+    public static SourceFilter of(List<String> includes, List<String> excludes)
+            throws IllegalArgumentException {
+        return new SourceFilter(includes.isEmpty() ? List.of(DEFAULT_INCLUDE) : includes,
+                excludes);
+    }
+
+//-Fields-------------------------------------------------------------------------------------------
+
+    private final List<PathMatcher> includes;
+    private final List<PathMatcher> excludes;
+    private final List<PathMatcher> dirExcludes;
+
+//-Constructors-------------------------------------------------------------------------------------
+
+    private SourceFilter(List<String> includes, List<String> excludes) {
+        this.includes = matchers(includes);
+        this.excludes = matchers(excludes);
+        List<String> dirGlobs = new ArrayList<>(excludes);
+        for (String glob : excludes) {
+            if (glob.endsWith("/**")) { // everything under the directory
+                dirGlobs.add(glob.substring(0, glob.length() - "/**".length()));
+            }
+        }
+        this.dirExcludes = matchers(dirGlobs);
+    }
+
+//-Methods------------------------------------------------------------------------------------------
+
+    /**
+     * Returns {@code true} if the file matches an include glob and no exclude glob.
+     *
+     * @param relativeFile path of the file relative to its source root
+     * @return {@code true} if the file matches an include glob and no exclude glob.
+     */
+    public boolean accepts(Path relativeFile) {
+        return matchesAny(includes, relativeFile) && !matchesAny(excludes, relativeFile);
+    }
+
+    /**
+     * Returns {@code true} if the directory matches an exclude glob or an exclude glob
+     * ending with {@code "/**"} covers everything under it, so it shouldn't be walked at all.
+     *
+     * @param relativeDir path of the directory relative to its source root
+     * @return {@code true} if the directory is excluded.
+     */
+    public boolean excludes(Path relativeDir) {
+        return matchesAny(dirExcludes, relativeDir);
+    }
+
+//-Private-methods----------------------------------------------------------------------------------
+
+    private static List<PathMatcher> matchers(List<String> globs) {
+        FileSystem fileSystem = FileSystems.getDefault();
+        List<PathMatcher> matchers = new ArrayList<>(globs.size());
+        for (String glob : globs) {
+            matchers.add(fileSystem.getPathMatcher("glob:" + glob));
+        }
+        return matchers;
+    }
+
+    private static boolean matchesAny(List<PathMatcher> matchers, Path path) {
+        for (PathMatcher matcher : matchers) {
+            if (matcher.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -7,6 +7,7 @@ import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * "Source Visitor" provides a source files ({@code ending=".java"}) of all directory entries.
@@ -25,7 +26,9 @@ public class SourceVisitor extends SimpleFileVisitor<Path> {
 //-Fields-------------------------------------------------------------------------------------------
     
     private final ArrayList<Path> filePaths = new ArrayList<>();
-    private final String pattern = ".+\\.java$";
+    private final Path root;
+    private final SourceFilter filter;
+    private final Consumer<? super Path> consumer;
     private volatile boolean gotten;
     
 //-Constructors-------------------------------------------------------------------------------------
@@ -35,6 +38,36 @@ public class SourceVisitor extends SimpleFileVisitor<Path> {
      * a source files ({@code ending=".java"}) of all project source-directory entries.
      */
     public SourceVisitor() {
+        root = null;
+        filter = SourceFilter.DEFAULT;
+        consumer = filePaths::add;
+        gotten = false;
+    }
+    
+    /**
+     * Constructs a new "Source Visitor" which passes source files ({@code ending=".java"})
+     * to the consumer as soon as they are visited;
+     * {@link #getSources() getSources} returns an empty list then.
+     * 
+     * @param consumer consumer of the source files
+     */
+    public SourceVisitor(Consumer<? super Path> consumer) {
+        this(null, SourceFilter.DEFAULT, consumer);
+    }
+    
+    /**
+     * Constructs a new "Source Visitor" which passes source files of the root
+     * accepted by the filter to the consumer as soon as they are visited;
+     * {@link #getSources() getSources} returns an empty list then.
+     * 
+     * @param root source root to be walked or {@code null} to match file names only
+     * @param filter filter of the sources
+     * @param consumer consumer of the source files
+     */
+    public SourceVisitor(Path root, SourceFilter filter, Consumer<? super Path> consumer) {
+        this.root = root;
+        this.filter = filter;
+        this.consumer = consumer;
         gotten = false;
     }
     
@@ -57,14 +90,23 @@ public class SourceVisitor extends SimpleFileVisitor<Path> {
         return filePaths;
     }
     
+    @Override
+    public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs)
+            throws IOException {
+        if (root != null && !dir.equals(root) && filter.excludes(root.relativize(dir))) {
+            return FileVisitResult.SKIP_SUBTREE;
+        }
+        return FileVisitResult.CONTINUE;
+    }
+    
     @Override
     public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
         if (gotten) {
             throw new IllegalStateException("source files have been already gotten");
         }
-        String fileName = file.toString();
-        if (fileName.matches(pattern)) {
-            filePaths.add(file);
+        Path relative = root == null ? file.getFileName() : root.relativize(file);
+        if (filter.accepts(relative)) {
+            consumer.accept(file);
         }
         return FileVisitResult.CONTINUE;
     }
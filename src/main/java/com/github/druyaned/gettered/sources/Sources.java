@@ -1,11 +1,14 @@
 package com.github.druyaned.gettered.sources;
 
+import com.github.druyaned.gettered.Options;
+import com.github.druyaned.gettered.metrics.BuildMetrics;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Provides utilities of source files in the project.
@@ -20,14 +23,82 @@ public class Sources {
      * @return all sources in the project directory.
      */
     public static List<Path> get() {
-        Path sourcesPath = Paths.get(System.getProperty("user.dir"), "src", "main", "java");
         SourceVisitor visitor = new SourceVisitor();
+        walk(visitor);
+        return visitor.getSources();
+    }
+    
+    /**
+     * Passes all sources in the project directory to the consumer
+     * as soon as they are found.
+     * 
+     * @param consumer consumer of the sources
+     */
+    public static void forEach(Consumer<? super Path> consumer) {
+        walk(new SourceVisitor(consumer));
+    }
+    
+    /**
+     * Returns sources of the {@link Options#getSourceRoots() source roots}
+     * accepted by the include and exclude globs of the options
+     * in a deterministic order; the roots are walked in parallel.
+     * 
+     * @param options options with the source roots and globs
+     * @return sources of the source roots accepted by the globs.
+     * @see Discovery
+     */
+    public static List<Path> get(Options options) {
+        List<Path> sources = Discovery.sources(options.getSourceRoots(), filterOf(options));
+        BuildMetrics.instance().scanned(sources.size());
+        return sources;
+    }
+    
+    /**
+     * Passes sources of the {@link Options#getSourceRoots() source roots}
+     * accepted by the include and exclude globs of the options
+     * to the consumer as soon as they are found.
+     * 
+     * @param options options with the source roots and globs
+     * @param consumer consumer of the sources
+     */
+    public static void forEach(Options options, Consumer<? super Path> consumer) {
+        SourceFilter filter = filterOf(options);
+        for (Path root : options.getSourceRoots()) {
+            if (Files.isDirectory(root)) {
+                walk(root, new SourceVisitor(root, filter, consumer));
+            }
+        }
+    }
+    
+    /**
+     * Returns the default source root: {@code "src/main/java"} in the project directory.
+     * 
+     * @return the default source root.
+     */
+    public static Path defaultRoot() {
+        return Paths.get(System.getProperty("user.dir"), "src", "main", "java");
+    }
+    
+    /**
+     * Returns a filter by the include and exclude globs of the options.
+     * 
+     * @param options options with the globs
+     * @return a filter by the include and exclude globs of the options.
+     */
+    public static SourceFilter filterOf(Options options) {
+        return SourceFilter.of(options.getIncludes(), options.getExcludes());
+    }
+    
+    private static void walk(SourceVisitor visitor) {
+        walk(defaultRoot(), visitor);
+    }
+    
+    private static void walk(Path root, SourceVisitor visitor) {
         try {
-            Files.walkFileTree(sourcesPath, visitor);
+            Files.walkFileTree(root, visitor);
         } catch (IOException exc) {
             throw new UncheckedIOException(exc);
         }
-        return visitor.getSources();
     }
 
 }
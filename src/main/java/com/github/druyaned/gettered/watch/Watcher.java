@@ -0,0 +1,184 @@
+package com.github.druyaned.gettered.watch;
+
+import com.github.druyaned.gettered.Options;
+import com.github.druyaned.gettered.incremental.IncrementalCompiler;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Watches the {@link Options#getSourceRoots() source roots} and recompiles
+ * touched sources and their dependents by a long-lived {@link IncrementalCompiler}.
+ * <p>
+ * Events are debounced: a rebuild starts when no event came during
+ * {@link #DEBOUNCE_MILLIS} after the last one, so saving many files at once
+ * leads to a single rebuild. The JVM, javac and its file manager stay warm
+ * between rebuilds. A build which throws (e.g. a source deleted while it's read)
+ * is reported as failed and the watching goes on.
+ *
+ * @author druyaned
+ */
+public class Watcher {
+
+    public static final long DEBOUNCE_MILLIS = 50;
+
+    /**
+     * Constructs an instance of the Watcher.
+     *
+     * @param options options of the compilation
+     * @return an instance of the Watcher.
+     */
+    public static Watcher instance(Options options) {
+        return new Watcher(options);
+    }
+
+//-Fields-------------------------------------------------------------------------------------------
+
+    private final Options options;
+    private final IncrementalCompiler compiler;
+    private final Map<WatchKey, Path> keyToDir = new HashMap<>();
+    private final AtomicInteger builds = new AtomicInteger();
+
+//-Constructors-------------------------------------------------------------------------------------
+
+    private Watcher(Options options) {
+        this.options = options;
+        this.compiler = IncrementalCompiler.instance(options);
+    }
+
+//-Methods------------------------------------------------------------------------------------------
+
+    /**
+     * Compiles the project and then recompiles it on changes of the sources
+     * until the thread is interrupted.
+     */
+    public void run() {
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            for (Path root : options.getSourceRoots()) {
+                if (Files.isDirectory(root)) {
+                    register(watchService, root, new LinkedHashSet<>());
+                }
+            }
+            rebuild(null);
+            while (!Thread.currentThread().isInterrupted()) {
+                Set<Path> touched = new LinkedHashSet<>();
+                boolean overflow = handle(watchService, watchService.take(), touched);
+                WatchKey key;
+                while ((key = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    overflow |= handle(watchService, key, touched);
+                }
+                rebuild(overflow ? null : touched);
+            }
+        } catch (InterruptedException exc) {
+            Thread.currentThread().interrupt();
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        } finally {
+            try {
+                compiler.close();
+            } catch (IOException exc) {
+                System.err.println("[gettered] failed to close the compiler: " + exc);
+            }
+        }
+    }
+
+//-Getters------------------------------------------------------------------------------------------
+
+    /**
+     * Returns the number of builds done, the first one included.
+     *
+     * @return the number of builds done.
+     */
+    public int getBuilds() {
+        return builds.get();
+    }
+
+//-Private-methods----------------------------------------------------------------------------------
+
+    /**
+     * Recompiles the touched sources or checks all of them if {@code touched} is {@code null}.
+     */
+    private void rebuild(Set<Path> touched) {
+        long start = System.nanoTime();
+        boolean succeeded;
+        try {
+            succeeded = touched == null ? compiler.compile() : compiler.compile(touched);
+        } catch (RuntimeException exc) {
+            System.out.println("[gettered] build error: " + exc);
+            succeeded = false;
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        builds.incrementAndGet();
+        System.out.printf("[gettered] build %s in %d ms%n",
+                succeeded ? "succeeded" : "failed", millis);
+    }
+
+    /**
+     * Adds paths of the events into {@code touched} and registers created directories.
+     *
+     * @return {@code true} if some events were lost
+     */
+    private boolean handle(WatchService watchService, WatchKey key, Set<Path> touched)
+            throws IOException {
+        Path dir = keyToDir.get(key);
+        boolean overflow = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                overflow = true;
+                continue;
+            }
+            Path child = dir.resolve((Path)event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE
+                    && Files.isDirectory(child)) {
+                register(watchService, child, touched); // its files may exist already
+            } else {
+                touched.add(child);
+            }
+        }
+        if (!key.reset()) {
+            keyToDir.remove(key);
+        }
+        return overflow;
+    }
+
+    /**
+     * Registers the directory and its subdirectories; adds their files into {@code touched}.
+     */
+    private void register(WatchService watchService, Path dir, Set<Path> touched)
+            throws IOException {
+        Files.walkFileTree(dir, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path subdir, BasicFileAttributes attrs)
+                    throws IOException {
+                WatchKey key = subdir.register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_DELETE,
+                        StandardWatchEventKinds.ENTRY_MODIFY);
+                keyToDir.put(key, subdir);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                touched.add(file);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+}
@@ -0,0 +1,184 @@
+package com.github.druyaned.gettered.workspace;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Modules of a workspace and their dependencies on each other.
+ * <p><i>FORMAT</i> of a workspace file (a module per line, directories
+ * are relative to the file, a module is listed after its dependencies or not):
+ * <pre>
+ * # name  directory  dependencies...
+ * core    core
+ * api     modules/api  core
+ * app     app          core api
+ * </pre>
+ *
+ * @author druyaned
+ * @see WorkspaceCompiler
+ */
+public class Workspace {
+
+    /**
+     * Reads the workspace file.
+     *
+     * @param file workspace file
+     * @return modules of the workspace in a topological order.
+     * @throws IllegalArgumentException if a line is malformed, a module is duplicated,
+     *         a dependency is unknown or dependencies form a cycle
+     */
+    public static Workspace read(Path file) throws IllegalArgumentException {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(file);
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+        Path root = file.toAbsolutePath().getParent();
+        Map<String, Module> nameToModule = new LinkedHashMap<>();
+        for (int i = 0; i < lines.size(); ++i) {
+            String line = lines.get(i).strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] words = line.split("\\s+");
+            if (words.length < 2) {
+                throw new IllegalArgumentException(file + ":" + (i + 1)
+                        + ": \"name directory [dependencies...]\" is expected");
+            }
+            Module module = new Module(words[0], root.resolve(words[1]).normalize(),
+                    List.of(Arrays.copyOfRange(words, 2, words.length)));
+            if (nameToModule.putIfAbsent(module.getName(), module) != null) {
+                throw new IllegalArgumentException(file + ":" + (i + 1)
+                        + ": module \"" + module.getName() + "\" is duplicated");
+            }
+        }
+        return new Workspace(sorted(nameToModule));
+    }
+
+    /**
+     * Sorts the modules so each one goes after its dependencies
+     * keeping the order of the file where it's possible.
+     */
+    private static List<Module> sorted(Map<String, Module> nameToModule) {
+        List<Module> sorted = new ArrayList<>(nameToModule.size());
+        Set<String> done = new LinkedHashSet<>();
+        Set<String> visiting = new LinkedHashSet<>();
+        for (Module module : nameToModule.values()) {
+            visit(module, nameToModule, done, visiting, sorted);
+        }
+        return sorted;
+    }
+
+    private static void visit(Module module, Map<String, Module> nameToModule, Set<String> done,
+            Set<String> visiting, List<Module> sorted) {
+        if (done.contains(module.getName())) {
+            return;
+        }
+        if (!visiting.add(module.getName())) {
+            throw new IllegalArgumentException("modules depend on each other: "
+                    + String.join(" -> ", visiting) + " -> " + module.getName());
+        }
+        for (String dependency : module.getDependencies()) {
+            Module dependencyModule = nameToModule.get(dependency);
+            if (dependencyModule == null) {
+                throw new IllegalArgumentException("module \"" + module.getName()
+                        + "\" depends on the unknown module \"" + dependency + "\"");
+            }
+            visit(dependencyModule, nameToModule, done, visiting, sorted);
+        }
+        visiting.remove(module.getName());
+        done.add(module.getName());
+        sorted.add(module);
+    }
+
+//-Fields-------------------------------------------------------------------------------------------
+
+    private final List<Module> modules;
+
+//-Constructors-------------------------------------------------------------------------------------
+
+    private Workspace(List<Module> modules) {
+        this.modules = modules;
+    }
+
+//-Methods------------------------------------------------------------------------------------------
+
+    /**
+     * Returns the dependencies of the module with their own dependencies,
+     * each module once, in a topological order.
+     *
+     * @param module module of the workspace
+     * @return transitive dependencies of the module in a topological order.
+     */
+    public List<Module> dependenciesOf(Module module) {
+        Set<String> names = new LinkedHashSet<>(module.getDependencies());
+        for (int i = modules.indexOf(module) - 1; i >= 0; --i) {
+            Module candidate = modules.get(i);
+            if (names.contains(candidate.getName())) {
+                names.addAll(candidate.getDependencies());
+            }
+        }
+        List<Module> dependencies = new ArrayList<>(names.size());
+        for (Module candidate : modules) {
+            if (names.contains(candidate.getName())) {
+                dependencies.add(candidate);
+            }
+        }
+        return dependencies;
+    }
+
+//-Getters------------------------------------------------------------------------------------------
+
+    /**
+     * Returns modules of the workspace, each one after its dependencies.
+     *
+     * @return modules of the workspace in a topological order.
+     */
+    public List<Module> getModules() {
+        return Collections.unmodifiableList(modules);
+    }
+
+//-Module-------------------------------------------------------------------------------------------
+
+    /**
+     * A module of the workspace: a project directory with the {@code src/main/java}
+     * sources and the {@code target/classes} output.
+     */
+    public static class Module {
+
+        private final String name;
+        private final Path dir;
+        private final List<String> dependencies;
+
+        Module(String name, Path dir, List<String> dependencies) {
+            this.name = name;
+            this.dir = dir;
+            this.dependencies = dependencies;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Path getDir() {
+            return dir;
+        }
+
+        public List<String> getDependencies() {
+            return dependencies;
+        }
+
+    }
+
+}
@@ -0,0 +1,242 @@
+package com.github.druyaned.gettered.workspace;
+
+import com.github.druyaned.gettered.Compiler;
+import com.github.druyaned.gettered.Options;
+import com.github.druyaned.gettered.metrics.BuildMetrics;
+import com.github.druyaned.gettered.sources.GetteredFileObject;
+import com.github.druyaned.gettered.sources.Parser;
+import com.github.druyaned.gettered.sources.Prefilter;
+import com.github.druyaned.gettered.sources.Searcher;
+import com.github.druyaned.gettered.sources.Sources;
+import com.github.druyaned.gettered.sources.UnitToRewrite;
+import com.github.druyaned.gettered.workspace.Workspace.Module;
+import com.sun.source.tree.CompilationUnitTree;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+/**
+ * Compiles the modules of a {@link Workspace workspace} in one process:
+ * a module starts as soon as its dependencies are compiled, so independent modules
+ * are compiled at the same time ({@link Options#getCompileThreads() compile threads}
+ * at most).
+ * <p>
+ * Each module is compiled from its {@code src/main/java} into its own
+ * {@code target/classes} with the outputs of its dependencies on the class path.
+ * File managers are pooled and reused by the modules, so the JDK platform
+ * classes and the archives of the shared class path are opened and indexed
+ * once per thread instead of once per module; a module is skipped if one of its
+ * dependencies failed.
+ *
+ * @author druyaned
+ */
+public class WorkspaceCompiler {
+
+    /**
+     * Constructs an instance of the WorkspaceCompiler.
+     *
+     * @param options options of the compilation with the {@link Options#getWorkspace()
+     *        workspace file}
+     * @return an instance of the WorkspaceCompiler.
+     */
+    public static WorkspaceCompiler instance(Options options) {
+        return new WorkspaceCompiler(options, Workspace.read(options.getWorkspace()));
+    }
+
+//-Fields-------------------------------------------------------------------------------------------
+
+    private final Options options;
+    private final Workspace workspace;
+    private final Queue<StandardJavaFileManager> fileManagers = new ConcurrentLinkedQueue<>();
+    private final PrintStream out = System.out;
+
+//-Constructors-------------------------------------------------------------------------------------
+
+    private WorkspaceCompiler(Options options, Workspace workspace) {
+        this.options = options;
+        this.workspace = workspace;
+    }
+
+//-Methods------------------------------------------------------------------------------------------
+
+    /**
+     * Compiles the modules of the workspace.
+     *
+     * @return {@code true} if all of the modules are compiled
+     */
+    public boolean compile() {
+        ExecutorService executor = Executors.newFixedThreadPool(options.getCompileThreads());
+        Map<String, CompletableFuture<Boolean>> results = new HashMap<>();
+        try {
+            for (Module module : workspace.getModules()) { // dependencies go first
+                List<CompletableFuture<Boolean>> dependencies = new ArrayList<>();
+                module.getDependencies().forEach(name -> dependencies.add(results.get(name)));
+                results.put(module.getName(), CompletableFuture
+                        .allOf(dependencies.toArray(CompletableFuture[]::new))
+                        .thenApplyAsync(v -> {
+                            if (dependencies.stream().allMatch(CompletableFuture::join)) {
+                                return compile(module);
+                            }
+                            print(module, "skipped", "");
+                            return false;
+                        }, executor));
+            }
+            boolean succeeded = true;
+            for (CompletableFuture<Boolean> result : results.values()) {
+                succeeded &= result.join();
+            }
+            return succeeded;
+        } catch (CompletionException exc) {
+            if (exc.getCause() instanceof RuntimeException runtimeExc) {
+                throw runtimeExc;
+            }
+            throw new IllegalStateException(exc.getCause());
+        } finally {
+            executor.shutdownNow();
+            closeFileManagers();
+        }
+    }
+
+    public Workspace getWorkspace() {
+        return workspace;
+    }
+
+//-Private-methods----------------------------------------------------------------------------------
+
+    private boolean compile(Module module) {
+        StandardJavaFileManager fileManager = fileManagers.poll();
+        if (fileManager == null) {
+            fileManager = ToolProvider.getSystemJavaCompiler()
+                    .getStandardFileManager(null, null, options.getEncoding());
+        }
+        long start = System.nanoTime();
+        StringWriter messages = new StringWriter();
+        try {
+            StandardJavaFileManager warm = fileManager;
+            boolean succeeded = BuildMetrics.instance()
+                    .phase("module", () -> compile(module, warm, messages));
+            print(module, succeeded ? "compiled" : "failed",
+                    " in " + (System.nanoTime() - start) / 1_000_000 + " ms\n" + messages);
+            return succeeded;
+        } finally {
+            fileManagers.add(fileManager);
+        }
+    }
+
+    private boolean compile(Module module, StandardJavaFileManager fileManager,
+            StringWriter messages) {
+        Options moduleOptions = optionsOf(module);
+        List<Path> sources = Sources.get(moduleOptions);
+        List<Path> gettered = new ArrayList<>();
+        List<Path> plain = new ArrayList<>();
+        Prefilter.split(sources, gettered, plain);
+        Iterable<? extends CompilationUnitTree> compUnits = Parser
+                .getCompilationUnits(gettered, fileManager, moduleOptions.getEncoding());
+        List<UnitToRewrite> unitsToRewrite = Searcher.instance().unitsToRewriteIn(compUnits);
+        List<JavaFileObject> files = Compiler.fileObjects(compUnits, unitsToRewrite,
+                moduleOptions.isSplice(), moduleOptions.getEncoding());
+        if (!plain.isEmpty()) {
+            fileManager.getJavaFileObjectsFromPaths(plain).forEach(files::add);
+        }
+        if (files.isEmpty()) {
+            return true;
+        }
+        List<Path> classPath = new ArrayList<>();
+        for (String entry : moduleOptions.getClasspath().split(File.pathSeparator)) {
+            classPath.add(Path.of(entry));
+        }
+        try {
+            // unlike the -classpath and -d options, it clears the listings cached
+            // by the file manager for the previous module
+            fileManager.setLocationFromPaths(StandardLocation.CLASS_PATH, classPath);
+            fileManager.setLocationFromPaths(StandardLocation.CLASS_OUTPUT,
+                    List.of(Files.createDirectories(moduleOptions.getOutputDir())));
+        } catch (IOException exc) {
+            throw new UncheckedIOException(exc);
+        }
+        return Compiler.compile(files, Compiler.sourceOptions(moduleOptions), fileManager,
+                messages);
+    }
+
+    /**
+     * Returns options of the module: its own directory and class path,
+     * the rest is taken from the options of the workspace.
+     */
+    private Options optionsOf(Module module) {
+        List<String> classPath = new ArrayList<>();
+        for (Module dependency : workspace.dependenciesOf(module)) {
+            classPath.add(outputDirOf(dependency).toString());
+        }
+        classPath.add(Objects.requireNonNullElse(options.getClasspath(),
+                System.getProperty("java.class.path")));
+        List<String> args = new ArrayList<>(List.of(
+                "--project-dir", module.getDir().toString(),
+                "--classpath", String.join(File.pathSeparator, classPath),
+                "--encoding", options.getEncoding().name()));
+        for (String include : options.getIncludes()) {
+            args.add("--include");
+            args.add(include);
+        }
+        for (String exclude : options.getExcludes()) {
+            args.add("--exclude");
+            args.add(exclude);
+        }
+        if (options.isSplice()) {
+            args.add("--splice");
+        }
+        String[][] javacArgs = {{"--release", options.getRelease()},
+            {"--source", options.getSource()}, {"--target", options.getTarget()}};
+        for (String[] javacArg : javacArgs) {
+            if (javacArg[1] != null) {
+                args.addAll(List.of(javacArg));
+            }
+        }
+        return Options.parse(args.toArray(String[]::new));
+    }
+
+    private static Path outputDirOf(Module module) {
+        return Options.parse(new String[] {"--project-dir", module.getDir().toString()})
+                .getOutputDir();
+    }
+
+    private void print(Module module, String status, String details) {
+        synchronized (out) {
+            out.print("[gettered] module " + module.getName() + " " + status + details);
+            if (!details.endsWith("\n")) {
+                out.println();
+            }
+            out.flush();
+        }
+    }
+
+    private void closeFileManagers() {
+        for (StandardJavaFileManager fileManager = fileManagers.poll(); fileManager != null;
+                fileManager = fileManagers.poll()) {
+            try {
+                fileManager.close();
+            } catch (IOException exc) {
+                throw new UncheckedIOException(exc);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,19 @@
+package sample;
+
+import com.github.druyaned.gettered.Gettered;
+import java.util.Map;
+
+@Gettered
+public class Box {
+    private final Named value;
+    private final Map<String, Named> labels;
+
+    public Box(Named value, Map<String, Named> labels) {
+        this.value = value;
+        this.labels = labels;
+    }
+
+    public static class Lid {
+        private final int size = 1;
+    }
+}
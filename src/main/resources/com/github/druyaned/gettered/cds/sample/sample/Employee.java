@@ -0,0 +1,16 @@
+package sample;
+
+import com.github.druyaned.gettered.Gettered;
+import java.util.List;
+
+@Gettered
+public class Employee extends Person {
+    private final double salary;
+    private final Point desk;
+
+    public Employee(String name, double salary, Point desk) {
+        super(name, List.of("staff"));
+        this.salary = salary;
+        this.desk = desk;
+    }
+}
@@ -0,0 +1,13 @@
+package sample;
+
+import java.util.Map;
+
+public class Main {
+    public static void main(String[] args) {
+        Registry registry = new Registry();
+        registry.add(new Employee("Ann", 10.0, new Point(1, 2)));
+        Box box = new Box(new Person("Bob", java.util.List.of()), Map.of());
+        System.out.println(registry.payroll() + " " + registry.deskRow(0) + " "
+                + box.getValue().getName());
+    }
+}
@@ -0,0 +1,18 @@
+package sample;
+
+import com.github.druyaned.gettered.Gettered;
+import java.time.Instant;
+import java.util.List;
+
+@Gettered
+public class Person implements Named {
+    private final String name;
+    private final List<String> tags;
+    private final Instant createdAt = Instant.EPOCH;
+    private boolean active;
+
+    public Person(String name, List<String> tags) {
+        this.name = name;
+        this.tags = tags;
+    }
+}
@@ -0,0 +1,20 @@
+package sample;
+
+import com.github.druyaned.gettered.Gettered;
+
+@Gettered
+public class Point {
+    private static int created;
+    private final int x;
+    private final int y;
+
+    public Point(int x, int y) {
+        this.x = x;
+        this.y = y;
+        ++created;
+    }
+
+    public int getX() {
+        return x;
+    }
+}
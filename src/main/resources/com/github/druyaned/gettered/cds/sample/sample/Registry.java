@@ -0,0 +1,22 @@
+package sample;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+public class Registry {
+    private final List<Employee> employees = new ArrayList<>();
+
+    public void add(Employee employee) {
+        employees.add(employee);
+    }
+
+    public double payroll() {
+        return employees.stream().mapToDouble(Employee::getSalary).sum();
+    }
+
+    public int deskRow(int i) {
+        ToIntFunction<Point> row = Point::getY;
+        return row.applyAsInt(employees.get(i).getDesk());
+    }
+}
@@ -0,0 +1,64 @@
+package com.github.druyaned.gettered;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.nio.file.Path;
+import org.junit.Test;
+
+/**
+ * Tests of the {@link Options}.
+ *
+ * @author druyaned
+ */
+public class OptionsTest {
+
+    @Test
+    public void shouldRejectConflictingModes() {
+        assertRejected("\"--incremental\" and \"--plugin\"", "--incremental", "--plugin");
+        assertRejected("\"--bytecode\" and \"--jar\"", "--bytecode", "--jar", "a.jar");
+        assertRejected("\"--pipeline\" and \"--chunk-size\"",
+                "--chunk-size", "3", "--pipeline");
+        assertRejected("\"--daemon\" and \"--watch\"", "--watch", "--daemon", "g.sock");
+        assertRejected("\"--check-report\" and \"--workspace\"",
+                "--check-report", "check.json", "--workspace", "modules");
+        assertRejected("\"--incremental\" and \"--compile-threads\"",
+                "--compile-threads", "4", "--incremental");
+        assertRejected("\"--pipeline\" and \"--compile-threads\"",
+                "--pipeline", "--compile-threads", "2");
+        assertRejected("\"--incremental\" and \"--cache\"", "--cache", "--incremental");
+        assertRejected("\"--compile-threads\" and \"--cache-dir\"",
+                "--cache-dir", "cache", "--compile-threads", "2");
+        assertRejected("\"--plugin\" and \"--index\"", "--plugin", "--index");
+        assertRejected("\"--workspace\" and \"--index-file\"",
+                "--index-file", "index.bin", "--workspace", "modules");
+        assertRejected("\"--bytecode\" and \"--remote-cache\"",
+                "--remote-cache", "remote", "--bytecode");
+    }
+
+    @Test
+    public void shouldAcceptSingleModeWithItsOptions() {
+        Options watch = Options.parse(new String[] {"--watch", "--incremental", "--splice"});
+        assertTrue(watch.isWatch());
+        Options workspace = Options.parse(new String[] {"--workspace", "modules",
+            "--compile-threads", "4"});
+        assertEquals(4, workspace.getCompileThreads());
+        Options jar = Options.parse(new String[] {"--splice", "--compile-threads", "2",
+            "--jar", "a.jar", "--project-dir", "p"});
+        assertEquals(Path.of("p", "a.jar"), jar.getJar());
+        Options cached = Options.parse(new String[] {"--jar", "a.jar", "--cache"});
+        assertTrue(cached.getCacheDir().endsWith(Path.of("target", "gettered-cache")));
+    }
+
+//-Private-methods----------------------------------------------------------------------------------
+
+    private static void assertRejected(String conflict, String... args) {
+        try {
+            Options.parse(args);
+            fail("accepted " + String.join(" ", args));
+        } catch (IllegalArgumentException exc) {
+            assertEquals("options " + conflict + " can't be combined", exc.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,165 @@
+package com.github.druyaned.gettered.bytecode;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import com.github.druyaned.gettered.Options;
+import java.io.File;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests of the {@link GetterWeaver} and the {@link BytecodeCompiler}; woven classes
+ * are loaded by a separate class loader, so they pass the bytecode verifier.
+ *
+ * @author druyaned
+ */
+public class GetterWeaverTest {
+
+    private static final String POINT = """
+            package p;
+
+            import com.github.druyaned.gettered.Gettered;
+            import java.util.List;
+
+            @Gettered(/* no elements */)
+            public class Point<T> {
+                private static String kind = "point";
+                private final int x = 3;
+                private long time = 1L << 40;
+                private double weight = 0.5;
+                private boolean visible = true;
+                private char letter = 'p';
+                private int[] coords = {1, 2};
+                private List<String> tags = List.of("a");
+                private T value;
+                private String name = "point";
+
+                public String getName() {
+                    return "named " + name;
+                }
+
+                class Inner {
+                    int depth = 1;
+                }
+            }
+            """;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldWeaveVerifiableGetters() throws Exception {
+        Path root = folder.getRoot().toPath();
+        Path source = Files.writeString(Files.createDirectories(root.resolve("p"))
+                .resolve("Point.java"), POINT);
+        Path plain = Files.writeString(root.resolve("p/Plain.java"), "package p;\n"
+                + "public class Plain { int size; }\n");
+        Path outputDir = Files.createDirectories(root.resolve("classes"));
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertEquals(0, compiler.run(null, null, null, "-d", outputDir.toString(),
+                source.toString(), plain.toString()));
+        Path pointFile = outputDir.resolve("p/Point.class");
+        byte[] original = Files.readAllBytes(pointFile);
+        ClassFile classFile = ClassFile.read(original);
+        assertArrayEquals(original, classFile.toBytes()); // read and written as it was
+        assertTrue(GetterWeaver.isGettered(classFile));
+        assertEquals(List.of("getKind", "getX", "getTime", "getWeight", "getVisible",
+                "getLetter", "getCoords", "getTags", "getValue"), GetterWeaver.weave(classFile));
+        Files.write(pointFile, classFile.toBytes());
+        Path plainFile = outputDir.resolve("p/Plain.class");
+        byte[] plainBytes = Files.readAllBytes(plainFile);
+        assertSame(plainBytes, GetterWeaver.weave(plainBytes));
+        Path innerFile = outputDir.resolve("p/Point$Inner.class");
+        byte[] innerBytes = Files.readAllBytes(innerFile);
+        assertSame(innerBytes, GetterWeaver.weave(innerBytes));
+
+        try (URLClassLoader loader = new URLClassLoader(
+                new URL[] {outputDir.toUri().toURL()}, null)) {
+            Class<?> pointClass = loader.loadClass("p.Point");
+            Object point = pointClass.getConstructor().newInstance();
+            assertEquals("point", pointClass.getMethod("getKind").invoke(point));
+            assertEquals(3, pointClass.getMethod("getX").invoke(point));
+            assertEquals(1L << 40, pointClass.getMethod("getTime").invoke(point));
+            assertEquals(0.5, pointClass.getMethod("getWeight").invoke(point));
+            assertEquals(true, pointClass.getMethod("getVisible").invoke(point));
+            assertEquals('p', pointClass.getMethod("getLetter").invoke(point));
+            assertArrayEquals(new int[] {1, 2},
+                    (int[])pointClass.getMethod("getCoords").invoke(point));
+            Method getTags = pointClass.getMethod("getTags");
+            assertEquals(List.of("a"), getTags.invoke(point));
+            assertEquals("java.util.List<java.lang.String>",
+                    getTags.getGenericReturnType().getTypeName());
+            assertEquals("T", pointClass.getMethod("getValue").getGenericReturnType()
+                    .getTypeName());
+            assertEquals("named point", pointClass.getMethod("getName").invoke(point));
+            assertEquals(1, Arrays.stream(pointClass.getMethods())
+                    .filter(m -> m.getName().equals("getName")).count());
+        }
+    }
+
+    @Test
+    public void shouldCompileCallersAndSubtypesAfterWeaving() throws Exception {
+        Path root = folder.getRoot().toPath();
+        Path dir = Files.createDirectories(root.resolve("src/main/java/p"));
+        Files.writeString(dir.resolve("Point.java"), POINT);
+        Files.writeString(dir.resolve("Box.java"), """
+                package p;
+
+                import com.github.druyaned.gettered.Gettered;
+
+                @Gettered
+                public class Box {
+                    private int size = 7;
+                }
+                """);
+        Files.writeString(dir.resolve("Named.java"), "package p;\n"
+                + "public interface Named { String getName(); }\n");
+        Files.writeString(dir.resolve("Label.java"), """
+                package p;
+
+                import com.github.druyaned.gettered.Gettered;
+
+                @Gettered
+                public class Label implements Named {
+                    private String name = "label";
+                }
+                """);
+        Files.writeString(dir.resolve("User.java"), """
+                package p;
+
+                public class User {
+                    public int use() {
+                        return new Point<String>().getX() + 1;
+                    }
+                }
+                """);
+        Options options = Options.parse(new String[] {"--project-dir", root.toString()});
+        assertTrue(BytecodeCompiler.instance(options).compile());
+        File outputDir = options.getOutputDir().toFile();
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {outputDir.toURI().toURL()},
+                null)) {
+            Class<?> userClass = loader.loadClass("p.User");
+            assertEquals(4, userClass.getMethod("use")
+                    .invoke(userClass.getConstructor().newInstance()));
+            Class<?> boxClass = loader.loadClass("p.Box");
+            assertEquals(7, boxClass.getMethod("getSize")
+                    .invoke(boxClass.getConstructor().newInstance()));
+            Class<?> labelClass = loader.loadClass("p.Label");
+            assertEquals("label", labelClass.getMethod("getName")
+                    .invoke(labelClass.getConstructor().newInstance()));
+        }
+    }
+
+}
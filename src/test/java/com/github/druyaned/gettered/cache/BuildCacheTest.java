@@ -0,0 +1,133 @@
+package com.github.druyaned.gettered.cache;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import com.github.druyaned.gettered.Compiler;
+import com.github.druyaned.gettered.Options;
+import com.github.druyaned.gettered.metrics.BuildMetrics;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests of the {@link BuildCache}.
+ *
+ * @author druyaned
+ */
+public class BuildCacheTest {
+
+    private static final String POINT = """
+            package p;
+
+            import com.github.druyaned.gettered.Gettered;
+
+            @Gettered
+            public class Point {
+                private int x;
+            }
+            """;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldRestoreClassesBuiltOnAnotherMachine() throws Exception {
+        Path remote = folder.newFolder("remote").toPath();
+        Path first = project("first");
+        assertTrue(Compiler.run(options(first, remote.toString())));
+        byte[] compiled = Files.readAllBytes(first.resolve("target/classes/p/Point.class"));
+        assertEquals(1, Files.list(remote).count());
+
+        long compilations = compilations();
+        Path second = project("second");
+        assertTrue(Compiler.run(options(second, remote.toString())));
+        assertEquals(compilations, compilations()); // restored, not compiled
+        assertArrayEquals(compiled,
+                Files.readAllBytes(second.resolve("target/classes/p/Point.class")));
+    }
+
+    @Test
+    public void shouldBuildLocallyIfRemoteCacheIsUnreachable() throws Exception {
+        Path project = project("project");
+        Options options = Options.parse(new String[] {"--project-dir", project.toString(),
+            "--remote-cache", "http://127.0.0.1:1/cache", "--remote-cache-timeout-ms", "500"});
+        assertTrue(Compiler.run(options));
+        assertTrue(Files.exists(project.resolve("target/classes/p/Point.class")));
+        BuildCache cache = BuildCache.open(options);
+        assertFalse(cache.lookup(List.of()));
+        assertNotNull(cache.getKey());
+    }
+
+    @Test
+    public void shouldTreatArchiveWithEntriesOutsideOfOutputAsMiss() throws Exception {
+        Path project = project("project");
+        Path outside = folder.getRoot().toPath().resolve("pwned.class");
+        Options options = options(project, "remote");
+        Path remote = project.resolve("remote"); // relative to the project directory
+        assertEquals(remote.toString(), options.getRemoteCache());
+        List<Path> sources = List.of(project.resolve("src/main/java/p/Point.java"));
+        for (String name : List.of(outside.toString(), "../../../pwned.class",
+                "p/../../../../pwned.class", ".class", "p/Point.txt")) {
+            BuildCache cache = BuildCache.open(options);
+            assertFalse(cache.lookup(sources));
+            new FileRemoteCache(remote).put(cache.getKey(), archive(name));
+            assertFalse(name, cache.lookup(sources));
+            assertFalse(name, Files.exists(outside));
+            assertFalse(name, Files.exists(project.resolve("target/classes")));
+        }
+    }
+
+    @Test
+    public void shouldKeyClassesByClasspath() throws Exception {
+        Path project = project("project");
+        Path dependency = Files.writeString(folder.getRoot().toPath().resolve("dep.jar"), "v1");
+        List<Path> sources = List.of(project.resolve("src/main/java/p/Point.java"));
+        String[] args = {"--project-dir", project.toString(), "--remote-cache", "remote",
+            "--classpath", dependency.toString()};
+        BuildCache cache = BuildCache.open(Options.parse(args));
+        cache.lookup(sources);
+        String key = cache.getKey();
+        cache.lookup(sources);
+        assertEquals(key, cache.getKey());
+        Files.writeString(dependency, "v2");
+        cache.lookup(sources);
+        assertNotEquals(key, cache.getKey());
+    }
+
+    private static byte[] archive(String entryName) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(bytes)) {
+            out.putNextEntry(new ZipEntry(entryName));
+            out.write(new byte[] {(byte) 0xCA, (byte) 0xFE});
+            out.closeEntry();
+        }
+        return bytes.toByteArray();
+    }
+
+    private Path project(String name) throws Exception {
+        Path project = folder.newFolder(name).toPath();
+        Path dir = Files.createDirectories(project.resolve("src/main/java/p"));
+        Files.writeString(dir.resolve("Point.java"), POINT);
+        return project;
+    }
+
+    private static Options options(Path project, String remote) {
+        return Options.parse(new String[] {"--project-dir", project.toString(),
+            "--remote-cache", remote});
+    }
+
+    private static long compilations() {
+        return BuildMetrics.instance().getPhaseCounts().getOrDefault("compile", 0L);
+    }
+
+}
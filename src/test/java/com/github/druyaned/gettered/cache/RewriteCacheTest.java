@@ -0,0 +1,80 @@
+package com.github.druyaned.gettered.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import com.github.druyaned.gettered.Compiler;
+import com.github.druyaned.gettered.sources.GetteredFileObject;
+import com.github.druyaned.gettered.sources.Parser;
+import com.github.druyaned.gettered.sources.Searcher;
+import com.github.druyaned.gettered.sources.UnitToRewrite;
+import com.sun.source.tree.CompilationUnitTree;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import javax.tools.JavaFileObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests of the {@link RewriteCache}.
+ *
+ * @author druyaned
+ */
+public class RewriteCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void storedRewriteShouldBeServedWithoutParsingAndEvicted() throws Exception {
+        Path root = folder.getRoot().toPath();
+        Path source = Files.writeString(root.resolve("Point.java"),
+                "package p;\n\n@Gettered\npublic class Point {\n    private int x;\n}\n");
+        Path cacheDir = root.resolve("cache");
+        // miss: parse, search, rewrite and store
+        RewriteCache cache = RewriteCache.open(cacheDir, 1 << 20, false,
+                GetteredFileObject.DEFAULT_CHARSET);
+        List<Path> misses = cache.lookup(List.of(source), new ArrayList<>(), new ArrayList<>());
+        assertEquals(List.of(source), misses);
+        Iterable<? extends CompilationUnitTree> compUnits = Parser.getCompilationUnits(misses);
+        List<UnitToRewrite> unitsToRewrite = Searcher.instance().unitsToRewriteIn(compUnits);
+        List<JavaFileObject> rewritten = Compiler.fileObjects(compUnits, unitsToRewrite, false,
+                GetteredFileObject.DEFAULT_CHARSET);
+        String content = ((GetteredFileObject)rewritten.get(0)).getGetteredContent();
+        cache.store(rewritten);
+        cache.close();
+        // hit: served from the cache
+        RewriteCache reopened = RewriteCache.open(cacheDir, 0, false,
+                GetteredFileObject.DEFAULT_CHARSET);
+        List<JavaFileObject> files = new ArrayList<>();
+        assertTrue(reopened.lookup(List.of(source), files, new ArrayList<>()).isEmpty());
+        assertEquals(1, reopened.getHits());
+        assertEquals(content, files.get(0).getCharContent(true).toString());
+        // the cache outgrows its size of zero bytes
+        reopened.trim();
+        assertEquals(List.of(source),
+                reopened.lookup(List.of(source), new ArrayList<>(), new ArrayList<>()));
+        reopened.close();
+    }
+
+    @Test
+    public void trimShouldKeepTemporaryFilesOfRunningBuilds() throws Exception {
+        Path cacheDir = folder.getRoot().toPath().resolve("cache");
+        Path entryDir = Files.createDirectories(cacheDir.resolve("ab"));
+        Path written = Files.writeString(entryDir.resolve("ab01.tmp"), "being written");
+        Path abandoned = Files.writeString(entryDir.resolve("ab02.tmp"), "left by a crash");
+        Files.setLastModifiedTime(abandoned, FileTime.fromMillis(System.currentTimeMillis()
+                - RewriteCache.TMP_MAX_AGE.toMillis() - 1000));
+        try (RewriteCache cache = RewriteCache.open(cacheDir, 1 << 20, false,
+                GetteredFileObject.DEFAULT_CHARSET)) {
+            cache.trim();
+        }
+        assertTrue(Files.exists(written));
+        assertFalse(Files.exists(abandoned));
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.github.druyaned.gettered.cds;
+
+import static org.junit.Assert.assertTrue;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests of the {@link Trainer}.
+ *
+ * @author druyaned
+ */
+public class TrainerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldCompileSampleProjectInEachMode() throws Exception {
+        Path projectDir = folder.getRoot().toPath();
+        assertTrue(Trainer.extractSample(projectDir) > 0);
+        for (String[] mode : Trainer.MODES) {
+            assertTrue("mode " + List.of(mode), Trainer.compile(projectDir, mode));
+        }
+        Path target = projectDir.resolve("target");
+        assertTrue(Files.isRegularFile(target.resolve("sample.jar")));
+        assertTrue(Files.isDirectory(target.resolve("remote-cache")));
+        assertTrue(Files.isRegularFile(target.resolve("check.json")));
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.github.druyaned.gettered.check;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import com.github.druyaned.gettered.Options;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests of the {@link Checker}.
+ *
+ * @author druyaned
+ */
+public class CheckerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldReportMissedGettersWithoutCompiling() throws Exception {
+        Path root = folder.getRoot().toPath();
+        Path dir = Files.createDirectories(root.resolve("src/main/java/p"));
+        Files.writeString(dir.resolve("Point.java"), """
+                package p;
+
+                @Gettered
+                public class Point {
+                    private int x;
+                    private String name;
+
+                    public String getName() {
+                        return name;
+                    }
+                }
+                """);
+        Files.writeString(dir.resolve("Plain.java"), "package p;\nclass Plain { int y; }\n");
+        String[] args = {"--project-dir", root.toString(), "--check-report", "check.json"};
+        assertTrue(Checker.instance(Options.parse(args)).check());
+        String report = Files.readString(root.resolve("check.json"));
+        assertEquals("""
+                {
+                  "filesScanned": 2,
+                  "filesParsed": 1,
+                  "classes": 1,
+                  "missedGetters": 1,
+                  "units": [
+                    {"file": "src/main/java/p/Point.java", "class": "p.Point", "getters": [
+                      {"getter": "getX", "field": "x", "type": "int", "line": 5}
+                    ]}
+                  ]
+                }
+                """, report);
+        assertFalse(Files.exists(root.resolve("target")));
+
+        String[] failing = {"--project-dir", root.toString(), "--check-report", "check.json",
+            "--fail-on-missing"};
+        assertFalse(Checker.instance(Options.parse(failing)).check());
+    }
+
+}
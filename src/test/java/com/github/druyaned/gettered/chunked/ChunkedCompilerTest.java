@@ -0,0 +1,132 @@
+package com.github.druyaned.gettered.chunked;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import com.github.druyaned.gettered.Compiler;
+import com.github.druyaned.gettered.Options;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests of the {@link ChunkedCompiler}.
+ *
+ * @author druyaned
+ */
+public class ChunkedCompilerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldCompileChunksDependenciesFirst() throws Exception {
+        Path root = folder.getRoot().toPath();
+        for (int i = 0; i < 5; ++i) { // A0 -> A1 -> ... -> A4, discovered in this order
+            write(root, "a/A" + i + ".java", """
+                    package a;
+
+                    import com.github.druyaned.gettered.Gettered;
+
+                    @Gettered
+                    public class A%d {
+                        private int x;
+                        %s
+                    }
+                    """.formatted(i, i == 4 ? "" : "int next() { return new A%d().getX(); }"
+                    .formatted(i + 1)));
+        }
+        write(root, "q/Util.java", "package q;\n\npublic class Util {\n"
+                + "    public static int foo() {\n        return 1;\n    }\n}\n");
+        write(root, "p/X.java", "package p;\n\nimport static q.Util.*;\n\n"
+                + "class X {\n    int bar() {\n        return foo();\n    }\n}\n");
+        assertTrue(compile(root, "--chunk-size", "1").compile());
+        assertEquals(7, classesOf(root.resolve("target/classes")).size());
+    }
+
+    @Test
+    public void shouldWriteTheSameClassesAsSplicedBuild() throws Exception {
+        Path root = folder.getRoot().toPath();
+        write(root, "p/Point.java", """
+                package p;
+
+                import com.github.druyaned.gettered.Gettered;
+
+                /** Точка: the offsets are of chars, not of bytes. */
+                @Gettered
+                public class Point {
+                    private final String label = "{ } ü";
+                    private int x;
+
+                    public static class Nested {
+                        private int y;
+                    }
+                } // } after the class
+                """);
+        write(root, "p/Line.java", """
+                package p;
+
+                import com.github.druyaned.gettered.Gettered;
+
+                @Gettered
+                class Line {
+                    private Point from;
+                    private Point to;
+
+                    int dx() {
+                        return to.getX() - from.getX();
+                    }
+                }
+                """);
+        assertTrue(Compiler.run(Options.parse(new String[] {"--splice",
+            "--project-dir", root.toString(), "-d", "spliced"})));
+        assertTrue(compile(root, "--chunk-size", "1", "-d", "chunked").compile());
+        List<Path> classes = classesOf(root.resolve("spliced"));
+        assertEquals(3, classes.size()); // Point, Point$Nested and Line
+        assertEquals(classes, classesOf(root.resolve("chunked")));
+        for (Path classFile : classes) {
+            assertArrayEquals(classFile.toString(),
+                    Files.readAllBytes(root.resolve("spliced").resolve(classFile)),
+                    Files.readAllBytes(root.resolve("chunked").resolve(classFile)));
+        }
+    }
+
+    @Test
+    public void shouldHalveChunkSizeWhileHeapExceedsBudget() throws Exception {
+        Path root = folder.getRoot().toPath();
+        for (int i = 0; i < 100; ++i) {
+            write(root, "a/C" + i + ".java", "package a;\n\nclass C" + i + " {}\n");
+        }
+        ChunkedCompiler unbounded = compile(root, "--chunk-size", "32");
+        assertTrue(unbounded.compile());
+        assertEquals(32, unbounded.getChunkSize());
+        System.gc(); // the heap left after a collection is above 1 MB with javac loaded
+        ChunkedCompiler bounded = compile(root, "--chunk-size", "32", "--heap-budget-mb", "1");
+        assertTrue(bounded.compile());
+        assertEquals(16, bounded.getChunkSize()); // the minimum
+        assertEquals(100, classesOf(root.resolve("target/classes")).size());
+    }
+
+    private static ChunkedCompiler compile(Path root, String... args) {
+        String[] allArgs = Stream.concat(Stream.of(args),
+                Stream.of("--project-dir", root.toString())).toArray(String[]::new);
+        return ChunkedCompiler.instance(Options.parse(allArgs));
+    }
+
+    private static List<Path> classesOf(Path dir) throws Exception {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            return paths.filter(Files::isRegularFile).map(dir::relativize).sorted().toList();
+        }
+    }
+
+    private static void write(Path root, String name, String content) throws Exception {
+        Path source = root.resolve("src/main/java").resolve(name);
+        Files.createDirectories(source.getParent());
+        Files.writeString(source, content);
+    }
+
+}
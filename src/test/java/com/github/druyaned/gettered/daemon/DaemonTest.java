@@ -0,0 +1,153 @@
+package com.github.druyaned.gettered.daemon;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests of the {@link Daemon} through its socket by the {@link DaemonClient}.
+ *
+ * @author druyaned
+ */
+public class DaemonTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path socketFile;
+    private Thread daemon;
+
+    @Before
+    public void setUp() throws Exception {
+        socketFile = folder.getRoot().toPath().resolve("gettered.sock");
+        daemon = new Thread(Daemon.instance(socketFile)::run, "gettered-daemon");
+        daemon.start();
+        for (int i = 0; i < 500 && !Files.exists(socketFile); ++i) {
+            Thread.sleep(10);
+        }
+        assertTrue(Files.exists(socketFile));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        daemon.interrupt();
+        daemon.join(5_000);
+    }
+
+    @Test
+    public void shouldCompileAndReportStats() throws Exception {
+        Path projectDir = project("first");
+        StringBuilder response = new StringBuilder();
+        assertEquals(DaemonClient.OK, compile(projectDir, response));
+        assertTrue(Files.exists(projectDir.resolve("target/classes/p/Point.class")));
+        assertTrue(response.toString().contains("status=ok millis="));
+        Files.writeString(source(projectDir), "package p;\n\nclass Point { int x }\n");
+        assertEquals(DaemonClient.FAILED, compile(projectDir, new StringBuilder()));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        assertEquals(DaemonClient.OK, DaemonClient.stats(socketFile,
+                new PrintStream(bytes, true, StandardCharsets.UTF_8)));
+        List<String> lines = bytes.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals("requests=2", lines.get(0));
+        assertEquals("failed=1", lines.get(1));
+        for (String key : List.of("averageMillis=", "p50Millis=", "p95Millis=", "p99Millis=",
+                "maxMillis=")) {
+            assertTrue(lines.toString(), lines.stream().anyMatch(line -> line.startsWith(key)));
+        }
+    }
+
+    @Test
+    public void shouldRejectOptionsOfOtherCompilers() throws Exception {
+        Path projectDir = project("first");
+        for (String option : List.of("--plugin", "--bytecode", "--pipeline", "--cache")) {
+            StringBuilder response = new StringBuilder();
+            assertEquals(option, DaemonClient.ERROR, compile(projectDir, response, option));
+            assertTrue(response.toString(), response.toString()
+                    .contains("message=the daemon compiles incrementally, " + option));
+        }
+        assertEquals(DaemonClient.ERROR, compile(projectDir, new StringBuilder(), "--unknown"));
+        assertTrue(Files.notExists(projectDir.resolve("target/classes")));
+    }
+
+    @Test
+    public void shouldServeConcurrentRequestsOfSameAndOtherProjects() throws Exception {
+        List<Path> projects = List.of(project("first"), project("second"));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> statuses = new ArrayList<>();
+            for (int i = 0; i < 8; ++i) {
+                Path projectDir = projects.get(i % projects.size());
+                statuses.add(executor.submit(() -> compile(projectDir, new StringBuilder())));
+            }
+            for (Future<Integer> status : statuses) {
+                assertEquals(DaemonClient.OK, (int)status.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        for (Path projectDir : projects) {
+            assertTrue(Files.exists(projectDir.resolve("target/classes/p/Point.class")));
+        }
+    }
+
+    @Test
+    public void shouldServeProjectsBeyondCachedCompilers() throws Exception {
+        List<Path> projects = new ArrayList<>();
+        for (int i = 0; i < 17; ++i) { // one more than the cached compilers
+            projects.add(project("project" + i));
+        }
+        for (Path projectDir : projects) {
+            assertEquals(DaemonClient.OK, compile(projectDir, new StringBuilder()));
+        }
+        Path evicted = projects.get(0);
+        Files.writeString(source(evicted), Files.readString(source(evicted))
+                .replace("private int x;", "private int x;\n    private int y;"));
+        assertEquals(DaemonClient.OK, compile(evicted, new StringBuilder()));
+        assertEquals(DaemonClient.OK, compile(projects.get(1), new StringBuilder()));
+    }
+
+//-Private-methods----------------------------------------------------------------------------------
+
+    private Path project(String name) throws Exception {
+        Path projectDir = folder.getRoot().toPath().resolve(name);
+        Files.createDirectories(source(projectDir).getParent());
+        Files.writeString(source(projectDir), """
+                package p;
+
+                import com.github.druyaned.gettered.Gettered;
+
+                @Gettered
+                public class Point {
+                    private int x;
+                }
+                """);
+        return projectDir;
+    }
+
+    private static Path source(Path projectDir) {
+        return projectDir.resolve("src/main/java/p/Point.java");
+    }
+
+    private int compile(Path projectDir, StringBuilder response, String... args) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        int status = DaemonClient.compile(socketFile, projectDir, args,
+                new PrintStream(bytes, true, StandardCharsets.UTF_8));
+        response.append(bytes.toString(StandardCharsets.UTF_8));
+        return status;
+    }
+
+}
@@ -0,0 +1,220 @@
+package com.github.druyaned.gettered.incremental;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import com.github.druyaned.gettered.Options;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests of the {@link IncrementalCompiler}: which classes are compiled again is seen
+ * by the modification times of the class files which are reset before each build.
+ *
+ * @author druyaned
+ */
+public class IncrementalCompilerTest {
+
+    private static final FileTime OLD = FileTime.fromMillis(0);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path root;
+    private Path classes;
+
+    @Before
+    public void setUp() throws Exception {
+        root = folder.getRoot().toPath();
+        classes = root.resolve("target/classes");
+        write("p/A.java", """
+                package p;
+
+                import com.github.druyaned.gettered.Gettered;
+
+                @Gettered
+                public class A {
+                    private int x;
+
+                    int twice() {
+                        return 2 * x;
+                    }
+                }
+                """);
+        write("p/B.java", """
+                package p;
+
+                class B {
+                    int x(A a) {
+                        return a.getX();
+                    }
+                }
+                """);
+        write("p/C.java", "package p;\n\nclass C {}\n");
+        assertTrue(compile());
+        assertEquals(Set.of("p/A.class", "p/B.class", "p/C.class"), recompiled());
+    }
+
+    @Test
+    public void shouldCompileNothingIfNothingHasChanged() throws Exception {
+        assertTrue(compile());
+        assertEquals(Set.of(), recompiled());
+    }
+
+    @Test
+    public void shouldCompileOnlyChangedSourceIfItsApiIsTheSame() throws Exception {
+        write("p/A.java", Files.readString(source("p/A.java")).replace("2 * x", "x + x"));
+        assertTrue(compile());
+        assertEquals(Set.of("p/A.class"), recompiled());
+    }
+
+    @Test
+    public void shouldCompileDependentsIfApiHasChanged() throws Exception {
+        write("p/A.java", Files.readString(source("p/A.java"))
+                .replace("private int x;", "private int x;\n    private int y;"));
+        assertTrue(compile());
+        assertEquals(Set.of("p/A.class", "p/B.class"), recompiled());
+    }
+
+    @Test
+    public void shouldCompileDependentsOfSubclassesIfApiHasChanged() throws Exception {
+        write("q/Base.java", """
+                package q;
+
+                public class Base {
+                    public int inherited() {
+                        return 1;
+                    }
+                }
+                """);
+        write("q/Middle.java", "package q;\n\npublic class Middle extends Base {}\n");
+        write("p/Sub.java", "package p;\n\npublic class Sub extends q.Middle {}\n");
+        write("p/User.java", """
+                package p;
+
+                class User {
+                    int use(Sub sub) {
+                        return sub.inherited();
+                    }
+                }
+                """);
+        assertTrue(compile());
+        recompiled();
+        write("q/Base.java", Files.readString(source("q/Base.java"))
+                .replace("inherited()", "renamed()"));
+        assertFalse(compile()); // as a full build: Sub doesn't inherit the method anymore
+        write("p/User.java", Files.readString(source("p/User.java"))
+                .replace("sub.inherited()", "sub.renamed()"));
+        assertTrue(compile());
+        assertEquals(Set.of("p/Sub.class", "p/User.class", "q/Base.class", "q/Middle.class"),
+                recompiled());
+    }
+
+    @Test
+    public void shouldDeleteClassesOfDeletedSource() throws Exception {
+        Files.delete(source("p/C.java"));
+        assertTrue(compile());
+        assertEquals(Set.of(), recompiled());
+        assertFalse(Files.exists(classes.resolve("p/C.class")));
+    }
+
+    @Test
+    public void shouldCompileDependentsOfStaticStarImport() throws Exception {
+        write("q/Util.java", """
+                package q;
+
+                public class Util {
+                    public static int foo() {
+                        return 1;
+                    }
+                }
+                """);
+        write("p/X.java", """
+                package p;
+
+                import static q.Util.*;
+
+                class X {
+                    int bar() {
+                        return foo();
+                    }
+                }
+                """);
+        assertTrue(compile());
+        write("q/Util.java", Files.readString(source("q/Util.java"))
+                .replace("int foo()", "long foo()"));
+        assertFalse(compile()); // as a full build: X returns int
+    }
+
+    @Test
+    public void shouldCompileEverythingIfClasspathHasChanged() throws Exception {
+        Path lib = Files.createDirectories(root.resolve("lib"));
+        Path resource = Files.writeString(lib.resolve("dependency.txt"), "v1");
+        String classpath = lib + File.pathSeparator + System.getProperty("java.class.path");
+        assertTrue(compile("--classpath", classpath));
+        recompiled();
+        assertTrue(compile("--classpath", classpath));
+        assertEquals(Set.of(), recompiled());
+        Files.writeString(resource, "v2");
+        Files.setLastModifiedTime(resource, FileTime.fromMillis(1_000_000));
+        assertTrue(compile("--classpath", classpath));
+        assertEquals(Set.of("p/A.class", "p/B.class", "p/C.class"), recompiled());
+    }
+
+    @Test
+    public void shouldCompileAgainAfterClose() throws Exception {
+        IncrementalCompiler compiler = IncrementalCompiler.instance(Options.parse(
+                new String[] {"--incremental", "--project-dir", root.toString()}));
+        assertTrue(compiler.compile());
+        compiler.close();
+        compiler.close();
+        write("p/A.java", Files.readString(source("p/A.java")).replace("2 * x", "x + x"));
+        assertTrue(compiler.compile(List.of(source("p/A.java"))));
+        assertEquals(Set.of("p/A.class"), recompiled());
+    }
+
+    private boolean compile(String... args) {
+        List<String> allArgs = new ArrayList<>(List.of(args));
+        allArgs.addAll(List.of("--incremental", "--project-dir", root.toString()));
+        return IncrementalCompiler.instance(Options.parse(allArgs.toArray(String[]::new)))
+                .compile();
+    }
+
+    /**
+     * Returns the class files modified since the previous call and resets their times.
+     */
+    private Set<String> recompiled() throws Exception {
+        Set<String> recompiled = new TreeSet<>();
+        try (Stream<Path> paths = Files.walk(classes)) {
+            for (Path path : paths.filter(Files::isRegularFile).toList()) {
+                if (!Files.getLastModifiedTime(path).equals(OLD)) {
+                    recompiled.add(classes.relativize(path).toString().replace('\\', '/'));
+                    Files.setLastModifiedTime(path, OLD);
+                }
+            }
+        }
+        return recompiled;
+    }
+
+    private Path source(String name) {
+        return root.resolve("src/main/java").resolve(name);
+    }
+
+    private void write(String name, String content) throws Exception {
+        Path source = source(name);
+        Files.createDirectories(source.getParent());
+        Files.writeString(source, content);
+    }
+
+}
@@ -0,0 +1,85 @@
+package com.github.druyaned.gettered.incremental;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import com.github.druyaned.gettered.sources.Parser;
+import com.github.druyaned.gettered.sources.Searcher;
+import com.sun.source.tree.CompilationUnitTree;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests of the {@link UnitAnalyzer}.
+ *
+ * @author druyaned
+ */
+public class UnitAnalyzerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldDependOnClassesOfImportsAndPackage() throws Exception {
+        FileState state = analyze("""
+                package p;
+
+                import static q.Util.*;
+                import r.*;
+                import s.Single;
+
+                class X {
+                    Other other;
+                    Single single;
+                    int bar() {
+                        return foo();
+                    }
+                }
+                """);
+        assertTrue(state.dependsOn("q.Util")); // a class imported on demand
+        assertTrue(state.dependsOn("s.Single"));
+        assertTrue(state.dependsOn("p.Other"));
+        assertTrue(state.dependsOn("r.Other"));
+        assertFalse(state.dependsOn("r.Unused"));
+        assertFalse(state.dependsOn("p.X")); // its own class
+        assertEquals(List.of("p.X"), state.getClasses());
+    }
+
+    @Test
+    public void shouldHashOnlyVisibleApiWithGeneratedGetters() throws Exception {
+        String point = """
+                package p;
+
+                @Gettered
+                public class Point {
+                    private int x;
+
+                    int twice() {
+                        return 2 * x;
+                    }
+                }
+                """;
+        String api = analyze(point).getApiHash();
+        assertEquals(api, analyze(point.replace("2 * x", "x + x")).getApiHash());
+        assertNotEquals(api, analyze(point.replace("int twice", "long twice")).getApiHash());
+        assertNotEquals(api, analyze(point.replace("private int x;", "private long x;"))
+                .getApiHash());
+        assertEquals(List.of("p.Point"), analyze(point).getGetteredClasses());
+    }
+
+    private FileState analyze(String content) throws Exception {
+        Path source = folder.newFolder().toPath().resolve("Unit.java");
+        Files.writeString(source, content);
+        Iterable<? extends CompilationUnitTree> compUnits = Parser
+                .getCompilationUnits(List.of(source));
+        CompilationUnitTree compUnit = compUnits.iterator().next();
+        return UnitAnalyzer.analyze(source.toString(), "hash", compUnit,
+                Searcher.instance().unitsToRewriteIn(compUnits));
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.github.druyaned.gettered.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import com.github.druyaned.gettered.index.GetteredIndex.IndexedClass;
+import com.github.druyaned.gettered.sources.GetteredFileObject;
+import com.github.druyaned.gettered.sources.RewriteDescriptor;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests of the {@link GetteredIndex}.
+ *
+ * @author druyaned
+ */
+public class GetteredIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldAnswerWithoutParsingAndReparseOnlyChangedSources() throws Exception {
+        Path root = folder.getRoot().toPath();
+        Path point = Files.writeString(root.resolve("Point.java"), """
+                package p;
+
+                @Gettered
+                public class Point {
+                    private int x;
+                    private String name;
+
+                    public int getX() {
+                        return x;
+                    }
+                }
+                """);
+        Path plain = Files.writeString(root.resolve("Plain.java"), "package p;\nclass Plain {}\n");
+        Path file = root.resolve("index/gettered-index.bin");
+        GetteredIndex index = GetteredIndex.open(file)
+                .update(List.of(point, plain), 1, GetteredFileObject.DEFAULT_CHARSET);
+        assertEquals(2, index.getParsed());
+        assertEquals(2, index.size());
+        IndexedClass indexedClass = index.find(point).getClasses().get(0);
+        assertEquals(List.of("x", "name"), indexedClass.getFieldNames());
+        assertEquals(List.of("int", "String"), indexedClass.getFieldTypes());
+        assertEquals(List.of("getX"), indexedClass.getMethodNames());
+        assertEquals(0, index.find(plain).getClasses().size());
+        assertNull(index.descriptorOf(plain));
+        RewriteDescriptor descriptor = index.descriptorOf(point);
+        assertEquals(1, descriptor.getGetterCount());
+        String content = new String(descriptor.content(GetteredFileObject.DEFAULT_CHARSET),
+                GetteredFileObject.DEFAULT_CHARSET);
+        assertEquals(1, content.split("public String getName\\(\\)", -1).length - 1);
+
+        Files.writeString(point, Files.readString(point).replace("public int getX", "int getY"));
+        GetteredIndex updated = GetteredIndex.open(file)
+                .update(List.of(point), 1, GetteredFileObject.DEFAULT_CHARSET);
+        assertEquals(1, updated.getParsed());
+        assertEquals(1, updated.size()); // the removed source is dropped
+        assertEquals(2, updated.descriptorOf(point).getGetterCount());
+        assertEquals(0, GetteredIndex.open(file)
+                .update(List.of(point), 1, GetteredFileObject.DEFAULT_CHARSET).getParsed());
+    }
+
+}
@@ -0,0 +1,107 @@
+package com.github.druyaned.gettered.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import com.github.druyaned.gettered.Compiler;
+import com.github.druyaned.gettered.Options;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.management.JMX;
+import javax.management.ObjectName;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests of the {@link BuildMetrics}: the metrics are accumulated over the builds
+ * of the process, so the ones of a build are seen as differences.
+ *
+ * @author druyaned
+ */
+public class BuildMetricsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldReflectBuildInReportAndMXBean() throws Exception {
+        Path root = folder.getRoot().toPath();
+        write(root, "p/Point.java", """
+                package p;
+
+                import com.github.druyaned.gettered.Gettered;
+
+                @Gettered
+                public class Point {
+                    private int x;
+                    private int y;
+                }
+                """);
+        write(root, "p/Line.java", """
+                package p;
+
+                import com.github.druyaned.gettered.Gettered;
+
+                @Gettered
+                public class Line {
+                    private Point from;
+
+                    public Point getFrom() {
+                        return from;
+                    }
+
+                    private Point to;
+                }
+                """);
+        write(root, "p/Plain.java", "package p;\n\nclass Plain {}\n");
+        BuildMetrics.instance(); // registered by the first use
+        BuildMetricsMXBean mxBean = JMX.newMXBeanProxy(ManagementFactory.getPlatformMBeanServer(),
+                new ObjectName(BuildMetrics.OBJECT_NAME), BuildMetricsMXBean.class);
+        long filesScanned = mxBean.getFilesScanned();
+        long getteredClasses = mxBean.getGetteredClasses();
+        long gettersGenerated = mxBean.getGettersGenerated();
+        long bytesRewritten = mxBean.getBytesRewritten();
+        long compiles = mxBean.getPhaseCounts().getOrDefault("compile", 0L);
+
+        assertTrue(Compiler.run(Options.parse(new String[] {"--project-dir", root.toString()})));
+        assertEquals(filesScanned + 3, mxBean.getFilesScanned());
+        assertEquals(getteredClasses + 2, mxBean.getGetteredClasses());
+        assertEquals(gettersGenerated + 3, mxBean.getGettersGenerated()); // x, y and to
+        assertTrue(mxBean.getBytesRewritten() > bytesRewritten);
+        Map<String, Long> phaseCounts = mxBean.getPhaseCounts();
+        assertEquals(compiles + 1, (long)phaseCounts.get("compile"));
+        assertTrue(phaseCounts.keySet().containsAll(
+                List.of("discover", "prefilter", "parse", "search", "rewrite")));
+
+        Path report = root.resolve("target/report.json");
+        BuildMetrics.instance().writeReport(report);
+        String json = Files.readString(report);
+        assertEquals(mxBean.getFilesScanned(), valueOf(json, "filesScanned"));
+        assertEquals(mxBean.getGetteredClasses(), valueOf(json, "getteredClasses"));
+        assertEquals(mxBean.getGettersGenerated(), valueOf(json, "gettersGenerated"));
+        assertEquals(mxBean.getBytesRewritten(), valueOf(json, "bytesRewritten"));
+        assertEquals((long)phaseCounts.get("compile"),
+                valueOf(json, "compile\": \\{\"count"));
+        assertTrue(json.contains("Point.java"));
+    }
+
+//-Private-methods----------------------------------------------------------------------------------
+
+    private static long valueOf(String json, String key) {
+        Matcher matcher = Pattern.compile("\"" + key + "\": (\\d+)").matcher(json);
+        assertTrue(key, matcher.find());
+        return Long.parseLong(matcher.group(1));
+    }
+
+    private static void write(Path root, String name, String content) throws Exception {
+        Path source = root.resolve("src/main/java").resolve(name);
+        Files.createDirectories(source.getParent());
+        Files.writeString(source, content);
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.github.druyaned.gettered.output;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import com.github.druyaned.gettered.Compiler;
+import com.github.druyaned.gettered.Options;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.stream.Stream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests of the {@link JarSink} fed by the {@link MemoryFileManager}.
+ *
+ * @author druyaned
+ */
+public class JarSinkTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldWriteTheSameClassesAsOutputDirectory() throws Exception {
+        Path root = folder.getRoot().toPath();
+        write(root, "p/Point.java", """
+                package p;
+
+                import com.github.druyaned.gettered.Gettered;
+
+                @Gettered
+                public class Point {
+                    private int x;
+
+                    public static class Nested {
+                        private int y;
+                    }
+                }
+                """);
+        write(root, "p/Main.java", """
+                package p;
+
+                public class Main {
+                    public static void main(String[] args) {
+                        System.out.println(new Point().getX());
+                    }
+                }
+                """);
+        assertTrue(Compiler.run(Options.parse(new String[] {"--splice",
+            "--project-dir", root.toString(), "-d", "classes"})));
+        assertTrue(Compiler.run(Options.parse(new String[] {"--splice",
+            "--project-dir", root.toString(), "--jar", "out/p.jar", "--main-class", "p.Main"})));
+
+        Path classes = root.resolve("classes");
+        List<String> classNames;
+        try (Stream<Path> paths = Files.walk(classes)) {
+            classNames = paths.filter(Files::isRegularFile)
+                    .map(path -> classes.relativize(path).toString().replace('\\', '/'))
+                    .sorted()
+                    .toList();
+        }
+        assertEquals(List.of("p/Main.class", "p/Point$Nested.class", "p/Point.class"),
+                classNames);
+        try (JarFile jar = new JarFile(root.resolve("out/p.jar").toFile())) {
+            Manifest manifest = jar.getManifest();
+            Attributes attributes = manifest.getMainAttributes();
+            assertEquals("1.0", attributes.getValue(Attributes.Name.MANIFEST_VERSION));
+            assertEquals("p.Main", attributes.getValue(Attributes.Name.MAIN_CLASS));
+            List<String> entries = new ArrayList<>();
+            for (JarEntry entry : Collections.list(jar.entries())) {
+                if (!entry.getName().startsWith("META-INF/")) {
+                    entries.add(entry.getName());
+                    assertArrayEquals(entry.getName(),
+                            Files.readAllBytes(classes.resolve(entry.getName())),
+                            jar.getInputStream(entry).readAllBytes());
+                }
+            }
+            entries.sort(null);
+            assertEquals(classNames, entries);
+        }
+    }
+
+//-Private-methods----------------------------------------------------------------------------------
+
+    private static void write(Path root, String name, String content) throws Exception {
+        Path source = root.resolve("src/main/java").resolve(name);
+        Files.createDirectories(source.getParent());
+        Files.writeString(source, content);
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.github.druyaned.gettered.partition;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import com.github.druyaned.gettered.incremental.FileState;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Tests of the {@link DependencyGraph}.
+ *
+ * @author druyaned
+ */
+public class DependencyGraphTest {
+
+    @Test
+    public void shouldResolveImportsQualifiedAndSimpleNames() {
+        DependencyGraph graph = DependencyGraph.of(List.of(
+                state("a", "a.A", List.of(), List.of(), List.of()),
+                state("a", "a.B", List.of("A", "String"), List.of(), List.of()),
+                state("b", "b.C", List.of(), List.of("a.A.Inner"), List.of()),
+                state("b", "b.D", List.of("B"), List.of(), List.of("a")),
+                state("b", "b.E", List.of("B"), List.of(), List.of())));
+        assertArrayEquals(new int[0], graph.dependenciesOf(0));
+        assertArrayEquals(new int[] {0}, graph.dependenciesOf(1));
+        assertArrayEquals(new int[] {0}, graph.dependenciesOf(2));
+        assertArrayEquals(new int[] {1}, graph.dependenciesOf(3));
+        assertArrayEquals(new int[0], graph.dependenciesOf(4)); // "B" isn't visible in "b"
+    }
+
+    @Test
+    public void shouldDependOnClassImportedOnDemand() {
+        DependencyGraph graph = DependencyGraph.of(List.of(
+                state("q", "q.Util", List.of(), List.of(), List.of()),
+                state("p", "p.X", List.of("foo"), List.of(), List.of("q.Util"))));
+        assertArrayEquals(new int[] {0}, graph.dependenciesOf(1));
+    }
+
+    @Test
+    public void componentsShouldComeAfterTheirDependencies() {
+        DependencyGraph graph = new DependencyGraph(new int[][] {
+            {1}, {2}, {0, 3}, {}, {0, 5}, {4}
+        });
+        List<int[]> components = graph.components();
+        assertEquals(3, components.size());
+        assertArrayEquals(new int[] {3}, components.get(0));
+        assertArrayEquals(new int[] {0, 1, 2}, components.get(1));
+        assertArrayEquals(new int[] {4, 5}, components.get(2));
+    }
+
+    @Test
+    public void shouldWalkLongChainsWithoutRecursion() {
+        int[][] dependencies = new int[100_000][];
+        for (int i = 0; i < dependencies.length; ++i) {
+            dependencies[i] = i == 0 ? new int[0] : new int[] {i - 1};
+        }
+        dependencies[0] = new int[] {dependencies.length - 1}; // one big cycle
+        assertEquals(1, new DependencyGraph(dependencies).components().size());
+    }
+
+    private static FileState state(String packageName, String qualifiedClass,
+            List<String> simpleRefs, List<String> qualifiedRefs, List<String> starImports) {
+        return new FileState(qualifiedClass + ".java", "", packageName, List.of(qualifiedClass),
+                List.of(), simpleRefs, qualifiedRefs, starImports, "");
+    }
+
+}
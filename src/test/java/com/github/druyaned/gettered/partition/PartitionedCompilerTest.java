@@ -0,0 +1,138 @@
+package com.github.druyaned.gettered.partition;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import com.github.druyaned.gettered.Options;
+import com.github.druyaned.gettered.metrics.BuildMetrics;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests of the {@link PartitionedCompiler}.
+ *
+ * @author druyaned
+ */
+public class PartitionedCompilerTest {
+
+    private static final String UTIL = """
+            package q;
+
+            public class Util {
+                public static int foo() {
+                    return 1;
+                }
+            }
+            """;
+    private static final String X = """
+            package p;
+
+            import static q.Util.*;
+
+            class X {
+                int bar() {
+                    return foo();
+                }
+            }
+            """;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldCompileStaticStarImportInAnotherPartition() throws Exception {
+        Path root = folder.getRoot().toPath();
+        write(root, "q/Util.java", UTIL);
+        write(root, "p/X.java", X);
+        assertTrue(compile(root, "out", "--compile-threads", "2"));
+        assertTrue(Files.exists(root.resolve("out/p/X.class")));
+    }
+
+    @Test
+    public void shouldDeletePreviousClassesOfSources() throws Exception {
+        Path root = folder.getRoot().toPath();
+        write(root, "q/Util.java", UTIL);
+        write(root, "p/X.java", X);
+        Path stale = Files.createDirectories(root.resolve("out/q")).resolve("Util$Old.class");
+        Files.write(stale, new byte[] {(byte) 0xCA, (byte) 0xFE});
+        Path other = Files.write(root.resolve("out/q/Other.class"), new byte[0]);
+        assertTrue(compile(root, "out", "--compile-threads", "2"));
+        assertFalse(Files.exists(stale)); // a missed edge can't see it
+        assertTrue(Files.exists(other)); // not a class of the sources
+    }
+
+    @Test
+    public void shouldWriteTheSameClassesAsSingleTask() throws Exception {
+        Path root = folder.getRoot().toPath();
+        write(root, "q/Util.java", UTIL);
+        write(root, "p/X.java", X);
+        for (int i = 0; i < 70; ++i) { // more than a stage of 2 threads
+            write(root, "a/Base" + i + ".java", """
+                    package a;
+
+                    import com.github.druyaned.gettered.Gettered;
+
+                    @Gettered
+                    public class Base%d {
+                        private int x = %d;
+                        private String name;
+                    }
+                    """.formatted(i, i));
+            write(root, "b/User" + i + ".java", """
+                    package b;
+
+                    import a.Base%d;
+
+                    public class User%d {
+                        int x() {
+                            return new Base%d().getX() + q.Util.foo();
+                        }
+                    }
+                    """.formatted(i, i, i));
+        }
+        long partitions = partitions();
+        assertTrue(compile(root, "single"));
+        assertEquals(partitions, partitions());
+        assertTrue(compile(root, "partitioned", "--compile-threads", "2"));
+        assertEquals(partitions + 1, partitions());
+
+        List<Path> classes = classesOf(root.resolve("single"));
+        assertEquals(142, classes.size());
+        assertEquals(classes, classesOf(root.resolve("partitioned")));
+        for (Path classFile : classes) {
+            assertArrayEquals(classFile.toString(),
+                    Files.readAllBytes(root.resolve("single").resolve(classFile)),
+                    Files.readAllBytes(root.resolve("partitioned").resolve(classFile)));
+        }
+    }
+
+    private static boolean compile(Path root, String outputDir, String... args) {
+        String[] allArgs = Stream.concat(Stream.of(args),
+                Stream.of("--project-dir", root.toString(), "-d", outputDir))
+                .toArray(String[]::new);
+        return PartitionedCompiler.instance(Options.parse(allArgs)).compile();
+    }
+
+    private static long partitions() {
+        return BuildMetrics.instance().getPhaseCounts().getOrDefault("partition", 0L);
+    }
+
+    private static List<Path> classesOf(Path dir) throws Exception {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            return paths.filter(Files::isRegularFile).map(dir::relativize).sorted().toList();
+        }
+    }
+
+    private static void write(Path root, String name, String content) throws Exception {
+        Path source = root.resolve("src/main/java").resolve(name);
+        Files.createDirectories(source.getParent());
+        Files.writeString(source, content);
+    }
+
+}
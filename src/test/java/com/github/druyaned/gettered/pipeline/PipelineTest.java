@@ -0,0 +1,134 @@
+package com.github.druyaned.gettered.pipeline;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import com.github.druyaned.gettered.Compiler;
+import com.github.druyaned.gettered.Options;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import javax.tools.JavaFileObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests of the {@link Pipeline}.
+ *
+ * @author druyaned
+ */
+public class PipelineTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test(timeout = 60_000)
+    public void shouldAssembleAllSourcesSortedByUris() throws Exception {
+        Path root = folder.getRoot().toPath();
+        List<String> uris = new ArrayList<>();
+        for (int i = 0; i < 150; ++i) { // several batches of both kinds for each parser
+            Path source = i % 2 == 0
+                    ? write(root, "b/G" + i + ".java", gettered("b", "G" + i))
+                    : write(root, "a/P" + i + ".java", "package a;\n\nclass P" + i + " {}\n");
+            uris.add(source.toUri().toString());
+        }
+        uris.sort(null);
+        List<JavaFileObject> files = pipeline(root, "--parse-threads", "3").fileObjects();
+        assertEquals(uris, files.stream().map(file -> file.toUri().toString()).toList());
+    }
+
+    @Test(timeout = 60_000)
+    public void shouldEndStreamWithoutSources() throws Exception {
+        Path root = folder.getRoot().toPath();
+        Files.createDirectories(root.resolve("src/main/java"));
+        assertEquals(List.of(), pipeline(root, "--parse-threads", "4").fileObjects());
+        write(root, "p/Only.java", gettered("p", "Only")); // fewer batches than parsers
+        assertEquals(1, pipeline(root, "--parse-threads", "4").fileObjects().size());
+    }
+
+    @Test
+    public void shouldRethrowFailureOfStage() throws Exception {
+        IllegalStateException failure = new IllegalStateException("the stage failed");
+        List<Future<?>> stages = List.of(new CompletableFuture<Void>(),
+                CompletableFuture.failedFuture(failure));
+        try {
+            Pipeline.checkFailures(stages);
+            fail("the failure is lost");
+        } catch (IllegalStateException exc) {
+            assertSame(failure, exc);
+        }
+        IOException checked = new IOException("the disk failed");
+        try {
+            Pipeline.checkFailures(List.of(CompletableFuture.failedFuture(checked)));
+            fail("the failure is lost");
+        } catch (IllegalStateException exc) {
+            assertSame(checked, exc.getCause());
+        }
+        Pipeline.checkFailures(List.of(new CompletableFuture<Void>(),
+                CompletableFuture.completedFuture(null))); // still running or succeeded
+    }
+
+    @Test
+    public void shouldWriteTheSameClassesAsDefaultBuild() throws Exception {
+        Path root = folder.getRoot().toPath();
+        for (int i = 0; i < 70; ++i) {
+            write(root, "p/G" + i + ".java", gettered("p", "G" + i));
+        }
+        write(root, "p/Plain.java", "package p;\n\nclass Plain {\n"
+                + "    int x(G0 g) {\n        return g.getX();\n    }\n}\n");
+        assertTrue(Compiler.run(Options.parse(new String[] {
+            "--project-dir", root.toString(), "-d", "default"})));
+        assertTrue(pipeline(root, "--parse-threads", "2", "-d", "pipelined").compile());
+        List<Path> classes = classesOf(root.resolve("default"));
+        assertEquals(71, classes.size());
+        assertEquals(classes, classesOf(root.resolve("pipelined")));
+        for (Path classFile : classes) {
+            assertArrayEquals(classFile.toString(),
+                    Files.readAllBytes(root.resolve("default").resolve(classFile)),
+                    Files.readAllBytes(root.resolve("pipelined").resolve(classFile)));
+        }
+    }
+
+//-Private-methods----------------------------------------------------------------------------------
+
+    private static Pipeline pipeline(Path root, String... args) {
+        String[] allArgs = Stream.concat(Stream.of(args),
+                Stream.of("--pipeline", "--project-dir", root.toString()))
+                .toArray(String[]::new);
+        return Pipeline.instance(Options.parse(allArgs));
+    }
+
+    private static String gettered(String pkg, String name) {
+        return """
+                package %s;
+
+                import com.github.druyaned.gettered.Gettered;
+
+                @Gettered
+                public class %s {
+                    private int x;
+                }
+                """.formatted(pkg, name);
+    }
+
+    private static List<Path> classesOf(Path dir) throws Exception {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            return paths.filter(Files::isRegularFile).map(dir::relativize).sorted().toList();
+        }
+    }
+
+    private static Path write(Path root, String name, String content) throws Exception {
+        Path source = root.resolve("src/main/java").resolve(name);
+        Files.createDirectories(source.getParent());
+        return Files.writeString(source, content);
+    }
+
+}
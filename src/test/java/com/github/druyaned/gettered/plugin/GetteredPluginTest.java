@@ -0,0 +1,73 @@
+package com.github.druyaned.gettered.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import com.sun.source.util.JavacTask;
+import java.io.File;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.List;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests of the {@link GetteredPlugin}.
+ *
+ * @author druyaned
+ */
+public class GetteredPluginTest {
+
+    private static final String SOURCE = """
+            package p;
+
+            import com.github.druyaned.gettered.Gettered;
+
+            @Gettered
+            public class Point {
+                private final int x = 3;
+                private String name = "point";
+
+                public String getName() {
+                    return "named " + name;
+                }
+            }
+            """;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldAddMissedGettersOnly() throws Exception {
+        File outputDir = folder.newFolder();
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        JavaFileObject source = new SimpleJavaFileObject(
+                URI.create("string:///p/Point.java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return SOURCE;
+            }
+        };
+        List<String> options = Arrays.asList("-d", outputDir.toString());
+        JavacTask task = (JavacTask)compiler
+                .getTask(null, null, null, options, null, List.of(source));
+        GetteredPlugin.register(task);
+        assertTrue(task.call());
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {outputDir.toURI().toURL()})) {
+            Class<?> pointClass = loader.loadClass("p.Point");
+            Object point = pointClass.getConstructor().newInstance();
+            Method getX = pointClass.getMethod("getX");
+            assertEquals(int.class, getX.getReturnType());
+            assertEquals(3, getX.invoke(point));
+            assertEquals("named point", pointClass.getMethod("getName").invoke(point));
+        }
+    }
+
+}
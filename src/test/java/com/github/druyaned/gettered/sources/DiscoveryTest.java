@@ -0,0 +1,82 @@
+package com.github.druyaned.gettered.sources;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests of the {@link Discovery} and the {@link SourceFilter}.
+ *
+ * @author druyaned
+ */
+public class DiscoveryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldReturnSourcesByRootsAndThenByPaths() throws Exception {
+        Path first = folder.newFolder("first").toPath();
+        Path second = folder.newFolder("second").toPath();
+        Path b = touch(first, "p/B.java");
+        Path a = touch(first, "p/A.java");
+        Path c = touch(first, "C.java");
+        Path z = touch(second, "a/Z.java");
+        touch(second, "a/notes.txt");
+        Path missing = folder.getRoot().toPath().resolve("missing");
+        assertEquals(List.of(c, a, b, z),
+                Discovery.sources(List.of(first, missing, second), SourceFilter.DEFAULT));
+    }
+
+    @Test
+    public void shouldIncludeAndExcludeByGlobs() throws Exception {
+        Path root = folder.getRoot().toPath();
+        Path point = touch(root, "p/Point.java");
+        touch(root, "p/PointTest.java");
+        touch(root, "p/generated/Point.java");
+        touch(root, "p/generated/deep/Line.java");
+        Path template = touch(root, "p/Point.jtemplate");
+        SourceFilter filter = SourceFilter.of(List.of("**.java", "**.jtemplate"),
+                List.of("**Test.java", "**/generated/**"));
+        assertEquals(List.of(point, template), Discovery.sources(List.of(root), filter));
+    }
+
+    @Test
+    public void shouldPruneDirectoriesExcludedWithEverythingUnderThem() {
+        SourceFilter filter = SourceFilter.of(List.of(),
+                List.of("**/generated/**", "build", "**/*Test.java"));
+        assertTrue(filter.excludes(Path.of("p", "generated")));
+        assertTrue(filter.excludes(Path.of("p", "generated", "deep")));
+        assertTrue(filter.excludes(Path.of("build")));
+        assertFalse(filter.excludes(Path.of("p")));
+        assertFalse(filter.excludes(Path.of("p", "generation")));
+    }
+
+    @Test
+    public void shouldTakeLinkedFilesAndSkipLinkedDirectories() throws Exception {
+        Path root = folder.newFolder("root").toPath();
+        Path outside = folder.newFolder("outside").toPath();
+        Path target = touch(outside, "q/Linked.java");
+        Path link = Files.createSymbolicLink(root.resolve("Linked.java"), target);
+        Files.createSymbolicLink(root.resolve("q"), target.getParent());
+        Files.createSymbolicLink(root.resolve("cycle"), root); // never walked
+        Path plain = touch(root, "Plain.java");
+        assertEquals(List.of(link, plain),
+                Discovery.sources(List.of(root), SourceFilter.DEFAULT));
+    }
+
+//-Private-methods----------------------------------------------------------------------------------
+
+    private static Path touch(Path root, String name) throws Exception {
+        Path file = root.resolve(name);
+        Files.createDirectories(file.getParent());
+        return Files.writeString(file, "class " + file.getFileName() + " {}\n");
+    }
+
+}
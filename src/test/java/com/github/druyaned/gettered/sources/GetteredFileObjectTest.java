@@ -0,0 +1,101 @@
+package com.github.druyaned.gettered.sources;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import com.github.druyaned.gettered.Compiler;
+import com.github.druyaned.gettered.Options;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests of the {@link GetteredFileObject}.
+ *
+ * @author druyaned
+ */
+public class GetteredFileObjectTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void contentShouldBeRewrittenLazilyOnceAndEncodedByCharset() throws Exception {
+        Path source = folder.getRoot().toPath().resolve("Menu.java");
+        Files.writeString(source, """
+                package p;
+
+                @Gettered
+                public class Menu {
+                    private String menu = "crème brûlée";
+                }
+                """, StandardCharsets.UTF_8);
+        List<UnitToRewrite> unitsToRewrite = Searcher.instance()
+                .unitsToRewriteIn(Parser.getCompilationUnits(List.of(source)));
+        AtomicInteger rewrites = new AtomicInteger();
+        GetteredFileObject fileObject = new GetteredFileObject(unitsToRewrite.get(0), u -> {
+            rewrites.incrementAndGet();
+            return new Rewriter(u);
+        }, StandardCharsets.UTF_8);
+        assertEquals(0, rewrites.get());
+        String content = fileObject.getCharContent(true).toString();
+        byte[] bytes;
+        try (InputStream in = fileObject.openInputStream()) {
+            bytes = in.readAllBytes();
+        }
+        assertEquals(1, rewrites.get());
+        assertArrayEquals(content.getBytes(StandardCharsets.UTF_8), bytes);
+        assertEquals(content, new Rewriter(unitsToRewrite.get(0)).getGetteredContent());
+    }
+
+    @Test
+    public void charContentShouldBeDecodedFromKeptBytes() throws Exception {
+        Path source = folder.getRoot().toPath().resolve("Point.java");
+        Files.writeString(source, "package p;\n\n@Gettered\npublic class Point {\n"
+                + "    private int x;\n}\n");
+        List<UnitToRewrite> unitsToRewrite = Searcher.instance()
+                .unitsToRewriteIn(Parser.getCompilationUnits(List.of(source)));
+        GetteredFileObject fileObject = new GetteredFileObject(unitsToRewrite.get(0));
+        String content = fileObject.getCharContent(true).toString();
+        assertTrue(content.contains("public int getX()"));
+        assertEquals(content, fileObject.getCharContent(false).toString());
+        assertEquals(content, new String(fileObject.openInputStream().readAllBytes(),
+                fileObject.getCharset()));
+    }
+
+    @Test
+    public void sourcesShouldBeReadByEncodingOption() throws Exception {
+        Path root = folder.getRoot().toPath();
+        Path source = root.resolve(Path.of("src", "main", "java", "p", "Menu.java"));
+        Files.createDirectories(source.getParent());
+        Files.writeString(source, """
+                package p;
+
+                import com.github.druyaned.gettered.Gettered;
+
+                @Gettered
+                public class Menu {
+                    private String menu = "crème brûlée";
+                }
+                """, StandardCharsets.ISO_8859_1);
+        for (String mode : List.of("--splice", "--pipeline", "--plugin")) {
+            assertTrue(mode, Compiler.run(Options.parse(new String[] {mode,
+                    "--encoding", "ISO-8859-1", "--project-dir", root.toString()})));
+            URL classes = root.resolve(Path.of("target", "classes")).toUri().toURL();
+            try (URLClassLoader loader = new URLClassLoader(new URL[] {classes}, null)) {
+                Class<?> menu = loader.loadClass("p.Menu");
+                Object instance = menu.getConstructor().newInstance();
+                assertEquals(mode, "crème brûlée", menu.getMethod("getMenu").invoke(instance));
+            }
+        }
+    }
+
+}
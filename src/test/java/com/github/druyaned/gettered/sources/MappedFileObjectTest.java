@@ -0,0 +1,58 @@
+package com.github.druyaned.gettered.sources;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import com.github.druyaned.gettered.Compiler;
+import com.sun.source.tree.CompilationUnitTree;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import javax.tools.JavaFileObject;
+import javax.tools.ToolProvider;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests of the {@link MappedFileObject}.
+ *
+ * @author druyaned
+ */
+public class MappedFileObjectTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldCompileParsedContentWithoutReadingAgain() throws Exception {
+        Path root = folder.getRoot().toPath();
+        Path source = Files.writeString(root.resolve("Plain.java"),
+                "public class Plain { int size = 1; }\n");
+        CompilationUnitTree compUnit = Parser.getCompilationUnits(List.of(source))
+                .iterator().next();
+        JavaFileObject file = compUnit.getSourceFile(); // wrapped by javac
+        assertEquals(source.toUri(), file.toUri());
+        Files.writeString(source, "not java at all");
+
+        Path outputDir = Files.createDirectories(root.resolve("classes"));
+        assertTrue(Compiler.compile(List.of(file), Compiler.options(outputDir)));
+        assertTrue(Files.exists(outputDir.resolve("Plain.class")));
+    }
+
+    @Test
+    public void shouldReadAgainAfterRelease() throws Exception {
+        Path root = folder.getRoot().toPath();
+        Path source = Files.writeString(root.resolve("Plain.java"), "class Plain {}\n");
+        JavaFileObject origin = ToolProvider.getSystemJavaCompiler()
+                .getStandardFileManager(null, null, null)
+                .getJavaFileObjects(source.toFile()).iterator().next();
+        MappedFileObject file = new MappedFileObject(origin, source,
+                GetteredFileObject.DEFAULT_CHARSET);
+        assertEquals("class Plain {}\n", file.getCharContent(false).toString());
+        Files.writeString(source, "class Plain { int size; }\n");
+        assertEquals("class Plain {}\n", file.getCharContent(false).toString()); // retained
+        MappedFileObject.release(List.of(file));
+        assertEquals("class Plain { int size; }\n", file.getCharContent(false).toString());
+    }
+
+}
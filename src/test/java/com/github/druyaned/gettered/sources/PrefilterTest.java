@@ -0,0 +1,37 @@
+package com.github.druyaned.gettered.sources;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+
+/**
+ * Tests of the {@link Prefilter}.
+ *
+ * @author druyaned
+ */
+public class PrefilterTest {
+
+    @Test
+    public void shouldFindAnnotationInCode() {
+        assertTrue(containsToken("@Gettered\npublic class A {}"));
+        assertTrue(containsToken("@com.github.druyaned.gettered.Gettered class A {}"));
+        assertTrue(containsToken("/* Gettered */ @ Gettered class A {}"));
+    }
+
+    @Test
+    public void shouldSkipCommentsLiteralsAndOtherIdentifiers() {
+        assertFalse(containsToken("// @Gettered\nclass A {}"));
+        assertFalse(containsToken("/** @Gettered */ class A {}"));
+        assertFalse(containsToken("class A { String s = \"@Gettered \\\" Gettered\"; }"));
+        assertFalse(containsToken("class A { String s = \"\"\"\n Gettered \\\"\"\" \"\"\"; }"));
+        assertFalse(containsToken("class A { char c = '\"'; } // Gettered"));
+        assertFalse(containsToken("@NotGettered @Getteredness class A {}"));
+    }
+
+    private static boolean containsToken(String source) {
+        return Prefilter.containsToken(ByteBuffer.wrap(source.getBytes(StandardCharsets.UTF_8)));
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.github.druyaned.gettered.sources;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import com.sun.source.tree.CompilationUnitTree;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests of the {@link Rewriter}.
+ *
+ * @author druyaned
+ */
+public class RewriterTest {
+
+    private static final String SOURCE = """
+            package p;
+
+            import com.github.druyaned.gettered.Gettered;
+
+            /** Kept javadoc. */
+            @Gettered
+            public class Point {
+                private int x; // kept comment
+
+                static class Nested {
+                    int y;
+                }
+            }
+            """;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void splicedShouldKeepOriginalContent() throws Exception {
+        Path source = folder.getRoot().toPath().resolve("Point.java");
+        Files.writeString(source, SOURCE);
+        Iterable<? extends CompilationUnitTree> compUnits = Parser
+                .getCompilationUnits(List.of(source));
+        List<UnitToRewrite> unitsToRewrite = Searcher.instance().unitsToRewriteIn(compUnits);
+        assertEquals(1, unitsToRewrite.size());
+        Rewriter rewriter = Rewriter.spliced(unitsToRewrite.get(0), Parser.sourcePositions());
+        int brace = SOURCE.lastIndexOf('}');
+        String expected = SOURCE.substring(0, brace)
+                + "\n\n    public int getX() {\n        return x;\n    }\n"
+                + SOURCE.substring(brace);
+        assertEquals(expected, rewriter.getGetteredContent());
+    }
+
+    @Test
+    public void descriptorShouldInsertGettersLikeSpliced() throws Exception {
+        Path source = folder.getRoot().toPath().resolve("Point.java");
+        Files.writeString(source, SOURCE.replace("int x;", "int x;\n    private String name;"));
+        List<UnitToRewrite> unitsToRewrite = Searcher.instance()
+                .unitsToRewriteIn(Parser.getCompilationUnits(List.of(source)));
+        String spliced = Rewriter.spliced(unitsToRewrite.get(0), Parser.sourcePositions())
+                .getGetteredContent();
+        RewriteDescriptor descriptor = RewriteDescriptor
+                .of(unitsToRewrite.get(0), Parser.sourcePositions());
+        assertEquals(2, descriptor.getGetterCount());
+        assertEquals(spliced, new String(descriptor.content(GetteredFileObject.DEFAULT_CHARSET),
+                GetteredFileObject.DEFAULT_CHARSET));
+    }
+
+    @Test
+    public void printedShouldKeepSemicolonsOfLocalVariables() throws Exception {
+        Path source = folder.getRoot().toPath().resolve("Sum.java");
+        Files.writeString(source, """
+                package p;
+
+                @Gettered
+                public class Sum {
+                    private int x;
+
+                    public int twice() {
+                        int y = x;
+                        return x + y;
+                    }
+                }
+                """);
+        List<UnitToRewrite> unitsToRewrite = Searcher.instance()
+                .unitsToRewriteIn(Parser.getCompilationUnits(List.of(source)));
+        String content = new Rewriter(unitsToRewrite.get(0)).getGetteredContent();
+        assertTrue(content, content.contains("int y = x;\n"));
+    }
+
+}
@@ -0,0 +1,119 @@
+package com.github.druyaned.gettered.watch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import com.github.druyaned.gettered.Options;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests of the {@link Watcher}.
+ *
+ * @author druyaned
+ */
+public class WatcherTest {
+
+    private static final long TIMEOUT_MILLIS = 30_000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldRebuildOnceAfterBurstOfChanges() throws Exception {
+        Path root = folder.getRoot().toPath();
+        Path source = root.resolve("src/main/java/p/Point.java");
+        Files.createDirectories(source.getParent());
+        Files.writeString(source, point("x"));
+        Watcher watcher = Watcher.instance(Options.parse(new String[] {
+            "--watch", "--project-dir", root.toString()}));
+        Thread thread = new Thread(watcher::run, "gettered-watcher");
+        thread.start();
+        try {
+            awaitTrue(() -> watcher.getBuilds() == 1);
+            Files.writeString(source, point("y")); // a save in several events
+            Files.writeString(source, point("z"));
+            awaitTrue(() -> watcher.getBuilds() == 2);
+            Thread.sleep(10 * Watcher.DEBOUNCE_MILLIS);
+            assertEquals(2, watcher.getBuilds());
+            Path classes = root.resolve("target/classes");
+            try (URLClassLoader loader = new URLClassLoader(
+                    new URL[] {classes.toUri().toURL()}, null)) {
+                loader.loadClass("p.Point").getMethod("getZ");
+            }
+        } finally {
+            thread.interrupt();
+            thread.join(TIMEOUT_MILLIS);
+        }
+    }
+
+    @Test
+    public void shouldKeepWatchingAfterBuildError() throws Exception {
+        Path root = folder.getRoot().toPath();
+        Path source = root.resolve("src/main/java/p/Point.java");
+        Files.createDirectories(source.getParent());
+        Files.writeString(source, point("x"));
+        Watcher watcher = Watcher.instance(Options.parse(new String[] {
+            "--watch", "--project-dir", root.toString()}));
+        Thread thread = new Thread(watcher::run, "gettered-watcher");
+        thread.start();
+        try {
+            awaitTrue(() -> watcher.getBuilds() == 1);
+            Path classes = root.resolve("target/classes");
+            deleteTree(classes);
+            Files.writeString(classes, "not a directory"); // the build throws
+            Files.writeString(source, point("y"));
+            awaitTrue(() -> watcher.getBuilds() == 2);
+            assertTrue(thread.isAlive());
+            Files.delete(classes);
+            Files.writeString(source, point("z"));
+            awaitTrue(() -> watcher.getBuilds() == 3);
+            try (URLClassLoader loader = new URLClassLoader(
+                    new URL[] {classes.toUri().toURL()}, null)) {
+                loader.loadClass("p.Point").getMethod("getZ");
+            }
+        } finally {
+            thread.interrupt();
+            thread.join(TIMEOUT_MILLIS);
+        }
+    }
+
+//-Private-methods----------------------------------------------------------------------------------
+
+    private static String point(String field) {
+        return """
+                package p;
+
+                import com.github.druyaned.gettered.Gettered;
+
+                @Gettered
+                public class Point {
+                    private int %s;
+                }
+                """.formatted(field);
+    }
+
+    private static void deleteTree(Path dir) throws Exception {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.github.druyaned.gettered.workspace;
+
+import static org.junit.Assert.assertEquals;
+import com.github.druyaned.gettered.workspace.Workspace.Module;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests of the {@link Workspace}.
+ *
+ * @author druyaned
+ */
+public class WorkspaceTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void modulesShouldGoAfterTheirDependencies() throws Exception {
+        Workspace workspace = Workspace.read(write("""
+                # name  directory  dependencies...
+                app     app          api
+                api     modules/api  core
+                core    core
+                tools   tools
+                """));
+        List<Module> modules = workspace.getModules();
+        assertEquals(List.of("core", "api", "app", "tools"),
+                modules.stream().map(Module::getName).toList());
+        assertEquals(folder.getRoot().toPath().resolve("modules/api"), modules.get(1).getDir());
+        assertEquals(List.of("core", "api"), workspace.dependenciesOf(modules.get(2)).stream()
+                .map(Module::getName).toList());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectCycles() throws Exception {
+        Workspace.read(write("a a b\nb b a\n"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnknownModules() throws Exception {
+        Workspace.read(write("a a b\n"));
+    }
+
+    private Path write(String content) throws Exception {
+        return Files.writeString(folder.newFile().toPath(), content);
+    }
+
+}